@@ -0,0 +1,164 @@
+package com.eipresso.analytics.aggregation;
+
+import java.io.Serializable;
+
+/**
+ * Log-Linear Histogram
+ *
+ * HDR-style histogram for non-negative long values (amounts in cents,
+ * latencies in milliseconds). Values below 64 are counted exactly; above that
+ * each power of two is split into 32 linear sub-buckets, bounding the relative
+ * error of any percentile to about 3%. Rows are allocated only for magnitudes
+ * that are actually seen, so memory is fixed by the value range rather than by
+ * the number of recorded values.
+ *
+ * Histograms with the same layout merge by adding bucket counts, which lets
+ * windows built on different nodes be combined without losing precision.
+ *
+ * {@link #copy()} shares the rows with the original and clones a row only
+ * when either side first changes it, so copying costs the same whatever the
+ * histogram holds.
+ */
+public class LogLinearHistogram implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;          // 32 per magnitude
+    private static final int EXACT_LIMIT = SUB_BUCKETS << 1;              // values 0..63 are exact
+    private static final int MAGNITUDES = 64 - SUB_BUCKET_BITS;
+
+    private final long[][] counts;
+    // Bit m set: row m is shared with a copy and must be cloned before it changes
+    private transient long sharedRows;
+    private long totalCount;
+    private long minValue = Long.MAX_VALUE;
+    private long maxValue = Long.MIN_VALUE;
+
+    public LogLinearHistogram() {
+        this.counts = new long[MAGNITUDES][];
+    }
+
+    private LogLinearHistogram(LogLinearHistogram source) {
+        this.counts = source.counts.clone();
+        long allocated = 0L;
+        for (int m = 0; m < MAGNITUDES; m++) {
+            if (counts[m] != null) {
+                allocated |= 1L << m;
+            }
+        }
+        this.sharedRows = allocated;
+        source.sharedRows |= allocated;
+        this.totalCount = source.totalCount;
+        this.minValue = source.minValue;
+        this.maxValue = source.maxValue;
+    }
+
+    public LogLinearHistogram copy() {
+        return new LogLinearHistogram(this);
+    }
+
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        int magnitude = magnitudeOf(v);
+        int index = indexOf(v, magnitude);
+        long[] row = writableRow(magnitude);
+        if (row == null) {
+            row = new long[magnitude == 0 ? EXACT_LIMIT : SUB_BUCKETS];
+            counts[magnitude] = row;
+        }
+        row[index]++;
+        totalCount++;
+        minValue = Math.min(minValue, v);
+        maxValue = Math.max(maxValue, v);
+    }
+
+    public void merge(LogLinearHistogram other) {
+        if (other == null || other.totalCount == 0) {
+            return;
+        }
+        for (int m = 0; m < MAGNITUDES; m++) {
+            long[] source = other.counts[m];
+            if (source == null) {
+                continue;
+            }
+            long[] row = writableRow(m);
+            if (row == null) {
+                counts[m] = source.clone();
+                continue;
+            }
+            for (int i = 0; i < source.length; i++) {
+                row[i] += source[i];
+            }
+        }
+        totalCount += other.totalCount;
+        minValue = Math.min(minValue, other.minValue);
+        maxValue = Math.max(maxValue, other.maxValue);
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * Value at the given percentile (0-100], or 0 when nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0L;
+        }
+        double p = Math.min(Math.max(percentile, 0.0), 100.0);
+        long targetRank = Math.max(1L, (long) Math.ceil(p / 100.0 * totalCount));
+        if (targetRank >= totalCount) {
+            return maxValue;
+        }
+        long seen = 0L;
+        for (int m = 0; m < MAGNITUDES; m++) {
+            long[] row = counts[m];
+            if (row == null) {
+                continue;
+            }
+            for (int i = 0; i < row.length; i++) {
+                seen += row[i];
+                if (seen >= targetRank) {
+                    return Math.min(Math.max(representativeValue(m, i), minValue), maxValue);
+                }
+            }
+        }
+        return maxValue;
+    }
+
+    private long[] writableRow(int magnitude) {
+        long[] row = counts[magnitude];
+        long bit = 1L << magnitude;
+        if ((sharedRows & bit) != 0) {
+            row = row.clone();
+            counts[magnitude] = row;
+            sharedRows &= ~bit;
+        }
+        return row;
+    }
+
+    private static int magnitudeOf(long v) {
+        if (v < EXACT_LIMIT) {
+            return 0;
+        }
+        int highestBit = 63 - Long.numberOfLeadingZeros(v);
+        return highestBit - SUB_BUCKET_BITS;
+    }
+
+    private static int indexOf(long v, int magnitude) {
+        if (magnitude == 0) {
+            return (int) v;
+        }
+        return (int) (v >>> magnitude) - SUB_BUCKETS;
+    }
+
+    private static long representativeValue(int magnitude, int index) {
+        if (magnitude == 0) {
+            return index;
+        }
+        long lowerBound = ((long) (SUB_BUCKETS + index)) << magnitude;
+        return lowerBound + ((1L << magnitude) >>> 1);
+    }
+}
@@ -0,0 +1,160 @@
+package com.eipresso.analytics.aggregation;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Window Accumulator
+ *
+ * Compact running statistics for one open aggregation window. Each event is
+ * folded in as it arrives, so an open window costs the same memory whether it
+ * has seen one event or a million. Amounts are kept in cents as longs so sums
+ * stay exact; latency and amount distributions go into
+ * {@link LogLinearHistogram}s.
+ *
+ * Accumulators are serializable and {@link #merge(WindowAccumulator) mergeable},
+ * so partial windows from different nodes combine into the same result as if
+ * one node had seen every event.
+ */
+public class WindowAccumulator implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long eventCount;
+
+    private long amountCount;
+    private long amountSumCents;
+    private long amountMinCents = Long.MAX_VALUE;
+    private long amountMaxCents = Long.MIN_VALUE;
+    private LogLinearHistogram amountHistogram = new LogLinearHistogram();
+
+    private long latencyCount;
+    private long latencySumMillis;
+    private LogLinearHistogram latencyHistogram = new LogLinearHistogram();
+
+    private long firstEventAtMillis = Long.MAX_VALUE;
+    private long lastEventAtMillis = Long.MIN_VALUE;
+
+    /**
+     * Fold one event into the window
+     *
+     * @param amountCents    event amount in cents, or null when the event carries none
+     * @param latencyMillis  event latency in milliseconds, or null when unknown
+     * @param eventAtMillis  epoch millis the event was observed
+     */
+    public void add(Long amountCents, Long latencyMillis, long eventAtMillis) {
+        eventCount++;
+        firstEventAtMillis = Math.min(firstEventAtMillis, eventAtMillis);
+        lastEventAtMillis = Math.max(lastEventAtMillis, eventAtMillis);
+
+        if (amountCents != null) {
+            long cents = amountCents;
+            amountCount++;
+            amountSumCents = Math.addExact(amountSumCents, cents);
+            amountMinCents = Math.min(amountMinCents, cents);
+            amountMaxCents = Math.max(amountMaxCents, cents);
+            amountHistogram.record(cents);
+        }
+
+        if (latencyMillis != null) {
+            long latency = Math.max(0L, latencyMillis);
+            latencyCount++;
+            latencySumMillis += latency;
+            latencyHistogram.record(latency);
+        }
+    }
+
+    public void merge(WindowAccumulator other) {
+        if (other == null || other.eventCount == 0) {
+            return;
+        }
+        eventCount += other.eventCount;
+        firstEventAtMillis = Math.min(firstEventAtMillis, other.firstEventAtMillis);
+        lastEventAtMillis = Math.max(lastEventAtMillis, other.lastEventAtMillis);
+
+        amountCount += other.amountCount;
+        amountSumCents = Math.addExact(amountSumCents, other.amountSumCents);
+        amountMinCents = Math.min(amountMinCents, other.amountMinCents);
+        amountMaxCents = Math.max(amountMaxCents, other.amountMaxCents);
+        amountHistogram.merge(other.amountHistogram);
+
+        latencyCount += other.latencyCount;
+        latencySumMillis += other.latencySumMillis;
+        latencyHistogram.merge(other.latencyHistogram);
+    }
+
+    /**
+     * An independent accumulator with the same state; the histograms are copied on write, so this does not
+     * grow with the number of events seen
+     */
+    public WindowAccumulator copy() {
+        WindowAccumulator copy = new WindowAccumulator();
+        copy.eventCount = eventCount;
+        copy.amountCount = amountCount;
+        copy.amountSumCents = amountSumCents;
+        copy.amountMinCents = amountMinCents;
+        copy.amountMaxCents = amountMaxCents;
+        copy.amountHistogram = amountHistogram.copy();
+        copy.latencyCount = latencyCount;
+        copy.latencySumMillis = latencySumMillis;
+        copy.latencyHistogram = latencyHistogram.copy();
+        copy.firstEventAtMillis = firstEventAtMillis;
+        copy.lastEventAtMillis = lastEventAtMillis;
+        return copy;
+    }
+
+    public long getEventCount() {
+        return eventCount;
+    }
+
+    public long getAmountSumCents() {
+        return amountSumCents;
+    }
+
+    public LogLinearHistogram getAmountHistogram() {
+        return amountHistogram;
+    }
+
+    public LogLinearHistogram getLatencyHistogram() {
+        return latencyHistogram;
+    }
+
+    /**
+     * Statistics snapshot for publishing the closed window
+     */
+    public Map<String, Object> toStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("eventCount", eventCount);
+        if (eventCount > 0) {
+            stats.put("firstEventAt", Instant.ofEpochMilli(firstEventAtMillis).toString());
+            stats.put("lastEventAt", Instant.ofEpochMilli(lastEventAtMillis).toString());
+        }
+
+        stats.put("amountCount", amountCount);
+        stats.put("amountSum", BigDecimal.valueOf(amountSumCents, 2));
+        if (amountCount > 0) {
+            stats.put("amountMin", BigDecimal.valueOf(amountMinCents, 2));
+            stats.put("amountMax", BigDecimal.valueOf(amountMaxCents, 2));
+            // Rounded to the cent rather than truncated by integer division
+            stats.put("amountAvg", BigDecimal.valueOf(amountSumCents, 2)
+                .divide(BigDecimal.valueOf(amountCount), 2, RoundingMode.HALF_UP));
+            stats.put("amountP50", BigDecimal.valueOf(amountHistogram.getValueAtPercentile(50), 2));
+            stats.put("amountP95", BigDecimal.valueOf(amountHistogram.getValueAtPercentile(95), 2));
+            stats.put("amountP99", BigDecimal.valueOf(amountHistogram.getValueAtPercentile(99), 2));
+        }
+
+        stats.put("latencyCount", latencyCount);
+        if (latencyCount > 0) {
+            stats.put("latencyAvgMs", (double) latencySumMillis / latencyCount);
+            stats.put("latencyMaxMs", latencyHistogram.getValueAtPercentile(100));
+            stats.put("latencyP50Ms", latencyHistogram.getValueAtPercentile(50));
+            stats.put("latencyP95Ms", latencyHistogram.getValueAtPercentile(95));
+            stats.put("latencyP99Ms", latencyHistogram.getValueAtPercentile(99));
+        }
+        return stats;
+    }
+}
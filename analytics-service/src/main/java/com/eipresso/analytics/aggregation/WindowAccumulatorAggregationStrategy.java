@@ -0,0 +1,103 @@
+package com.eipresso.analytics.aggregation;
+
+import com.eipresso.analytics.replay.StoredEvent;
+import org.apache.camel.AggregationStrategy;
+import org.apache.camel.Exchange;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+/**
+ * Incremental Aggregation Strategy for analytics windows
+ *
+ * Folds each arriving event into a {@link WindowAccumulator} held as the body
+ * of the aggregated exchange, instead of keeping every exchange of the window
+ * the way GroupedExchangeAggregationStrategy does. Only the latest exchange
+ * (whose correlation headers match the window) is kept alongside it.
+ *
+ * By default the old exchange's accumulator is updated in place, so a fold
+ * costs the same however many events the window has seen. Aggregators with
+ * {@code optimisticLocking()} must use {@link #forOptimisticLocking()}
+ * instead: the repository compares the old exchange against the stored window
+ * when saving (the Hazelcast one by its serialized form, the in-memory one
+ * hands every thread the same instance), so that exchange has to stay as it
+ * was read. That variant folds into a copy, which shares the histogram rows
+ * and clones only the row an event lands in.
+ *
+ * Amount is read from the {@code amount} header, falling back to an
+ * {@code amount} entry in a Map body. Latency is measured from the
+ * {@code eventTimestamp} or {@code aggregationTimestamp} header, given as
+ * epoch millis, a date-time or ISO-8601 text with or without an offset.
+ */
+public class WindowAccumulatorAggregationStrategy implements AggregationStrategy {
+
+    private final boolean copyOldWindow;
+
+    public WindowAccumulatorAggregationStrategy() {
+        this(false);
+    }
+
+    private WindowAccumulatorAggregationStrategy(boolean copyOldWindow) {
+        this.copyOldWindow = copyOldWindow;
+    }
+
+    /**
+     * A strategy that leaves the old exchange untouched, for aggregators using optimistic locking
+     */
+    public static WindowAccumulatorAggregationStrategy forOptimisticLocking() {
+        return new WindowAccumulatorAggregationStrategy(true);
+    }
+
+    @Override
+    public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
+        long now = System.currentTimeMillis();
+
+        WindowAccumulator accumulator;
+        if (oldExchange != null && oldExchange.getIn().getBody() instanceof WindowAccumulator existing) {
+            accumulator = copyOldWindow ? existing.copy() : existing;
+        } else {
+            accumulator = new WindowAccumulator();
+        }
+
+        accumulator.add(amountCentsOf(newExchange), latencyMillisOf(newExchange, now), now);
+        newExchange.getIn().setBody(accumulator);
+        return newExchange;
+    }
+
+    static Long amountCentsOf(Exchange exchange) {
+        Object amount = exchange.getIn().getHeader("amount");
+        if (amount == null && exchange.getIn().getBody() instanceof Map<?, ?> body) {
+            amount = body.get("amount");
+        }
+        if (amount == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(amount.toString())
+                .movePointRight(2)
+                .setScale(0, RoundingMode.HALF_UP)
+                .longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    static Long latencyMillisOf(Exchange exchange, long now) {
+        Long eventAt = epochMillisOf(exchange.getIn().getHeader("eventTimestamp"));
+        if (eventAt == null) {
+            eventAt = epochMillisOf(exchange.getIn().getHeader("aggregationTimestamp"));
+        }
+        return eventAt != null ? now - eventAt : null;
+    }
+
+    private static Long epochMillisOf(Object timestamp) {
+        try {
+            return StoredEvent.epochMillisOf(timestamp);
+        } catch (DateTimeParseException e) {
+            // An unreadable timestamp only leaves the event out of the latency figures
+            return null;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.eipresso.analytics.config;
+
+import com.eipresso.clustering.config.HazelcastClusteringConfiguration;
+import com.hazelcast.core.HazelcastInstance;
+import org.apache.camel.processor.aggregate.MemoryAggregationRepository;
+import org.apache.camel.processor.aggregate.hazelcast.HazelcastAggregationRepository;
+import org.apache.camel.spi.AggregationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+/**
+ * Aggregation Repository Configuration
+ *
+ * Open aggregation windows live in Hazelcast maps shared by the Active-Active
+ * analytics cluster instead of each node's heap, so a node can restart (or a
+ * rolling deploy can pass through) without dropping in-flight windows. On
+ * startup the Camel aggregator reloads pending timeouts from the repository,
+ * and completed windows that were not confirmed are redelivered by the
+ * recovery task, then sent to the dead letter route after
+ * {@code analytics.aggregation.max-redeliveries} attempts.
+ *
+ * When no Hazelcast instance is configured (local development) the
+ * repositories fall back to in-memory ones.
+ */
+@Configuration
+@Import(HazelcastClusteringConfiguration.class)
+public class AggregationRepositoryConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(AggregationRepositoryConfiguration.class);
+
+    public static final String TIME_WINDOW_REPOSITORY = "analytics-aggregation-time-window";
+    public static final String CORRELATION_REPOSITORY = "analytics-aggregation-correlation";
+    public static final String DEAD_LETTER_URI = "direct:advanced-aggregator-dead-letter";
+
+    @Value("${analytics.aggregation.recovery-interval-ms:5000}")
+    private long recoveryIntervalMs;
+
+    @Value("${analytics.aggregation.max-redeliveries:3}")
+    private int maxRedeliveries;
+
+    @Bean
+    public AggregationRepository timeWindowAggregationRepository(ObjectProvider<HazelcastInstance> hazelcastInstance) {
+        return createRepository(TIME_WINDOW_REPOSITORY, hazelcastInstance.getIfAvailable());
+    }
+
+    @Bean
+    public AggregationRepository correlationAggregationRepository(ObjectProvider<HazelcastInstance> hazelcastInstance) {
+        return createRepository(CORRELATION_REPOSITORY, hazelcastInstance.getIfAvailable());
+    }
+
+    private AggregationRepository createRepository(String name, HazelcastInstance hazelcastInstance) {
+        if (hazelcastInstance == null) {
+            logger.warn("⚠️ No Hazelcast instance available - aggregation repository {} is in-memory only", name);
+            return new MemoryAggregationRepository(true);
+        }
+
+        HazelcastAggregationRepository repository = new HazelcastAggregationRepository(name, true, hazelcastInstance);
+        repository.setUseRecovery(true);
+        repository.setRecoveryInterval(recoveryIntervalMs);
+        repository.setMaximumRedeliveries(maxRedeliveries);
+        repository.setDeadLetterUri(DEAD_LETTER_URI);
+        repository.setAllowSerializedHeaders(true);
+        logger.info("🗄️ Aggregation repository {} backed by Hazelcast cluster {}",
+            name, hazelcastInstance.getConfig().getClusterName());
+        return repository;
+    }
+}
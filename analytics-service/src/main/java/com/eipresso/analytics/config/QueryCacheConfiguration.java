@@ -0,0 +1,79 @@
+package com.eipresso.analytics.config;
+
+import com.eipresso.analytics.querycache.QueryView;
+import com.eipresso.analytics.querycache.RedisQueryCache;
+import com.eipresso.analytics.querycache.TwoTierQueryCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Query Cache Configuration
+ *
+ * Builds the two-tier CQRS query cache (near cache in front of Redis) and
+ * subscribes it to the invalidation channel, so a write on any analytics
+ * node retires the affected views' near-cache entries on every node.
+ */
+@Configuration
+public class QueryCacheConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCacheConfiguration.class);
+
+    @Value("${analytics.query-cache.near.max-entries:10000}")
+    private long nearMaxEntries;
+
+    @Value("${analytics.query-cache.near.max-ttl-seconds:30}")
+    private long nearMaxTtlSeconds;
+
+    @Value("${analytics.query-cache.ttl-seconds.orders:60}")
+    private long ordersTtlSeconds;
+
+    @Value("${analytics.query-cache.ttl-seconds.users:300}")
+    private long usersTtlSeconds;
+
+    @Value("${analytics.query-cache.ttl-seconds.revenue:120}")
+    private long revenueTtlSeconds;
+
+    @Bean
+    public TwoTierQueryCache queryCache(StringRedisTemplate redisTemplate, ObjectMapper objectMapper) {
+        Map<QueryView, Duration> ttls = new EnumMap<>(QueryView.class);
+        ttls.put(QueryView.ORDERS, Duration.ofSeconds(ordersTtlSeconds));
+        ttls.put(QueryView.USERS, Duration.ofSeconds(usersTtlSeconds));
+        ttls.put(QueryView.REVENUE, Duration.ofSeconds(revenueTtlSeconds));
+        logger.info("🚀 Query cache: {} near entries (max {}s) in front of Redis, TTLs {}",
+            nearMaxEntries, nearMaxTtlSeconds, ttls);
+        return new TwoTierQueryCache(new RedisQueryCache(redisTemplate), objectMapper, ttls,
+            nearMaxEntries, Duration.ofSeconds(nearMaxTtlSeconds));
+    }
+
+    @Bean
+    public RedisMessageListenerContainer queryCacheInvalidationListener(RedisConnectionFactory connectionFactory,
+                                                                        TwoTierQueryCache queryCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            // Payload is <view>:<generation>
+            String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+            int separator = payload.lastIndexOf(':');
+            try {
+                queryCache.advanceGeneration(QueryView.fromCode(payload.substring(0, separator)),
+                    Long.parseLong(payload.substring(separator + 1)));
+            } catch (RuntimeException e) {
+                logger.warn("⚠️ Ignoring malformed query cache invalidation: {}", payload);
+            }
+        }, new ChannelTopic(RedisQueryCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
@@ -1,12 +1,32 @@
 package com.eipresso.analytics.controller;
 
+import com.eipresso.analytics.ingestion.IngestionChannel;
+import com.eipresso.analytics.metrics.MetricsWindow;
+import com.eipresso.analytics.metrics.SlidingWindowCounter;
+import com.eipresso.analytics.projection.AggregateProjection;
+import com.eipresso.analytics.projection.AggregateType;
+import com.eipresso.analytics.replay.ReplayCriteria;
+import com.eipresso.analytics.replay.ReplayJob;
+import com.eipresso.analytics.replay.StoredEvent;
+import com.eipresso.analytics.routes.CQRSRoute;
+import com.eipresso.analytics.service.BulkIndexingService;
+import com.eipresso.analytics.service.EventReplayService;
+import com.eipresso.analytics.service.IngestionService;
+import com.eipresso.analytics.service.ProjectionService;
+import com.eipresso.analytics.service.QueryCacheService;
+import com.eipresso.analytics.service.ReadModelService;
+import com.eipresso.analytics.service.StreamingMetricsService;
 import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
 import org.apache.camel.ProducerTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -33,6 +53,27 @@ public class AnalyticsController {
     @Autowired
     private CamelContext camelContext;
 
+    @Autowired
+    private StreamingMetricsService streamingMetrics;
+
+    @Autowired
+    private BulkIndexingService bulkIndexingService;
+
+    @Autowired
+    private EventReplayService eventReplayService;
+
+    @Autowired
+    private ProjectionService projectionService;
+
+    @Autowired
+    private ReadModelService readModelService;
+
+    @Autowired
+    private QueryCacheService queryCacheService;
+
+    @Autowired
+    private IngestionService ingestionService;
+
     /**
      * Event Sourcing Pattern Endpoints
      */
@@ -40,22 +81,15 @@ public class AnalyticsController {
     public ResponseEntity<Map<String, Object>> sourceEvent(@RequestBody Map<String, Object> eventData) {
         try {
             // Prepare event for Event Sourcing pattern
-            Map<String, Object> headers = new HashMap<>();
-            headers.put("eventType", eventData.get("eventType"));
-            headers.put("sourceService", eventData.get("sourceService"));
-            headers.put("userId", eventData.get("userId"));
-            headers.put("orderId", eventData.get("orderId"));
-            
-            // Send to Event Sourcing entry point
-            producerTemplate.sendBodyAndHeaders("direct:event-source-entry", eventData, headers);
+            Map<String, Object> headers = StoredEvent.sourcedHeadersOf(eventData);
             
             Map<String, Object> response = new HashMap<>();
-            response.put("status", "Event sourced successfully");
             response.put("eventType", eventData.get("eventType"));
             response.put("timestamp", LocalDateTime.now());
             response.put("pattern", "Event Sourcing");
             
-            return ResponseEntity.ok(response);
+            // Queue for, or send to, the Event Sourcing entry point
+            return ingest(IngestionChannel.EVENTS, eventData, headers, response, "Event sourced successfully");
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                 .body(Map.of("error", "Event sourcing failed: " + e.getMessage()));
@@ -64,13 +98,78 @@ public class AnalyticsController {
 
     @GetMapping("/events/replay/{correlationId}")
     public ResponseEntity<Map<String, Object>> replayEvents(@PathVariable String correlationId) {
-        Map<String, Object> response = new HashMap<>();
-        response.put("status", "Event replay initiated");
-        response.put("correlationId", correlationId);
-        response.put("pattern", "Event Sourcing - Replay");
-        response.put("timestamp", LocalDateTime.now());
-        
-        return ResponseEntity.ok(response);
+        ReplayJob job = eventReplayService.startReplay(ReplayCriteria.forCorrelationId(correlationId));
+        return ResponseEntity.accepted().body(replayResponse(job, "Event replay initiated"));
+    }
+
+    @PostMapping("/events/replay")
+    public ResponseEntity<Map<String, Object>> replayEventRange(@RequestBody Map<String, Object> replayRequest) {
+        try {
+            ReplayCriteria criteria = new ReplayCriteria(
+                (String) replayRequest.get("correlationId"),
+                StoredEvent.epochMillisOf(replayRequest.get("from")),
+                StoredEvent.epochMillisOf(replayRequest.get("to")));
+            ReplayJob job = eventReplayService.startReplay(criteria);
+            return ResponseEntity.accepted().body(replayResponse(job, "Event replay initiated"));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", "Invalid replay request: " + e.getMessage()));
+        }
+    }
+
+    @GetMapping("/events/replay/jobs/{replayId}")
+    public ResponseEntity<Map<String, Object>> getReplayProgress(@PathVariable String replayId) {
+        ReplayJob job = eventReplayService.getJob(replayId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(replayResponse(job, "Event replay " + job.getStatus().name().toLowerCase()));
+    }
+
+    @DeleteMapping("/events/replay/jobs/{replayId}")
+    public ResponseEntity<Map<String, Object>> cancelReplay(@PathVariable String replayId) {
+        ReplayJob job = eventReplayService.cancelReplay(replayId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.accepted().body(replayResponse(job, "Event replay cancellation requested"));
+    }
+
+    @GetMapping("/projections/{type}/{aggregateId}")
+    public ResponseEntity<Map<String, Object>> getProjection(@PathVariable String type,
+                                                             @PathVariable String aggregateId) {
+        try {
+            AggregateProjection projection = projectionService.get(AggregateType.fromCode(type), aggregateId);
+            if (projection == null) {
+                return ResponseEntity.notFound().build();
+            }
+            Map<String, Object> response = new HashMap<>(projection.toView());
+            response.put("pattern", "Event Sourcing - Projection");
+            response.put("timestamp", LocalDateTime.now());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/projections/{type}/{aggregateId}/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildProjection(@PathVariable String type,
+                                                                 @PathVariable String aggregateId) {
+        try {
+            ReplayJob job = projectionService.rebuild(AggregateType.fromCode(type), aggregateId);
+            return ResponseEntity.accepted().body(replayResponse(job, "Projection rebuild from latest snapshot initiated"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/projections/stats")
+    public ResponseEntity<Map<String, Object>> getProjectionStats() {
+        Map<String, Object> stats = new HashMap<>(projectionService.getStatistics());
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Event Sourcing - Projection Snapshots");
+
+        return ResponseEntity.ok(stats);
     }
 
     /**
@@ -84,16 +183,13 @@ public class AnalyticsController {
             headers.put("userId", commandData.get("userId"));
             headers.put("orderId", commandData.get("orderId"));
             
-            // Send to CQRS command entry point
-            producerTemplate.sendBodyAndHeaders("direct:cqrs-command-entry", commandData, headers);
-            
             Map<String, Object> response = new HashMap<>();
-            response.put("status", "Command processed successfully");
             response.put("commandType", commandData.get("commandType"));
             response.put("timestamp", LocalDateTime.now());
             response.put("pattern", "CQRS - Command");
             
-            return ResponseEntity.ok(response);
+            // Queue for, or send to, the CQRS command entry point
+            return ingest(IngestionChannel.COMMANDS, commandData, headers, response, "Command processed successfully");
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                 .body(Map.of("error", "Command processing failed: " + e.getMessage()));
@@ -104,24 +200,38 @@ public class AnalyticsController {
     public ResponseEntity<Map<String, Object>> processQuery(
             @RequestParam String queryType,
             @RequestParam(required = false) String userId,
-            @RequestParam(required = false) String orderId) {
+            @RequestParam(required = false) String orderId,
+            @RequestParam(required = false) String productId,
+            @RequestParam(required = false) Integer hours,
+            @RequestParam(required = false) Long maxStalenessMs) {
         try {
             Map<String, Object> headers = new HashMap<>();
             headers.put("queryType", queryType);
             headers.put("userId", userId);
             headers.put("orderId", orderId);
+            headers.put("productId", productId);
+            headers.put("hours", hours);
+            headers.put("maxStalenessMs", maxStalenessMs);
             
             Map<String, Object> queryBody = new HashMap<>();
             queryBody.put("queryType", queryType);
             queryBody.put("timestamp", LocalDateTime.now());
             
             // Send to CQRS query entry point
-            Object result = producerTemplate.requestBodyAndHeaders("direct:cqrs-query-entry", queryBody, headers);
+            Exchange reply = producerTemplate.request("direct:cqrs-query-entry", exchange -> {
+                exchange.getIn().setBody(queryBody);
+                exchange.getIn().getHeaders().putAll(headers);
+            });
+            if (reply.getException() != null) {
+                throw reply.getException();
+            }
             
             Map<String, Object> response = new HashMap<>();
             response.put("status", "Query processed successfully");
             response.put("queryType", queryType);
-            response.put("result", result);
+            response.put("result", reply.getMessage().getBody());
+            response.put("source", reply.getMessage().getHeader(CQRSRoute.READ_MODEL_SOURCE_HEADER));
+            response.put("cache", reply.getMessage().getHeader(CQRSRoute.QUERY_CACHE_HEADER));
             response.put("timestamp", LocalDateTime.now());
             response.put("pattern", "CQRS - Query");
             
@@ -132,6 +242,24 @@ public class AnalyticsController {
         }
     }
 
+    @GetMapping("/cqrs/cache/stats")
+    public ResponseEntity<Map<String, Object>> getQueryCacheStats() {
+        Map<String, Object> stats = new HashMap<>(queryCacheService.getStatistics());
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "CQRS - Two-Tier Query Cache");
+        
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/cqrs/read-models/staleness")
+    public ResponseEntity<Map<String, Object>> getReadModelStaleness() {
+        Map<String, Object> staleness = new HashMap<>(readModelService.getStaleness());
+        staleness.put("timestamp", LocalDateTime.now());
+        staleness.put("pattern", "CQRS - Materialized Read Models");
+        
+        return ResponseEntity.ok(staleness);
+    }
+
     /**
      * Streaming Pattern Endpoints
      */
@@ -142,16 +270,13 @@ public class AnalyticsController {
             headers.put("eventType", streamData.get("eventType"));
             headers.put("streamingMode", "REAL_TIME");
             
-            // Send to Streaming entry point
-            producerTemplate.sendBodyAndHeaders("direct:streaming-entry", streamData, headers);
-            
             Map<String, Object> response = new HashMap<>();
-            response.put("status", "Streaming started successfully");
             response.put("eventType", streamData.get("eventType"));
             response.put("timestamp", LocalDateTime.now());
             response.put("pattern", "Streaming");
             
-            return ResponseEntity.ok(response);
+            // Queue for, or send to, the Streaming entry point
+            return ingest(IngestionChannel.STREAMING, streamData, headers, response, "Streaming started successfully");
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                 .body(Map.of("error", "Streaming start failed: " + e.getMessage()));
@@ -160,17 +285,47 @@ public class AnalyticsController {
 
     @GetMapping("/streaming/live-metrics")
     public ResponseEntity<Map<String, Object>> getLiveMetrics() {
+        SlidingWindowCounter total = streamingMetrics.total();
+        
+        Map<String, Object> windows = new HashMap<>();
+        for (MetricsWindow window : MetricsWindow.values()) {
+            Map<String, Object> windowMetrics = new HashMap<>();
+            windowMetrics.put("eventCount", total.getWindowCount(window));
+            windowMetrics.put("eventsPerSecond", total.getRatePerSecond(window));
+            windows.put(window.getLabel(), windowMetrics);
+        }
+        
         Map<String, Object> liveMetrics = new HashMap<>();
-        liveMetrics.put("totalEvents", 1250); // Mock data
-        liveMetrics.put("eventsPerSecond", 25.5);
-        liveMetrics.put("systemThroughput", 1024.7);
-        liveMetrics.put("activeStreams", 8);
+        liveMetrics.put("totalEvents", total.getTotal());
+        liveMetrics.put("eventsPerSecond", total.getRatePerSecond(MetricsWindow.ONE_MINUTE));
+        liveMetrics.put("systemThroughput", total.getRatePerSecond(MetricsWindow.ONE_SECOND));
+        liveMetrics.put("currentSecondEvents", total.getCurrentSecondCount());
+        liveMetrics.put("windows", windows);
+        liveMetrics.put("activeStreams", streamingMetrics.getActiveEventTypes());
         liveMetrics.put("timestamp", LocalDateTime.now());
         liveMetrics.put("pattern", "Streaming - Live Dashboard");
         
         return ResponseEntity.ok(liveMetrics);
     }
 
+    @GetMapping("/ingestion/stats")
+    public ResponseEntity<Map<String, Object>> getIngestionStats() {
+        Map<String, Object> stats = new HashMap<>(ingestionService.getStatistics());
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Asynchronous Ingestion - Bounded Queues");
+        
+        return ResponseEntity.ok(stats);
+    }
+
+    @GetMapping("/indexing/stats")
+    public ResponseEntity<Map<String, Object>> getIndexingStats() {
+        Map<String, Object> stats = new HashMap<>(bulkIndexingService.getStatistics());
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Bulk Indexing - Elasticsearch _bulk");
+        
+        return ResponseEntity.ok(stats);
+    }
+
     /**
      * Advanced Aggregator Pattern Endpoints
      */
@@ -181,16 +336,13 @@ public class AnalyticsController {
             headers.put("eventType", aggregationData.get("eventType"));
             headers.put("aggregationType", "ADVANCED");
             
-            // Send to Advanced Aggregator entry point
-            producerTemplate.sendBodyAndHeaders("direct:advanced-aggregator-entry", aggregationData, headers);
-            
             Map<String, Object> response = new HashMap<>();
-            response.put("status", "Advanced aggregation triggered successfully");
             response.put("eventType", aggregationData.get("eventType"));
             response.put("timestamp", LocalDateTime.now());
             response.put("pattern", "Advanced Aggregator");
             
-            return ResponseEntity.ok(response);
+            // Queue for, or send to, the Advanced Aggregator entry point
+            return ingest(IngestionChannel.AGGREGATION, aggregationData, headers, response, "Advanced aggregation triggered successfully");
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
                 .body(Map.of("error", "Advanced aggregation failed: " + e.getMessage()));
@@ -295,4 +447,38 @@ public class AnalyticsController {
         
         return ResponseEntity.ok(response);
     }
+
+    private Map<String, Object> replayResponse(ReplayJob job, String status) {
+        Map<String, Object> response = new HashMap<>(job.toProgress());
+        response.put("message", status);
+        response.put("progressUrl", "/analytics/events/replay/jobs/" + job.getReplayId());
+        response.put("pattern", "Event Sourcing - Replay");
+        response.put("timestamp", LocalDateTime.now());
+        return response;
+    }
+
+    /**
+     * Queues the request when ingestion is asynchronous and answers 202, or 429
+     * with Retry-After when its channel is full; otherwise runs the route in line
+     */
+    private ResponseEntity<Map<String, Object>> ingest(IngestionChannel channel, Map<String, Object> body,
+                                                       Map<String, Object> headers, Map<String, Object> response,
+                                                       String processedStatus) {
+        if (!ingestionService.isAsync()) {
+            producerTemplate.sendBodyAndHeaders(channel.getEndpointUri(), body, headers);
+            response.put("status", processedStatus);
+            return ResponseEntity.ok(response);
+        }
+        String ingestionId = ingestionService.submit(channel, body, headers);
+        if (ingestionId == null) {
+            long retryAfterSeconds = ingestionService.getRetryAfterSeconds(channel);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(Map.of("error", "Ingestion queue full for " + channel.getCode(),
+                    "retryAfterSeconds", retryAfterSeconds));
+        }
+        response.put("status", "Accepted for processing");
+        response.put(IngestionService.INGESTION_ID_HEADER, ingestionId);
+        return ResponseEntity.accepted().body(response);
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,63 @@
+package com.eipresso.analytics.indexing;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One document waiting in a bulk indexing buffer
+ *
+ * The source is kept already serialized, so buffering costs the JSON bytes
+ * only and the flush just copies them into the _bulk body.
+ */
+public class BulkDocument {
+
+    private final String indexName;
+    private final String documentId;
+    private final byte[] source;
+    private final String deadLetterUri;
+    private final long enqueuedNanos;
+    private int retries;
+
+    public BulkDocument(String indexName, String documentId, byte[] source, String deadLetterUri) {
+        this.indexName = indexName;
+        this.documentId = documentId;
+        this.source = source;
+        this.deadLetterUri = deadLetterUri;
+        this.enqueuedNanos = System.nanoTime();
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public String getDocumentId() {
+        return documentId;
+    }
+
+    public byte[] getSource() {
+        return source;
+    }
+
+    public String getSourceAsString() {
+        return new String(source, StandardCharsets.UTF_8);
+    }
+
+    public String getDeadLetterUri() {
+        return deadLetterUri;
+    }
+
+    public long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+
+    /**
+     * Times this document went back into a buffer after Elasticsearch
+     * rejected it with a retryable item error
+     */
+    public int getRetries() {
+        return retries;
+    }
+
+    int incrementRetries() {
+        return ++retries;
+    }
+}
@@ -0,0 +1,486 @@
+package com.eipresso.analytics.indexing;
+
+import com.eipresso.analytics.aggregation.LogLinearHistogram;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Bulk Indexer
+ *
+ * Buffers documents per index and sends them to Elasticsearch as _bulk
+ * requests once a buffer reaches {@code maxActions} documents or
+ * {@code maxBytes} of source, or its oldest document has waited
+ * {@code flushIntervalMillis}.
+ *
+ * Backpressure: at most {@code maxBufferedDocuments} documents may be
+ * buffered or in flight, and at most {@code maxInFlightRequests} bulk requests
+ * run at once. When the cluster slows down, flushes take longer, permits are
+ * released later and {@link #add} blocks its caller up to the given timeout
+ * before rejecting the document.
+ *
+ * Whole requests that fail with a retryable error (throttling, unavailable
+ * cluster) are retried with exponential backoff. Documents Elasticsearch
+ * rejects individually with 429 or 503 keep their buffer permit and go back
+ * into their index buffer once their own backoff has passed, so they ride
+ * along with the next flush instead of holding up the flush thread. Documents
+ * that still fail after {@code maxRetries}, or that fail permanently, are
+ * handed to the failure handler one by one.
+ */
+public class BulkIndexer implements AutoCloseable {
+
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final BulkTransport transport;
+    private final BiConsumer<BulkDocument, String> failureHandler;
+    private final int maxActions;
+    private final long maxBytes;
+    private final long flushIntervalNanos;
+    private final int maxRetries;
+    private final long retryBackoffMillis;
+
+    private final Map<String, IndexBuffer> buffers = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PendingRetry> pendingRetries = new ConcurrentLinkedQueue<>();
+    private final Semaphore bufferPermits;
+    private final int maxBufferedDocuments;
+    private final ThreadPoolExecutor flushExecutor;
+    private final ScheduledExecutorService flushScheduler;
+
+    private final LongAdder bulkRequests = new LongAdder();
+    private final LongAdder retriedRequests = new LongAdder();
+    private final LongAdder retriedDocuments = new LongAdder();
+    private final LongAdder indexedDocuments = new LongAdder();
+    private final LongAdder failedDocuments = new LongAdder();
+    private final LongAdder rejectedDocuments = new LongAdder();
+    private final LogLinearHistogram indexLatencyMicros = new LogLinearHistogram();
+
+    // add and item retries hold the read lock from their closed check until their
+    // documents are queued, so close cannot flush between the two and strand them
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+    private boolean closed;
+
+    /**
+     * @param transport             sends the _bulk requests
+     * @param failureHandler        receives each document that could not be indexed, with the reason
+     * @param maxActions            documents per bulk request
+     * @param maxBytes              source bytes per bulk request
+     * @param flushIntervalMillis   longest a document waits in a buffer
+     * @param maxInFlightRequests   concurrent bulk requests
+     * @param maxBufferedDocuments  documents buffered or in flight before callers block
+     * @param maxRetries            retries of a whole request, or of a single document, after a retryable failure
+     * @param retryBackoffMillis    first retry delay, doubled on each retry
+     */
+    public BulkIndexer(BulkTransport transport, BiConsumer<BulkDocument, String> failureHandler,
+                       int maxActions, long maxBytes, long flushIntervalMillis,
+                       int maxInFlightRequests, int maxBufferedDocuments,
+                       int maxRetries, long retryBackoffMillis) {
+        this.transport = transport;
+        this.failureHandler = failureHandler;
+        this.maxActions = maxActions;
+        this.maxBytes = maxBytes;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.maxRetries = maxRetries;
+        this.retryBackoffMillis = retryBackoffMillis;
+        this.maxBufferedDocuments = maxBufferedDocuments;
+        this.bufferPermits = new Semaphore(maxBufferedDocuments);
+
+        AtomicInteger threadIds = new AtomicInteger();
+        // Unbounded queue is safe: its size is bounded by the buffer permits
+        this.flushExecutor = new ThreadPoolExecutor(maxInFlightRequests, maxInFlightRequests,
+            0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "bulk-indexer-" + threadIds.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "bulk-indexer-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long tickMillis = Math.max(1L, flushIntervalMillis / 4);
+        flushScheduler.scheduleWithFixedDelay(this::flushExpired, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffer a document, blocking up to {@code timeoutMillis} while the
+     * indexer is at capacity
+     *
+     * @throws RejectedExecutionException when no capacity freed up in time or the indexer is closed
+     */
+    public void add(BulkDocument document, long timeoutMillis) throws InterruptedException {
+        if (!bufferPermits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            rejectedDocuments.increment();
+            throw new RejectedExecutionException("Bulk indexing backlog full ("
+                + maxBufferedDocuments + " documents), rejected document for " + document.getIndexName());
+        }
+
+        List<BulkDocument> batch = null;
+        closeLock.readLock().lock();
+        try {
+            if (closed) {
+                bufferPermits.release();
+                throw new RejectedExecutionException("Bulk indexer is closed");
+            }
+            IndexBuffer buffer = buffers.computeIfAbsent(document.getIndexName(), name -> new IndexBuffer());
+            synchronized (buffer) {
+                buffer.add(document);
+                if (buffer.documents.size() >= maxActions || buffer.bytes >= maxBytes) {
+                    batch = buffer.drain();
+                }
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        if (batch != null) {
+            submit(batch);
+        }
+    }
+
+    /**
+     * Send every buffered document now, including documents still backing off
+     * after an item-level rejection, without waiting for the requests to finish
+     */
+    public void flush() {
+        requeueRetries(Long.MAX_VALUE);
+        for (IndexBuffer buffer : buffers.values()) {
+            List<BulkDocument> batch;
+            synchronized (buffer) {
+                batch = buffer.drain();
+            }
+            if (batch != null) {
+                submit(batch);
+            }
+        }
+    }
+
+    /**
+     * Flush, then wait up to {@code timeoutMillis} for in-flight requests
+     */
+    public boolean close(long timeoutMillis) throws InterruptedException {
+        closeLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        flushScheduler.shutdownNow();
+        // A tick still requeueing retries would add them after the final flush
+        flushScheduler.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        flush();
+        flushExecutor.shutdown();
+        return flushExecutor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        close(30_000L);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("bulkRequests", bulkRequests.sum());
+        stats.put("retriedRequests", retriedRequests.sum());
+        stats.put("retriedDocuments", retriedDocuments.sum());
+        stats.put("indexedDocuments", indexedDocuments.sum());
+        stats.put("failedDocuments", failedDocuments.sum());
+        stats.put("rejectedDocuments", rejectedDocuments.sum());
+        stats.put("bufferedDocuments", maxBufferedDocuments - bufferPermits.availablePermits());
+        stats.put("inFlightRequests", flushExecutor.getActiveCount());
+        synchronized (indexLatencyMicros) {
+            stats.put("indexLatencyP50Micros", indexLatencyMicros.getValueAtPercentile(50));
+            stats.put("indexLatencyP99Micros", indexLatencyMicros.getValueAtPercentile(99));
+        }
+        return stats;
+    }
+
+    public long getIndexedDocuments() {
+        return indexedDocuments.sum();
+    }
+
+    public long getFailedDocuments() {
+        return failedDocuments.sum();
+    }
+
+    /**
+     * Enqueue-to-acknowledgement latency percentile, in microseconds
+     */
+    public long getIndexLatencyMicros(double percentile) {
+        synchronized (indexLatencyMicros) {
+            return indexLatencyMicros.getValueAtPercentile(percentile);
+        }
+    }
+
+    private void flushExpired() {
+        long now = System.nanoTime();
+        requeueRetries(now);
+        for (IndexBuffer buffer : buffers.values()) {
+            List<BulkDocument> batch = null;
+            synchronized (buffer) {
+                if (!buffer.documents.isEmpty() && now - buffer.oldestNanos >= flushIntervalNanos) {
+                    batch = buffer.drain();
+                }
+            }
+            if (batch != null) {
+                submit(batch);
+            }
+        }
+    }
+
+    private void submit(List<BulkDocument> batch) {
+        try {
+            flushExecutor.execute(() -> send(batch));
+        } catch (RejectedExecutionException e) {
+            // Executor already terminated: nothing will send these, so fail them now
+            completeAll(batch, "Bulk indexer stopped before the batch was sent");
+        }
+    }
+
+    private void send(List<BulkDocument> batch) {
+        byte[] body = toBulkBody(batch);
+        String[] itemErrors = null;
+        String requestError = null;
+
+        for (int attempt = 0; ; attempt++) {
+            try {
+                bulkRequests.increment();
+                itemErrors = transport.send(body, batch.size());
+                break;
+            } catch (BulkIndexingException e) {
+                requestError = e.getMessage();
+                if (!e.isRetryable() || attempt >= maxRetries || !backoff(attempt)) {
+                    break;
+                }
+            } catch (IOException | RuntimeException e) {
+                requestError = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                if (attempt >= maxRetries || !backoff(attempt)) {
+                    break;
+                }
+            }
+        }
+
+        if (itemErrors == null) {
+            completeAll(batch, requestError);
+            return;
+        }
+        long now = System.nanoTime();
+        int completed = 0;
+        List<BulkDocument> retries = null;
+        long retryBackoffNanos = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            BulkDocument document = batch.get(i);
+            String error = i < itemErrors.length ? itemErrors[i] : null;
+            if (error == null) {
+                indexedDocuments.increment();
+                recordLatency(now - document.getEnqueuedNanos());
+                completed++;
+            } else if (isRetryableItemError(error) && document.getRetries() < maxRetries) {
+                if (retries == null) {
+                    retries = new ArrayList<>();
+                }
+                retries.add(document);
+                retryBackoffNanos = Math.max(retryBackoffNanos, TimeUnit.MILLISECONDS.toNanos(
+                    retryBackoffMillis << Math.min(document.getRetries(), 16)));
+            } else {
+                fail(document, error);
+                completed++;
+            }
+        }
+        bufferPermits.release(completed);
+        if (retries != null) {
+            scheduleRetry(retries, now + retryBackoffNanos);
+        }
+    }
+
+    /**
+     * Park documents rejected with a retryable item error until their backoff
+     * has passed; they keep their buffer permits meanwhile. Once the indexer is
+     * closing nothing would flush them again, so they fail instead.
+     */
+    private void scheduleRetry(List<BulkDocument> documents, long dueNanos) {
+        closeLock.readLock().lock();
+        try {
+            if (!closed) {
+                for (BulkDocument document : documents) {
+                    document.incrementRetries();
+                }
+                retriedDocuments.add(documents.size());
+                pendingRetries.add(new PendingRetry(documents, dueNanos));
+                return;
+            }
+        } finally {
+            closeLock.readLock().unlock();
+        }
+        completeAll(documents, "Bulk indexer closed before throttled documents could be retried");
+    }
+
+    /**
+     * Move parked documents whose backoff ends by {@code now} back into their
+     * index buffers, submitting any buffer that fills up
+     */
+    private void requeueRetries(long now) {
+        for (Iterator<PendingRetry> it = pendingRetries.iterator(); it.hasNext(); ) {
+            PendingRetry retry = it.next();
+            if (retry.dueNanos - now > 0 || !pendingRetries.remove(retry)) {
+                continue;
+            }
+            for (BulkDocument document : retry.documents) {
+                IndexBuffer buffer = buffers.computeIfAbsent(document.getIndexName(), name -> new IndexBuffer());
+                List<BulkDocument> batch = null;
+                synchronized (buffer) {
+                    buffer.add(document);
+                    if (buffer.documents.size() >= maxActions || buffer.bytes >= maxBytes) {
+                        batch = buffer.drain();
+                    }
+                }
+                if (batch != null) {
+                    submit(batch);
+                }
+            }
+        }
+    }
+
+    /**
+     * Item errors worth another attempt: the shard's write queue was full
+     * (429) or the shard was unavailable (503)
+     */
+    static boolean isRetryableItemError(String error) {
+        return error.startsWith("HTTP 429 ") || error.startsWith("HTTP 503 ");
+    }
+
+    private boolean backoff(int attempt) {
+        retriedRequests.increment();
+        try {
+            Thread.sleep(retryBackoffMillis << Math.min(attempt, 16));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void completeAll(List<BulkDocument> batch, String reason) {
+        for (BulkDocument document : batch) {
+            fail(document, reason);
+        }
+        bufferPermits.release(batch.size());
+    }
+
+    private void fail(BulkDocument document, String reason) {
+        failedDocuments.increment();
+        try {
+            failureHandler.accept(document, reason);
+        } catch (RuntimeException ignored) {
+            // A failing dead-letter route must not stall the flush thread
+        }
+    }
+
+    private void recordLatency(long nanos) {
+        synchronized (indexLatencyMicros) {
+            indexLatencyMicros.record(nanos / 1_000);
+        }
+    }
+
+    static byte[] toBulkBody(List<BulkDocument> batch) {
+        int size = 0;
+        for (BulkDocument document : batch) {
+            size += document.getSource().length + 64;
+        }
+        ByteArrayOutputStream body = new ByteArrayOutputStream(size);
+        for (BulkDocument document : batch) {
+            StringBuilder action = new StringBuilder(64)
+                .append("{\"index\":{\"_index\":\"").append(escape(document.getIndexName())).append('"');
+            if (document.getDocumentId() != null) {
+                action.append(",\"_id\":\"").append(escape(document.getDocumentId())).append('"');
+            }
+            action.append("}}\n");
+            body.writeBytes(action.toString().getBytes(StandardCharsets.UTF_8));
+            body.writeBytes(document.getSource());
+            body.writeBytes(NEWLINE);
+        }
+        return body.toByteArray();
+    }
+
+    /**
+     * Escape a value for a JSON string, including control characters, which
+     * would otherwise break the action line of a newline-delimited body
+     */
+    private static String escape(String value) {
+        StringBuilder escaped = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                if (escaped != null) {
+                    escaped.append(c);
+                }
+                continue;
+            }
+            if (escaped == null) {
+                escaped = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            switch (c) {
+                case '"' -> escaped.append("\\\"");
+                case '\\' -> escaped.append("\\\\");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> escaped.append("\\r");
+                case '\t' -> escaped.append("\\t");
+                default -> escaped.append(String.format("\\u%04x", (int) c));
+            }
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    // Identity equality, so concurrent requeues remove each entry exactly once
+    private static final class PendingRetry {
+        private final List<BulkDocument> documents;
+        private final long dueNanos;
+
+        private PendingRetry(List<BulkDocument> documents, long dueNanos) {
+            this.documents = documents;
+            this.dueNanos = dueNanos;
+        }
+    }
+
+    private static final class IndexBuffer {
+        private List<BulkDocument> documents = new ArrayList<>();
+        private long bytes;
+        private long oldestNanos;
+
+        private void add(BulkDocument document) {
+            if (documents.isEmpty()) {
+                oldestNanos = document.getEnqueuedNanos();
+            }
+            documents.add(document);
+            bytes += document.getSource().length;
+        }
+
+        private List<BulkDocument> drain() {
+            if (documents.isEmpty()) {
+                return null;
+            }
+            List<BulkDocument> batch = documents;
+            documents = new ArrayList<>(batch.size());
+            bytes = 0;
+            return batch;
+        }
+    }
+}
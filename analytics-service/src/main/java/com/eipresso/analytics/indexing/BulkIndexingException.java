@@ -0,0 +1,18 @@
+package com.eipresso.analytics.indexing;
+
+/**
+ * Failure of a bulk request or of a single document within one
+ */
+public class BulkIndexingException extends RuntimeException {
+
+    private final boolean retryable;
+
+    public BulkIndexingException(String message, boolean retryable) {
+        super(message);
+        this.retryable = retryable;
+    }
+
+    public boolean isRetryable() {
+        return retryable;
+    }
+}
@@ -0,0 +1,21 @@
+package com.eipresso.analytics.indexing;
+
+import java.io.IOException;
+
+/**
+ * Sends one Elasticsearch _bulk request
+ */
+public interface BulkTransport {
+
+    /**
+     * @param body       NDJSON _bulk body
+     * @param itemCount  number of documents in the body
+     * @return per-item failure reasons in request order, with null entries for
+     *         documents that were indexed; a reason starts with
+     *         {@code "HTTP <status> "} so throttled items can be told apart
+     * @throws BulkIndexingException when the whole request failed; retryable
+     *         for throttling or an unavailable cluster
+     * @throws IOException when the cluster could not be reached
+     */
+    String[] send(byte[] body, int itemCount) throws IOException;
+}
@@ -0,0 +1,76 @@
+package com.eipresso.analytics.indexing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * _bulk over the Elasticsearch REST API
+ *
+ * Reads per-item results only when the response reports errors, so the
+ * common all-indexed case costs one small JSON parse.
+ */
+public class HttpBulkTransport implements BulkTransport {
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI bulkUri;
+    private final Duration requestTimeout;
+
+    public HttpBulkTransport(String baseUrl, ObjectMapper objectMapper, Duration requestTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(requestTimeout)
+            .build();
+        this.objectMapper = objectMapper;
+        this.bulkUri = URI.create(baseUrl.replaceAll("/+$", "") + "/_bulk");
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public String[] send(byte[] body, int itemCount) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(bulkUri)
+            .timeout(requestTimeout)
+            .header("Content-Type", "application/x-ndjson")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+            .build();
+
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while sending bulk request", e);
+        }
+
+        int status = response.statusCode();
+        if (status == 429 || status == 502 || status == 503 || status == 504) {
+            throw new BulkIndexingException("Elasticsearch unavailable for bulk request (HTTP " + status + ")", true);
+        }
+        if (status >= 300) {
+            throw new BulkIndexingException("Bulk request rejected (HTTP " + status + ")", false);
+        }
+
+        String[] itemErrors = new String[itemCount];
+        JsonNode root = objectMapper.readTree(response.body());
+        if (!root.path("errors").asBoolean(false)) {
+            return itemErrors;
+        }
+
+        JsonNode items = root.path("items");
+        for (int i = 0; i < itemCount && i < items.size(); i++) {
+            JsonNode result = items.get(i).elements().next();
+            JsonNode error = result.get("error");
+            if (error != null) {
+                itemErrors[i] = "HTTP " + result.path("status").asInt() + " "
+                    + error.path("type").asText() + ": " + error.path("reason").asText();
+            }
+        }
+        return itemErrors;
+    }
+}
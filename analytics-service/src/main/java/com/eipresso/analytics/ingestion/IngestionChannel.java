@@ -0,0 +1,28 @@
+package com.eipresso.analytics.ingestion;
+
+/**
+ * Asynchronously ingested REST endpoints and the route entry each one feeds
+ */
+public enum IngestionChannel {
+
+    EVENTS("events", "direct:event-source-entry"),
+    COMMANDS("commands", "direct:cqrs-command-entry"),
+    STREAMING("streaming", "direct:streaming-entry"),
+    AGGREGATION("aggregation", "direct:advanced-aggregator-entry");
+
+    private final String code;
+    private final String endpointUri;
+
+    IngestionChannel(String code, String endpointUri) {
+        this.code = code;
+        this.endpointUri = endpointUri;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getEndpointUri() {
+        return endpointUri;
+    }
+}
@@ -0,0 +1,180 @@
+package com.eipresso.analytics.ingestion;
+
+import com.eipresso.analytics.aggregation.LogLinearHistogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Ingestion Queue
+ *
+ * Bounded hand-off between request threads and the route chain. {@link #offer}
+ * never blocks: it either queues the task or reports the queue full, so the
+ * caller can answer at once and push back on its client. A fixed set of
+ * consumer threads drains the queue into the sink.
+ *
+ * Tasks are acknowledged once queued, so sink failures are counted and logged
+ * here; there is no caller left to report them to.
+ */
+public class IngestionQueue implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionQueue.class);
+
+    private final String name;
+    private final int capacity;
+    private final int consumers;
+    private final long maxRetryAfterSeconds;
+    private final BlockingQueue<IngestionTask> queue;
+    private final Consumer<IngestionTask> sink;
+    private final ExecutorService consumerExecutor;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder serviceNanos = new LongAdder();
+    private final LogLinearHistogram queueWaitMicros = new LogLinearHistogram();
+
+    private volatile boolean closed;
+
+    /**
+     * @param name                  names the consumer threads and log lines
+     * @param capacity              tasks queued before {@link #offer} refuses more
+     * @param consumers             threads draining the queue into the sink
+     * @param maxRetryAfterSeconds  upper bound of the suggested client retry delay
+     * @param sink                  processes one task on a consumer thread
+     */
+    public IngestionQueue(String name, int capacity, int consumers, long maxRetryAfterSeconds,
+                          Consumer<IngestionTask> sink) {
+        this.name = name;
+        this.capacity = capacity;
+        this.consumers = consumers;
+        this.maxRetryAfterSeconds = maxRetryAfterSeconds;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.sink = sink;
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.consumerExecutor = Executors.newFixedThreadPool(consumers, runnable -> {
+            Thread thread = new Thread(runnable, "ingestion-" + name + "-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < consumers; i++) {
+            consumerExecutor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Queue a task without blocking
+     *
+     * @return false when the queue is full or closed
+     */
+    public boolean offer(IngestionTask task) {
+        if (closed || !queue.offer(task)) {
+            rejected.increment();
+            return false;
+        }
+        accepted.increment();
+        return true;
+    }
+
+    /**
+     * Seconds a rejected client should wait: the time the consumers need to
+     * work off the current backlog at their average service time
+     */
+    public long getRetryAfterSeconds() {
+        long deliveries = delivered.sum() + failed.sum();
+        if (deliveries == 0) {
+            return 1L;
+        }
+        double backlogNanos = (double) queue.size() * serviceNanos.sum() / deliveries / consumers;
+        long seconds = (long) Math.ceil(backlogNanos / TimeUnit.SECONDS.toNanos(1));
+        return Math.max(1L, Math.min(maxRetryAfterSeconds, seconds));
+    }
+
+    public int getDepth() {
+        return queue.size();
+    }
+
+    /**
+     * Stop accepting tasks, then wait up to {@code timeoutMillis} for the consumers to drain the queue
+     *
+     * @return false when tasks were still queued or running at the timeout
+     */
+    public boolean close(long timeoutMillis) throws InterruptedException {
+        closed = true;
+        consumerExecutor.shutdown();
+        boolean drained = consumerExecutor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS);
+        if (!drained) {
+            logger.warn("⚠️ Ingestion queue {} closed with {} tasks undelivered", name, queue.size());
+            consumerExecutor.shutdownNow();
+        }
+        return drained;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        close(30_000L);
+    }
+
+    public Map<String, Object> getStatistics() {
+        long deliveries = delivered.sum() + failed.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("failed", failed.sum());
+        stats.put("depth", queue.size());
+        stats.put("capacity", capacity);
+        stats.put("consumers", consumers);
+        stats.put("averageServiceMicros", deliveries == 0 ? 0L
+            : TimeUnit.NANOSECONDS.toMicros(serviceNanos.sum() / deliveries));
+        stats.put("retryAfterSeconds", getRetryAfterSeconds());
+        synchronized (queueWaitMicros) {
+            stats.put("queueWaitP50Micros", queueWaitMicros.getValueAtPercentile(50));
+            stats.put("queueWaitP99Micros", queueWaitMicros.getValueAtPercentile(99));
+        }
+        return stats;
+    }
+
+    private void drain() {
+        while (!closed || !queue.isEmpty()) {
+            IngestionTask task;
+            try {
+                task = queue.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (task != null) {
+                deliver(task);
+            }
+        }
+    }
+
+    private void deliver(IngestionTask task) {
+        long start = System.nanoTime();
+        synchronized (queueWaitMicros) {
+            queueWaitMicros.record(TimeUnit.NANOSECONDS.toMicros(start - task.getEnqueuedNanos()));
+        }
+        try {
+            sink.accept(task);
+            delivered.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            logger.warn("⚠️ Ingestion {} failed for {}: {}", name, task.getIngestionId(), e.getMessage());
+        } finally {
+            serviceNanos.add(System.nanoTime() - start);
+        }
+    }
+}
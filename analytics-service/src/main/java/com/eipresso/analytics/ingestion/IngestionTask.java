@@ -0,0 +1,37 @@
+package com.eipresso.analytics.ingestion;
+
+import java.util.Map;
+
+/**
+ * A request body and its route headers, accepted but not yet processed
+ */
+public class IngestionTask {
+
+    private final String ingestionId;
+    private final Object body;
+    private final Map<String, Object> headers;
+    private final long enqueuedNanos;
+
+    public IngestionTask(String ingestionId, Object body, Map<String, Object> headers) {
+        this.ingestionId = ingestionId;
+        this.body = body;
+        this.headers = headers;
+        this.enqueuedNanos = System.nanoTime();
+    }
+
+    public String getIngestionId() {
+        return ingestionId;
+    }
+
+    public Object getBody() {
+        return body;
+    }
+
+    public Map<String, Object> getHeaders() {
+        return headers;
+    }
+
+    long getEnqueuedNanos() {
+        return enqueuedNanos;
+    }
+}
@@ -0,0 +1,70 @@
+package com.eipresso.analytics.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Analytics Event Type Enum
+ *
+ * Dense registry of the event types the Event Sourcing and Streaming routes
+ * branch on. The ordinal doubles as the counter index, so once a header has
+ * been resolved the per-event counting path is plain array access.
+ */
+public enum AnalyticsEventType {
+    ORDER_CREATED(EventCategory.ORDER),
+    ORDER_PAID(EventCategory.ORDER),
+    ORDER_DELIVERED(EventCategory.ORDER),
+    ORDER_OTHER(EventCategory.ORDER),
+    USER_REGISTERED(EventCategory.USER),
+    USER_LOGIN(EventCategory.USER),
+    USER_OTHER(EventCategory.USER),
+    INTEGRATION_TEST(EventCategory.SYSTEM),
+    PERIODIC_AGGREGATION(EventCategory.SYSTEM),
+    OTHER(EventCategory.SYSTEM);
+
+    private static final Map<String, AnalyticsEventType> BY_NAME = new HashMap<>();
+
+    static {
+        for (AnalyticsEventType type : values()) {
+            BY_NAME.put(type.name(), type);
+        }
+    }
+
+    private final EventCategory category;
+
+    AnalyticsEventType(EventCategory category) {
+        this.category = category;
+    }
+
+    public EventCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Whether this is a bucket for types without their own constant
+     */
+    public boolean isFallback() {
+        return this == ORDER_OTHER || this == USER_OTHER || this == OTHER;
+    }
+
+    /**
+     * Resolve an eventType header once at the route entry. Unregistered
+     * ORDER_/USER_ types fall back to their category bucket.
+     */
+    public static AnalyticsEventType resolve(String eventType) {
+        if (eventType == null) {
+            return OTHER;
+        }
+        AnalyticsEventType type = BY_NAME.get(eventType);
+        if (type != null) {
+            return type;
+        }
+        if (eventType.startsWith("ORDER_")) {
+            return ORDER_OTHER;
+        }
+        if (eventType.startsWith("USER_")) {
+            return USER_OTHER;
+        }
+        return OTHER;
+    }
+}
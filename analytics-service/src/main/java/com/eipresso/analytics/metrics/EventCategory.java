@@ -0,0 +1,21 @@
+package com.eipresso.analytics.metrics;
+
+/**
+ * Event Category Enum
+ * Business domain an analytics event is counted under
+ */
+public enum EventCategory {
+    ORDER("order"),
+    USER("user"),
+    SYSTEM("system");
+
+    private final String code;
+
+    EventCategory(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
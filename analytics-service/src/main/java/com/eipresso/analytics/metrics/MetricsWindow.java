@@ -0,0 +1,28 @@
+package com.eipresso.analytics.metrics;
+
+/**
+ * Metrics Window Enum
+ * Named trailing windows served by the streaming metrics engine
+ */
+public enum MetricsWindow {
+    ONE_SECOND("1s", 1),
+    ONE_MINUTE("1m", 60),
+    FIVE_MINUTES("5m", 300),
+    ONE_HOUR("1h", 3600);
+
+    private final String label;
+    private final int seconds;
+
+    MetricsWindow(String label, int seconds) {
+        this.label = label;
+        this.seconds = seconds;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public int getSeconds() {
+        return seconds;
+    }
+}
@@ -0,0 +1,175 @@
+package com.eipresso.analytics.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-Window Event Counter
+ *
+ * Ring buffer of per-second buckets for trailing-window counts and rates.
+ * Writers only touch a LongAdder slot for the open second, so concurrent
+ * producers never contend on a single cell. Once a second has closed its slot
+ * is sealed into a compact long[] history ring, and window queries sum the
+ * completed seconds from that ring without allocating.
+ *
+ * Counts and rates are exact over completed seconds; the open second is
+ * reported separately by {@link #getCurrentSecondCount()}.
+ */
+public class SlidingWindowCounter {
+
+    // Open second plus a few seconds of slack for writers that read the clock just before a rollover
+    private static final int LIVE_SLOTS = 4;
+
+    private final int maxWindowSeconds;
+    private final int historySize;
+    private final LongSupplier epochSecondClock;
+    private final long startSecond;
+
+    private final LongAdder[] liveSlots = new LongAdder[LIVE_SLOTS];
+    private final long[] history;
+    private final LongAdder total = new LongAdder();
+    private final ReentrantLock sealLock = new ReentrantLock();
+
+    // Last second whose live slot has been folded into the history ring
+    private volatile long sealedThrough;
+
+    public SlidingWindowCounter(int maxWindowSeconds) {
+        this(maxWindowSeconds, () -> System.currentTimeMillis() / 1000L);
+    }
+
+    public SlidingWindowCounter(int maxWindowSeconds, LongSupplier epochSecondClock) {
+        if (maxWindowSeconds < 1) {
+            throw new IllegalArgumentException("maxWindowSeconds must be positive: " + maxWindowSeconds);
+        }
+        this.maxWindowSeconds = maxWindowSeconds;
+        this.historySize = maxWindowSeconds + LIVE_SLOTS;
+        this.epochSecondClock = epochSecondClock;
+        this.history = new long[historySize];
+        for (int i = 0; i < LIVE_SLOTS; i++) {
+            liveSlots[i] = new LongAdder();
+        }
+        this.startSecond = epochSecondClock.getAsLong();
+        this.sealedThrough = startSecond - 1;
+    }
+
+    public void increment() {
+        add(1L);
+    }
+
+    public void add(long delta) {
+        addAt(delta, epochSecondClock.getAsLong());
+    }
+
+    /**
+     * Record against an epoch second the caller has already read, so an event
+     * that updates several counters only reads the clock once.
+     */
+    public void addAt(long delta, long epochSecond) {
+        long second = advance(epochSecond);
+        liveSlots[(int) Math.floorMod(second, (long) LIVE_SLOTS)].add(delta);
+        total.add(delta);
+    }
+
+    public long currentEpochSecond() {
+        return epochSecondClock.getAsLong();
+    }
+
+    /**
+     * Lifetime total since the counter was created
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Events recorded so far in the still-open second
+     */
+    public long getCurrentSecondCount() {
+        long second = advance(epochSecondClock.getAsLong());
+        return liveSlots[(int) Math.floorMod(second, (long) LIVE_SLOTS)].sum();
+    }
+
+    public long getWindowCount(MetricsWindow window) {
+        return getWindowCount(window.getSeconds());
+    }
+
+    /**
+     * Events recorded in the last {@code windowSeconds} completed seconds
+     */
+    public long getWindowCount(int windowSeconds) {
+        checkWindow(windowSeconds);
+        advance(epochSecondClock.getAsLong());
+        long last = sealedThrough;
+        long sum = 0L;
+        for (long s = last - windowSeconds + 1; s <= last; s++) {
+            sum += history[(int) Math.floorMod(s, (long) historySize)];
+        }
+        return sum;
+    }
+
+    public double getRatePerSecond(MetricsWindow window) {
+        return getRatePerSecond(window.getSeconds());
+    }
+
+    /**
+     * Events per second over the last {@code windowSeconds} completed seconds.
+     * While the counter is younger than the window only the observed seconds count.
+     */
+    public double getRatePerSecond(int windowSeconds) {
+        long count = getWindowCount(windowSeconds);
+        long observedSeconds = Math.min(windowSeconds, sealedThrough - startSecond + 1);
+        return observedSeconds > 0 ? (double) count / observedSeconds : 0.0;
+    }
+
+    public int getMaxWindowSeconds() {
+        return maxWindowSeconds;
+    }
+
+    private void checkWindow(int windowSeconds) {
+        if (windowSeconds < 1 || windowSeconds > maxWindowSeconds) {
+            throw new IllegalArgumentException("Window of " + windowSeconds
+                + "s outside supported range 1.." + maxWindowSeconds + "s");
+        }
+    }
+
+    /**
+     * Seal every closed second and return the open one. Only the first caller
+     * after a rollover takes the lock; everyone else sees a volatile read.
+     */
+    private long advance(long now) {
+        long sealed = sealedThrough;
+        if (now <= sealed) {
+            // Clock stepped backwards: keep writing into the open second
+            return sealed + 1;
+        }
+        if (now - 1 > sealed) {
+            seal(now);
+        }
+        return now;
+    }
+
+    private void seal(long now) {
+        sealLock.lock();
+        try {
+            long from = sealedThrough + 1;
+            if (from >= now) {
+                return;
+            }
+            if (now - from > historySize) {
+                // Idle for longer than the ring: anything pending is outside every window
+                for (LongAdder slot : liveSlots) {
+                    slot.reset();
+                }
+                from = now - historySize;
+            }
+            for (long s = from; s < now; s++) {
+                history[(int) Math.floorMod(s, (long) historySize)] =
+                    liveSlots[(int) Math.floorMod(s, (long) LIVE_SLOTS)].sumThenReset();
+            }
+            sealedThrough = now - 1;
+        } finally {
+            sealLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.eipresso.analytics.projection;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aggregate Projection
+ *
+ * State of one aggregate folded from its events. Besides the state, each
+ * projection remembers how many events it has applied ({@code sequence}),
+ * the time of the latest one and the ids of the events applied at that time.
+ * Earlier events and ids already applied are ignored, so replaying history
+ * over a projection restored from a snapshot only applies the tail. Event ids
+ * are random, so events sharing a timestamp are told apart by id rather than
+ * ordered by it; each is applied once whichever order it arrives in.
+ */
+public abstract class AggregateProjection {
+
+    private final String aggregateId;
+    private long sequence;
+    private long lastEventTimeMillis = Long.MIN_VALUE;
+    private final Set<String> eventIdsAtLastTime = new HashSet<>();
+
+    protected AggregateProjection(String aggregateId) {
+        this.aggregateId = aggregateId;
+    }
+
+    public abstract AggregateType getType();
+
+    /**
+     * @return true when the event was applied, false when the projection already reflects it
+     */
+    public boolean apply(ProjectionEvent event) {
+        if (event.getEventTimeMillis() < lastEventTimeMillis) {
+            return false;
+        }
+        if (event.getEventTimeMillis() > lastEventTimeMillis) {
+            eventIdsAtLastTime.clear();
+        } else if (eventIdsAtLastTime.contains(event.getEventId())) {
+            return false;
+        }
+        mutate(event);
+        sequence++;
+        lastEventTimeMillis = event.getEventTimeMillis();
+        eventIdsAtLastTime.add(event.getEventId());
+        return true;
+    }
+
+    protected abstract void mutate(ProjectionEvent event);
+
+    protected abstract void writeState(DataOutput out) throws IOException;
+
+    protected abstract void readState(DataInput in) throws IOException;
+
+    protected abstract void describeState(Map<String, Object> view);
+
+    public String getAggregateId() {
+        return aggregateId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public long getLastEventTimeMillis() {
+        return lastEventTimeMillis;
+    }
+
+    /**
+     * @return the ids of the events applied at {@link #getLastEventTimeMillis}
+     */
+    public Set<String> getEventIdsAtLastTime() {
+        return Set.copyOf(eventIdsAtLastTime);
+    }
+
+    void restorePosition(long sequence, long lastEventTimeMillis, Collection<String> eventIdsAtLastTime) {
+        this.sequence = sequence;
+        this.lastEventTimeMillis = lastEventTimeMillis;
+        this.eventIdsAtLastTime.clear();
+        this.eventIdsAtLastTime.addAll(eventIdsAtLastTime);
+    }
+
+    public Map<String, Object> toView() {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("aggregateType", getType().getCode());
+        view.put("aggregateId", aggregateId);
+        view.put("sequence", sequence);
+        describeState(view);
+        return view;
+    }
+
+    protected static void putInstant(Map<String, Object> view, String key, long epochMillis) {
+        if (epochMillis != 0) {
+            view.put(key, Instant.ofEpochMilli(epochMillis).toString());
+        }
+    }
+}
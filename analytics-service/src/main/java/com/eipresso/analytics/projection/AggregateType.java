@@ -0,0 +1,58 @@
+package com.eipresso.analytics.projection;
+
+import java.util.function.Function;
+
+/**
+ * Aggregates projected from the business event stream
+ */
+public enum AggregateType {
+    ORDER("order", "orderId", (byte) 1, OrderProjection::new),
+    USER("user", "userId", (byte) 2, UserProjection::new);
+
+    private final String code;
+    private final String idHeader;
+    private final byte binaryTag;
+    private final Function<String, AggregateProjection> factory;
+
+    AggregateType(String code, String idHeader, byte binaryTag, Function<String, AggregateProjection> factory) {
+        this.code = code;
+        this.idHeader = idHeader;
+        this.binaryTag = binaryTag;
+        this.factory = factory;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /** Header (and stored event field) holding the aggregate id */
+    public String getIdHeader() {
+        return idHeader;
+    }
+
+    byte getBinaryTag() {
+        return binaryTag;
+    }
+
+    AggregateProjection newProjection(String aggregateId) {
+        return factory.apply(aggregateId);
+    }
+
+    public static AggregateType fromCode(String code) {
+        for (AggregateType type : values()) {
+            if (type.code.equalsIgnoreCase(code)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown aggregate type: " + code);
+    }
+
+    static AggregateType fromBinaryTag(byte tag) {
+        for (AggregateType type : values()) {
+            if (type.binaryTag == tag) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown aggregate type tag: " + tag);
+    }
+}
@@ -0,0 +1,31 @@
+package com.eipresso.analytics.projection;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+/**
+ * Cluster-shared snapshot store
+ *
+ * Snapshots are stored as raw byte arrays, so Hazelcast keeps exactly the
+ * compact encoding and a node restart or a different node can pick them up.
+ */
+public class HazelcastSnapshotStore implements SnapshotStore {
+
+    public static final String MAP_NAME = "analytics-projection-snapshots";
+
+    private final IMap<String, byte[]> snapshots;
+
+    public HazelcastSnapshotStore(HazelcastInstance hazelcastInstance) {
+        this.snapshots = hazelcastInstance.getMap(MAP_NAME);
+    }
+
+    @Override
+    public void save(AggregateType type, String aggregateId, byte[] snapshot) {
+        snapshots.set(SnapshotStore.keyOf(type, aggregateId), snapshot);
+    }
+
+    @Override
+    public byte[] loadLatest(AggregateType type, String aggregateId) {
+        return snapshots.get(SnapshotStore.keyOf(type, aggregateId));
+    }
+}
@@ -0,0 +1,26 @@
+package com.eipresso.analytics.projection;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Node-local snapshot store, used when no Hazelcast instance is configured
+ */
+public class InMemorySnapshotStore implements SnapshotStore {
+
+    private final Map<String, byte[]> snapshots = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(AggregateType type, String aggregateId, byte[] snapshot) {
+        snapshots.put(SnapshotStore.keyOf(type, aggregateId), snapshot);
+    }
+
+    @Override
+    public byte[] loadLatest(AggregateType type, String aggregateId) {
+        return snapshots.get(SnapshotStore.keyOf(type, aggregateId));
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+}
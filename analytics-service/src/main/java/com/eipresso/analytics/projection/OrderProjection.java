@@ -0,0 +1,83 @@
+package com.eipresso.analytics.projection;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+
+/**
+ * Order lifecycle projected from ORDER_* events
+ */
+public class OrderProjection extends AggregateProjection {
+
+    private static final String[] STATUSES = {"UNKNOWN", "CREATED", "PAID", "DELIVERED"};
+
+    private byte status;
+    private long createdAtMillis;
+    private long paidAtMillis;
+    private long deliveredAtMillis;
+    private long amountCents;
+
+    public OrderProjection(String orderId) {
+        super(orderId);
+    }
+
+    @Override
+    public AggregateType getType() {
+        return AggregateType.ORDER;
+    }
+
+    @Override
+    protected void mutate(ProjectionEvent event) {
+        String eventType = event.getEventType();
+        if ("ORDER_CREATED".equals(eventType)) {
+            status = 1;
+            createdAtMillis = event.getEventTimeMillis();
+        } else if ("ORDER_PAID".equals(eventType)) {
+            status = 2;
+            paidAtMillis = event.getEventTimeMillis();
+        } else if ("ORDER_DELIVERED".equals(eventType)) {
+            status = 3;
+            deliveredAtMillis = event.getEventTimeMillis();
+        }
+        if (event.getAmountCents() != null) {
+            amountCents = event.getAmountCents();
+        }
+    }
+
+    public String getStatus() {
+        return STATUSES[status];
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    @Override
+    protected void writeState(DataOutput out) throws IOException {
+        out.writeByte(status);
+        SnapshotCodec.writeVarLong(out, createdAtMillis);
+        SnapshotCodec.writeVarLong(out, paidAtMillis);
+        SnapshotCodec.writeVarLong(out, deliveredAtMillis);
+        SnapshotCodec.writeSignedVarLong(out, amountCents);
+    }
+
+    @Override
+    protected void readState(DataInput in) throws IOException {
+        status = in.readByte();
+        createdAtMillis = SnapshotCodec.readVarLong(in);
+        paidAtMillis = SnapshotCodec.readVarLong(in);
+        deliveredAtMillis = SnapshotCodec.readVarLong(in);
+        amountCents = SnapshotCodec.readSignedVarLong(in);
+    }
+
+    @Override
+    protected void describeState(Map<String, Object> view) {
+        view.put("status", getStatus());
+        view.put("amount", BigDecimal.valueOf(amountCents, 2));
+        putInstant(view, "createdAt", createdAtMillis);
+        putInstant(view, "paidAt", paidAtMillis);
+        putInstant(view, "deliveredAt", deliveredAtMillis);
+    }
+}
@@ -0,0 +1,70 @@
+package com.eipresso.analytics.projection;
+
+import com.eipresso.analytics.replay.StoredEvent;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The parts of a business event that projections fold in
+ *
+ * The event store is replayed in (eventTimeMillis, eventId) order, but live
+ * events sharing a timestamp may arrive in any order of their random ids.
+ */
+public class ProjectionEvent {
+
+    private final String eventId;
+    private final String eventType;
+    private final long eventTimeMillis;
+    private final Long amountCents;
+
+    public ProjectionEvent(String eventId, String eventType, long eventTimeMillis, Long amountCents) {
+        this.eventId = eventId != null ? eventId : "";
+        this.eventType = eventType;
+        this.eventTimeMillis = eventTimeMillis;
+        this.amountCents = amountCents;
+    }
+
+    /**
+     * The event carried by a live or replayed exchange's headers; amount comes from the {@code amount} header
+     */
+    public static ProjectionEvent fromHeaders(Map<String, Object> headers) {
+        LocalDateTime eventTimestamp = headers.get(StoredEvent.EVENT_TIMESTAMP) instanceof LocalDateTime timestamp
+            ? timestamp : LocalDateTime.now();
+        return new ProjectionEvent(
+            Objects.toString(headers.get(StoredEvent.EVENT_ID), null),
+            Objects.toString(headers.get("eventType"), null),
+            StoredEvent.eventTimeMillisOf(eventTimestamp),
+            amountCentsOf(headers.get("amount")));
+    }
+
+    private static Long amountCentsOf(Object amount) {
+        if (amount == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(amount.toString()).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public long getEventTimeMillis() {
+        return eventTimeMillis;
+    }
+
+    public Long getAmountCents() {
+        return amountCents;
+    }
+}
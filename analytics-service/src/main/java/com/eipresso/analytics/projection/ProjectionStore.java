@@ -0,0 +1,102 @@
+package com.eipresso.analytics.projection;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Projection Store
+ *
+ * Live projections of one aggregate type. An aggregate seen for the first
+ * time on this node starts from its latest snapshot (or empty), and every
+ * {@code snapshotInterval} applied events a new snapshot is written. A
+ * rebuild therefore only has to apply at most {@code snapshotInterval}
+ * events per aggregate, however long its history.
+ *
+ * Snapshots are saved outside the aggregate's lock, so two saves racing for
+ * one aggregate may leave the older one stored. That snapshot is still
+ * consistent; restoring from it only replays a longer tail.
+ */
+public class ProjectionStore {
+
+    private final AggregateType type;
+    private final SnapshotStore snapshots;
+    private final int snapshotInterval;
+    private final Map<String, AggregateProjection> live = new ConcurrentHashMap<>();
+
+    private final LongAdder appliedEvents = new LongAdder();
+    private final LongAdder skippedEvents = new LongAdder();
+    private final LongAdder snapshotsWritten = new LongAdder();
+    private final LongAdder snapshotsLoaded = new LongAdder();
+
+    public ProjectionStore(AggregateType type, SnapshotStore snapshots, int snapshotInterval) {
+        this.type = type;
+        this.snapshots = snapshots;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Apply an event to its aggregate
+     *
+     * @return the aggregate's sequence after the event
+     */
+    public long apply(String aggregateId, ProjectionEvent event) {
+        // Encoded under the aggregate's map lock, saved after it so a remote write never holds the lock
+        byte[][] snapshot = new byte[1][];
+        long[] sequence = new long[1];
+        live.compute(aggregateId, (id, current) -> {
+            AggregateProjection target = current != null ? current : restore(id);
+            if (target.apply(event)) {
+                appliedEvents.increment();
+                if (target.getSequence() % snapshotInterval == 0) {
+                    snapshot[0] = SnapshotCodec.encode(target);
+                }
+            } else {
+                skippedEvents.increment();
+            }
+            sequence[0] = target.getSequence();
+            return target;
+        });
+        if (snapshot[0] != null) {
+            snapshots.save(type, aggregateId, snapshot[0]);
+            snapshotsWritten.increment();
+        }
+        return sequence[0];
+    }
+
+    public AggregateProjection get(String aggregateId) {
+        return live.get(aggregateId);
+    }
+
+    /**
+     * Drop the live projection and restore it from the latest snapshot,
+     * ready for the tail of its history to be replayed
+     */
+    public AggregateProjection resetToSnapshot(String aggregateId) {
+        AggregateProjection restored = restore(aggregateId);
+        live.put(aggregateId, restored);
+        return restored;
+    }
+
+    public Map<String, Object> getStatistics() {
+        return Map.of(
+            "liveAggregates", live.size(),
+            "appliedEvents", appliedEvents.sum(),
+            "skippedEvents", skippedEvents.sum(),
+            "snapshotsWritten", snapshotsWritten.sum(),
+            "snapshotsLoaded", snapshotsLoaded.sum(),
+            "snapshotInterval", snapshotInterval);
+    }
+
+    private AggregateProjection restore(String aggregateId) {
+        byte[] snapshot = snapshots.loadLatest(type, aggregateId);
+        if (snapshot != null) {
+            AggregateProjection restored = SnapshotCodec.decode(snapshot);
+            if (restored != null) {
+                snapshotsLoaded.increment();
+                return restored;
+            }
+        }
+        return type.newProjection(aggregateId);
+    }
+}
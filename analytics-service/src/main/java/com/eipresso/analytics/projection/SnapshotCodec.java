@@ -0,0 +1,109 @@
+package com.eipresso.analytics.projection;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Snapshot Codec
+ *
+ * Compact binary layout for projection snapshots:
+ *
+ * <pre>
+ * version:byte  type:byte  aggregateId:utf  sequence:varint
+ * lastEventTimeMillis:varint  idCount:varint  eventIdsAtLastTime:utf*  state...
+ * </pre>
+ *
+ * Counters and timestamps are LEB128 varints, so a typical order snapshot is
+ * well under 100 bytes. The version byte lets the layout change without
+ * misreading older snapshots, which are simply ignored and rebuilt.
+ */
+public final class SnapshotCodec {
+
+    static final byte FORMAT_VERSION = 2;
+
+    private SnapshotCodec() {
+    }
+
+    public static byte[] encode(AggregateProjection projection) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(96);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeByte(projection.getType().getBinaryTag());
+            out.writeUTF(projection.getAggregateId());
+            writeVarLong(out, projection.getSequence());
+            writeVarLong(out, projection.getLastEventTimeMillis());
+            Set<String> eventIds = projection.getEventIdsAtLastTime();
+            writeVarLong(out, eventIds.size());
+            for (String eventId : eventIds) {
+                out.writeUTF(eventId);
+            }
+            projection.writeState(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * @return the restored projection, or null when the snapshot was written in another format version
+     */
+    public static AggregateProjection decode(byte[] snapshot) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(snapshot))) {
+            if (in.readByte() != FORMAT_VERSION) {
+                return null;
+            }
+            AggregateType type = AggregateType.fromBinaryTag(in.readByte());
+            AggregateProjection projection = type.newProjection(in.readUTF());
+            long sequence = readVarLong(in);
+            long lastEventTimeMillis = readVarLong(in);
+            int idCount = (int) readVarLong(in);
+            List<String> eventIds = new ArrayList<>(idCount);
+            for (int i = 0; i < idCount; i++) {
+                eventIds.add(in.readUTF());
+            }
+            projection.restorePosition(sequence, lastEventTimeMillis, eventIds);
+            projection.readState(in);
+            return projection;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static void writeVarLong(DataOutput out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in snapshot");
+    }
+
+    static void writeSignedVarLong(DataOutput out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readSignedVarLong(DataInput in) throws IOException {
+        long raw = readVarLong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+}
@@ -0,0 +1,18 @@
+package com.eipresso.analytics.projection;
+
+/**
+ * Keeps the latest encoded snapshot of each aggregate
+ */
+public interface SnapshotStore {
+
+    void save(AggregateType type, String aggregateId, byte[] snapshot);
+
+    /**
+     * @return the latest snapshot, or null when the aggregate has none
+     */
+    byte[] loadLatest(AggregateType type, String aggregateId);
+
+    static String keyOf(AggregateType type, String aggregateId) {
+        return type.getCode() + ":" + aggregateId;
+    }
+}
@@ -0,0 +1,66 @@
+package com.eipresso.analytics.projection;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * User activity projected from USER_* events
+ */
+public class UserProjection extends AggregateProjection {
+
+    private long registeredAtMillis;
+    private long loginCount;
+    private long lastLoginAtMillis;
+    private long lastActivityAtMillis;
+
+    public UserProjection(String userId) {
+        super(userId);
+    }
+
+    @Override
+    public AggregateType getType() {
+        return AggregateType.USER;
+    }
+
+    @Override
+    protected void mutate(ProjectionEvent event) {
+        String eventType = event.getEventType();
+        if ("USER_REGISTERED".equals(eventType)) {
+            registeredAtMillis = event.getEventTimeMillis();
+        } else if ("USER_LOGIN".equals(eventType)) {
+            loginCount++;
+            lastLoginAtMillis = event.getEventTimeMillis();
+        }
+        lastActivityAtMillis = event.getEventTimeMillis();
+    }
+
+    public long getLoginCount() {
+        return loginCount;
+    }
+
+    @Override
+    protected void writeState(DataOutput out) throws IOException {
+        SnapshotCodec.writeVarLong(out, registeredAtMillis);
+        SnapshotCodec.writeVarLong(out, loginCount);
+        SnapshotCodec.writeVarLong(out, lastLoginAtMillis);
+        SnapshotCodec.writeVarLong(out, lastActivityAtMillis);
+    }
+
+    @Override
+    protected void readState(DataInput in) throws IOException {
+        registeredAtMillis = SnapshotCodec.readVarLong(in);
+        loginCount = SnapshotCodec.readVarLong(in);
+        lastLoginAtMillis = SnapshotCodec.readVarLong(in);
+        lastActivityAtMillis = SnapshotCodec.readVarLong(in);
+    }
+
+    @Override
+    protected void describeState(Map<String, Object> view) {
+        view.put("loginCount", loginCount);
+        putInstant(view, "registeredAt", registeredAtMillis);
+        putInstant(view, "lastLoginAt", lastLoginAtMillis);
+        putInstant(view, "lastActivityAt", lastActivityAtMillis);
+    }
+}
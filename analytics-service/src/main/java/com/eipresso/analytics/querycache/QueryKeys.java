@@ -0,0 +1,45 @@
+package com.eipresso.analytics.querycache;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Canonical cache keys for CQRS queries
+ *
+ * The same query always maps to the same key however it was submitted:
+ * parameters are sorted, blank and absent parameters are dropped, values are
+ * trimmed and the query type is upper-cased. Only the parameters that select
+ * a result take part, so request ids and timestamps never split the cache.
+ */
+public final class QueryKeys {
+
+    /** Query parameters that select a result */
+    public static final String[] RESULT_PARAMETERS = {"userId", "orderId", "productId", "hours"};
+
+    private QueryKeys() {
+    }
+
+    public static String canonical(String queryType, Map<String, Object> parameters) {
+        Map<String, String> selected = new TreeMap<>();
+        for (String name : RESULT_PARAMETERS) {
+            Object value = parameters.get(name);
+            if (value != null && !value.toString().isBlank()) {
+                selected.put(name, value.toString().trim());
+            }
+        }
+
+        StringBuilder key = new StringBuilder(queryType.trim().toUpperCase(Locale.ROOT));
+        char separator = '?';
+        for (Map.Entry<String, String> parameter : selected.entrySet()) {
+            key.append(separator)
+                .append(parameter.getKey())
+                .append('=')
+                .append(URLEncoder.encode(parameter.getValue(), StandardCharsets.UTF_8));
+            separator = '&';
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,62 @@
+package com.eipresso.analytics.querycache;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Read models whose query results are cached, and the commands that change them
+ */
+public enum QueryView {
+    ORDERS("orders"),
+    USERS("users"),
+    REVENUE("revenue");
+
+    private final String code;
+
+    QueryView(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    /**
+     * @return the view a query type reads, or null when its results are not cached
+     */
+    public static QueryView forQueryType(String queryType) {
+        if (queryType == null) {
+            return null;
+        }
+        if (queryType.contains("ORDER")) return ORDERS;
+        if (queryType.contains("USER")) return USERS;
+        if (queryType.contains("REVENUE")) return REVENUE;
+        return null;
+    }
+
+    /**
+     * Views whose cached results a command makes stale
+     */
+    public static Set<QueryView> changedBy(String commandType) {
+        if ("CREATE_ORDER_ANALYTICS".equals(commandType)) {
+            // Order counts per product are part of the revenue report
+            return EnumSet.of(ORDERS, REVENUE);
+        }
+        if ("UPDATE_USER_METRICS".equals(commandType)) {
+            return EnumSet.of(USERS);
+        }
+        if ("CREATE_REVENUE_RECORD".equals(commandType)) {
+            return EnumSet.of(REVENUE);
+        }
+        return EnumSet.noneOf(QueryView.class);
+    }
+
+    public static QueryView fromCode(String code) {
+        for (QueryView view : values()) {
+            if (view.code.equals(code)) {
+                return view;
+            }
+        }
+        throw new IllegalArgumentException("Unknown query view: " + code);
+    }
+}
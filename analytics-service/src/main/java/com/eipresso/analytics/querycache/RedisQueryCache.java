@@ -0,0 +1,51 @@
+package com.eipresso.analytics.querycache;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+/**
+ * Redis tier of the query cache
+ *
+ * Generation bumps are published on {@link #INVALIDATION_CHANNEL} as
+ * {@code <view>:<generation>} so every node can drop its near-cache entries.
+ */
+public class RedisQueryCache implements RemoteQueryCache {
+
+    public static final String KEY_PREFIX = "analytics:query:";
+    public static final String INVALIDATION_CHANNEL = "analytics:query-cache:invalidations";
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisQueryCache(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String get(String key) {
+        return redisTemplate.opsForValue().get(KEY_PREFIX + key);
+    }
+
+    @Override
+    public void set(String key, String json, Duration ttl) {
+        redisTemplate.opsForValue().set(KEY_PREFIX + key, json, ttl);
+    }
+
+    @Override
+    public long generation(QueryView view) {
+        String generation = redisTemplate.opsForValue().get(generationKey(view));
+        return generation != null ? Long.parseLong(generation) : 0L;
+    }
+
+    @Override
+    public long bumpGeneration(QueryView view) {
+        Long generation = redisTemplate.opsForValue().increment(generationKey(view));
+        long bumped = generation != null ? generation : 0L;
+        redisTemplate.convertAndSend(INVALIDATION_CHANNEL, view.getCode() + ":" + bumped);
+        return bumped;
+    }
+
+    private static String generationKey(QueryView view) {
+        return KEY_PREFIX + "generation:" + view.getCode();
+    }
+}
@@ -0,0 +1,29 @@
+package com.eipresso.analytics.querycache;
+
+import java.time.Duration;
+
+/**
+ * Shared second tier of the query cache
+ *
+ * Besides the entries it keeps one generation counter per view. Keys embed
+ * the generation, so bumping it invalidates every cached result of the view
+ * at once without scanning for keys.
+ */
+public interface RemoteQueryCache {
+
+    /**
+     * @return the cached JSON, or null on a miss
+     */
+    String get(String key);
+
+    void set(String key, String json, Duration ttl);
+
+    long generation(QueryView view);
+
+    /**
+     * Increment the view's generation and announce it to the other nodes
+     *
+     * @return the new generation
+     */
+    long bumpGeneration(QueryView view);
+}
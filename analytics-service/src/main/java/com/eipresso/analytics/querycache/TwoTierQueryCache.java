@@ -0,0 +1,256 @@
+package com.eipresso.analytics.querycache;
+
+import com.eipresso.analytics.aggregation.LogLinearHistogram;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-Tier Query Cache
+ *
+ * A size-bounded near cache (Caffeine, W-TinyLFU admission) in front of the
+ * shared remote tier. Each view has its own TTL; near entries live for at
+ * most {@code nearMaxTtl} of it, which bounds how long a node can serve a
+ * result after missing an invalidation message.
+ *
+ * Invalidation works by generation: keys embed the view's current
+ * generation, and bumping it makes every older entry unreachable in both
+ * tiers. Old entries are then reclaimed by eviction and TTL.
+ *
+ * The remote tier is best effort. Its failures count as misses, so queries
+ * keep working against Elasticsearch while it is down.
+ */
+public class TwoTierQueryCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierQueryCache.class);
+
+    public static final String NEAR_TIER = "near";
+    public static final String REMOTE_TIER = "remote";
+
+    private final RemoteQueryCache remote;
+    private final ObjectMapper objectMapper;
+    private final Map<QueryView, Duration> ttls;
+    private final Duration nearMaxTtl;
+    private final Cache<String, NearEntry> near;
+    private final AtomicLongArray generations = new AtomicLongArray(QueryView.values().length);
+
+    private final LongAdder nearHits = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder remoteErrors = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LogLinearHistogram nearHitNanos = new LogLinearHistogram();
+    private final LogLinearHistogram remoteHitNanos = new LogLinearHistogram();
+    private final LogLinearHistogram missNanos = new LogLinearHistogram();
+
+    public TwoTierQueryCache(RemoteQueryCache remote, ObjectMapper objectMapper, Map<QueryView, Duration> ttls,
+                             long nearMaxEntries, Duration nearMaxTtl) {
+        this.remote = remote;
+        this.objectMapper = objectMapper;
+        this.ttls = new EnumMap<>(ttls);
+        this.nearMaxTtl = nearMaxTtl;
+        this.near = Caffeine.newBuilder()
+            .maximumSize(nearMaxEntries)
+            .expireAfter(new NearEntryExpiry())
+            .recordStats()
+            .build();
+        for (QueryView view : QueryView.values()) {
+            try {
+                generations.set(view.ordinal(), remote.generation(view));
+            } catch (RuntimeException e) {
+                remoteErrors.increment();
+                logger.warn("⚠️ Could not read query cache generation for {}: {}", view.getCode(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A cached result and the tier it came from
+     */
+    public static class Hit {
+        private final String tier;
+        private final Object value;
+
+        Hit(String tier, Object value) {
+            this.tier = tier;
+            this.value = value;
+        }
+
+        public String getTier() {
+            return tier;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * @return the cached result, or null on a miss in both tiers
+     */
+    public Hit get(QueryView view, String canonicalKey) {
+        long start = System.nanoTime();
+        String key = versionedKey(view, generations.get(view.ordinal()), canonicalKey);
+
+        NearEntry entry = near.getIfPresent(key);
+        if (entry != null) {
+            nearHits.increment();
+            record(nearHitNanos, start);
+            return new Hit(NEAR_TIER, entry.value);
+        }
+
+        try {
+            String json = remote.get(key);
+            if (json != null) {
+                Object value = objectMapper.readValue(json, Object.class);
+                near.put(key, new NearEntry(value, nearTtl(view)));
+                remoteHits.increment();
+                record(remoteHitNanos, start);
+                return new Hit(REMOTE_TIER, value);
+            }
+        } catch (RuntimeException | JsonProcessingException e) {
+            remoteErrors.increment();
+            logger.debug("Query cache remote read failed for {}: {}", key, e.getMessage());
+        }
+
+        misses.increment();
+        record(missNanos, start);
+        return null;
+    }
+
+    /**
+     * Cache a result loaded while the view was at {@code loadedGeneration}
+     *
+     * Results loaded before an invalidation are dropped rather than cached
+     * under the new generation.
+     */
+    public void put(QueryView view, String canonicalKey, long loadedGeneration, Object value) {
+        if (value == null || loadedGeneration != generations.get(view.ordinal())) {
+            return;
+        }
+        String key = versionedKey(view, loadedGeneration, canonicalKey);
+        near.put(key, new NearEntry(value, nearTtl(view)));
+        try {
+            remote.set(key, objectMapper.writeValueAsString(value), ttls.get(view));
+        } catch (RuntimeException | JsonProcessingException e) {
+            remoteErrors.increment();
+            logger.debug("Query cache remote write failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Make every cached result of the view unreachable, on this node at once and on the others via the remote tier
+     */
+    public void invalidate(QueryView view) {
+        invalidations.increment();
+        // Local bump first, so this node stops serving the old results even if the remote tier is down
+        generations.incrementAndGet(view.ordinal());
+        try {
+            advanceGeneration(view, remote.bumpGeneration(view));
+        } catch (RuntimeException e) {
+            remoteErrors.increment();
+            logger.warn("⚠️ Query cache invalidation of {} did not reach the remote tier: {}", view.getCode(), e.getMessage());
+        }
+    }
+
+    /**
+     * Apply a generation announced by another node
+     */
+    public void advanceGeneration(QueryView view, long generation) {
+        generations.accumulateAndGet(view.ordinal(), generation, Math::max);
+    }
+
+    public long getGeneration(QueryView view) {
+        return generations.get(view.ordinal());
+    }
+
+    public Map<String, Object> getStatistics() {
+        long nearHit = nearHits.sum();
+        long remoteHit = remoteHits.sum();
+        long miss = misses.sum();
+        long lookups = nearHit + remoteHit + miss;
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("lookups", lookups);
+        stats.put("nearHits", nearHit);
+        stats.put("remoteHits", remoteHit);
+        stats.put("misses", miss);
+        stats.put("nearHitRatio", lookups == 0 ? 0.0 : (double) nearHit / lookups);
+        stats.put("remoteHitRatio", lookups == 0 ? 0.0 : (double) remoteHit / lookups);
+        stats.put("hitRatio", lookups == 0 ? 0.0 : (double) (nearHit + remoteHit) / lookups);
+        stats.put("remoteErrors", remoteErrors.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("nearEntries", near.estimatedSize());
+        stats.put("nearEvictions", near.stats().evictionCount());
+        putLatency(stats, "nearHit", nearHitNanos);
+        putLatency(stats, "remoteHit", remoteHitNanos);
+        putLatency(stats, "miss", missNanos);
+
+        Map<String, Object> generationsByView = new HashMap<>();
+        for (QueryView view : QueryView.values()) {
+            generationsByView.put(view.getCode(), getGeneration(view));
+        }
+        stats.put("generations", generationsByView);
+        return stats;
+    }
+
+    private static String versionedKey(QueryView view, long generation, String canonicalKey) {
+        return view.getCode() + ":" + generation + ":" + canonicalKey;
+    }
+
+    private long nearTtl(QueryView view) {
+        return Math.min(ttls.get(view).toNanos(), nearMaxTtl.toNanos());
+    }
+
+    private static void record(LogLinearHistogram histogram, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        synchronized (histogram) {
+            histogram.record(elapsed);
+        }
+    }
+
+    private static void putLatency(Map<String, Object> stats, String tier, LogLinearHistogram histogram) {
+        synchronized (histogram) {
+            stats.put(tier + "P50Nanos", histogram.getValueAtPercentile(50));
+            stats.put(tier + "P99Nanos", histogram.getValueAtPercentile(99));
+        }
+    }
+
+    private static class NearEntry {
+        private final Object value;
+        private final long ttlNanos;
+
+        NearEntry(Object value, long ttlNanos) {
+            this.value = value;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    private static class NearEntryExpiry implements Expiry<String, NearEntry> {
+        @Override
+        public long expireAfterCreate(String key, NearEntry entry, long currentTime) {
+            return entry.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, NearEntry entry, long currentTime, long currentDuration) {
+            return entry.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(String key, NearEntry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.eipresso.analytics.readmodel;
+
+import com.eipresso.analytics.replay.StoredEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Command Log document layout
+ *
+ * Every CQRS command is also indexed into {@code cqrs-commands}, so a node
+ * that starts later can seed its materialized views from history. Documents
+ * carry the event store's sort fields ({@code eventTimeMillis} and
+ * {@code eventId}), so the same search_after paging reads them back in the
+ * order they were accepted.
+ */
+public final class CommandLog {
+
+    public static final String INDEX_NAME = "cqrs-commands";
+
+    public static final String COMMAND_TYPE = "commandType";
+    public static final String COMMAND = "command";
+
+    private CommandLog() {
+    }
+
+    public static Map<String, Object> toDocument(String commandId, String commandType, Map<?, ?> command,
+                                                 long commandTimeMillis) {
+        Map<String, Object> document = new HashMap<>();
+        document.put(StoredEvent.EVENT_ID, commandId);
+        document.put(StoredEvent.EVENT_TIME_MILLIS, commandTimeMillis);
+        document.put(COMMAND_TYPE, commandType);
+        document.put(COMMAND, command);
+        return document;
+    }
+
+    public static String commandTypeOf(Map<String, Object> document) {
+        Object commandType = document.get(COMMAND_TYPE);
+        return commandType != null ? commandType.toString() : null;
+    }
+
+    public static Map<?, ?> commandOf(Map<String, Object> document) {
+        return document.get(COMMAND) instanceof Map<?, ?> command ? command : Map.of();
+    }
+
+    public static long timeMillisOf(Map<String, Object> document) {
+        return ((Number) document.get(StoredEvent.EVENT_TIME_MILLIS)).longValue();
+    }
+}
@@ -0,0 +1,67 @@
+package com.eipresso.analytics.readmodel;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Orders per hour, keyed by the hour the order command was issued in
+ *
+ * Hours older than the retention are dropped as new hours open, so the view
+ * stays a fixed size however long the service runs.
+ */
+public class HourlyOrderCounts {
+
+    static final long HOUR_MILLIS = 3_600_000L;
+
+    private final int retentionHours;
+    private final ConcurrentSkipListMap<Long, LongAdder> counts = new ConcurrentSkipListMap<>();
+
+    public HourlyOrderCounts(int retentionHours) {
+        if (retentionHours < 1) {
+            throw new IllegalArgumentException("retentionHours must be positive: " + retentionHours);
+        }
+        this.retentionHours = retentionHours;
+    }
+
+    public void record(long timeMillis) {
+        long hour = Math.floorDiv(timeMillis, HOUR_MILLIS);
+        LongAdder count = counts.get(hour);
+        if (count == null) {
+            LongAdder opened = new LongAdder();
+            count = counts.putIfAbsent(hour, opened);
+            if (count == null) {
+                count = opened;
+                counts.headMap(hour - retentionHours).clear();
+            }
+        }
+        count.increment();
+    }
+
+    /**
+     * Counts for the trailing hours up to and including the current one, oldest first, with empty hours as zero
+     */
+    public Map<String, Object> lastHours(int hours, long nowMillis) {
+        int window = Math.max(1, Math.min(hours, retentionHours));
+        long currentHour = Math.floorDiv(nowMillis, HOUR_MILLIS);
+        Map<String, Long> perHour = new LinkedHashMap<>();
+        long total = 0;
+        for (long hour = currentHour - window + 1; hour <= currentHour; hour++) {
+            LongAdder count = counts.get(hour);
+            long value = count != null ? count.sum() : 0L;
+            perHour.put(Instant.ofEpochMilli(hour * HOUR_MILLIS).toString(), value);
+            total += value;
+        }
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("hours", window);
+        view.put("totalOrders", total);
+        view.put("ordersPerHour", perHour);
+        return view;
+    }
+
+    public int getRetentionHours() {
+        return retentionHours;
+    }
+}
@@ -0,0 +1,204 @@
+package com.eipresso.analytics.readmodel;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Materialized Read Models
+ *
+ * In-process views kept up to date from the CQRS command stream: orders per
+ * hour, revenue by product and user cohorts. Query shapes these views can
+ * answer are served from memory; anything else (per-order or per-user
+ * lookups, unknown query types, or a view older than the caller allows)
+ * returns null so the caller falls through to Elasticsearch. A view's age is
+ * the time since it last applied a command; one that never has is stale.
+ *
+ * The views are node-local and only reflect commands this node has seen
+ * since {@code coverageSince}, which every answer reports alongside its
+ * staleness. Hourly counts answer only windows that start within that
+ * coverage. Revenue and cohorts are all-time totals, so they answer only
+ * once {@link #markBootstrapped} says the views were seeded from history
+ * through {@link #seed}.
+ */
+public class MaterializedReadModels {
+
+    public static final String SOURCE = "materialized-view";
+
+    static final int DEFAULT_HOURS = 24;
+
+    private final HourlyOrderCounts orderCounts;
+    private final RevenueByProduct revenueByProduct = new RevenueByProduct();
+    private final UserCohorts userCohorts = new UserCohorts();
+    private final LongSupplier clock;
+    private volatile long coverageSinceMillis;
+    private volatile boolean bootstrapped;
+
+    private final LongAdder commandsApplied = new LongAdder();
+    private volatile long lastAppliedMillis;
+    private volatile long lastSyncLagMillis = -1L;
+
+    public MaterializedReadModels(int orderCountRetentionHours) {
+        this(orderCountRetentionHours, System::currentTimeMillis);
+    }
+
+    public MaterializedReadModels(int orderCountRetentionHours, LongSupplier clock) {
+        this.orderCounts = new HourlyOrderCounts(orderCountRetentionHours);
+        this.clock = clock;
+        this.coverageSinceMillis = clock.getAsLong();
+    }
+
+    /**
+     * Fold one command into the views
+     *
+     * @param command           the command as submitted (orderId, userId, productId, amount)
+     * @param commandTimeMillis when the command was accepted
+     */
+    public void apply(String commandType, Map<?, ?> command, long commandTimeMillis) {
+        if (!fold(commandType, command, commandTimeMillis)) {
+            return;
+        }
+        long now = clock.getAsLong();
+        commandsApplied.increment();
+        lastSyncLagMillis = Math.max(0L, now - commandTimeMillis);
+        lastAppliedMillis = now;
+    }
+
+    /**
+     * Fold one command from history into the views; unlike {@link #apply} it leaves the sync lag alone
+     */
+    public void seed(String commandType, Map<?, ?> command, long commandTimeMillis) {
+        if (fold(commandType, command, commandTimeMillis)) {
+            commandsApplied.increment();
+        }
+    }
+
+    private boolean fold(String commandType, Map<?, ?> command, long commandTimeMillis) {
+        if ("CREATE_ORDER_ANALYTICS".equals(commandType)) {
+            orderCounts.record(commandTimeMillis);
+            revenueByProduct.recordOrder(stringOf(command.get("productId")));
+        } else if ("CREATE_REVENUE_RECORD".equals(commandType)) {
+            Long amountCents = amountCentsOf(command.get("amount"));
+            if (amountCents != null) {
+                revenueByProduct.recordRevenue(stringOf(command.get("productId")), amountCents);
+            }
+        } else if ("UPDATE_USER_METRICS".equals(commandType)) {
+            String userId = stringOf(command.get("userId"));
+            if (userId != null) {
+                userCohorts.record(userId, commandTimeMillis);
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record that the views were seeded with every command since {@code coveredSinceMillis}, e.g. by a replay;
+     * they are then current as of now, even when history held no commands
+     */
+    public void markBootstrapped(long coveredSinceMillis) {
+        coverageSinceMillis = Math.min(coverageSinceMillis, coveredSinceMillis);
+        lastAppliedMillis = Math.max(lastAppliedMillis, clock.getAsLong());
+        bootstrapped = true;
+    }
+
+    public long getCoverageSinceMillis() {
+        return coverageSinceMillis;
+    }
+
+    /**
+     * @param parameters query parameters: orderId, userId, productId, hours, maxStalenessMs
+     * @return the view plus its staleness metadata, or null when the query has to go to Elasticsearch
+     */
+    public Map<String, Object> answer(String queryType, Map<String, Object> parameters) {
+        long lastApplied = lastAppliedMillis;
+        if (lastApplied == 0) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        Long maxStalenessMillis = longOf(parameters.get("maxStalenessMs"));
+        if (maxStalenessMillis != null && now - lastApplied > maxStalenessMillis) {
+            return null;
+        }
+
+        String view;
+        Map<String, Object> data;
+        if ("GET_ORDER_ANALYTICS".equals(queryType) && parameters.get("orderId") == null) {
+            Long hours = longOf(parameters.get("hours"));
+            int window = Math.max(1, Math.min(hours != null ? hours.intValue() : DEFAULT_HOURS,
+                orderCounts.getRetentionHours()));
+            long firstHour = Math.floorDiv(now, HourlyOrderCounts.HOUR_MILLIS) - window + 1;
+            if (firstHour * HourlyOrderCounts.HOUR_MILLIS < coverageSinceMillis) {
+                // The oldest hours would be missing the orders from before this node started
+                return null;
+            }
+            view = "hourly-order-counts";
+            data = orderCounts.lastHours(window, now);
+        } else if ("GET_REVENUE_REPORT".equals(queryType) && bootstrapped) {
+            view = "revenue-by-product";
+            data = revenueByProduct.report(stringOf(parameters.get("productId")));
+        } else if ("GET_USER_DASHBOARD".equals(queryType) && parameters.get("userId") == null && bootstrapped) {
+            view = "user-cohorts";
+            data = userCohorts.report();
+        } else {
+            return null;
+        }
+
+        Map<String, Object> answer = new LinkedHashMap<>(data);
+        Map<String, Object> metadata = getStaleness(now);
+        metadata.put("view", view);
+        answer.put("readModel", metadata);
+        return answer;
+    }
+
+    public Map<String, Object> getStaleness() {
+        return getStaleness(clock.getAsLong());
+    }
+
+    private Map<String, Object> getStaleness(long now) {
+        long lastApplied = lastAppliedMillis;
+        Map<String, Object> metadata = new LinkedHashMap<>();
+        metadata.put("source", SOURCE);
+        metadata.put("coverageSince", Instant.ofEpochMilli(coverageSinceMillis).toString());
+        metadata.put("asOf", lastApplied == 0 ? null : Instant.ofEpochMilli(lastApplied).toString());
+        metadata.put("ageMillis", now - (lastApplied == 0 ? coverageSinceMillis : lastApplied));
+        metadata.put("syncLagMillis", lastSyncLagMillis < 0 ? null : lastSyncLagMillis);
+        metadata.put("bootstrapped", bootstrapped);
+        metadata.put("commandsApplied", commandsApplied.sum());
+        return metadata;
+    }
+
+    private static String stringOf(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static Long longOf(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return Long.parseLong(value.toString().trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long amountCentsOf(Object amount) {
+        if (amount == null) {
+            return null;
+        }
+        try {
+            return new BigDecimal(amount.toString()).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+}
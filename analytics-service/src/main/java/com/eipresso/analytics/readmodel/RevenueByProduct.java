@@ -0,0 +1,72 @@
+package com.eipresso.analytics.readmodel;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revenue and order counts per product
+ *
+ * Revenue is kept in cents so concurrent additions stay exact.
+ */
+public class RevenueByProduct {
+
+    static final String UNATTRIBUTED = "unattributed";
+
+    private final Map<String, ProductTotals> products = new ConcurrentHashMap<>();
+
+    public void recordOrder(String productId) {
+        totalsOf(productId).orders.increment();
+    }
+
+    public void recordRevenue(String productId, long amountCents) {
+        totalsOf(productId).revenueCents.add(amountCents);
+    }
+
+    /**
+     * Products by revenue, highest first; a single product when productId is given
+     */
+    public Map<String, Object> report(String productId) {
+        List<Map.Entry<String, ProductTotals>> selected = new ArrayList<>();
+        if (productId != null) {
+            ProductTotals totals = products.get(productId);
+            if (totals != null) {
+                selected.add(Map.entry(productId, totals));
+            }
+        } else {
+            selected.addAll(products.entrySet());
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>(selected.size());
+        long totalCents = 0;
+        for (Map.Entry<String, ProductTotals> entry : selected) {
+            long revenueCents = entry.getValue().revenueCents.sum();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("productId", entry.getKey());
+            row.put("revenue", BigDecimal.valueOf(revenueCents, 2));
+            row.put("orders", entry.getValue().orders.sum());
+            rows.add(row);
+            totalCents += revenueCents;
+        }
+        rows.sort(Comparator.comparing((Map<String, Object> row) -> (BigDecimal) row.get("revenue")).reversed());
+
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("totalRevenue", BigDecimal.valueOf(totalCents, 2));
+        view.put("products", rows);
+        return view;
+    }
+
+    private ProductTotals totalsOf(String productId) {
+        return products.computeIfAbsent(productId != null ? productId : UNATTRIBUTED, id -> new ProductTotals());
+    }
+
+    private static class ProductTotals {
+        private final LongAdder revenueCents = new LongAdder();
+        private final LongAdder orders = new LongAdder();
+    }
+}
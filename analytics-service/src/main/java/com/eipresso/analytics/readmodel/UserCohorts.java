@@ -0,0 +1,59 @@
+package com.eipresso.analytics.readmodel;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Users grouped by the month (UTC) they were first seen in, with the
+ * activity each cohort has generated since
+ */
+public class UserCohorts {
+
+    private final Map<String, String> cohortOfUser = new ConcurrentHashMap<>();
+    private final Map<String, CohortTotals> cohorts = new ConcurrentHashMap<>();
+
+    public void record(String userId, long timeMillis) {
+        String cohort = cohortOfUser.get(userId);
+        if (cohort == null) {
+            String firstSeen = YearMonth.from(Instant.ofEpochMilli(timeMillis).atOffset(ZoneOffset.UTC)).toString();
+            cohort = cohortOfUser.putIfAbsent(userId, firstSeen);
+            if (cohort == null) {
+                cohort = firstSeen;
+                cohorts.computeIfAbsent(cohort, c -> new CohortTotals()).users.increment();
+            }
+        }
+        cohorts.computeIfAbsent(cohort, c -> new CohortTotals()).activity.increment();
+    }
+
+    /**
+     * Cohorts oldest first
+     */
+    public Map<String, Object> report() {
+        Map<String, Object> perCohort = new TreeMap<>();
+        cohorts.forEach((cohort, totals) -> {
+            long users = totals.users.sum();
+            long activity = totals.activity.sum();
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("users", users);
+            row.put("activity", activity);
+            row.put("activityPerUser", users == 0 ? 0.0 : (double) activity / users);
+            perCohort.put(cohort, row);
+        });
+
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("totalUsers", cohortOfUser.size());
+        view.put("cohorts", perCohort);
+        return view;
+    }
+
+    private static class CohortTotals {
+        private final LongAdder users = new LongAdder();
+        private final LongAdder activity = new LongAdder();
+    }
+}
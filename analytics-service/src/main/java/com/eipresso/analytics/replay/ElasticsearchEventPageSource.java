@@ -0,0 +1,106 @@
+package com.eipresso.analytics.replay;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pages through the business-events index, or another index with the same
+ * sort fields, with search_after
+ *
+ * Sorted by eventTimeMillis then eventId, which is stable and unique, so
+ * pages neither skip nor repeat events even while new events are written.
+ */
+public class ElasticsearchEventPageSource implements EventPageSource {
+
+    private static final TypeReference<Map<String, Object>> DOCUMENT_TYPE = new TypeReference<>() {};
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI searchUri;
+    private final Duration requestTimeout;
+
+    public ElasticsearchEventPageSource(String baseUrl, ObjectMapper objectMapper, Duration requestTimeout) {
+        this(baseUrl, StoredEvent.INDEX_NAME, objectMapper, requestTimeout);
+    }
+
+    public ElasticsearchEventPageSource(String baseUrl, String indexName, ObjectMapper objectMapper,
+                                        Duration requestTimeout) {
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(requestTimeout)
+            .build();
+        this.objectMapper = objectMapper;
+        this.searchUri = URI.create(baseUrl.replaceAll("/+$", "") + "/" + indexName + "/_search");
+        this.requestTimeout = requestTimeout;
+    }
+
+    @Override
+    public EventPage fetch(ReplayCriteria criteria, List<Object> cursor, int pageSize) throws IOException {
+        HttpRequest request = HttpRequest.newBuilder(searchUri)
+            .timeout(requestTimeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(query(criteria, cursor, pageSize))))
+            .build();
+
+        HttpResponse<byte[]> response;
+        try {
+            response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading the event store", e);
+        }
+        if (response.statusCode() == 404) {
+            return new EventPage(List.of(), null);
+        }
+        if (response.statusCode() >= 300) {
+            throw new IOException("Event store search failed (HTTP " + response.statusCode() + ")");
+        }
+
+        JsonNode hits = objectMapper.readTree(response.body()).path("hits").path("hits");
+        List<Map<String, Object>> events = new ArrayList<>(hits.size());
+        List<Object> nextCursor = null;
+        for (JsonNode hit : hits) {
+            events.add(objectMapper.convertValue(hit.path("_source"), DOCUMENT_TYPE));
+            nextCursor = objectMapper.convertValue(hit.path("sort"), new TypeReference<List<Object>>() {});
+        }
+        return new EventPage(events, nextCursor);
+    }
+
+    private static Map<String, Object> query(ReplayCriteria criteria, List<Object> cursor, int pageSize) {
+        List<Object> filters = new ArrayList<>();
+        if (criteria.getCorrelationId() != null) {
+            filters.add(Map.of("term", Map.of(StoredEvent.CORRELATION_ID + ".keyword", criteria.getCorrelationId())));
+        }
+        if (criteria.getAggregateId() != null) {
+            filters.add(Map.of("term", Map.of(criteria.getAggregateField() + ".keyword", criteria.getAggregateId())));
+        }
+        if (criteria.getFromMillis() != null || criteria.getToMillis() != null) {
+            Map<String, Object> range = new HashMap<>();
+            if (criteria.getFromMillis() != null) range.put("gte", criteria.getFromMillis());
+            if (criteria.getToMillis() != null) range.put("lt", criteria.getToMillis());
+            filters.add(Map.of("range", Map.of(StoredEvent.EVENT_TIME_MILLIS, range)));
+        }
+
+        Map<String, Object> query = new HashMap<>();
+        query.put("size", pageSize);
+        query.put("query", Map.of("bool", Map.of("filter", filters)));
+        query.put("sort", List.of(
+            Map.of(StoredEvent.EVENT_TIME_MILLIS, "asc"),
+            Map.of(StoredEvent.EVENT_ID + ".keyword", "asc")));
+        if (cursor != null) {
+            query.put("search_after", cursor);
+        }
+        return query;
+    }
+}
@@ -0,0 +1,27 @@
+package com.eipresso.analytics.replay;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of stored events plus the cursor to read the next page from
+ */
+public class EventPage {
+
+    private final List<Map<String, Object>> events;
+    private final List<Object> nextCursor;
+
+    public EventPage(List<Map<String, Object>> events, List<Object> nextCursor) {
+        this.events = events;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Map<String, Object>> getEvents() {
+        return events;
+    }
+
+    /** Sort values of the last event (search_after), or null when the page is empty */
+    public List<Object> getNextCursor() {
+        return nextCursor;
+    }
+}
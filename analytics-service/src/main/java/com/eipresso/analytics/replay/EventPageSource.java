@@ -0,0 +1,17 @@
+package com.eipresso.analytics.replay;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads stored events in replay order, one page at a time
+ */
+public interface EventPageSource {
+
+    /**
+     * @param criteria  events to read
+     * @param cursor    cursor returned with the previous page, or null for the first page
+     * @param pageSize  maximum events to return
+     */
+    EventPage fetch(ReplayCriteria criteria, List<Object> cursor, int pageSize) throws IOException;
+}
@@ -0,0 +1,178 @@
+package com.eipresso.analytics.replay;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Event Replay Engine
+ *
+ * Streams stored events back through processing. Each job reads the store
+ * page by page with a search-after cursor, so memory stays at one page no
+ * matter how many events match, and hands events to a fixed set of dispatch
+ * lanes:
+ *
+ * - Concurrency is bounded by the number of lanes. Events of one
+ *   correlationId always use the same lane, so they are replayed in the order
+ *   they were stored.
+ * - At most {@code lanes * LANE_BACKLOG} events are read ahead of dispatch;
+ *   the reader waits when the lanes fall behind.
+ * - Dispatch is paced to {@code maxEventsPerSecond} (0 for unlimited) so a
+ *   rebuild does not starve live traffic.
+ */
+public class EventReplayEngine implements AutoCloseable {
+
+    private static final int LANE_BACKLOG = 64;
+    private static final long MAX_BURST_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Pushes one stored event document back through processing
+     */
+    @FunctionalInterface
+    public interface Dispatcher {
+        void dispatch(String replayId, Map<String, Object> document) throws Exception;
+    }
+
+    private final EventPageSource source;
+    private final Dispatcher dispatcher;
+    private final int pageSize;
+    private final int lanes;
+    private final int maxEventsPerSecond;
+    private final ExecutorService readers = Executors.newCachedThreadPool(daemonThreads("event-replay-reader"));
+
+    public EventReplayEngine(EventPageSource source, Dispatcher dispatcher,
+                             int pageSize, int lanes, int maxEventsPerSecond) {
+        this.source = source;
+        this.dispatcher = dispatcher;
+        this.pageSize = pageSize;
+        this.lanes = lanes;
+        this.maxEventsPerSecond = maxEventsPerSecond;
+    }
+
+    public ReplayJob start(ReplayCriteria criteria) {
+        ReplayJob job = new ReplayJob(UUID.randomUUID().toString(), criteria);
+        readers.execute(() -> run(job));
+        return job;
+    }
+
+    @Override
+    public void close() {
+        readers.shutdownNow();
+    }
+
+    private void run(ReplayJob job) {
+        ExecutorService[] laneExecutors = new ExecutorService[lanes];
+        ThreadFactory laneThreads = daemonThreads("event-replay-" + job.getReplayId().substring(0, 8));
+        for (int i = 0; i < lanes; i++) {
+            laneExecutors[i] = Executors.newSingleThreadExecutor(laneThreads);
+        }
+        Semaphore readAhead = new Semaphore(lanes * LANE_BACKLOG);
+        long intervalNanos = maxEventsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxEventsPerSecond : 0L;
+        long nextSlot = System.nanoTime();
+        ReplayStatus status = ReplayStatus.COMPLETED;
+
+        try {
+            List<Object> cursor = null;
+            boolean more = true;
+            while (more && !job.isCancelRequested()) {
+                EventPage page = source.fetch(job.getCriteria(), cursor, pageSize);
+                job.pagesRead.incrementAndGet();
+
+                for (Map<String, Object> document : page.getEvents()) {
+                    if (job.isCancelRequested()) {
+                        break;
+                    }
+                    if (intervalNanos > 0) {
+                        nextSlot = pace(nextSlot, intervalNanos);
+                    }
+                    readAhead.acquire();
+                    job.eventsRead.incrementAndGet();
+                    laneExecutors[laneOf(document)].execute(() -> dispatch(job, document, readAhead));
+                }
+
+                cursor = page.getNextCursor();
+                more = page.getEvents().size() == pageSize && cursor != null;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.cancel();
+        } catch (IOException | RuntimeException e) {
+            status = ReplayStatus.FAILED;
+            job.recordError("Reading event store failed: " + e.getMessage());
+        } finally {
+            for (ExecutorService lane : laneExecutors) {
+                lane.shutdown();
+            }
+            awaitLanes(laneExecutors);
+            if (status != ReplayStatus.FAILED && job.isCancelRequested()) {
+                status = ReplayStatus.CANCELLED;
+            }
+            job.finish(status);
+        }
+    }
+
+    private void dispatch(ReplayJob job, Map<String, Object> document, Semaphore readAhead) {
+        try {
+            dispatcher.dispatch(job.getReplayId(), document);
+            job.eventsDispatched.incrementAndGet();
+        } catch (Exception e) {
+            job.eventsFailed.incrementAndGet();
+            job.recordError("Event " + document.get(StoredEvent.EVENT_ID) + " failed: " + e.getMessage());
+        } finally {
+            readAhead.release();
+        }
+    }
+
+    private int laneOf(Map<String, Object> document) {
+        Object key = document.get(StoredEvent.CORRELATION_ID);
+        if (key == null) {
+            key = document.get(StoredEvent.EVENT_ID);
+        }
+        return key == null ? 0 : Math.floorMod(key.hashCode(), lanes);
+    }
+
+    /**
+     * Wait for the next dispatch slot; after an idle stretch allow at most one
+     * second of catch-up burst
+     */
+    private static long pace(long nextSlot, long intervalNanos) throws InterruptedException {
+        long now = System.nanoTime();
+        if (now - nextSlot > MAX_BURST_NANOS) {
+            nextSlot = now - MAX_BURST_NANOS;
+        }
+        long wait = nextSlot - now;
+        if (wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        return nextSlot + intervalNanos;
+    }
+
+    private static void awaitLanes(ExecutorService[] laneExecutors) {
+        for (ExecutorService lane : laneExecutors) {
+            try {
+                while (!lane.awaitTermination(1, TimeUnit.SECONDS)) {
+                    // Lanes drain what was already read; keep waiting so progress stays accurate
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                lane.shutdownNow();
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger ids = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + ids.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,76 @@
+package com.eipresso.analytics.replay;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Which stored events a replay covers: one correlationId, one aggregate
+ * (e.g. orderId), a time range, or a combination
+ */
+public class ReplayCriteria {
+
+    private final String correlationId;
+    private final Long fromMillis;
+    private final Long toMillis;
+    private final String aggregateField;
+    private final String aggregateId;
+
+    public ReplayCriteria(String correlationId, Long fromMillis, Long toMillis) {
+        this(correlationId, fromMillis, toMillis, null, null);
+    }
+
+    public ReplayCriteria(String correlationId, Long fromMillis, Long toMillis,
+                          String aggregateField, String aggregateId) {
+        if (correlationId == null && aggregateId == null && fromMillis == null && toMillis == null) {
+            throw new IllegalArgumentException("Replay needs a correlationId, an aggregate or a time range");
+        }
+        this.correlationId = correlationId;
+        this.fromMillis = fromMillis;
+        this.toMillis = toMillis;
+        this.aggregateField = aggregateField;
+        this.aggregateId = aggregateId;
+    }
+
+    public static ReplayCriteria forCorrelationId(String correlationId) {
+        return new ReplayCriteria(correlationId, null, null);
+    }
+
+    /**
+     * Events of one aggregate from {@code fromMillis} on, e.g. the tail after a snapshot
+     */
+    public static ReplayCriteria forAggregate(String aggregateField, String aggregateId, Long fromMillis) {
+        return new ReplayCriteria(null, fromMillis, null, aggregateField, aggregateId);
+    }
+
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    /** Inclusive lower bound on eventTimeMillis, or null */
+    public Long getFromMillis() {
+        return fromMillis;
+    }
+
+    /** Exclusive upper bound on eventTimeMillis, or null */
+    public Long getToMillis() {
+        return toMillis;
+    }
+
+    /** Stored event field identifying the aggregate, or null */
+    public String getAggregateField() {
+        return aggregateField;
+    }
+
+    public String getAggregateId() {
+        return aggregateId;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        if (correlationId != null) map.put("correlationId", correlationId);
+        if (aggregateId != null) map.put(aggregateField, aggregateId);
+        if (fromMillis != null) map.put("fromMillis", fromMillis);
+        if (toMillis != null) map.put("toMillis", toMillis);
+        return map;
+    }
+}
@@ -0,0 +1,116 @@
+package com.eipresso.analytics.replay;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Replay Job
+ *
+ * Progress of one replay: counters are updated by the reader and the
+ * dispatch lanes while the job runs and can be read at any time.
+ */
+public class ReplayJob {
+
+    private final String replayId;
+    private final ReplayCriteria criteria;
+    private final Instant startedAt = Instant.now();
+    private final long startedNanos = System.nanoTime();
+
+    final AtomicLong eventsRead = new AtomicLong();
+    final AtomicLong eventsDispatched = new AtomicLong();
+    final AtomicLong eventsFailed = new AtomicLong();
+    final AtomicLong pagesRead = new AtomicLong();
+
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile ReplayStatus status = ReplayStatus.RUNNING;
+    private volatile boolean cancelRequested;
+    private volatile String lastError;
+    private volatile Instant completedAt;
+    private volatile long completedNanos;
+
+    ReplayJob(String replayId, ReplayCriteria criteria) {
+        this.replayId = replayId;
+        this.criteria = criteria;
+    }
+
+    public String getReplayId() {
+        return replayId;
+    }
+
+    public ReplayCriteria getCriteria() {
+        return criteria;
+    }
+
+    public ReplayStatus getStatus() {
+        return status;
+    }
+
+    public long getEventsRead() {
+        return eventsRead.get();
+    }
+
+    public long getEventsDispatched() {
+        return eventsDispatched.get();
+    }
+
+    public long getEventsFailed() {
+        return eventsFailed.get();
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    /**
+     * Ask the job to stop after the events already handed to the dispatch lanes
+     */
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    void recordError(String error) {
+        lastError = error;
+    }
+
+    void finish(ReplayStatus finalStatus) {
+        completedNanos = System.nanoTime();
+        completedAt = Instant.now();
+        status = finalStatus;
+        finished.countDown();
+    }
+
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        return finished.await(timeout, unit);
+    }
+
+    public Map<String, Object> toProgress() {
+        long elapsedNanos = (status.isFinished() ? completedNanos : System.nanoTime()) - startedNanos;
+        double elapsedSeconds = Math.max(elapsedNanos, 1L) / 1e9;
+
+        Map<String, Object> progress = new LinkedHashMap<>();
+        progress.put("replayId", replayId);
+        progress.put("status", status.name());
+        progress.put("criteria", criteria.toMap());
+        progress.put("pagesRead", pagesRead.get());
+        progress.put("eventsRead", eventsRead.get());
+        progress.put("eventsDispatched", eventsDispatched.get());
+        progress.put("eventsFailed", eventsFailed.get());
+        progress.put("eventsPerSecond", eventsDispatched.get() / elapsedSeconds);
+        progress.put("startedAt", startedAt.toString());
+        if (completedAt != null) {
+            progress.put("completedAt", completedAt.toString());
+        }
+        if (lastError != null) {
+            progress.put("lastError", lastError);
+        }
+        return progress;
+    }
+}
@@ -0,0 +1,15 @@
+package com.eipresso.analytics.replay;
+
+/**
+ * Lifecycle of a replay job
+ */
+public enum ReplayStatus {
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this != RUNNING;
+    }
+}
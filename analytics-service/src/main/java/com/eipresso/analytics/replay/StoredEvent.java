@@ -0,0 +1,137 @@
+package com.eipresso.analytics.replay;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stored Event document layout
+ *
+ * Shape of a document in the {@code business-events} store: the routing
+ * headers the event was processed with, plus the original body under
+ * {@code payload}. Keeping the headers is what lets a replayed event take the
+ * same path through {@code direct:business-event-processor} again.
+ * {@code eventTimeMillis} and {@code eventId} are the replay sort order.
+ */
+public final class StoredEvent {
+
+    public static final String INDEX_NAME = "business-events";
+
+    public static final String EVENT_ID = "eventId";
+    public static final String CORRELATION_ID = "correlationId";
+    public static final String EVENT_TIMESTAMP = "eventTimestamp";
+    public static final String EVENT_TIME_MILLIS = "eventTimeMillis";
+    public static final String STORAGE_TIMESTAMP = "storageTimestamp";
+    public static final String PAYLOAD = "payload";
+
+    /** Headers carried from the original exchange into the stored document and back */
+    static final String[] ROUTING_HEADERS = {
+        EVENT_ID, CORRELATION_ID, "eventType", "sourceService", "userId", "orderId", "amount", "sourcingVersion"
+    };
+
+    /** Fields of a submitted event that become its routing headers */
+    static final String[] SOURCED_FIELDS = {
+        "eventType", "sourceService", "userId", "orderId", "amount"
+    };
+
+    private StoredEvent() {
+    }
+
+    public static Map<String, Object> toDocument(Map<String, Object> headers, Object payload) {
+        Map<String, Object> document = new HashMap<>();
+        for (String header : ROUTING_HEADERS) {
+            Object value = headers.get(header);
+            if (value != null) {
+                document.put(header, value.toString());
+            }
+        }
+        LocalDateTime eventTimestamp = headers.get(EVENT_TIMESTAMP) instanceof LocalDateTime timestamp
+            ? timestamp : LocalDateTime.now();
+        document.put(EVENT_TIMESTAMP, eventTimestamp.toString());
+        document.put(EVENT_TIME_MILLIS, eventTimeMillisOf(eventTimestamp));
+        document.put(STORAGE_TIMESTAMP, LocalDateTime.now().toString());
+        document.put(PAYLOAD, payload);
+        return document;
+    }
+
+    /**
+     * Routing headers for an event submitted to the event sourcing endpoint
+     */
+    public static Map<String, Object> sourcedHeadersOf(Map<String, Object> eventData) {
+        Map<String, Object> headers = new HashMap<>();
+        for (String field : SOURCED_FIELDS) {
+            Object value = eventData.get(field);
+            if (value != null) {
+                headers.put(field, value);
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Headers to replay a stored document with
+     */
+    public static Map<String, Object> headersOf(Map<String, Object> document) {
+        Map<String, Object> headers = new HashMap<>();
+        for (String header : ROUTING_HEADERS) {
+            Object value = document.get(header);
+            if (value != null) {
+                headers.put(header, value);
+            }
+        }
+        Object eventTimestamp = document.get(EVENT_TIMESTAMP);
+        if (eventTimestamp != null) {
+            headers.put(EVENT_TIMESTAMP, LocalDateTime.parse(eventTimestamp.toString()));
+        }
+        return headers;
+    }
+
+    /**
+     * Replay-order time of an event from its eventTimestamp header (server zone)
+     */
+    public static long eventTimeMillisOf(LocalDateTime eventTimestamp) {
+        return eventTimestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Epoch millis of a timestamp given as epoch millis, a date-time, or ISO-8601
+     * text with or without an offset; one without an offset is in the server zone
+     *
+     * @throws DateTimeParseException when the text is not an ISO-8601 date-time
+     */
+    public static Long epochMillisOf(Object timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        if (timestamp instanceof Number number) {
+            return number.longValue();
+        }
+        if (timestamp instanceof LocalDateTime localDateTime) {
+            return eventTimeMillisOf(localDateTime);
+        }
+        if (timestamp instanceof Instant instant) {
+            return instant.toEpochMilli();
+        }
+        if (timestamp instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant().toEpochMilli();
+        }
+        if (timestamp instanceof ZonedDateTime zonedDateTime) {
+            return zonedDateTime.toInstant().toEpochMilli();
+        }
+        TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(
+            timestamp.toString(), ZonedDateTime::from, LocalDateTime::from);
+        return parsed instanceof ZonedDateTime zoned
+            ? zoned.toInstant().toEpochMilli() : eventTimeMillisOf((LocalDateTime) parsed);
+    }
+
+    public static Object payloadOf(Map<String, Object> document) {
+        return document.get(PAYLOAD);
+    }
+}
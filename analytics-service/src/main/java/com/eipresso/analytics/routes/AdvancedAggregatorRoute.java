@@ -1,9 +1,13 @@
 package com.eipresso.analytics.routes;
 
+import com.eipresso.analytics.aggregation.WindowAccumulator;
+import com.eipresso.analytics.aggregation.WindowAccumulatorAggregationStrategy;
 import org.apache.camel.Exchange;
 import org.apache.camel.LoggingLevel;
 import org.apache.camel.builder.RouteBuilder;
-import org.apache.camel.processor.aggregate.GroupedExchangeAggregationStrategy;
+import org.apache.camel.spi.AggregationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -20,6 +24,11 @@ import java.util.concurrent.atomic.AtomicLong;
  * EIP Pattern: Aggregator Pattern (Advanced)
  * Purpose: Time-window metrics aggregation with correlation and business intelligence
  * Clustering: Active-Active compatible (distributed aggregation)
+ *
+ * Open time-window and correlation windows are kept in cluster-shared
+ * aggregation repositories (see AggregationRepositoryConfiguration) with
+ * optimistic locking, so any node can fold events into a window and windows
+ * survive a node restart.
  * 
  * Routes:
  * 1. advanced-aggregator-entry: Main aggregation entry point
@@ -32,6 +41,14 @@ import java.util.concurrent.atomic.AtomicLong;
 @Component
 public class AdvancedAggregatorRoute extends RouteBuilder {
 
+    @Autowired
+    @Qualifier("timeWindowAggregationRepository")
+    private AggregationRepository timeWindowAggregationRepository;
+
+    @Autowired
+    @Qualifier("correlationAggregationRepository")
+    private AggregationRepository correlationAggregationRepository;
+
     // Advanced aggregation storage
     private final Map<String, Map<String, Object>> timeWindowAggregations = new ConcurrentHashMap<>();
     private final Map<String, AtomicLong> businessMetrics = new ConcurrentHashMap<>();
@@ -91,18 +108,20 @@ public class AdvancedAggregatorRoute extends RouteBuilder {
             .description("Advanced Aggregator Pattern: Time-window aggregation")
             .log("⏰ Processing time-window aggregation")
             
-            .aggregate(header("timeWindow"), new GroupedExchangeAggregationStrategy())
+            .aggregate(header("timeWindow"), WindowAccumulatorAggregationStrategy.forOptimisticLocking())
+                .aggregationRepository(timeWindowAggregationRepository)
+                .optimisticLocking()
                 .completionTimeout(30000) // 30-second window
                 .completionSize(100)      // or 100 events
                 .eagerCheckCompletion()
                 
                 .process(exchange -> {
                     String timeWindow = exchange.getIn().getHeader("timeWindow", String.class);
+                    WindowAccumulator accumulator = exchange.getIn().getBody(WindowAccumulator.class);
                     
-                    Map<String, Object> windowAggregation = new HashMap<>();
+                    Map<String, Object> windowAggregation = new HashMap<>(accumulator.toStatistics());
                     windowAggregation.put("timeWindow", timeWindow);
                     windowAggregation.put("aggregationTimestamp", LocalDateTime.now());
-                    windowAggregation.put("eventCount", 1); // Will be aggregated
                     windowAggregation.put("windowType", "TIME_BASED");
                     
                     // Store time window aggregation
@@ -110,7 +129,8 @@ public class AdvancedAggregatorRoute extends RouteBuilder {
                     
                     exchange.getIn().setBody(windowAggregation);
                     
-                    log.info("⏰ Time-window aggregation: {} - Events processed", timeWindow);
+                    log.info("⏰ Time-window aggregation: {} - {} events processed", 
+                            timeWindow, accumulator.getEventCount());
                 })
                 
             .end()
@@ -183,22 +203,26 @@ public class AdvancedAggregatorRoute extends RouteBuilder {
             .description("Advanced Aggregator Pattern: Correlated event aggregation")
             .log("🔗 Processing correlation aggregation")
             
-            .aggregate(header("correlationKey"), new GroupedExchangeAggregationStrategy())
+            .aggregate(header("correlationKey"), WindowAccumulatorAggregationStrategy.forOptimisticLocking())
+                .aggregationRepository(correlationAggregationRepository)
+                .optimisticLocking()
                 .completionTimeout(15000) // 15-second correlation window
                 .completionSize(50)       // or 50 correlated events
                 
                 .process(exchange -> {
                     String correlationKey = exchange.getIn().getHeader("correlationKey", String.class);
+                    WindowAccumulator accumulator = exchange.getIn().getBody(WindowAccumulator.class);
                     
-                    Map<String, Object> correlationAggregation = new HashMap<>();
+                    Map<String, Object> correlationAggregation = new HashMap<>(accumulator.toStatistics());
                     correlationAggregation.put("correlationKey", correlationKey);
                     correlationAggregation.put("correlationTimestamp", LocalDateTime.now());
-                    correlationAggregation.put("correlatedEvents", 1); // Will be aggregated
+                    correlationAggregation.put("correlatedEvents", accumulator.getEventCount());
                     correlationAggregation.put("correlationType", "EVENT_SEQUENCE");
                     
                     exchange.getIn().setBody(correlationAggregation);
                     
-                    log.info("🔗 Correlation aggregation: {} - Events correlated", correlationKey);
+                    log.info("🔗 Correlation aggregation: {} - {} events correlated", 
+                            correlationKey, accumulator.getEventCount());
                 })
                 
             .end()
@@ -310,8 +334,10 @@ public class AdvancedAggregatorRoute extends RouteBuilder {
         from("direct:time-window-publisher")
             .routeId("time-window-publisher")
             .log("📡 Publishing time-window aggregation")
-            .to("elasticsearch:time-windows?operation=INDEX&indexName=time-window-aggregations")
-            .log("✅ Time-window aggregation published");
+            .setHeader(BulkIndexingRoute.INDEX_NAME_HEADER, constant("time-window-aggregations"))
+            .setHeader(BulkIndexingRoute.DEAD_LETTER_URI_HEADER, constant("direct:advanced-aggregator-dead-letter"))
+            .to(BulkIndexingRoute.BULK_INDEX_URI)
+            .log("✅ Time-window aggregation queued for publishing");
 
         from("direct:correlation-analytics-processor")
             .routeId("correlation-analytics-processor")
@@ -321,8 +347,10 @@ public class AdvancedAggregatorRoute extends RouteBuilder {
         from("direct:consolidated-metrics-publisher")
             .routeId("consolidated-metrics-publisher")
             .log("📊 Publishing consolidated metrics")
-            .to("elasticsearch:consolidated-metrics?operation=INDEX&indexName=consolidated-metrics")
-            .log("✅ Consolidated metrics published");
+            .setHeader(BulkIndexingRoute.INDEX_NAME_HEADER, constant("consolidated-metrics"))
+            .setHeader(BulkIndexingRoute.DEAD_LETTER_URI_HEADER, constant("direct:advanced-aggregator-dead-letter"))
+            .to(BulkIndexingRoute.BULK_INDEX_URI)
+            .log("✅ Consolidated metrics queued for publishing");
 
         from("direct:finalized-aggregation-publisher")
             .routeId("finalized-aggregation-publisher")
@@ -0,0 +1,51 @@
+package com.eipresso.analytics.routes;
+
+import com.eipresso.analytics.service.BulkIndexingService;
+import org.apache.camel.builder.RouteBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bulk Indexing Route for Analytics Service
+ *
+ * Shared Elasticsearch write stage. Producers set the target index and their
+ * dead-letter route as headers and send to {@code direct:bulk-index}; the
+ * document is buffered and indexed in a later _bulk request, so the producer
+ * no longer pays one HTTP round-trip per document.
+ *
+ * Routes:
+ * 1. bulk-index: Buffer a document for bulk indexing
+ */
+@Component
+public class BulkIndexingRoute extends RouteBuilder {
+
+    public static final String BULK_INDEX_URI = "direct:bulk-index";
+    public static final String INDEX_NAME_HEADER = "bulkIndexName";
+    public static final String DEAD_LETTER_URI_HEADER = "bulkDeadLetterUri";
+
+    @Autowired
+    private BulkIndexingService bulkIndexingService;
+
+    @Override
+    public void configure() throws Exception {
+
+        /**
+         * Route 1: Bulk Index
+         * Blocks the producer only while the indexing backlog is full
+         */
+        from(BULK_INDEX_URI)
+            .routeId("bulk-index")
+            .description("Bulk Indexing: Buffer documents for Elasticsearch _bulk requests")
+            .process(exchange -> {
+                String documentId = exchange.getIn().getHeader("indexId", String.class);
+                if (documentId == null) {
+                    documentId = exchange.getIn().getHeader("eventId", String.class);
+                }
+                bulkIndexingService.index(
+                    exchange.getIn().getHeader(INDEX_NAME_HEADER, String.class),
+                    documentId,
+                    exchange.getIn().getBody(),
+                    exchange.getIn().getHeader(DEAD_LETTER_URI_HEADER, String.class));
+            });
+    }
+}
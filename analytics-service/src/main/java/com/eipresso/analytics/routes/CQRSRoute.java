@@ -1,8 +1,15 @@
 package com.eipresso.analytics.routes;
 
+import com.eipresso.analytics.querycache.TwoTierQueryCache;
+import com.eipresso.analytics.readmodel.CommandLog;
+import com.eipresso.analytics.readmodel.MaterializedReadModels;
+import com.eipresso.analytics.replay.StoredEvent;
+import com.eipresso.analytics.service.QueryCacheService;
+import com.eipresso.analytics.service.ReadModelService;
 import org.apache.camel.Exchange;
 import org.apache.camel.LoggingLevel;
 import org.apache.camel.builder.RouteBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -24,10 +31,35 @@ import java.util.UUID;
  * 4. read-model-processor: Query/read model optimization
  * 5. analytical-view-builder: Build optimized analytical views
  * 6. query-optimization-processor: Optimize read queries
+ *
+ * read-model-sync also keeps in-process materialized views (orders per hour,
+ * revenue by product, user cohorts). Queries those views can answer are
+ * served from memory; the rest fall through to the Elasticsearch read models.
+ * The readModelSource header says which path answered. Every command is
+ * also logged to {@code cqrs-commands} (command-log-persister) so a node
+ * starting later can seed those views from history.
+ *
+ * Elasticsearch results are cached per view in a near cache in front of
+ * Redis (cache-query-processor). The write models invalidate the views they
+ * change through view-cache-updater; the queryCache header reports the tier
+ * that answered (near, remote, miss or bypass).
  */
 @Component
 public class CQRSRoute extends RouteBuilder {
 
+    public static final String READ_MODEL_SOURCE_HEADER = "readModelSource";
+    public static final String QUERY_CACHE_HEADER = "queryCache";
+    static final String QUERY_CACHE_GENERATION_HEADER = "queryCacheGeneration";
+    static final String QUERY_CACHE_MISS = "miss";
+    static final String QUERY_CACHE_BYPASS = "bypass";
+    static final String COMMAND_PROPERTY = "cqrsCommand";
+
+    @Autowired
+    private ReadModelService readModelService;
+
+    @Autowired
+    private QueryCacheService queryCacheService;
+
     @Override
     public void configure() throws Exception {
         
@@ -56,11 +88,14 @@ public class CQRSRoute extends RouteBuilder {
                 
                 String commandType = exchange.getIn().getHeader("commandType", String.class);
                 exchange.getIn().setHeader("writeModel", true);
+                // The write models replace the body, so keep the command for read-model-sync
+                exchange.setProperty(COMMAND_PROPERTY, exchange.getIn().getBody());
                 
                 log.info("📝 CQRS Command processed: {} [{}]", commandType, commandId);
             })
             
             .to("direct:write-model-processor")
+            .to("direct:command-log-persister")
             .to("direct:read-model-sync")
             .log("✅ CQRS command processing completed for ${header.commandId}");
 
@@ -83,10 +118,48 @@ public class CQRSRoute extends RouteBuilder {
                 log.info("🔍 CQRS Query processed: {} [{}]", queryType, queryId);
             })
             
-            .to("direct:query-optimization-processor")
-            .to("direct:read-model-processor")
+            .process(exchange -> {
+                Map<String, Object> answer = readModelService.answer(
+                    exchange.getIn().getHeader("queryType", String.class), exchange.getIn().getHeaders());
+                if (answer != null) {
+                    exchange.getIn().setBody(answer);
+                    exchange.getIn().setHeader(READ_MODEL_SOURCE_HEADER, MaterializedReadModels.SOURCE);
+                } else {
+                    exchange.getIn().setHeader(READ_MODEL_SOURCE_HEADER, "elasticsearch");
+                }
+            })
+            
+            .choice()
+                .when(header(READ_MODEL_SOURCE_HEADER).isEqualTo(MaterializedReadModels.SOURCE))
+                    .log("⚡ Query ${header.queryType} answered from materialized view")
+                .otherwise()
+                    .to("direct:cached-read-model-query")
+            .end()
             .log("✅ CQRS query processing completed for ${header.queryId}");
 
+        /**
+         * Route 2b: Cached Read Model Query
+         *
+         * Two-tier query cache in front of the Elasticsearch read models.
+         * Misses load from Elasticsearch and are cached against the view
+         * generation read before the lookup, so a result loaded across an
+         * invalidation is never cached.
+         */
+        from("direct:cached-read-model-query")
+            .routeId("cached-read-model-query")
+            .description("CQRS Pattern: Cached read model query")
+            .to("direct:cache-query-processor")
+            .choice()
+                .when(header(QUERY_CACHE_HEADER).in(QUERY_CACHE_MISS, QUERY_CACHE_BYPASS))
+                    .to("direct:query-optimization-processor")
+                    .to("direct:read-model-processor")
+                    .process(exchange -> queryCacheService.store(
+                        exchange.getIn().getHeader("queryType", String.class),
+                        exchange.getIn().getHeaders(),
+                        exchange.getIn().getHeader(QUERY_CACHE_GENERATION_HEADER, -1L, Long.class),
+                        exchange.getIn().getBody()))
+            .end();
+
         /**
          * Route 3: Write Model Processor
          */
@@ -106,6 +179,7 @@ public class CQRSRoute extends RouteBuilder {
                     .to("direct:generic-write-model")
             .end()
             
+            .to("direct:view-cache-updater")
             .log("✅ Write model processing completed");
 
         /**
@@ -152,12 +226,7 @@ public class CQRSRoute extends RouteBuilder {
                 log.info("🏗️ Analytical view built: {} at {}", viewType, buildTimestamp);
             })
             
-            .multicast()
-                .parallelProcessing(true)
-                .to("direct:view-cache-updater",
-                   "direct:view-index-builder")
-            .end()
-            
+            .to("direct:view-index-builder")
             .log("✅ Analytical view building completed");
 
         /**
@@ -180,8 +249,6 @@ public class CQRSRoute extends RouteBuilder {
             })
             
             .choice()
-                .when(header("optimizationStrategy").isEqualTo("CACHE_FIRST"))
-                    .to("direct:cache-query-processor")
                 .when(header("optimizationStrategy").isEqualTo("INDEX_OPTIMIZED"))
                     .to("direct:index-query-processor")
                 .otherwise()
@@ -202,7 +269,9 @@ public class CQRSRoute extends RouteBuilder {
                 orderData.put("modelType", "order-write");
                 exchange.getIn().setBody(orderData);
             })
-            .to("elasticsearch:orders-write?operation=INDEX&indexName=orders-write-model")
+            .setHeader(BulkIndexingRoute.INDEX_NAME_HEADER, constant("orders-write-model"))
+            .setHeader(BulkIndexingRoute.DEAD_LETTER_URI_HEADER, constant("direct:cqrs-dead-letter"))
+            .to(BulkIndexingRoute.BULK_INDEX_URI)
             .log("✅ Order write model processed");
 
         from("direct:user-write-model")
@@ -216,7 +285,9 @@ public class CQRSRoute extends RouteBuilder {
                 userData.put("modelType", "user-write");
                 exchange.getIn().setBody(userData);
             })
-            .to("elasticsearch:users-write?operation=INDEX&indexName=users-write-model")
+            .setHeader(BulkIndexingRoute.INDEX_NAME_HEADER, constant("users-write-model"))
+            .setHeader(BulkIndexingRoute.DEAD_LETTER_URI_HEADER, constant("direct:cqrs-dead-letter"))
+            .to(BulkIndexingRoute.BULK_INDEX_URI)
             .log("✅ User write model processed");
 
         from("direct:revenue-write-model")
@@ -230,7 +301,9 @@ public class CQRSRoute extends RouteBuilder {
                 revenueData.put("modelType", "revenue-write");
                 exchange.getIn().setBody(revenueData);
             })
-            .to("elasticsearch:revenue-write?operation=INDEX&indexName=revenue-write-model")
+            .setHeader(BulkIndexingRoute.INDEX_NAME_HEADER, constant("revenue-write-model"))
+            .setHeader(BulkIndexingRoute.DEAD_LETTER_URI_HEADER, constant("direct:cqrs-dead-letter"))
+            .to(BulkIndexingRoute.BULK_INDEX_URI)
             .log("✅ Revenue write model processed");
 
         // Specialized Read Model Routes
@@ -255,11 +328,39 @@ public class CQRSRoute extends RouteBuilder {
             .to("elasticsearch:revenue-read?operation=SEARCH&indexName=revenue-read-model")
             .log("✅ Revenue read model processed");
 
+        // Command log the read models are seeded from on startup
+        from("direct:command-log-persister")
+            .routeId("command-log-persister")
+            .description("CQRS: Log the command for read model seeding")
+            .setProperty("writeModelBody", body())
+            .process(exchange -> {
+                Object command = exchange.getProperty(COMMAND_PROPERTY);
+                LocalDateTime commandTimestamp = exchange.getIn().getHeader("commandTimestamp", LocalDateTime.class);
+                exchange.getIn().setBody(CommandLog.toDocument(
+                    exchange.getIn().getHeader("commandId", String.class),
+                    exchange.getIn().getHeader("commandType", String.class),
+                    command instanceof Map<?, ?> map ? map : Map.of(),
+                    StoredEvent.eventTimeMillisOf(commandTimestamp)));
+                exchange.getIn().setHeader("indexId", exchange.getIn().getHeader("commandId"));
+            })
+            .setHeader(BulkIndexingRoute.INDEX_NAME_HEADER, constant(CommandLog.INDEX_NAME))
+            .setHeader(BulkIndexingRoute.DEAD_LETTER_URI_HEADER, constant("direct:cqrs-dead-letter"))
+            .to(BulkIndexingRoute.BULK_INDEX_URI)
+            .removeHeader("indexId")
+            .setBody(exchangeProperty("writeModelBody"));
+
         // Read Model Synchronization
         from("direct:read-model-sync")
             .routeId("read-model-sync")
             .description("CQRS: Synchronize read models")
             .log("🔄 Synchronizing read models")
+            .process(exchange -> {
+                Object command = exchange.getProperty(COMMAND_PROPERTY);
+                readModelService.apply(
+                    exchange.getIn().getHeader("commandType", String.class),
+                    command instanceof Map<?, ?> map ? map : exchange.getIn().getHeaders(),
+                    exchange.getIn().getHeader("commandTimestamp", LocalDateTime.class));
+            })
             .delay(100) // Small delay for eventual consistency
             .to("direct:analytical-view-builder")
             .log("✅ Read model synchronization completed");
@@ -268,8 +369,21 @@ public class CQRSRoute extends RouteBuilder {
         from("direct:cache-query-processor")
             .routeId("cache-query-processor")
             .log("🚀 Processing cache-optimized query")
-            .to("redis:cache-analytics?command=GET")
-            .log("✅ Cache query processed");
+            .process(exchange -> {
+                String queryType = exchange.getIn().getHeader("queryType", String.class);
+                long generation = queryCacheService.generationOf(queryType);
+                exchange.getIn().setHeader(QUERY_CACHE_GENERATION_HEADER, generation);
+                
+                TwoTierQueryCache.Hit hit = generation < 0 ? null
+                    : queryCacheService.lookup(queryType, exchange.getIn().getHeaders());
+                if (hit != null) {
+                    exchange.getIn().setBody(hit.getValue());
+                    exchange.getIn().setHeader(QUERY_CACHE_HEADER, hit.getTier());
+                } else {
+                    exchange.getIn().setHeader(QUERY_CACHE_HEADER, generation < 0 ? QUERY_CACHE_BYPASS : QUERY_CACHE_MISS);
+                }
+            })
+            .log("✅ Cache query processed: ${header.queryCache}");
 
         from("direct:index-query-processor")
             .routeId("index-query-processor")
@@ -284,8 +398,8 @@ public class CQRSRoute extends RouteBuilder {
         from("direct:view-cache-updater")
             .routeId("view-cache-updater")
             .log("💾 Updating view cache")
-            .to("redis:cache-views?command=SET")
-            .log("✅ View cache updated");
+            .process(exchange -> queryCacheService.invalidateFor(exchange.getIn().getHeader("commandType", String.class)))
+            .log("✅ View cache invalidated for ${header.commandType}");
 
         from("direct:view-index-builder")
             .routeId("view-index-builder")
@@ -1,8 +1,12 @@
 package com.eipresso.analytics.routes;
 
+import com.eipresso.analytics.projection.AggregateType;
+import com.eipresso.analytics.replay.StoredEvent;
+import com.eipresso.analytics.service.ProjectionService;
 import org.apache.camel.Exchange;
 import org.apache.camel.LoggingLevel;
 import org.apache.camel.builder.RouteBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -22,10 +26,22 @@ import java.util.UUID;
  * 4. user-event-processor: User activity event processing
  * 5. event-store-persister: Persist events to event store
  * 6. event-analytics-aggregator: Real-time event aggregation
+ *
+ * Replayed events (header eventReplay=true) go through the same processors
+ * but are not written to the event store a second time.
+ *
+ * Order and user events are also folded into snapshotted projections
+ * (ProjectionService); the resulting sequence is set as aggregateSequence.
  */
 @Component
 public class EventSourcingRoute extends RouteBuilder {
 
+    public static final String EVENT_REPLAY_HEADER = "eventReplay";
+    public static final String AGGREGATE_SEQUENCE_HEADER = "aggregateSequence";
+
+    @Autowired
+    private ProjectionService projectionService;
+
     @Override
     public void configure() throws Exception {
         
@@ -81,7 +97,10 @@ public class EventSourcingRoute extends RouteBuilder {
                     .to("direct:generic-event-processor")
             .end()
             
-            .to("direct:event-store-persister")
+            .choice()
+                .when(header(EVENT_REPLAY_HEADER).isNotEqualTo(true))
+                    .to("direct:event-store-persister")
+            .end()
             .to("direct:event-analytics-aggregator")
             .log("✅ Business event processing completed");
 
@@ -108,6 +127,9 @@ public class EventSourcingRoute extends RouteBuilder {
                     exchange.getIn().setHeader("metricsType", "fulfillment");
                 }
                 
+                exchange.getIn().setHeader(AGGREGATE_SEQUENCE_HEADER,
+                    projectionService.apply(AggregateType.ORDER, exchange.getIn().getHeaders()));
+                
                 log.info("🛒 Order event enriched: {} for order {}", eventType, orderId);
             })
             
@@ -140,6 +162,9 @@ public class EventSourcingRoute extends RouteBuilder {
                     exchange.getIn().setHeader("metricsType", "engagement");
                 }
                 
+                exchange.getIn().setHeader(AGGREGATE_SEQUENCE_HEADER,
+                    projectionService.apply(AggregateType.USER, exchange.getIn().getHeaders()));
+                
                 log.info("👤 User event enriched: {} for user {}", eventType, userId);
             })
             
@@ -164,8 +189,15 @@ public class EventSourcingRoute extends RouteBuilder {
                 log.info("💾 Event {} prepared for storage at {}", eventId, timestamp);
             })
             
-            .to("elasticsearch:events?operation=INDEX&indexName=business-events")
-            .log("✅ Event persisted to event store");
+            // Store routing headers with the body so the event can be replayed
+            .setProperty("eventPayload", body())
+            .process(exchange -> exchange.getIn().setBody(
+                StoredEvent.toDocument(exchange.getIn().getHeaders(), exchange.getIn().getBody())))
+            .setHeader(BulkIndexingRoute.INDEX_NAME_HEADER, constant(StoredEvent.INDEX_NAME))
+            .setHeader(BulkIndexingRoute.DEAD_LETTER_URI_HEADER, constant("direct:event-sourcing-dead-letter"))
+            .to(BulkIndexingRoute.BULK_INDEX_URI)
+            .setBody(exchangeProperty("eventPayload"))
+            .log("✅ Event queued for event store bulk indexing");
 
         /**
          * Route 6: Event Analytics Aggregator
@@ -1,8 +1,13 @@
 package com.eipresso.analytics.routes;
 
+import com.eipresso.analytics.metrics.AnalyticsEventType;
+import com.eipresso.analytics.metrics.EventCategory;
+import com.eipresso.analytics.metrics.MetricsWindow;
+import com.eipresso.analytics.service.StreamingMetricsService;
 import org.apache.camel.Exchange;
 import org.apache.camel.LoggingLevel;
 import org.apache.camel.builder.RouteBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -10,7 +15,6 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Streaming Pattern Implementation for Analytics Service
@@ -30,8 +34,13 @@ import java.util.concurrent.atomic.AtomicLong;
 @Component
 public class StreamingRoute extends RouteBuilder {
 
+    // Resolved once at the entry point so downstream counting never re-parses the eventType string
+    public static final String ANALYTICS_EVENT_TYPE_HEADER = "analyticsEventType";
+
+    @Autowired
+    private StreamingMetricsService streamingMetrics;
+
     // Real-time metrics storage
-    private final Map<String, AtomicLong> realtimeCounters = new ConcurrentHashMap<>();
     private final Map<String, Double> realtimeSums = new ConcurrentHashMap<>();
     private final Map<String, Object> liveMetrics = new ConcurrentHashMap<>();
 
@@ -62,6 +71,7 @@ public class StreamingRoute extends RouteBuilder {
                 exchange.getIn().setHeader("processingMode", "REAL_TIME");
                 
                 String eventType = exchange.getIn().getHeader("eventType", String.class);
+                exchange.getIn().setHeader(ANALYTICS_EVENT_TYPE_HEADER, AnalyticsEventType.resolve(eventType));
                 exchange.getIn().setHeader("streamingEnabled", true);
                 
                 log.info("🌊 Stream processing initiated: {} [{}]", eventType, streamId);
@@ -83,15 +93,14 @@ public class StreamingRoute extends RouteBuilder {
                 String eventType = exchange.getIn().getHeader("eventType", String.class);
                 LocalDateTime processingTime = LocalDateTime.now();
                 
-                // Update real-time counters
-                updateRealtimeCounter("events.total");
-                updateRealtimeCounter("events." + eventType.toLowerCase());
+                // Update real-time counters (total, category and type; allocation-free for registered types)
+                streamingMetrics.record(eventTypeOf(exchange), eventType);
                 
                 exchange.getIn().setHeader("realtimeProcessed", true);
                 exchange.getIn().setHeader("processingLatency", System.currentTimeMillis());
                 
                 log.info("⚡ Real-time processing: {} - Total Events: {}", 
-                        eventType, getRealtimeCount("events.total"));
+                        eventType, streamingMetrics.total().getTotal());
             })
             
             .multicast()
@@ -117,8 +126,11 @@ public class StreamingRoute extends RouteBuilder {
                 Map<String, Object> dashboardData = new HashMap<>();
                 dashboardData.put("eventType", eventType);
                 dashboardData.put("timestamp", LocalDateTime.now());
-                dashboardData.put("totalEvents", getRealtimeCount("events.total"));
-                dashboardData.put("eventTypeCount", getRealtimeCount("events." + eventType.toLowerCase()));
+                dashboardData.put("totalEvents", streamingMetrics.total().getTotal());
+                AnalyticsEventType type = eventTypeOf(exchange);
+                dashboardData.put("eventTypeCount", streamingMetrics.type(type, eventType).getTotal());
+                // Differs from eventType when the type is only counted in its fallback bucket
+                dashboardData.put("eventTypeCountedAs", streamingMetrics.countedAs(type, eventType));
                 dashboardData.put("streamingMode", "LIVE");
                 
                 // Store live metrics for dashboard consumption
@@ -151,15 +163,15 @@ public class StreamingRoute extends RouteBuilder {
             
             .process(exchange -> {
                 LocalDateTime now = LocalDateTime.now();
-                LocalDateTime windowStart = now.minusMinutes(5); // 5-minute window
+                LocalDateTime windowStart = now.minusSeconds(MetricsWindow.FIVE_MINUTES.getSeconds());
                 
                 exchange.getIn().setHeader("windowStart", windowStart);
                 exchange.getIn().setHeader("windowEnd", now);
                 exchange.getIn().setHeader("windowSize", "5_MINUTES");
                 
-                // Calculate window metrics
-                long windowEventCount = getRealtimeCount("events.total");
-                double eventRate = windowEventCount / 5.0; // events per minute
+                // Calculate window metrics over the trailing 5 minutes of completed seconds
+                long windowEventCount = streamingMetrics.total().getWindowCount(MetricsWindow.FIVE_MINUTES);
+                double eventRate = streamingMetrics.total().getRatePerSecond(MetricsWindow.FIVE_MINUTES) * 60.0; // events per minute
                 
                 Map<String, Object> windowMetrics = new HashMap<>();
                 windowMetrics.put("windowStart", windowStart);
@@ -190,14 +202,14 @@ public class StreamingRoute extends RouteBuilder {
                 Map<String, Object> realtimeAggregation = new HashMap<>();
                 realtimeAggregation.put("eventType", eventType);
                 realtimeAggregation.put("aggregationTimestamp", LocalDateTime.now());
-                realtimeAggregation.put("totalEvents", getRealtimeCount("events.total"));
+                realtimeAggregation.put("totalEvents", streamingMetrics.total().getTotal());
                 
                 // Event type specific aggregations
                 if (eventType.startsWith("ORDER_")) {
-                    realtimeAggregation.put("orderEvents", getRealtimeCount("events.order_"));
+                    realtimeAggregation.put("orderEvents", streamingMetrics.category(EventCategory.ORDER).getTotal());
                     realtimeAggregation.put("category", "order");
                 } else if (eventType.startsWith("USER_")) {
-                    realtimeAggregation.put("userEvents", getRealtimeCount("events.user_"));
+                    realtimeAggregation.put("userEvents", streamingMetrics.category(EventCategory.USER).getTotal());
                     realtimeAggregation.put("category", "user");
                 }
                 
@@ -228,7 +240,7 @@ public class StreamingRoute extends RouteBuilder {
                 streamingAnalytics.put("calculationTimestamp", timestamp);
                 
                 // Performance metrics
-                long totalEvents = getRealtimeCount("events.total");
+                long totalEvents = streamingMetrics.total().getTotal();
                 streamingAnalytics.put("totalEvents", totalEvents);
                 streamingAnalytics.put("processingThroughput", calculateThroughput());
                 streamingAnalytics.put("systemLoad", calculateSystemLoad());
@@ -256,7 +268,7 @@ public class StreamingRoute extends RouteBuilder {
             .process(exchange -> {
                 Map<String, Object> orderDashboard = new HashMap<>();
                 orderDashboard.put("category", "order");
-                orderDashboard.put("liveOrderCount", getRealtimeCount("events.order_"));
+                orderDashboard.put("liveOrderCount", streamingMetrics.category(EventCategory.ORDER).getTotal());
                 orderDashboard.put("updateTimestamp", LocalDateTime.now());
                 exchange.getIn().setBody(orderDashboard);
             })
@@ -269,7 +281,7 @@ public class StreamingRoute extends RouteBuilder {
             .process(exchange -> {
                 Map<String, Object> userDashboard = new HashMap<>();
                 userDashboard.put("category", "user");
-                userDashboard.put("liveUserActivity", getRealtimeCount("events.user_"));
+                userDashboard.put("liveUserActivity", streamingMetrics.category(EventCategory.USER).getTotal());
                 userDashboard.put("updateTimestamp", LocalDateTime.now());
                 exchange.getIn().setBody(userDashboard);
             })
@@ -313,9 +325,9 @@ public class StreamingRoute extends RouteBuilder {
             .process(exchange -> {
                 Map<String, Object> periodicMetrics = new HashMap<>();
                 periodicMetrics.put("timestamp", LocalDateTime.now());
-                periodicMetrics.put("totalEvents", getRealtimeCount("events.total"));
+                periodicMetrics.put("totalEvents", streamingMetrics.total().getTotal());
                 periodicMetrics.put("systemThroughput", calculateThroughput());
-                periodicMetrics.put("activeStreams", realtimeCounters.size());
+                periodicMetrics.put("activeStreams", streamingMetrics.getActiveEventTypes());
                 
                 exchange.getIn().setBody(periodicMetrics);
                 
@@ -343,16 +355,13 @@ public class StreamingRoute extends RouteBuilder {
     }
 
     // Helper methods for real-time metrics
-    private void updateRealtimeCounter(String key) {
-        realtimeCounters.computeIfAbsent(key, k -> new AtomicLong(0)).incrementAndGet();
-    }
-
-    private long getRealtimeCount(String key) {
-        return realtimeCounters.getOrDefault(key, new AtomicLong(0)).get();
+    private AnalyticsEventType eventTypeOf(Exchange exchange) {
+        AnalyticsEventType type = exchange.getIn().getHeader(ANALYTICS_EVENT_TYPE_HEADER, AnalyticsEventType.class);
+        return type != null ? type : AnalyticsEventType.resolve(exchange.getIn().getHeader("eventType", String.class));
     }
 
     private double calculateThroughput() {
-        return getRealtimeCount("events.total") / 60.0; // events per second (simplified)
+        return streamingMetrics.total().getRatePerSecond(MetricsWindow.ONE_MINUTE); // events per second
     }
 
     private double calculateSystemLoad() {
@@ -360,7 +369,7 @@ public class StreamingRoute extends RouteBuilder {
     }
 
     private double calculateOrderVelocity() {
-        return getRealtimeCount("events.order_") / 3600.0; // orders per hour
+        return streamingMetrics.category(EventCategory.ORDER).getRatePerSecond(MetricsWindow.ONE_HOUR) * 3600.0; // orders per hour
     }
 
     private double calculateRevenueRate() {
@@ -0,0 +1,153 @@
+package com.eipresso.analytics.service;
+
+import com.eipresso.analytics.indexing.BulkDocument;
+import com.eipresso.analytics.indexing.BulkIndexer;
+import com.eipresso.analytics.indexing.BulkIndexingException;
+import com.eipresso.analytics.indexing.HttpBulkTransport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Bulk Indexing Service
+ *
+ * Shared batching stage in front of Elasticsearch for the event store, the
+ * CQRS write models and the aggregation publishers. Routes hand documents to
+ * {@code direct:bulk-index}; this service serializes them once, buffers them
+ * per index in a {@link BulkIndexer} and sends them as _bulk requests.
+ *
+ * Documents Elasticsearch rejects are sent to the dead-letter route named by
+ * the document's producer, with the JSON source as body and the reason as
+ * the caught exception. The send is asynchronous, so a slow dead-letter route
+ * does not hold up the flush thread and the requests queued behind it.
+ */
+@Service
+public class BulkIndexingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkIndexingService.class);
+
+    @Autowired
+    private ProducerTemplate producerTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${analytics.indexing.elasticsearch-url:http://localhost:9200}")
+    private String elasticsearchUrl;
+
+    @Value("${analytics.indexing.max-actions:1000}")
+    private int maxActions;
+
+    @Value("${analytics.indexing.max-bytes:5242880}")
+    private long maxBytes;
+
+    @Value("${analytics.indexing.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${analytics.indexing.max-in-flight-requests:2}")
+    private int maxInFlightRequests;
+
+    @Value("${analytics.indexing.max-buffered-documents:50000}")
+    private int maxBufferedDocuments;
+
+    @Value("${analytics.indexing.enqueue-timeout-ms:5000}")
+    private long enqueueTimeoutMs;
+
+    @Value("${analytics.indexing.max-retries:3}")
+    private int maxRetries;
+
+    @Value("${analytics.indexing.retry-backoff-ms:200}")
+    private long retryBackoffMs;
+
+    @Value("${analytics.indexing.request-timeout-ms:30000}")
+    private long requestTimeoutMs;
+
+    private BulkIndexer bulkIndexer;
+
+    @PostConstruct
+    public void init() {
+        HttpBulkTransport transport = new HttpBulkTransport(
+            elasticsearchUrl, objectMapper, Duration.ofMillis(requestTimeoutMs));
+        bulkIndexer = new BulkIndexer(transport, this::routeToDeadLetter,
+            maxActions, maxBytes, flushIntervalMs, maxInFlightRequests, maxBufferedDocuments,
+            maxRetries, retryBackoffMs);
+        logger.info("📦 Bulk indexing to {} (max {} docs / {} bytes / {}ms per request)",
+            elasticsearchUrl, maxActions, maxBytes, flushIntervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!bulkIndexer.close(requestTimeoutMs)) {
+            logger.warn("⚠️ Bulk indexer stopped with requests still in flight");
+        }
+    }
+
+    /**
+     * Buffer a document for the given index, blocking while the indexer is at capacity
+     */
+    public void index(String indexName, String documentId, Object body, String deadLetterUri)
+            throws InterruptedException, JsonProcessingException {
+        bulkIndexer.add(new BulkDocument(indexName, documentId, toSource(body), deadLetterUri), enqueueTimeoutMs);
+    }
+
+    public Map<String, Object> getStatistics() {
+        return bulkIndexer.getStatistics();
+    }
+
+    /**
+     * Serialize the body as one line of JSON; JSON that arrives already
+     * serialized is used as is unless it spans lines, which would split the
+     * document in the newline-delimited _bulk body, and is then re-serialized
+     *
+     * @throws JsonProcessingException when such JSON does not parse
+     */
+    private byte[] toSource(Object body) throws JsonProcessingException {
+        if (body instanceof String json && json.startsWith("{")) {
+            return json.indexOf('\n') < 0 && json.indexOf('\r') < 0
+                ? json.getBytes(StandardCharsets.UTF_8)
+                : objectMapper.writeValueAsBytes(objectMapper.readTree(json));
+        }
+        if (body instanceof byte[] bytes) {
+            for (byte b : bytes) {
+                if (b == '\n' || b == '\r') {
+                    return objectMapper.writeValueAsBytes(objectMapper.readTree(new String(bytes, StandardCharsets.UTF_8)));
+                }
+            }
+            return bytes;
+        }
+        return objectMapper.writeValueAsBytes(body);
+    }
+
+    private void routeToDeadLetter(BulkDocument document, String reason) {
+        if (document.getDeadLetterUri() == null) {
+            logger.error("💀 Bulk indexing failed for {} document {}: {}",
+                document.getIndexName(), document.getDocumentId(), reason);
+            return;
+        }
+        producerTemplate.asyncSend(document.getDeadLetterUri(), exchange -> {
+            exchange.getIn().setBody(document.getSourceAsString());
+            exchange.getIn().setHeader("bulkIndexName", document.getIndexName());
+            exchange.getIn().setHeader("eventId", document.getDocumentId());
+            exchange.setProperty(Exchange.EXCEPTION_CAUGHT, new BulkIndexingException(reason, false));
+        }).whenComplete((exchange, error) -> {
+            Throwable cause = error != null ? error : exchange.getException();
+            if (cause != null) {
+                logger.error("💀 Dead-letter route {} failed for {} document {} ({}): {}",
+                    document.getDeadLetterUri(), document.getIndexName(), document.getDocumentId(),
+                    reason, cause.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package com.eipresso.analytics.service;
+
+import com.eipresso.analytics.replay.ElasticsearchEventPageSource;
+import com.eipresso.analytics.replay.EventReplayEngine;
+import com.eipresso.analytics.replay.ReplayCriteria;
+import com.eipresso.analytics.replay.ReplayJob;
+import com.eipresso.analytics.replay.StoredEvent;
+import com.eipresso.analytics.routes.EventSourcingRoute;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.camel.ProducerTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Event Replay Service
+ *
+ * Replays events from the business-events store through
+ * {@code direct:business-event-processor}, e.g. to rebuild read models after
+ * a fix without reprocessing upstream traffic. Replayed exchanges carry the
+ * stored routing headers plus {@code eventReplay=true} and the replayId, so
+ * they are not written to the event store again.
+ *
+ * Finished jobs stay queryable for {@code analytics.replay.retention-minutes}.
+ */
+@Service
+public class EventReplayService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EventReplayService.class);
+
+    public static final String REPLAY_ID_HEADER = "replayId";
+
+    @Autowired
+    private ProducerTemplate producerTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${analytics.indexing.elasticsearch-url:http://localhost:9200}")
+    private String elasticsearchUrl;
+
+    @Value("${analytics.replay.page-size:500}")
+    private int pageSize;
+
+    @Value("${analytics.replay.concurrency:4}")
+    private int concurrency;
+
+    @Value("${analytics.replay.max-events-per-second:1000}")
+    private int maxEventsPerSecond;
+
+    @Value("${analytics.replay.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private final Map<String, ReplayJob> jobs = new ConcurrentHashMap<>();
+    private EventReplayEngine engine;
+
+    @PostConstruct
+    public void init() {
+        engine = new EventReplayEngine(
+            new ElasticsearchEventPageSource(elasticsearchUrl, objectMapper, Duration.ofSeconds(30)),
+            this::dispatch, pageSize, concurrency, maxEventsPerSecond);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(ReplayJob::cancel);
+        engine.close();
+    }
+
+    public ReplayJob startReplay(ReplayCriteria criteria) {
+        evictFinishedJobs();
+        ReplayJob job = engine.start(criteria);
+        jobs.put(job.getReplayId(), job);
+        logger.info("⏪ Replay {} started for {}", job.getReplayId(), criteria.toMap());
+        return job;
+    }
+
+    public ReplayJob getJob(String replayId) {
+        return jobs.get(replayId);
+    }
+
+    public ReplayJob cancelReplay(String replayId) {
+        ReplayJob job = jobs.get(replayId);
+        if (job != null) {
+            job.cancel();
+        }
+        return job;
+    }
+
+    private void dispatch(String replayId, Map<String, Object> document) {
+        Map<String, Object> headers = StoredEvent.headersOf(document);
+        headers.put(EventSourcingRoute.EVENT_REPLAY_HEADER, true);
+        headers.put(REPLAY_ID_HEADER, replayId);
+        producerTemplate.sendBodyAndHeaders("direct:business-event-processor", StoredEvent.payloadOf(document), headers);
+    }
+
+    private void evictFinishedJobs() {
+        Instant cutoff = Instant.now().minus(Duration.ofMinutes(retentionMinutes));
+        jobs.values().removeIf(job -> job.getCompletedAt() != null && job.getCompletedAt().isBefore(cutoff));
+    }
+}
@@ -0,0 +1,104 @@
+package com.eipresso.analytics.service;
+
+import com.eipresso.analytics.ingestion.IngestionChannel;
+import com.eipresso.analytics.ingestion.IngestionQueue;
+import com.eipresso.analytics.ingestion.IngestionTask;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.camel.ProducerTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Ingestion Service
+ *
+ * Decouples the ingestion endpoints from the route chains behind them. With
+ * {@code analytics.ingestion.async} on, a request is queued per channel and
+ * answered at once; consumer threads then run it through its direct route,
+ * including the Elasticsearch and RabbitMQ calls, off the servlet thread.
+ * A full channel refuses new work instead of queueing it without bound.
+ */
+@Service
+public class IngestionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestionService.class);
+
+    public static final String INGESTION_ID_HEADER = "ingestionId";
+
+    @Autowired
+    private ProducerTemplate producerTemplate;
+
+    @Value("${analytics.ingestion.async:true}")
+    private boolean async;
+
+    @Value("${analytics.ingestion.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${analytics.ingestion.consumers:4}")
+    private int consumers;
+
+    @Value("${analytics.ingestion.max-retry-after-seconds:30}")
+    private long maxRetryAfterSeconds;
+
+    @Value("${analytics.ingestion.shutdown-timeout-ms:30000}")
+    private long shutdownTimeoutMs;
+
+    private final Map<IngestionChannel, IngestionQueue> queues = new EnumMap<>(IngestionChannel.class);
+
+    @PostConstruct
+    public void init() {
+        if (!async) {
+            logger.info("🚀 Ingestion endpoints process requests synchronously");
+            return;
+        }
+        for (IngestionChannel channel : IngestionChannel.values()) {
+            queues.put(channel, new IngestionQueue(channel.getCode(), queueCapacity, consumers, maxRetryAfterSeconds,
+                task -> producerTemplate.sendBodyAndHeaders(channel.getEndpointUri(), task.getBody(), task.getHeaders())));
+        }
+        logger.info("🚀 Ingestion queues: {} tasks and {} consumers per channel", queueCapacity, consumers);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (IngestionQueue queue : queues.values()) {
+            queue.close(shutdownTimeoutMs);
+        }
+    }
+
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * Queue a request for its channel's route
+     *
+     * @return the ingestion id, or null when the channel is full
+     */
+    public String submit(IngestionChannel channel, Object body, Map<String, Object> headers) {
+        String ingestionId = UUID.randomUUID().toString();
+        Map<String, Object> taskHeaders = new HashMap<>(headers);
+        taskHeaders.put(INGESTION_ID_HEADER, ingestionId);
+        return queues.get(channel).offer(new IngestionTask(ingestionId, body, taskHeaders)) ? ingestionId : null;
+    }
+
+    public long getRetryAfterSeconds(IngestionChannel channel) {
+        return queues.get(channel).getRetryAfterSeconds();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("async", async);
+        for (Map.Entry<IngestionChannel, IngestionQueue> entry : queues.entrySet()) {
+            stats.put(entry.getKey().getCode(), entry.getValue().getStatistics());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,99 @@
+package com.eipresso.analytics.service;
+
+import com.eipresso.analytics.projection.AggregateProjection;
+import com.eipresso.analytics.projection.AggregateType;
+import com.eipresso.analytics.projection.HazelcastSnapshotStore;
+import com.eipresso.analytics.projection.InMemorySnapshotStore;
+import com.eipresso.analytics.projection.ProjectionEvent;
+import com.eipresso.analytics.projection.ProjectionStore;
+import com.eipresso.analytics.projection.SnapshotStore;
+import com.eipresso.analytics.replay.ReplayCriteria;
+import com.eipresso.analytics.replay.ReplayJob;
+import com.hazelcast.core.HazelcastInstance;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Projection Service
+ *
+ * Order and user projections derived by {@code order-event-processor} and
+ * {@code user-event-processor}, snapshotted every
+ * {@code analytics.projection.snapshot-interval} events per aggregate.
+ * Snapshots go to Hazelcast when the cluster is available so any node can
+ * resume from them.
+ *
+ * Rebuilding an aggregate restores its latest snapshot and replays only the
+ * events stored after it; replayed events the projection already reflects
+ * are skipped by position.
+ */
+@Service
+public class ProjectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProjectionService.class);
+
+    @Autowired
+    private ObjectProvider<HazelcastInstance> hazelcastInstance;
+
+    @Autowired
+    private EventReplayService eventReplayService;
+
+    @Value("${analytics.projection.snapshot-interval:100}")
+    private int snapshotInterval = 100;
+
+    private final Map<AggregateType, ProjectionStore> stores = new EnumMap<>(AggregateType.class);
+
+    @PostConstruct
+    public void init() {
+        HazelcastInstance instance = hazelcastInstance.getIfAvailable();
+        SnapshotStore snapshots = instance != null
+            ? new HazelcastSnapshotStore(instance)
+            : new InMemorySnapshotStore();
+        for (AggregateType type : AggregateType.values()) {
+            stores.put(type, new ProjectionStore(type, snapshots, snapshotInterval));
+        }
+        logger.info("📸 Projection snapshots every {} events in {}", snapshotInterval,
+            instance != null ? "Hazelcast map " + HazelcastSnapshotStore.MAP_NAME : "local memory");
+    }
+
+    /**
+     * Apply the event carried by these headers to its aggregate
+     *
+     * @return the aggregate's sequence after the event, or null when the event has no aggregate id
+     */
+    public Long apply(AggregateType type, Map<String, Object> headers) {
+        Object aggregateId = headers.get(type.getIdHeader());
+        if (aggregateId == null) {
+            return null;
+        }
+        return stores.get(type).apply(aggregateId.toString(), ProjectionEvent.fromHeaders(headers));
+    }
+
+    public AggregateProjection get(AggregateType type, String aggregateId) {
+        return stores.get(type).get(aggregateId);
+    }
+
+    /**
+     * Restore the aggregate from its latest snapshot and replay the tail of its history
+     */
+    public ReplayJob rebuild(AggregateType type, String aggregateId) {
+        AggregateProjection restored = stores.get(type).resetToSnapshot(aggregateId);
+        Long fromMillis = restored.getSequence() > 0 ? restored.getLastEventTimeMillis() : null;
+        logger.info("📸 Rebuilding {} {} from sequence {}", type.getCode(), aggregateId, restored.getSequence());
+        return eventReplayService.startReplay(ReplayCriteria.forAggregate(type.getIdHeader(), aggregateId, fromMillis));
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new HashMap<>();
+        stores.forEach((type, store) -> statistics.put(type.getCode(), store.getStatistics()));
+        return statistics;
+    }
+}
@@ -0,0 +1,124 @@
+package com.eipresso.analytics.service;
+
+import com.eipresso.analytics.querycache.QueryKeys;
+import com.eipresso.analytics.querycache.QueryView;
+import com.eipresso.analytics.querycache.TwoTierQueryCache;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Query Cache Service
+ *
+ * CQRS query results are cached per view and invalidated by the write
+ * models. Write models reach Elasticsearch through the bulk indexing stage
+ * and become searchable only after its flush and the index refresh, so each
+ * invalidation is repeated after {@code analytics.query-cache.invalidation-delay-ms}.
+ * That retires any result re-cached from the index in between. The delayed
+ * pass is debounced per view: a burst of writes costs one trailing
+ * invalidation after the last of them.
+ */
+@Service
+public class QueryCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryCacheService.class);
+
+    @Autowired
+    private TwoTierQueryCache queryCache;
+
+    @Value("${analytics.query-cache.invalidation-delay-ms:1500}")
+    private long invalidationDelayMs = 1500;
+
+    private ScheduledExecutorService delayedInvalidations;
+    private final Map<QueryView, AtomicLong> lastWriteNanos = new EnumMap<>(QueryView.class);
+    private final Map<QueryView, AtomicBoolean> delayedPending = new EnumMap<>(QueryView.class);
+
+    @PostConstruct
+    public void init() {
+        delayedInvalidations = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "query-cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (QueryView view : QueryView.values()) {
+            lastWriteNanos.put(view, new AtomicLong());
+            delayedPending.put(view, new AtomicBoolean());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        delayedInvalidations.shutdownNow();
+    }
+
+    /**
+     * Generation to load an uncached result against, or -1 when the query type is not cached
+     */
+    public long generationOf(String queryType) {
+        QueryView view = QueryView.forQueryType(queryType);
+        return view != null ? queryCache.getGeneration(view) : -1L;
+    }
+
+    /**
+     * @return the cached result, or null on a miss or when the query type is not cached
+     */
+    public TwoTierQueryCache.Hit lookup(String queryType, Map<String, Object> parameters) {
+        QueryView view = QueryView.forQueryType(queryType);
+        return view != null ? queryCache.get(view, QueryKeys.canonical(queryType, parameters)) : null;
+    }
+
+    public void store(String queryType, Map<String, Object> parameters, long loadedGeneration, Object result) {
+        QueryView view = QueryView.forQueryType(queryType);
+        if (view != null && loadedGeneration >= 0) {
+            queryCache.put(view, QueryKeys.canonical(queryType, parameters), loadedGeneration, result);
+        }
+    }
+
+    public void invalidateFor(String commandType) {
+        Set<QueryView> views = QueryView.changedBy(commandType);
+        if (views.isEmpty()) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (QueryView view : views) {
+            queryCache.invalidate(view);
+            lastWriteNanos.get(view).set(now);
+            if (delayedPending.get(view).compareAndSet(false, true)) {
+                scheduleDelayedInvalidation(view, invalidationDelayMs);
+            }
+        }
+        logger.debug("Query cache views {} invalidated by {}", views, commandType);
+    }
+
+    private void scheduleDelayedInvalidation(QueryView view, long delayMs) {
+        delayedInvalidations.schedule(() -> {
+            long sinceLastWriteMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastWriteNanos.get(view).get());
+            if (sinceLastWriteMs < invalidationDelayMs) {
+                scheduleDelayedInvalidation(view, invalidationDelayMs - sinceLastWriteMs);
+                return;
+            }
+            delayedPending.get(view).set(false);
+            queryCache.invalidate(view);
+        }, delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>(queryCache.getStatistics());
+        stats.put("invalidationDelayMs", invalidationDelayMs);
+        return stats;
+    }
+}
@@ -0,0 +1,130 @@
+package com.eipresso.analytics.service;
+
+import com.eipresso.analytics.readmodel.CommandLog;
+import com.eipresso.analytics.readmodel.MaterializedReadModels;
+import com.eipresso.analytics.replay.ElasticsearchEventPageSource;
+import com.eipresso.analytics.replay.EventPage;
+import com.eipresso.analytics.replay.EventPageSource;
+import com.eipresso.analytics.replay.ReplayCriteria;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read Model Service
+ *
+ * Owns the materialized CQRS read models. {@code read-model-sync} feeds
+ * every command in, and {@code cqrs-query-entry} asks here before going to
+ * Elasticsearch.
+ *
+ * Once the application is ready the views are seeded in the background from
+ * the {@code cqrs-commands} log with every command accepted before this node
+ * started; the ones accepted since arrive through read-model-sync. Until the
+ * seed finishes, the all-time revenue and cohort views leave their queries to
+ * Elasticsearch. Set {@code analytics.read-models.seed-on-startup} to false to
+ * keep them there.
+ */
+@Service
+public class ReadModelService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadModelService.class);
+
+    @Value("${analytics.read-models.order-count-retention-hours:168}")
+    private int orderCountRetentionHours = 168;
+
+    @Value("${analytics.read-models.seed-on-startup:true}")
+    private boolean seedOnStartup = true;
+
+    @Value("${analytics.read-models.seed-page-size:1000}")
+    private int seedPageSize = 1000;
+
+    @Value("${analytics.indexing.elasticsearch-url:http://localhost:9200}")
+    private String elasticsearchUrl;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private MaterializedReadModels readModels;
+    private long startedAtMillis;
+
+    @PostConstruct
+    public void init() {
+        readModels = new MaterializedReadModels(orderCountRetentionHours);
+        startedAtMillis = readModels.getCoverageSinceMillis();
+        logger.info("📖 Materialized read models ready (order counts kept {} hours)", orderCountRetentionHours);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedFromCommandLog() {
+        if (!seedOnStartup) {
+            return;
+        }
+        EventPageSource commandLog = new ElasticsearchEventPageSource(
+            elasticsearchUrl, CommandLog.INDEX_NAME, objectMapper, Duration.ofSeconds(30));
+        Thread seeder = new Thread(() -> {
+            try {
+                seed(commandLog, startedAtMillis);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("⚠️ Read models not seeded, revenue and cohort queries stay on Elasticsearch: {}",
+                    e.getMessage());
+            }
+        }, "read-model-seed");
+        seeder.setDaemon(true);
+        seeder.start();
+    }
+
+    /**
+     * Fold every logged command accepted before {@code untilMillis} into the views, then mark them bootstrapped
+     *
+     * @return the number of commands read from the log
+     */
+    public long seed(EventPageSource commandLog, long untilMillis) throws IOException {
+        ReplayCriteria criteria = new ReplayCriteria(null, null, untilMillis);
+        long seeded = 0;
+        long coveredSince = untilMillis;
+        List<Object> cursor = null;
+        do {
+            EventPage page = commandLog.fetch(criteria, cursor, seedPageSize);
+            for (Map<String, Object> document : page.getEvents()) {
+                long commandTimeMillis = CommandLog.timeMillisOf(document);
+                readModels.seed(CommandLog.commandTypeOf(document), CommandLog.commandOf(document), commandTimeMillis);
+                coveredSince = Math.min(coveredSince, commandTimeMillis);
+                seeded++;
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        readModels.markBootstrapped(coveredSince);
+        logger.info("📖 Read models seeded with {} commands since {}", seeded, Instant.ofEpochMilli(coveredSince));
+        return seeded;
+    }
+
+    public void apply(String commandType, Map<?, ?> command, LocalDateTime commandTimestamp) {
+        LocalDateTime timestamp = commandTimestamp != null ? commandTimestamp : LocalDateTime.now();
+        readModels.apply(commandType, command, timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    /**
+     * @return the answer from the materialized views, or null when the query has to go to Elasticsearch
+     */
+    public Map<String, Object> answer(String queryType, Map<String, Object> parameters) {
+        return readModels.answer(queryType, parameters);
+    }
+
+    public Map<String, Object> getStaleness() {
+        return readModels.getStaleness();
+    }
+}
@@ -0,0 +1,143 @@
+package com.eipresso.analytics.service;
+
+import com.eipresso.analytics.metrics.AnalyticsEventType;
+import com.eipresso.analytics.metrics.EventCategory;
+import com.eipresso.analytics.metrics.MetricsWindow;
+import com.eipresso.analytics.metrics.SlidingWindowCounter;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streaming Metrics Service
+ *
+ * Owns the sliding-window counters behind the Streaming pattern routes and the
+ * live dashboard endpoint. Each counter keeps per-second buckets for up to
+ * {@code analytics.streaming.max-window-seconds} (default one hour), so every
+ * {@link MetricsWindow} is answered from real trailing data rather than
+ * lifetime totals.
+ *
+ * Counters are pre-built and indexed by {@link AnalyticsEventType} and
+ * {@link EventCategory} ordinals, so recording an event does no string
+ * building, hashing or allocation for a registered type.
+ *
+ * A type without its own constant is counted in its category's fallback
+ * bucket and also under its own name, registered the first time it is seen.
+ * At most {@code analytics.streaming.max-unregistered-event-types} names are
+ * registered; later ones are only counted in the bucket, which
+ * {@link #countedAs} reports.
+ */
+@Service
+public class StreamingMetricsService {
+
+    @Value("${analytics.streaming.max-window-seconds:3600}")
+    private int maxWindowSeconds = 3600;
+
+    @Value("${analytics.streaming.max-unregistered-event-types:64}")
+    private int maxUnregisteredEventTypes = 64;
+
+    private SlidingWindowCounter total;
+    private SlidingWindowCounter[] byCategory;
+    private SlidingWindowCounter[] byType;
+    private final Map<String, SlidingWindowCounter> byUnregisteredType = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        total = new SlidingWindowCounter(maxWindowSeconds);
+        byCategory = new SlidingWindowCounter[EventCategory.values().length];
+        for (int i = 0; i < byCategory.length; i++) {
+            byCategory[i] = new SlidingWindowCounter(maxWindowSeconds);
+        }
+        byType = new SlidingWindowCounter[AnalyticsEventType.values().length];
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] = new SlidingWindowCounter(maxWindowSeconds);
+        }
+    }
+
+    public void record(AnalyticsEventType type) {
+        long second = total.currentEpochSecond();
+        total.addAt(1L, second);
+        byCategory[type.getCategory().ordinal()].addAt(1L, second);
+        byType[type.ordinal()].addAt(1L, second);
+    }
+
+    /**
+     * Record an event that may have a type without its own constant
+     *
+     * @param eventType the eventType header {@code type} was resolved from
+     */
+    public void record(AnalyticsEventType type, String eventType) {
+        record(type);
+        if (type.isFallback() && eventType != null) {
+            SlidingWindowCounter counter = unregisteredType(eventType, true);
+            if (counter != null) {
+                counter.addAt(1L, counter.currentEpochSecond());
+            }
+        }
+    }
+
+    public SlidingWindowCounter total() {
+        return total;
+    }
+
+    public SlidingWindowCounter category(EventCategory category) {
+        return byCategory[category.ordinal()];
+    }
+
+    public SlidingWindowCounter type(AnalyticsEventType type) {
+        return byType[type.ordinal()];
+    }
+
+    /**
+     * @return the counter for {@code eventType}, or its fallback bucket's when the name is not registered
+     */
+    public SlidingWindowCounter type(AnalyticsEventType type, String eventType) {
+        SlidingWindowCounter counter = type.isFallback() && eventType != null ? unregisteredType(eventType, false) : null;
+        return counter != null ? counter : type(type);
+    }
+
+    /**
+     * @return the name {@link #type(AnalyticsEventType, String)} counts {@code eventType} under
+     */
+    public String countedAs(AnalyticsEventType type, String eventType) {
+        return type.isFallback() && eventType != null && byUnregisteredType.containsKey(eventType)
+            ? eventType : type.name();
+    }
+
+    private SlidingWindowCounter unregisteredType(String eventType, boolean register) {
+        SlidingWindowCounter counter = byUnregisteredType.get(eventType);
+        if (counter == null && register && byUnregisteredType.size() < maxUnregisteredEventTypes) {
+            // The limit may be overshot by a few concurrent first sightings, never by a flood of names
+            counter = byUnregisteredType.computeIfAbsent(eventType, name -> new SlidingWindowCounter(maxWindowSeconds));
+        }
+        return counter;
+    }
+
+    /**
+     * Number of event types that have been seen at least once, counting each registered unregistered name
+     */
+    public int getActiveEventTypes() {
+        int active = 0;
+        for (AnalyticsEventType type : AnalyticsEventType.values()) {
+            // A bucket holding only registered names adds no type of its own
+            long bucketed = byType[type.ordinal()].getTotal();
+            if (bucketed > 0 && (!type.isFallback() || bucketed > registeredIn(type))) {
+                active++;
+            }
+        }
+        return active + byUnregisteredType.size();
+    }
+
+    private long registeredIn(AnalyticsEventType bucket) {
+        long registered = 0;
+        for (Map.Entry<String, SlidingWindowCounter> entry : byUnregisteredType.entrySet()) {
+            if (AnalyticsEventType.resolve(entry.getKey()) == bucket) {
+                registered += entry.getValue().getTotal();
+            }
+        }
+        return registered;
+    }
+}
@@ -0,0 +1,104 @@
+package com.eipresso.analytics.aggregation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Window accumulator and histogram tests
+ */
+@DisplayName("Window Accumulator Tests")
+class WindowAccumulatorTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("Should fold events into exact count, sum, min and max")
+    void shouldFoldEventsIntoExactCountSumMinAndMax() {
+        WindowAccumulator accumulator = new WindowAccumulator();
+        accumulator.add(1050L, 12L, NOW);
+        accumulator.add(2599L, 30L, NOW + 10);
+        accumulator.add(null, null, NOW + 20);
+
+        Map<String, Object> stats = accumulator.toStatistics();
+
+        assertEquals(3L, stats.get("eventCount"));
+        assertEquals(2L, stats.get("amountCount"));
+        assertEquals(new BigDecimal("36.49"), stats.get("amountSum"));
+        assertEquals(new BigDecimal("10.50"), stats.get("amountMin"));
+        assertEquals(new BigDecimal("25.99"), stats.get("amountMax"));
+        // 36.49 / 2 rounds half up to the cent instead of truncating to 18.24
+        assertEquals(new BigDecimal("18.25"), stats.get("amountAvg"));
+        assertEquals(2L, stats.get("latencyCount"));
+        assertEquals(21.0, (Double) stats.get("latencyAvgMs"), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Should merge partial windows into the same result as one window")
+    void shouldMergePartialWindowsIntoTheSameResultAsOneWindow() {
+        WindowAccumulator single = new WindowAccumulator();
+        WindowAccumulator nodeA = new WindowAccumulator();
+        WindowAccumulator nodeB = new WindowAccumulator();
+
+        for (long i = 1; i <= 10_000; i++) {
+            single.add(i * 7, i % 500, NOW + i);
+            (i % 2 == 0 ? nodeA : nodeB).add(i * 7, i % 500, NOW + i);
+        }
+        nodeA.merge(nodeB);
+
+        assertEquals(single.toStatistics(), nodeA.toStatistics());
+    }
+
+    @Test
+    @DisplayName("Should keep a copy and its original independent while they share histogram rows")
+    void shouldKeepACopyAndItsOriginalIndependentWhileTheyShareHistogramRows() {
+        WindowAccumulator original = new WindowAccumulator();
+        for (long i = 1; i <= 1_000; i++) {
+            original.add(i * 13, i, NOW + i);
+        }
+        Map<String, Object> before = original.toStatistics();
+
+        WindowAccumulator copy = original.copy();
+        assertEquals(before, copy.toStatistics());
+
+        copy.add(5_000L, 7L, NOW + 2_000);
+        copy.merge(original);
+        assertEquals(before, original.toStatistics());
+
+        original.add(9L, 900L, NOW + 3_000);
+        assertEquals(2_001L, copy.toStatistics().get("eventCount"));
+        assertEquals(2_001L, copy.getAmountHistogram().getTotalCount());
+        assertEquals(1_001L, original.getAmountHistogram().getTotalCount());
+    }
+
+    @Test
+    @DisplayName("Should report percentiles within histogram precision")
+    void shouldReportPercentilesWithinHistogramPrecision() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        for (long value = 1; value <= 100_000; value++) {
+            histogram.record(value);
+        }
+
+        assertEquals(100_000, histogram.getTotalCount());
+        assertEquals(50_000, histogram.getValueAtPercentile(50), 50_000 * 0.032);
+        assertEquals(99_000, histogram.getValueAtPercentile(99), 99_000 * 0.032);
+        assertEquals(100_000, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    @DisplayName("Should keep exact values below the linear range")
+    void shouldKeepExactValuesBelowTheLinearRange() {
+        LogLinearHistogram histogram = new LogLinearHistogram();
+        histogram.record(3);
+        histogram.record(3);
+        histogram.record(40);
+
+        assertEquals(3, histogram.getValueAtPercentile(50));
+        assertEquals(40, histogram.getValueAtPercentile(100));
+    }
+}
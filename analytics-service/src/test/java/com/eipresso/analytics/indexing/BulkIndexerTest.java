@@ -0,0 +1,241 @@
+package com.eipresso.analytics.indexing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk indexer tests against an in-memory transport
+ */
+@DisplayName("Bulk Indexer Tests")
+class BulkIndexerTest {
+
+    private final List<String> bodies = new CopyOnWriteArrayList<>();
+    private final Map<String, String> failures = new ConcurrentHashMap<>();
+    private BulkIndexer indexer;
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (indexer != null) {
+            indexer.close(1_000);
+        }
+    }
+
+    @Test
+    @DisplayName("Should send one bulk request per index when the size threshold is reached")
+    void shouldSendOneBulkRequestPerIndexWhenTheSizeThresholdIsReached() throws Exception {
+        indexer = newIndexer(recordingTransport(), 3, 60_000, 100);
+
+        for (int i = 0; i < 3; i++) {
+            indexer.add(document("events", "e" + i), 100);
+            indexer.add(document("orders", "o" + i), 100);
+        }
+        indexer.close(1_000);
+
+        assertEquals(2, bodies.size());
+        String events = bodies.stream().filter(b -> b.contains("\"_index\":\"events\"")).findFirst().orElseThrow();
+        assertEquals(6, events.split("\n").length);
+        assertTrue(events.startsWith("{\"index\":{\"_index\":\"events\",\"_id\":\"e0\"}}\n{\"id\":\"e0\"}\n"));
+        assertEquals(6, indexer.getIndexedDocuments());
+    }
+
+    @Test
+    @DisplayName("Should flush a partial buffer once the flush interval has passed")
+    void shouldFlushAPartialBufferOnceTheFlushIntervalHasPassed() throws Exception {
+        indexer = newIndexer(recordingTransport(), 1_000, 20, 100);
+
+        indexer.add(document("events", "e1"), 100);
+
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (bodies.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(1, bodies.size());
+    }
+
+    @Test
+    @DisplayName("Should route only the rejected documents to the failure handler")
+    void shouldRouteOnlyTheRejectedDocumentsToTheFailureHandler() throws Exception {
+        BulkTransport transport = (body, itemCount) -> {
+            String[] errors = new String[itemCount];
+            errors[1] = "HTTP 400 mapper_parsing_exception: failed to parse";
+            return errors;
+        };
+        indexer = newIndexer(transport, 3, 60_000, 100);
+
+        indexer.add(document("events", "e0"), 100);
+        indexer.add(document("events", "e1"), 100);
+        indexer.add(document("events", "e2"), 100);
+        indexer.close(1_000);
+
+        assertEquals(Map.of("e1", "HTTP 400 mapper_parsing_exception: failed to parse"), failures);
+        assertEquals(2, indexer.getIndexedDocuments());
+        assertEquals(1, indexer.getFailedDocuments());
+    }
+
+    @Test
+    @DisplayName("Should retry throttled requests before failing the batch")
+    void shouldRetryThrottledRequestsBeforeFailingTheBatch() throws Exception {
+        BulkTransport transport = (body, itemCount) -> {
+            bodies.add(new String(body, StandardCharsets.UTF_8));
+            throw new BulkIndexingException("Elasticsearch unavailable for bulk request (HTTP 429)", true);
+        };
+        indexer = newIndexer(transport, 1, 60_000, 100);
+
+        indexer.add(document("events", "e0"), 100);
+        indexer.close(1_000);
+
+        assertEquals(3, bodies.size()); // first attempt + 2 retries
+        assertEquals("Elasticsearch unavailable for bulk request (HTTP 429)", failures.get("e0"));
+    }
+
+    @Test
+    @DisplayName("Should resend throttled documents with the next flush and dead-letter only permanent errors")
+    void shouldResendThrottledDocumentsWithTheNextFlushAndDeadLetterOnlyPermanentErrors() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        BulkTransport transport = (body, itemCount) -> {
+            String bulk = new String(body, StandardCharsets.UTF_8);
+            bodies.add(bulk);
+            String[] errors = new String[itemCount];
+            if (requests.getAndIncrement() == 0) {
+                errors[0] = "HTTP 429 es_rejected_execution_exception: rejected execution";
+                errors[1] = "HTTP 400 mapper_parsing_exception: failed to parse";
+                errors[2] = "HTTP 503 unavailable_shards_exception: primary shard is not active";
+            }
+            return errors;
+        };
+        indexer = newIndexer(transport, 3, 20, 100);
+
+        indexer.add(document("events", "e0"), 100);
+        indexer.add(document("events", "e1"), 100);
+        indexer.add(document("events", "e2"), 100);
+
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (indexer.getIndexedDocuments() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(2, bodies.size());
+        assertTrue(bodies.get(1).contains("\"_id\":\"e0\"") && bodies.get(1).contains("\"_id\":\"e2\""));
+        assertFalse(bodies.get(1).contains("\"_id\":\"e1\""));
+        assertEquals(Map.of("e1", "HTTP 400 mapper_parsing_exception: failed to parse"), failures);
+        assertEquals(2L, indexer.getStatistics().get("retriedDocuments"));
+        assertEquals(0, indexer.getStatistics().get("bufferedDocuments"));
+    }
+
+    @Test
+    @DisplayName("Should dead-letter a throttled document once its retries are used up")
+    void shouldDeadLetterAThrottledDocumentOnceItsRetriesAreUsedUp() throws Exception {
+        BulkTransport transport = (body, itemCount) -> {
+            bodies.add(new String(body, StandardCharsets.UTF_8));
+            String[] errors = new String[itemCount];
+            errors[0] = "HTTP 429 es_rejected_execution_exception: rejected execution";
+            return errors;
+        };
+        indexer = newIndexer(transport, 1, 20, 100);
+
+        indexer.add(document("events", "e0"), 100);
+
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (failures.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(3, bodies.size()); // first attempt + 2 retries
+        assertEquals("HTTP 429 es_rejected_execution_exception: rejected execution", failures.get("e0"));
+        assertEquals(0, indexer.getStatistics().get("bufferedDocuments"));
+    }
+
+    @Test
+    @DisplayName("Should block then reject producers while the backlog is full")
+    void shouldBlockThenRejectProducersWhileTheBacklogIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        BulkTransport slowTransport = (body, itemCount) -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new String[itemCount];
+        };
+        indexer = newIndexer(slowTransport, 1, 60_000, 2);
+
+        indexer.add(document("events", "e0"), 100);
+        indexer.add(document("events", "e1"), 100);
+
+        long start = System.nanoTime();
+        assertThrows(RejectedExecutionException.class, () -> indexer.add(document("events", "e2"), 50));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+
+        release.countDown();
+        indexer.add(document("events", "e3"), 1_000);
+    }
+
+    @Test
+    @DisplayName("Should escape index names and ids so each action stays on one line")
+    void shouldEscapeIndexNamesAndIdsSoEachActionStaysOnOneLine() {
+        byte[] body = BulkIndexer.toBulkBody(List.of(new BulkDocument("events\"\n", "e\\1\t",
+            "{\"id\":\"e1\"}".getBytes(StandardCharsets.UTF_8), null)));
+
+        assertEquals("{\"index\":{\"_index\":\"events\\\"\\n\",\"_id\":\"e\\\\1\\t\"}}\n{\"id\":\"e1\"}\n",
+            new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Should reject documents added while closing instead of stranding them")
+    void shouldRejectDocumentsAddedWhileClosingInsteadOfStrandingThem() throws Exception {
+        for (int round = 0; round < 50; round++) {
+            bodies.clear();
+            indexer = newIndexer(recordingTransport(), 1_000, 60_000, 10_000);
+            AtomicInteger accepted = new AtomicInteger();
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    try {
+                        indexer.add(document("events", "e" + i), 100);
+                        accepted.incrementAndGet();
+                    } catch (RejectedExecutionException e) {
+                        return;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            });
+            producer.start();
+            indexer.close(1_000);
+            producer.join();
+
+            assertEquals(accepted.get(), indexer.getIndexedDocuments(), "Round " + round);
+            assertEquals(0, indexer.getStatistics().get("bufferedDocuments"));
+        }
+    }
+
+    private BulkIndexer newIndexer(BulkTransport transport, int maxActions, long flushIntervalMillis,
+                                   int maxBufferedDocuments) {
+        return new BulkIndexer(transport, (document, reason) -> failures.put(document.getDocumentId(), reason),
+            maxActions, 1 << 20, flushIntervalMillis, 1, maxBufferedDocuments, 2, 1);
+    }
+
+    private BulkTransport recordingTransport() {
+        return (body, itemCount) -> {
+            bodies.add(new String(body, StandardCharsets.UTF_8));
+            return new String[itemCount];
+        };
+    }
+
+    private static BulkDocument document(String index, String id) {
+        return new BulkDocument(index, id, ("{\"id\":\"" + id + "\"}").getBytes(StandardCharsets.UTF_8), null);
+    }
+}
@@ -0,0 +1,175 @@
+package com.eipresso.analytics.ingestion;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bounded ingestion queue tests
+ */
+@DisplayName("Ingestion Queue Tests")
+class IngestionQueueTest {
+
+    private IngestionQueue queue;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (queue != null) {
+            queue.close(5_000L);
+        }
+    }
+
+    private static IngestionTask task(String id) {
+        return new IngestionTask(id, Map.of("eventType", "ORDER_PLACED"), Map.of("ingestionId", id));
+    }
+
+    @Test
+    @DisplayName("Should deliver every accepted task to the sink")
+    void shouldDeliverEveryAcceptedTaskToTheSink() throws InterruptedException {
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        CountDownLatch allDelivered = new CountDownLatch(100);
+        queue = new IngestionQueue("events", 1_000, 4, 30, task -> {
+            delivered.add(task.getIngestionId());
+            allDelivered.countDown();
+        });
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(queue.offer(task("task-" + i)));
+        }
+
+        assertTrue(allDelivered.await(5, TimeUnit.SECONDS));
+        assertEquals(100, delivered.size());
+        assertEquals(100L, queue.getStatistics().get("accepted"));
+    }
+
+    @Test
+    @DisplayName("Should reject without blocking once the queue is full")
+    void shouldRejectWithoutBlockingOnceTheQueueIsFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch consumerBusy = new CountDownLatch(1);
+        queue = new IngestionQueue("commands", 2, 1, 30, blockingSink(consumerBusy, release));
+
+        assertTrue(queue.offer(task("in-flight")));
+        assertTrue(consumerBusy.await(5, TimeUnit.SECONDS));
+        assertTrue(queue.offer(task("queued-1")));
+        assertTrue(queue.offer(task("queued-2")));
+
+        long start = System.nanoTime();
+        assertFalse(queue.offer(task("rejected")));
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+        assertEquals(1L, queue.getStatistics().get("rejected"));
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Should suggest a longer retry delay for a deeper backlog, within the bound")
+    void shouldSuggestALongerRetryDelayForADeeperBacklogWithinTheBound() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch consumerBusy = new CountDownLatch(1);
+        queue = new IngestionQueue("streaming", 1_000, 1, 10, task -> {
+            if (task.getIngestionId().equals("slow")) {
+                consumerBusy.countDown();
+                await(release);
+            } else {
+                sleep(200);
+            }
+        });
+
+        assertEquals(1L, queue.getRetryAfterSeconds());
+        // One measured delivery of ~200 ms, then hold the consumer while the backlog builds
+        assertTrue(queue.offer(task("measure")));
+        while (queue.getStatistics().get("delivered").equals(0L)) {
+            Thread.sleep(10);
+        }
+        assertTrue(queue.offer(task("slow")));
+        assertTrue(consumerBusy.await(5, TimeUnit.SECONDS));
+
+        for (int i = 0; i < 20; i++) {
+            queue.offer(task("backlog-" + i));
+        }
+        long shallow = queue.getRetryAfterSeconds();
+        for (int i = 20; i < 400; i++) {
+            queue.offer(task("backlog-" + i));
+        }
+        long deep = queue.getRetryAfterSeconds();
+
+        assertTrue(deep > shallow, "deep=" + deep + " shallow=" + shallow);
+        assertEquals(10L, deep);
+        release.countDown();
+        queue.close(0L);
+        queue = null;
+    }
+
+    @Test
+    @DisplayName("Should drain queued tasks on close and refuse new ones")
+    void shouldDrainQueuedTasksOnCloseAndRefuseNewOnes() throws InterruptedException {
+        List<String> delivered = new CopyOnWriteArrayList<>();
+        queue = new IngestionQueue("aggregation", 100, 2, 30, task -> {
+            sleep(5);
+            delivered.add(task.getIngestionId());
+        });
+        for (int i = 0; i < 50; i++) {
+            queue.offer(task("task-" + i));
+        }
+
+        assertTrue(queue.close(5_000L));
+
+        assertEquals(50, delivered.size());
+        assertFalse(queue.offer(task("late")));
+        queue = null;
+    }
+
+    @Test
+    @DisplayName("Should count sink failures and keep consuming")
+    void shouldCountSinkFailuresAndKeepConsuming() throws InterruptedException {
+        CountDownLatch allDone = new CountDownLatch(10);
+        queue = new IngestionQueue("events", 100, 1, 30, task -> {
+            allDone.countDown();
+            if (task.getIngestionId().endsWith("-3")) {
+                throw new IllegalStateException("Elasticsearch unavailable");
+            }
+        });
+        for (int i = 0; i < 10; i++) {
+            queue.offer(task("task-" + i));
+        }
+
+        assertTrue(allDone.await(5, TimeUnit.SECONDS));
+        assertTrue(queue.close(5_000L));
+        Map<String, Object> stats = queue.getStatistics();
+        assertEquals(9L, stats.get("delivered"));
+        assertEquals(1L, stats.get("failed"));
+        queue = null;
+    }
+
+    private static Consumer<IngestionTask> blockingSink(CountDownLatch busy, CountDownLatch release) {
+        return task -> {
+            busy.countDown();
+            await(release);
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
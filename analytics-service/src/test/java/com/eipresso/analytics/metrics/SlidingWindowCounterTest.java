@@ -0,0 +1,89 @@
+package com.eipresso.analytics.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sliding-window counter tests driven by a manual epoch-second clock
+ */
+@DisplayName("Sliding Window Counter Tests")
+class SlidingWindowCounterTest {
+
+    private final AtomicLong clock = new AtomicLong(1_700_000_000L);
+    private SlidingWindowCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        counter = new SlidingWindowCounter(MetricsWindow.ONE_HOUR.getSeconds(), clock::get);
+    }
+
+    @Test
+    @DisplayName("Should only report completed seconds in window counts")
+    void shouldOnlyReportCompletedSecondsInWindowCounts() {
+        counter.add(5);
+        assertEquals(5, counter.getCurrentSecondCount());
+        assertEquals(0, counter.getWindowCount(MetricsWindow.ONE_SECOND));
+
+        clock.incrementAndGet();
+        assertEquals(5, counter.getWindowCount(MetricsWindow.ONE_SECOND));
+        assertEquals(0, counter.getCurrentSecondCount());
+        assertEquals(5, counter.getTotal());
+    }
+
+    @Test
+    @DisplayName("Should expire events that slide out of the window")
+    void shouldExpireEventsThatSlideOutOfTheWindow() {
+        for (int second = 0; second < 120; second++) {
+            counter.add(2);
+            clock.incrementAndGet();
+        }
+
+        assertEquals(2, counter.getWindowCount(MetricsWindow.ONE_SECOND));
+        assertEquals(120, counter.getWindowCount(MetricsWindow.ONE_MINUTE));
+        assertEquals(240, counter.getWindowCount(MetricsWindow.FIVE_MINUTES));
+        assertEquals(2.0, counter.getRatePerSecond(MetricsWindow.ONE_MINUTE), 1e-9);
+        assertEquals(2.0, counter.getRatePerSecond(MetricsWindow.ONE_HOUR), 1e-9);
+        assertEquals(240, counter.getTotal());
+    }
+
+    @Test
+    @DisplayName("Should account idle seconds as empty buckets")
+    void shouldAccountIdleSecondsAsEmptyBuckets() {
+        counter.add(60);
+        clock.addAndGet(30);
+
+        assertEquals(60, counter.getWindowCount(MetricsWindow.ONE_MINUTE));
+        assertEquals(2.0, counter.getRatePerSecond(MetricsWindow.ONE_MINUTE), 1e-9);
+
+        clock.addAndGet(60);
+        assertEquals(0, counter.getWindowCount(MetricsWindow.ONE_MINUTE));
+        assertEquals(60, counter.getWindowCount(MetricsWindow.FIVE_MINUTES));
+    }
+
+    @Test
+    @DisplayName("Should clear history after idling longer than the ring")
+    void shouldClearHistoryAfterIdlingLongerThanTheRing() {
+        counter.add(10);
+        clock.addAndGet(2 * MetricsWindow.ONE_HOUR.getSeconds());
+        counter.add(1);
+        clock.incrementAndGet();
+
+        assertEquals(1, counter.getWindowCount(MetricsWindow.ONE_HOUR));
+        assertEquals(11, counter.getTotal());
+    }
+
+    @Test
+    @DisplayName("Should reject windows beyond the configured maximum")
+    void shouldRejectWindowsBeyondTheConfiguredMaximum() {
+        SlidingWindowCounter shortCounter = new SlidingWindowCounter(60, clock::get);
+
+        assertEquals(0, shortCounter.getWindowCount(MetricsWindow.ONE_MINUTE));
+        assertThrows(IllegalArgumentException.class,
+            () -> shortCounter.getWindowCount(MetricsWindow.FIVE_MINUTES));
+    }
+}
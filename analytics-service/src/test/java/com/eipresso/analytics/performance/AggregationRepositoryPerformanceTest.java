@@ -0,0 +1,152 @@
+package com.eipresso.analytics.performance;
+
+import com.eipresso.analytics.aggregation.LogLinearHistogram;
+import com.eipresso.analytics.aggregation.WindowAccumulatorAggregationStrategy;
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.apache.camel.CamelContext;
+import org.apache.camel.ProducerTemplate;
+import org.apache.camel.builder.RouteBuilder;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.processor.aggregate.MemoryAggregationRepository;
+import org.apache.camel.processor.aggregate.hazelcast.HazelcastAggregationRepository;
+import org.apache.camel.spi.AggregationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Aggregation Repository Performance Test Suite
+ *
+ * Drives the time-window aggregator shape (incremental strategy, optimistic
+ * locking, completion by size) at a paced 10,000 events/sec and reports the
+ * per-event overhead of the Hazelcast-backed repository over the in-memory
+ * one. Run with RUN_PERFORMANCE_TESTS=true.
+ */
+@DisplayName("Aggregation Repository Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class AggregationRepositoryPerformanceTest {
+
+    private static final int EVENTS_PER_SECOND = 10_000;
+    private static final int DURATION_SECONDS = 10;
+    private static final int WINDOWS = 20;
+
+    private HazelcastInstance hazelcastInstance;
+
+    @BeforeEach
+    void setUp() {
+        Config config = new Config();
+        config.setClusterName("analytics-aggregation-benchmark");
+        config.getNetworkConfig().setPortAutoIncrement(true);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getAutoDetectionConfig().setEnabled(false);
+        hazelcastInstance = Hazelcast.newHazelcastInstance(config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (hazelcastInstance != null) {
+            hazelcastInstance.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should sustain 10k events/sec through the Hazelcast aggregation repository")
+    void shouldSustain10kEventsPerSecondThroughTheHazelcastAggregationRepository() throws Exception {
+        LoadResult memory = runPacedLoad(new MemoryAggregationRepository(true));
+        LoadResult hazelcast = runPacedLoad(
+            new HazelcastAggregationRepository("analytics-aggregation-benchmark", true, hazelcastInstance));
+
+        report("Memory", memory);
+        report("Hazelcast", hazelcast);
+        System.out.printf("📊 Hazelcast overhead per aggregated event: %.1fµs%n",
+            mean(hazelcast.latencies()) - mean(memory.latencies()));
+
+        // The shared repository must keep up with the offered rate rather than fall behind it
+        double achievedRate = hazelcast.latencies().getTotalCount() / (hazelcast.elapsedNanos() / 1e9);
+        assertTrue(achievedRate >= EVENTS_PER_SECOND * 0.95,
+            "Hazelcast repository only sustained " + achievedRate + " events/sec");
+    }
+
+    private LoadResult runPacedLoad(AggregationRepository repository) throws Exception {
+        AtomicLong completed = new AtomicLong();
+        CamelContext context = new DefaultCamelContext();
+        context.addRoutes(new RouteBuilder() {
+            @Override
+            public void configure() {
+                from("direct:aggregate")
+                    .aggregate(header("timeWindow"), WindowAccumulatorAggregationStrategy.forOptimisticLocking())
+                        .aggregationRepository(repository)
+                        .optimisticLocking()
+                        .completionSize(100)
+                        .process(exchange -> completed.incrementAndGet());
+            }
+        });
+        context.start();
+
+        LogLinearHistogram latencies = new LogLinearHistogram();
+        long elapsedNanos;
+        try {
+            ProducerTemplate producer = context.createProducerTemplate();
+            Map<String, Object> headers = new HashMap<>();
+            long intervalNanos = 1_000_000_000L / EVENTS_PER_SECOND;
+            long totalEvents = (long) EVENTS_PER_SECOND * DURATION_SECONDS;
+            long start = System.nanoTime();
+
+            for (long i = 0; i < totalEvents; i++) {
+                long scheduled = start + i * intervalNanos;
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                headers.put("timeWindow", "window-" + (i % WINDOWS));
+                headers.put("amount", "12.50");
+                headers.put("eventTimestamp", System.currentTimeMillis());
+
+                long sent = System.nanoTime();
+                producer.sendBodyAndHeaders("direct:aggregate", "event-" + i, headers);
+                latencies.record((System.nanoTime() - sent) / 1_000);
+            }
+            elapsedNanos = System.nanoTime() - start;
+        } finally {
+            context.stop();
+        }
+
+        assertEquals(latencies.getTotalCount() / 100, completed.get());
+        return new LoadResult(latencies, elapsedNanos);
+    }
+
+    private static double mean(LogLinearHistogram histogram) {
+        // Approximate from percentiles, which is all the histogram exposes
+        double sum = 0;
+        for (int p = 1; p <= 100; p++) {
+            sum += histogram.getValueAtPercentile(p);
+        }
+        return sum / 100;
+    }
+
+    private static void report(String name, LoadResult result) {
+        LogLinearHistogram latencies = result.latencies();
+        System.out.printf("📊 %-9s repository @ %,d events/sec: p50=%dµs p95=%dµs p99=%dµs max=%dµs mean≈%.1fµs%n",
+            name, EVENTS_PER_SECOND,
+            latencies.getValueAtPercentile(50),
+            latencies.getValueAtPercentile(95),
+            latencies.getValueAtPercentile(99),
+            latencies.getValueAtPercentile(100),
+            mean(latencies));
+    }
+
+    private record LoadResult(LogLinearHistogram latencies, long elapsedNanos) {
+    }
+}
@@ -0,0 +1,159 @@
+package com.eipresso.analytics.performance;
+
+import com.eipresso.analytics.aggregation.LogLinearHistogram;
+import com.eipresso.analytics.indexing.BulkDocument;
+import com.eipresso.analytics.indexing.BulkIndexer;
+import com.eipresso.analytics.indexing.HttpBulkTransport;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Bulk Indexing Performance Test Suite
+ *
+ * Compares one INDEX request per document with the bulk indexing stage
+ * against a local stand-in for Elasticsearch that charges a fixed latency
+ * per request. Run with RUN_PERFORMANCE_TESTS=true.
+ */
+@DisplayName("Bulk Indexing Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class BulkIndexingPerformanceTest {
+
+    private static final int DOCUMENTS = 20_000;
+    private static final int PER_DOCUMENT_SAMPLE = 2_000; // one round-trip each, so keep the baseline short
+    private static final int PRODUCERS = 8;
+    private static final long REQUEST_LATENCY_MILLIS = 2;
+    private static final byte[] DOCUMENT = ("{\"eventType\":\"ORDER_CREATED\",\"orderId\":\"ORD-1001\","
+        + "\"amount\":25.50,\"timestamp\":\"2024-01-01T10:00:00\"}").getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/_bulk", exchange -> respond(exchange, "{\"took\":1,\"errors\":false,\"items\":[]}"));
+        server.createContext("/", exchange -> respond(exchange, "{\"result\":\"created\"}"));
+        serverExecutor = Executors.newFixedThreadPool(16);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should index faster through _bulk than one request per document")
+    void shouldIndexFasterThroughBulkThanOneRequestPerDocument() throws Exception {
+        double perDocumentRate = measurePerDocumentIndexing();
+        double bulkRate = measureBulkIndexing();
+
+        assertTrue(bulkRate > perDocumentRate * 5,
+            "Bulk indexing reached " + bulkRate + " docs/sec vs " + perDocumentRate + " per-document");
+    }
+
+    private double measurePerDocumentIndexing() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        LogLinearHistogram latencies = new LogLinearHistogram();
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        long start = System.nanoTime();
+        Future<?>[] futures = new Future<?>[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            futures[p] = producers.submit(() -> {
+                LogLinearHistogram local = new LogLinearHistogram();
+                for (int i = 0; i < PER_DOCUMENT_SAMPLE / PRODUCERS; i++) {
+                    long sent = System.nanoTime();
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/business-events/_doc"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(DOCUMENT))
+                        .build();
+                    client.send(request, HttpResponse.BodyHandlers.discarding());
+                    local.record((System.nanoTime() - sent) / 1_000);
+                }
+                synchronized (latencies) {
+                    latencies.merge(local);
+                }
+                return null;
+            });
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        producers.shutdown();
+
+        double rate = PER_DOCUMENT_SAMPLE / seconds;
+        System.out.printf("📊 Per-document INDEX: %,.0f docs/sec, p99=%dµs%n", rate, latencies.getValueAtPercentile(99));
+        return rate;
+    }
+
+    private double measureBulkIndexing() throws Exception {
+        BulkIndexer indexer = new BulkIndexer(
+            new HttpBulkTransport(baseUrl, new ObjectMapper(), Duration.ofSeconds(30)),
+            (document, reason) -> fail("Unexpected bulk failure: " + reason),
+            1_000, 5 * 1024 * 1024, 200, 2, 50_000, 3, 200);
+
+        ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS);
+        long start = System.nanoTime();
+        Future<?>[] futures = new Future<?>[PRODUCERS];
+        for (int p = 0; p < PRODUCERS; p++) {
+            futures[p] = producers.submit(() -> {
+                for (int i = 0; i < DOCUMENTS / PRODUCERS; i++) {
+                    indexer.add(new BulkDocument("business-events", null, DOCUMENT, null), 5_000);
+                }
+                return null;
+            });
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        assertTrue(indexer.close(30_000));
+        double seconds = (System.nanoTime() - start) / 1e9;
+        producers.shutdown();
+
+        assertEquals(DOCUMENTS, indexer.getIndexedDocuments());
+        double rate = DOCUMENTS / seconds;
+        System.out.printf("📊 Bulk indexing:      %,.0f docs/sec, p99=%dµs (enqueue to acknowledgement)%n",
+            rate, indexer.getIndexLatencyMicros(99));
+        return rate;
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        try {
+            TimeUnit.MILLISECONDS.sleep(REQUEST_LATENCY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] response = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, response.length);
+        exchange.getResponseBody().write(response);
+        exchange.close();
+    }
+}
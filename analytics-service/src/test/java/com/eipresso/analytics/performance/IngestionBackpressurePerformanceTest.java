@@ -0,0 +1,102 @@
+package com.eipresso.analytics.performance;
+
+import com.eipresso.analytics.aggregation.LogLinearHistogram;
+import com.eipresso.analytics.ingestion.IngestionQueue;
+import com.eipresso.analytics.ingestion.IngestionTask;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ingestion Backpressure Performance Test Suite
+ *
+ * Simulates a servlet pool under an ingestion burst whose route chain takes
+ * {@link #ROUTE_MILLIS} per request, and measures how long each request holds
+ * its servlet thread when the route runs in line versus when the request is
+ * handed to a bounded ingestion queue. Run with RUN_PERFORMANCE_TESTS=true.
+ */
+@DisplayName("Ingestion Backpressure Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class IngestionBackpressurePerformanceTest {
+
+    private static final int SERVLET_THREADS = 32;
+    private static final int REQUESTS = 8_000;
+    private static final long ROUTE_MILLIS = 2;
+    private static final int QUEUE_CAPACITY = 1_000;
+    private static final int CONSUMERS = 8;
+
+    @Test
+    @DisplayName("Should release servlet threads at once and push back when the queue is full")
+    void shouldReleaseServletThreadsAtOnceAndPushBackWhenTheQueueIsFull() throws InterruptedException {
+        LogLinearHistogram inlineHoldMicros = burst(task -> {
+            route();
+            return true;
+        });
+
+        LongAdder delivered = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        IngestionQueue queue = new IngestionQueue("events", QUEUE_CAPACITY, CONSUMERS, 30, task -> {
+            route();
+            delivered.increment();
+        });
+        LogLinearHistogram queuedHoldMicros = burst(task -> {
+            if (!queue.offer(task)) {
+                rejected.increment();
+                assertTrue(queue.getRetryAfterSeconds() >= 1);
+                return false;
+            }
+            return true;
+        });
+        long retryAfterAtPeak = queue.getRetryAfterSeconds();
+        assertTrue(queue.close(60_000L));
+
+        long inlineP99 = inlineHoldMicros.getValueAtPercentile(99);
+        long queuedP99 = queuedHoldMicros.getValueAtPercentile(99);
+        System.out.printf("Servlet thread hold p99: in line %d µs, queued %d µs; %d accepted, %d rejected, Retry-After %ds%n",
+            inlineP99, queuedP99, delivered.sum(), rejected.sum(), retryAfterAtPeak);
+
+        assertTrue(inlineP99 >= TimeUnit.MILLISECONDS.toMicros(ROUTE_MILLIS));
+        assertTrue(queuedP99 * 10 < inlineP99, "Queued p99 " + queuedP99 + " µs vs in line " + inlineP99 + " µs");
+        assertTrue(rejected.sum() > 0, "A burst beyond the queue capacity should be pushed back");
+        assertEquals(REQUESTS, delivered.sum() + rejected.sum());
+    }
+
+    /**
+     * Run {@link #REQUESTS} requests on the servlet pool, recording how long each holds its thread
+     */
+    private static LogLinearHistogram burst(Predicate<IngestionTask> handler) throws InterruptedException {
+        LogLinearHistogram holdMicros = new LogLinearHistogram();
+        ExecutorService servletPool = Executors.newFixedThreadPool(SERVLET_THREADS);
+        for (int i = 0; i < REQUESTS; i++) {
+            IngestionTask task = new IngestionTask("request-" + i, Map.of("eventType", "ORDER_PLACED"), Map.of());
+            servletPool.execute(() -> {
+                long start = System.nanoTime();
+                handler.test(task);
+                long held = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                synchronized (holdMicros) {
+                    holdMicros.record(held);
+                }
+            });
+        }
+        servletPool.shutdown();
+        assertTrue(servletPool.awaitTermination(2, TimeUnit.MINUTES));
+        return holdMicros;
+    }
+
+    private static void route() {
+        try {
+            Thread.sleep(ROUTE_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.eipresso.analytics.performance;
+
+import com.eipresso.analytics.aggregation.LogLinearHistogram;
+import com.eipresso.analytics.readmodel.MaterializedReadModels;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Read Model Query Performance Test Suite
+ *
+ * Compares answering the hourly order count query from the materialized view
+ * with the Elasticsearch path: an HTTP _search round-trip to a local
+ * stand-in that returns a pre-built 24-bucket date histogram, parsed with
+ * Jackson. The stand-in does no search work, so the Elasticsearch figures
+ * are a floor. Run with RUN_PERFORMANCE_TESTS=true.
+ */
+@DisplayName("Read Model Query Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class ReadModelQueryPerformanceTest {
+
+    private static final int COMMANDS = 100_000;
+    private static final int WARMUP_QUERIES = 500;
+    private static final int VIEW_QUERIES = 10_000;
+    private static final int SEARCH_QUERIES = 2_000; // one round-trip each, so keep this path short
+    private static final byte[] QUERY = ("{\"size\":0,\"aggs\":{\"ordersPerHour\":{\"date_histogram\":"
+        + "{\"field\":\"writeTimestamp\",\"fixed_interval\":\"1h\"}}}}").getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private String baseUrl;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        StringBuilder buckets = new StringBuilder();
+        for (int hour = 0; hour < 24; hour++) {
+            buckets.append(hour == 0 ? "" : ",")
+                .append("{\"key_as_string\":\"2024-01-01T").append(String.format("%02d", hour))
+                .append(":00:00Z\",\"key\":").append(1_704_067_200_000L + hour * 3_600_000L)
+                .append(",\"doc_count\":").append(4_000 + hour).append('}');
+        }
+        byte[] searchResponse = ("{\"took\":1,\"timed_out\":false,\"hits\":{\"total\":{\"value\":" + COMMANDS
+            + "},\"hits\":[]},\"aggregations\":{\"ordersPerHour\":{\"buckets\":[" + buckets + "]}}}")
+            .getBytes(StandardCharsets.UTF_8);
+
+        // Without TCP_NODELAY the stand-in's separate header and body writes hit delayed ACKs (~40ms per request)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/orders-read-model/_search", exchange -> respond(exchange, searchResponse));
+        serverExecutor = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverExecutor);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Should answer hourly order counts from the materialized view faster than from Elasticsearch")
+    void shouldAnswerHourlyOrderCountsFromTheMaterializedViewFasterThanFromElasticsearch() throws Exception {
+        MaterializedReadModels readModels = new MaterializedReadModels(168);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < COMMANDS; i++) {
+            readModels.apply("CREATE_ORDER_ANALYTICS", Map.of("productId", "product-" + (i % 50)),
+                now - (i % 24) * 3_600_000L);
+        }
+        readModels.markBootstrapped(now - 24 * 3_600_000L);
+        Map<String, Object> parameters = Map.of("hours", 24);
+
+        LogLinearHistogram viewLatency = new LogLinearHistogram();
+        for (int i = 0; i < WARMUP_QUERIES + VIEW_QUERIES; i++) {
+            long start = System.nanoTime();
+            Map<String, Object> answer = readModels.answer("GET_ORDER_ANALYTICS", parameters);
+            long micros = (System.nanoTime() - start) / 1_000;
+            assertEquals((long) COMMANDS, answer.get("totalOrders"));
+            if (i >= WARMUP_QUERIES) {
+                viewLatency.record(micros);
+            }
+        }
+
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        ObjectMapper objectMapper = new ObjectMapper();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/orders-read-model/_search"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofByteArray(QUERY))
+            .build();
+        LogLinearHistogram searchLatency = new LogLinearHistogram();
+        for (int i = 0; i < WARMUP_QUERIES + SEARCH_QUERIES; i++) {
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            int buckets = objectMapper.readTree(response.body()).path("aggregations").path("ordersPerHour").path("buckets").size();
+            long micros = (System.nanoTime() - start) / 1_000;
+            assertEquals(24, buckets);
+            if (i >= WARMUP_QUERIES) {
+                searchLatency.record(micros);
+            }
+        }
+
+        report("Materialized view", viewLatency);
+        report("Elasticsearch stand-in", searchLatency);
+
+        assertTrue(viewLatency.getValueAtPercentile(99.0) < searchLatency.getValueAtPercentile(50.0),
+            "Materialized view p99 " + viewLatency.getValueAtPercentile(99.0)
+                + "µs vs Elasticsearch p50 " + searchLatency.getValueAtPercentile(50.0) + "µs");
+    }
+
+    private static void report(String path, LogLinearHistogram latency) {
+        System.out.printf("📊 %s: p50=%dµs p99=%dµs p99.9=%dµs over %,d queries%n", path,
+            latency.getValueAtPercentile(50.0), latency.getValueAtPercentile(99.0),
+            latency.getValueAtPercentile(99.9), latency.getTotalCount());
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+}
@@ -0,0 +1,137 @@
+package com.eipresso.analytics.performance;
+
+import com.eipresso.analytics.metrics.AnalyticsEventType;
+import com.eipresso.analytics.metrics.MetricsWindow;
+import com.eipresso.analytics.metrics.SlidingWindowCounter;
+import com.eipresso.analytics.service.StreamingMetricsService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streaming Metrics Performance Test Suite
+ *
+ * Measures the hot-path cost of the streaming metrics engine under
+ * concurrent writers. Run with RUN_PERFORMANCE_TESTS=true.
+ */
+@DisplayName("Streaming Metrics Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class StreamingMetricsPerformanceTest {
+
+    private static final int EVENTS_PER_THREAD = 2_000_000;
+    private static final int COUNTING_EVENTS = 5_000_000;
+    private static final String[] EVENT_TYPES = {"ORDER_CREATED", "ORDER_PAID", "USER_LOGIN", "USER_REGISTERED"};
+
+    @Test
+    @DisplayName("Should scale sliding-window writes across 32 writer threads")
+    void shouldScaleSlidingWindowWritesAcross32WriterThreads() throws Exception {
+        double singleThreadRate = 0;
+        double rate32 = 0;
+        for (int threads : new int[]{1, 2, 4, 8, 16, 32}) {
+            double rate = measureSlidingWindowWrites(threads);
+            System.out.printf("📊 SlidingWindowCounter %2d writers: %,.0f events/sec%n", threads, rate);
+            if (threads == 1) singleThreadRate = rate;
+            rate32 = rate;
+        }
+
+        // Striped slots must not collapse under contention the way a single AtomicLong does
+        assertTrue(rate32 >= singleThreadRate * 0.5,
+            "32 writers collapsed to " + rate32 + " events/sec vs " + singleThreadRate + " single-threaded");
+    }
+
+    @Test
+    @DisplayName("Should count events without allocating compared to map-based counters")
+    void shouldCountEventsWithoutAllocatingComparedToMapBasedCounters() {
+        // Map-based counters as StreamingRoute kept them before the event type registry
+        Map<String, AtomicLong> mapCounters = new ConcurrentHashMap<>();
+        StreamingMetricsService registry = new StreamingMetricsService();
+        registry.init();
+        AnalyticsEventType[] resolved = new AnalyticsEventType[EVENT_TYPES.length];
+        for (int i = 0; i < EVENT_TYPES.length; i++) {
+            resolved[i] = AnalyticsEventType.resolve(EVENT_TYPES[i]);
+        }
+
+        // Warm up both paths so the JIT has compiled them before measuring
+        for (int i = 0; i < COUNTING_EVENTS; i++) {
+            countWithMap(mapCounters, EVENT_TYPES[i & 3]);
+            registry.record(resolved[i & 3]);
+        }
+
+        long mapBytes = allocatedBytes();
+        long mapStart = System.nanoTime();
+        for (int i = 0; i < COUNTING_EVENTS; i++) {
+            countWithMap(mapCounters, EVENT_TYPES[i & 3]);
+        }
+        long mapNanos = System.nanoTime() - mapStart;
+        mapBytes = allocatedBytes() - mapBytes;
+
+        long registryBytes = allocatedBytes();
+        long registryStart = System.nanoTime();
+        for (int i = 0; i < COUNTING_EVENTS; i++) {
+            registry.record(resolved[i & 3]);
+        }
+        long registryNanos = System.nanoTime() - registryStart;
+        registryBytes = allocatedBytes() - registryBytes;
+
+        System.out.printf("📊 Map-based counters : %6.1f ns/event, %6.1f bytes/event%n",
+            (double) mapNanos / COUNTING_EVENTS, (double) mapBytes / COUNTING_EVENTS);
+        System.out.printf("📊 Event type registry: %6.1f ns/event, %6.1f bytes/event%n",
+            (double) registryNanos / COUNTING_EVENTS, (double) registryBytes / COUNTING_EVENTS);
+
+        assertEquals(2L * COUNTING_EVENTS, registry.total().getTotal());
+        assertTrue((double) registryBytes / COUNTING_EVENTS < 1.0,
+            "Registry counting allocated " + registryBytes + " bytes for " + COUNTING_EVENTS + " events");
+    }
+
+    private static void countWithMap(Map<String, AtomicLong> counters, String eventType) {
+        counters.computeIfAbsent("events.total", k -> new AtomicLong(0)).incrementAndGet();
+        counters.computeIfAbsent("events." + eventType.toLowerCase(), k -> new AtomicLong(0)).incrementAndGet();
+    }
+
+    private static long allocatedBytes() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+            .getCurrentThreadAllocatedBytes();
+    }
+
+    private double measureSlidingWindowWrites(int threads) throws Exception {
+        SlidingWindowCounter counter = new SlidingWindowCounter(MetricsWindow.ONE_HOUR.getSeconds());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                        counter.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long startNanos = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(5, TimeUnit.MINUTES));
+        long elapsedNanos = System.nanoTime() - startNanos;
+        executor.shutdown();
+
+        assertEquals((long) threads * EVENTS_PER_THREAD, counter.getTotal());
+        return (double) threads * EVENTS_PER_THREAD / (elapsedNanos / 1_000_000_000.0);
+    }
+}
@@ -0,0 +1,149 @@
+package com.eipresso.analytics.projection;
+
+import com.eipresso.analytics.replay.StoredEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Projection snapshot and tail-replay tests
+ */
+@DisplayName("Projection Store Tests")
+class ProjectionStoreTest {
+
+    private static ProjectionEvent orderEvent(long time, String eventType, Long amountCents) {
+        return new ProjectionEvent(String.format("evt-%08d", time), eventType, time, amountCents);
+    }
+
+    @Test
+    @DisplayName("Should round-trip a projection through the binary snapshot codec")
+    void shouldRoundTripAProjectionThroughTheBinarySnapshotCodec() {
+        OrderProjection order = new OrderProjection("ORD-1");
+        order.apply(orderEvent(1_000, "ORDER_CREATED", 4_599L));
+        order.apply(orderEvent(2_000, "ORDER_PAID", null));
+
+        byte[] snapshot = SnapshotCodec.encode(order);
+        OrderProjection restored = (OrderProjection) SnapshotCodec.decode(snapshot);
+
+        assertTrue(snapshot.length < 64, "snapshot took " + snapshot.length + " bytes");
+        assertEquals("ORD-1", restored.getAggregateId());
+        assertEquals(2, restored.getSequence());
+        assertEquals(2_000, restored.getLastEventTimeMillis());
+        assertEquals("PAID", restored.getStatus());
+        assertEquals(4_599, restored.getAmountCents());
+        assertEquals(order.toView(), restored.toView());
+    }
+
+    @Test
+    @DisplayName("Should carry a sourced event's amount into the projection, live and replayed")
+    void shouldCarryASourcedEventsAmountIntoTheProjectionLiveAndReplayed() {
+        Map<String, Object> submitted = Map.of(
+            "eventType", "ORDER_CREATED", "orderId", "ORD-7", "userId", "USR-7", "amount", "45.99");
+        Map<String, Object> live = new HashMap<>(StoredEvent.sourcedHeadersOf(submitted));
+        live.put(StoredEvent.EVENT_ID, "evt-1");
+        live.put(StoredEvent.EVENT_TIMESTAMP, LocalDateTime.of(2024, 1, 1, 10, 0));
+
+        ProjectionStore store = new ProjectionStore(AggregateType.ORDER, new InMemorySnapshotStore(), 10);
+        store.apply("ORD-7", ProjectionEvent.fromHeaders(live));
+        assertEquals(4_599, ((OrderProjection) store.get("ORD-7")).getAmountCents());
+
+        // The stored document keeps the amount, so a rebuild from the event store gets it back
+        Map<String, Object> replayed = StoredEvent.headersOf(StoredEvent.toDocument(live, submitted));
+        ProjectionStore rebuilt = new ProjectionStore(AggregateType.ORDER, new InMemorySnapshotStore(), 10);
+        rebuilt.apply("ORD-7", ProjectionEvent.fromHeaders(replayed));
+        assertEquals(4_599, ((OrderProjection) rebuilt.get("ORD-7")).getAmountCents());
+    }
+
+    @Test
+    @DisplayName("Should ignore snapshots written in another format version")
+    void shouldIgnoreSnapshotsWrittenInAnotherFormatVersion() {
+        UserProjection user = new UserProjection("USR-1");
+        user.apply(new ProjectionEvent("evt-1", "USER_LOGIN", 1_000, null));
+        byte[] snapshot = SnapshotCodec.encode(user);
+        snapshot[0] = (byte) (SnapshotCodec.FORMAT_VERSION + 1);
+
+        assertNull(SnapshotCodec.decode(snapshot));
+    }
+
+    @Test
+    @DisplayName("Should write a snapshot every interval")
+    void shouldWriteASnapshotEveryInterval() {
+        InMemorySnapshotStore snapshots = new InMemorySnapshotStore();
+        ProjectionStore store = new ProjectionStore(AggregateType.ORDER, snapshots, 10);
+
+        for (long time = 1; time <= 25; time++) {
+            store.apply("ORD-1", orderEvent(time, "ORDER_CREATED", null));
+        }
+
+        AggregateProjection latest = SnapshotCodec.decode(snapshots.loadLatest(AggregateType.ORDER, "ORD-1"));
+        assertEquals(20, latest.getSequence());
+        assertEquals(20, latest.getLastEventTimeMillis());
+        assertEquals(2L, store.getStatistics().get("snapshotsWritten"));
+    }
+
+    @Test
+    @DisplayName("Should apply only the tail when replaying over a restored snapshot")
+    void shouldApplyOnlyTheTailWhenReplayingOverARestoredSnapshot() {
+        InMemorySnapshotStore snapshots = new InMemorySnapshotStore();
+        ProjectionStore original = new ProjectionStore(AggregateType.ORDER, snapshots, 10);
+        for (long time = 1; time <= 25; time++) {
+            original.apply("ORD-1", orderEvent(time, time == 25 ? "ORDER_DELIVERED" : "ORDER_PAID", time));
+        }
+
+        // Another node starts from the shared snapshot and replays from the snapshot position
+        ProjectionStore rebuilt = new ProjectionStore(AggregateType.ORDER, snapshots, 10);
+        AggregateProjection restored = rebuilt.resetToSnapshot("ORD-1");
+        for (long time = restored.getLastEventTimeMillis(); time <= 25; time++) {
+            rebuilt.apply("ORD-1", orderEvent(time, time == 25 ? "ORDER_DELIVERED" : "ORDER_PAID", time));
+        }
+
+        OrderProjection order = (OrderProjection) rebuilt.get("ORD-1");
+        assertEquals(25, order.getSequence());
+        assertEquals("DELIVERED", order.getStatus());
+        assertEquals(25, order.getAmountCents());
+        assertEquals(5L, rebuilt.getStatistics().get("appliedEvents"));
+        assertEquals(1L, rebuilt.getStatistics().get("skippedEvents"));
+        assertEquals(original.get("ORD-1").toView(), order.toView());
+    }
+
+    @Test
+    @DisplayName("Should skip duplicate and out-of-date events")
+    void shouldSkipDuplicateAndOutOfDateEvents() {
+        ProjectionStore store = new ProjectionStore(AggregateType.USER, new InMemorySnapshotStore(), 100);
+
+        store.apply("USR-1", new ProjectionEvent("evt-b", "USER_LOGIN", 2_000, null));
+        store.apply("USR-1", new ProjectionEvent("evt-b", "USER_LOGIN", 2_000, null));
+        store.apply("USR-1", new ProjectionEvent("evt-z", "USER_LOGIN", 1_000, null));
+        long sequence = store.apply("USR-1", new ProjectionEvent("evt-c", "USER_LOGIN", 2_000, null));
+
+        assertEquals(2, sequence);
+        assertEquals(2, ((UserProjection) store.get("USR-1")).getLoginCount());
+    }
+
+    @Test
+    @DisplayName("Should apply every event sharing a timestamp whatever the order of their ids")
+    void shouldApplyEveryEventSharingATimestampWhateverTheOrderOfTheirIds() {
+        InMemorySnapshotStore snapshots = new InMemorySnapshotStore();
+        ProjectionStore store = new ProjectionStore(AggregateType.USER, snapshots, 2);
+
+        store.apply("USR-1", new ProjectionEvent("f3a1", "USER_LOGIN", 2_000, null));
+        store.apply("USR-1", new ProjectionEvent("0b7e", "USER_LOGIN", 2_000, null));
+        store.apply("USR-1", new ProjectionEvent("9c42", "USER_LOGIN", 2_000, null));
+        assertEquals(3, ((UserProjection) store.get("USR-1")).getLoginCount());
+
+        // The snapshot after the second event knows both ids, so a replay in id order applies only the third
+        ProjectionStore rebuilt = new ProjectionStore(AggregateType.USER, snapshots, 2);
+        rebuilt.resetToSnapshot("USR-1");
+        for (String eventId : new String[] {"0b7e", "9c42", "f3a1"}) {
+            rebuilt.apply("USR-1", new ProjectionEvent(eventId, "USER_LOGIN", 2_000, null));
+        }
+
+        assertEquals(3, ((UserProjection) rebuilt.get("USR-1")).getLoginCount());
+        assertEquals(1L, rebuilt.getStatistics().get("appliedEvents"));
+    }
+}
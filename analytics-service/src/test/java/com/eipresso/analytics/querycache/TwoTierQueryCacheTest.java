@@ -0,0 +1,167 @@
+package com.eipresso.analytics.querycache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two-tier query cache tests against an in-memory remote tier
+ */
+@DisplayName("Two-Tier Query Cache Tests")
+class TwoTierQueryCacheTest {
+
+    private final InMemoryRemoteCache remote = new InMemoryRemoteCache();
+
+    private TwoTierQueryCache newCache() {
+        Map<QueryView, Duration> ttls = new EnumMap<>(QueryView.class);
+        for (QueryView view : QueryView.values()) {
+            ttls.put(view, Duration.ofMinutes(1));
+        }
+        return new TwoTierQueryCache(remote, new ObjectMapper(), ttls, 1_000, Duration.ofSeconds(30));
+    }
+
+    @Test
+    @DisplayName("Should canonicalize equivalent queries to the same key")
+    void shouldCanonicalizeEquivalentQueriesToTheSameKey() {
+        Map<String, Object> first = new HashMap<>();
+        first.put("userId", " USR-1 ");
+        first.put("orderId", null);
+        first.put("queryId", "q-1");
+        first.put("hours", 24);
+        Map<String, Object> second = new HashMap<>();
+        second.put("hours", "24");
+        second.put("productId", "");
+        second.put("userId", "USR-1");
+        second.put("queryTimestamp", "2024-01-01T10:00:00");
+
+        assertEquals("GET_USER_DASHBOARD?hours=24&userId=USR-1",
+            QueryKeys.canonical("get_user_dashboard ", first));
+        assertEquals(QueryKeys.canonical("GET_USER_DASHBOARD", first), QueryKeys.canonical("GET_USER_DASHBOARD", second));
+    }
+
+    @Test
+    @DisplayName("Should serve from the near tier, then the remote tier on another node")
+    void shouldServeFromTheNearTierThenTheRemoteTierOnAnotherNode() {
+        TwoTierQueryCache nodeA = newCache();
+        TwoTierQueryCache nodeB = newCache();
+        String key = QueryKeys.canonical("GET_REVENUE_REPORT", Map.of());
+
+        assertNull(nodeA.get(QueryView.REVENUE, key));
+        nodeA.put(QueryView.REVENUE, key, nodeA.getGeneration(QueryView.REVENUE), Map.of("totalRevenue", 42.5));
+
+        assertEquals(TwoTierQueryCache.NEAR_TIER, nodeA.get(QueryView.REVENUE, key).getTier());
+        TwoTierQueryCache.Hit remoteHit = nodeB.get(QueryView.REVENUE, key);
+        assertEquals(TwoTierQueryCache.REMOTE_TIER, remoteHit.getTier());
+        assertEquals(Map.of("totalRevenue", 42.5), remoteHit.getValue());
+        assertEquals(TwoTierQueryCache.NEAR_TIER, nodeB.get(QueryView.REVENUE, key).getTier());
+
+        Map<String, Object> stats = nodeA.getStatistics();
+        assertEquals(1L, stats.get("nearHits"));
+        assertEquals(1L, stats.get("misses"));
+        assertEquals(0.5, stats.get("hitRatio"));
+    }
+
+    @Test
+    @DisplayName("Should invalidate a view in both tiers and on nodes that receive the new generation")
+    void shouldInvalidateAViewInBothTiersAndOnNodesThatReceiveTheNewGeneration() {
+        TwoTierQueryCache nodeA = newCache();
+        TwoTierQueryCache nodeB = newCache();
+        String orders = QueryKeys.canonical("GET_ORDER_ANALYTICS", Map.of());
+        String users = QueryKeys.canonical("GET_USER_DASHBOARD", Map.of());
+        nodeA.put(QueryView.ORDERS, orders, 0, "orders-v0");
+        nodeA.put(QueryView.USERS, users, 0, "users-v0");
+        assertNotNull(nodeB.get(QueryView.ORDERS, orders));
+
+        nodeA.invalidate(QueryView.ORDERS);
+
+        assertNull(nodeA.get(QueryView.ORDERS, orders));
+        assertNotNull(nodeA.get(QueryView.USERS, users));
+        // Node B still holds the old entry near until the announcement arrives
+        assertNotNull(nodeB.get(QueryView.ORDERS, orders));
+        nodeB.advanceGeneration(QueryView.ORDERS, remote.generation(QueryView.ORDERS));
+        assertNull(nodeB.get(QueryView.ORDERS, orders));
+    }
+
+    @Test
+    @DisplayName("Should not cache a result loaded across an invalidation")
+    void shouldNotCacheAResultLoadedAcrossAnInvalidation() {
+        TwoTierQueryCache cache = newCache();
+        String key = QueryKeys.canonical("GET_ORDER_ANALYTICS", Map.of("orderId", "ORD-1"));
+        long loadedGeneration = cache.getGeneration(QueryView.ORDERS);
+
+        cache.invalidate(QueryView.ORDERS);
+        cache.put(QueryView.ORDERS, key, loadedGeneration, "stale");
+
+        assertNull(cache.get(QueryView.ORDERS, key));
+        assertTrue(remote.entries.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep serving and invalidating locally while the remote tier is down")
+    void shouldKeepServingAndInvalidatingLocallyWhileTheRemoteTierIsDown() {
+        TwoTierQueryCache cache = newCache();
+        String key = QueryKeys.canonical("GET_USER_DASHBOARD", Map.of());
+        remote.down = true;
+
+        cache.put(QueryView.USERS, key, 0, "users-v0");
+        assertEquals(TwoTierQueryCache.NEAR_TIER, cache.get(QueryView.USERS, key).getTier());
+        cache.invalidate(QueryView.USERS);
+
+        assertNull(cache.get(QueryView.USERS, key));
+        assertTrue((Long) cache.getStatistics().get("remoteErrors") >= 2);
+    }
+
+    @Test
+    @DisplayName("Should map query and command types to the views they read and change")
+    void shouldMapQueryAndCommandTypesToTheViewsTheyReadAndChange() {
+        assertEquals(QueryView.ORDERS, QueryView.forQueryType("GET_ORDER_ANALYTICS"));
+        assertEquals(QueryView.USERS, QueryView.forQueryType("GET_USER_DASHBOARD"));
+        assertNull(QueryView.forQueryType("GET_INVENTORY_REPORT"));
+        assertTrue(QueryView.changedBy("CREATE_ORDER_ANALYTICS").contains(QueryView.REVENUE));
+        assertTrue(QueryView.changedBy("UNKNOWN_COMMAND").isEmpty());
+    }
+
+    private static class InMemoryRemoteCache implements RemoteQueryCache {
+        private final Map<String, String> entries = new ConcurrentHashMap<>();
+        private final Map<QueryView, Long> generations = new ConcurrentHashMap<>();
+        private volatile boolean down;
+
+        @Override
+        public String get(String key) {
+            checkUp();
+            return entries.get(key);
+        }
+
+        @Override
+        public void set(String key, String json, Duration ttl) {
+            checkUp();
+            entries.put(key, json);
+        }
+
+        @Override
+        public long generation(QueryView view) {
+            checkUp();
+            return generations.getOrDefault(view, 0L);
+        }
+
+        @Override
+        public long bumpGeneration(QueryView view) {
+            checkUp();
+            return generations.merge(view, 1L, Long::sum);
+        }
+
+        private void checkUp() {
+            if (down) {
+                throw new IllegalStateException("Redis unavailable");
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.eipresso.analytics.readmodel;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Materialized read model tests against a controllable clock
+ */
+@DisplayName("Materialized Read Models Tests")
+class MaterializedReadModelsTest {
+
+    private static final long HOUR = HourlyOrderCounts.HOUR_MILLIS;
+    private static final long START = 1_704_103_200_000L; // 2024-01-01T10:00:00Z
+
+    private final AtomicLong now = new AtomicLong(START);
+    private final MaterializedReadModels readModels = new MaterializedReadModels(48, now::get);
+
+    @Test
+    @DisplayName("Should count orders per hour over the requested trailing hours")
+    void shouldCountOrdersPerHourOverTheRequestedTrailingHours() {
+        readModels.apply("CREATE_ORDER_ANALYTICS", Map.of("orderId", "ORD-1"), START + 60_000);
+        readModels.apply("CREATE_ORDER_ANALYTICS", Map.of("orderId", "ORD-2"), START + HOUR + 60_000);
+        readModels.apply("CREATE_ORDER_ANALYTICS", Map.of("orderId", "ORD-3"), START + HOUR + 120_000);
+        now.set(START + 2 * HOUR + 1);
+
+        Map<String, Object> answer = readModels.answer("GET_ORDER_ANALYTICS", Map.of("hours", "3"));
+
+        assertEquals(3L, answer.get("totalOrders"));
+        assertEquals(Map.of(
+            "2024-01-01T10:00:00Z", 1L,
+            "2024-01-01T11:00:00Z", 2L,
+            "2024-01-01T12:00:00Z", 0L), answer.get("ordersPerHour"));
+    }
+
+    @Test
+    @DisplayName("Should drop hours older than the retention")
+    void shouldDropHoursOlderThanTheRetention() {
+        HourlyOrderCounts counts = new HourlyOrderCounts(2);
+        counts.record(START);
+        counts.record(START + 5 * HOUR);
+
+        assertEquals(0L, counts.lastHours(2, START + HOUR).get("totalOrders"));
+        assertEquals(1L, counts.lastHours(2, START + 5 * HOUR).get("totalOrders"));
+    }
+
+    @Test
+    @DisplayName("Should rank product revenue and keep it exact in cents")
+    void shouldRankProductRevenueAndKeepItExactInCents() {
+        readModels.markBootstrapped(START);
+        readModels.apply("CREATE_ORDER_ANALYTICS", Map.of("productId", "espresso"), START);
+        readModels.apply("CREATE_REVENUE_RECORD", Map.of("productId", "espresso", "amount", "0.10"), START);
+        readModels.apply("CREATE_REVENUE_RECORD", Map.of("productId", "espresso", "amount", 0.20), START);
+        readModels.apply("CREATE_REVENUE_RECORD", Map.of("productId", "latte", "amount", "4.50"), START);
+
+        Map<String, Object> answer = readModels.answer("GET_REVENUE_REPORT", Map.of());
+        List<?> products = (List<?>) answer.get("products");
+
+        assertEquals(new BigDecimal("4.80"), answer.get("totalRevenue"));
+        assertEquals("latte", ((Map<?, ?>) products.get(0)).get("productId"));
+        assertEquals(new BigDecimal("0.30"), ((Map<?, ?>) products.get(1)).get("revenue"));
+        assertEquals(1L, ((Map<?, ?>) products.get(1)).get("orders"));
+    }
+
+    @Test
+    @DisplayName("Should group users into the cohort of the month they were first seen")
+    void shouldGroupUsersIntoTheCohortOfTheMonthTheyWereFirstSeen() {
+        readModels.markBootstrapped(START);
+        readModels.apply("UPDATE_USER_METRICS", Map.of("userId", "USR-1"), START);
+        readModels.apply("UPDATE_USER_METRICS", Map.of("userId", "USR-1"), START + 40 * 24 * HOUR);
+        readModels.apply("UPDATE_USER_METRICS", Map.of("userId", "USR-2"), START + 40 * 24 * HOUR);
+
+        Map<String, Object> answer = readModels.answer("GET_USER_DASHBOARD", Map.of());
+        Map<?, ?> cohorts = (Map<?, ?>) answer.get("cohorts");
+
+        assertEquals(2, answer.get("totalUsers"));
+        assertEquals(1L, ((Map<?, ?>) cohorts.get("2024-01")).get("users"));
+        assertEquals(2L, ((Map<?, ?>) cohorts.get("2024-01")).get("activity"));
+        assertEquals(1L, ((Map<?, ?>) cohorts.get("2024-02")).get("users"));
+    }
+
+    @Test
+    @DisplayName("Should fall through for per-entity lookups and unknown query types")
+    void shouldFallThroughForPerEntityLookupsAndUnknownQueryTypes() {
+        readModels.markBootstrapped(START);
+        readModels.apply("UPDATE_USER_METRICS", Map.of("userId", "USR-1"), START);
+
+        assertNull(readModels.answer("GET_ORDER_ANALYTICS", Map.of("orderId", "ORD-1")));
+        assertNull(readModels.answer("GET_USER_DASHBOARD", Map.of("userId", "USR-1")));
+        assertNull(readModels.answer("GET_INVENTORY_REPORT", Map.of()));
+    }
+
+    @Test
+    @DisplayName("Should report staleness and fall through when the view is older than allowed")
+    void shouldReportStalenessAndFallThroughWhenTheViewIsOlderThanAllowed() {
+        now.set(START + 500);
+        readModels.apply("CREATE_ORDER_ANALYTICS", Map.of(), START);
+        now.set(START + 2_500);
+
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("hours", 1);
+        parameters.put("maxStalenessMs", 3_000L);
+        Map<?, ?> metadata = (Map<?, ?>) readModels.answer("GET_ORDER_ANALYTICS", parameters).get("readModel");
+
+        assertEquals(MaterializedReadModels.SOURCE, metadata.get("source"));
+        assertEquals("hourly-order-counts", metadata.get("view"));
+        assertEquals(500L, metadata.get("syncLagMillis"));
+        assertEquals(2_000L, metadata.get("ageMillis"));
+        assertEquals(1L, metadata.get("commandsApplied"));
+
+        // Nothing applied for 2s, however fresh the last command was when it arrived
+        parameters.put("maxStalenessMs", 1_000L);
+        assertNull(readModels.answer("GET_ORDER_ANALYTICS", parameters));
+    }
+
+    @Test
+    @DisplayName("Should not answer from an empty or partly warmed view")
+    void shouldNotAnswerFromAnEmptyOrPartlyWarmedView() {
+        assertNull(readModels.answer("GET_ORDER_ANALYTICS", Map.of("hours", 1)));
+
+        now.set(START + 30 * 60_000L);
+        readModels.apply("CREATE_ORDER_ANALYTICS", Map.of("productId", "espresso"), now.get());
+        readModels.apply("CREATE_REVENUE_RECORD", Map.of("productId", "espresso", "amount", "3.20"), now.get());
+
+        // The node started at 10:00, so 09:00-10:59 and all-time totals are missing earlier orders
+        assertNotNull(readModels.answer("GET_ORDER_ANALYTICS", Map.of("hours", 1)));
+        assertNull(readModels.answer("GET_ORDER_ANALYTICS", Map.of("hours", 2)));
+        assertNull(readModels.answer("GET_REVENUE_REPORT", Map.of()));
+
+        readModels.markBootstrapped(START - 2 * HOUR);
+        assertNotNull(readModels.answer("GET_ORDER_ANALYTICS", Map.of("hours", 2)));
+        assertNotNull(readModels.answer("GET_REVENUE_REPORT", Map.of()));
+    }
+}
@@ -0,0 +1,212 @@
+package com.eipresso.analytics.replay;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Event replay engine tests against an in-memory event store
+ */
+@DisplayName("Event Replay Engine Tests")
+class EventReplayEngineTest {
+
+    private EventReplayEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay every matching event page by page in stored order per correlation")
+    void shouldReplayEveryMatchingEventPageByPageInStoredOrderPerCorrelation() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore(1_000, 10);
+        Map<String, List<Long>> replayed = new ConcurrentHashMap<>();
+        engine = new EventReplayEngine(store, (replayId, document) ->
+            replayed.computeIfAbsent((String) document.get(StoredEvent.CORRELATION_ID), k -> new ArrayList<>())
+                .add((Long) document.get(StoredEvent.EVENT_TIME_MILLIS)), 64, 4, 0);
+
+        ReplayJob job = engine.start(new ReplayCriteria(null, 0L, Long.MAX_VALUE));
+
+        assertTrue(job.awaitCompletion(10, TimeUnit.SECONDS));
+        assertEquals(ReplayStatus.COMPLETED, job.getStatus());
+        assertEquals(1_000, job.getEventsDispatched());
+        assertEquals(16, store.pagesServed.get()); // 15 full pages + the short last one
+        assertEquals(10, replayed.size());
+        for (List<Long> times : replayed.values()) {
+            assertEquals(100, times.size());
+            for (int i = 1; i < times.size(); i++) {
+                assertTrue(times.get(i) > times.get(i - 1), "events of one correlation replayed out of order");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should replay only the requested correlation")
+    void shouldReplayOnlyTheRequestedCorrelation() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore(500, 5);
+        AtomicInteger dispatched = new AtomicInteger();
+        engine = new EventReplayEngine(store, (replayId, document) -> {
+            assertEquals("corr-3", document.get(StoredEvent.CORRELATION_ID));
+            dispatched.incrementAndGet();
+        }, 50, 2, 0);
+
+        ReplayJob job = engine.start(ReplayCriteria.forCorrelationId("corr-3"));
+
+        assertTrue(job.awaitCompletion(10, TimeUnit.SECONDS));
+        assertEquals(100, dispatched.get());
+        assertEquals(0, job.getEventsFailed());
+    }
+
+    @Test
+    @DisplayName("Should pace dispatch to the configured rate")
+    void shouldPaceDispatchToTheConfiguredRate() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore(200, 4);
+        engine = new EventReplayEngine(store, (replayId, document) -> { }, 100, 2, 1_000);
+
+        long start = System.nanoTime();
+        ReplayJob job = engine.start(new ReplayCriteria(null, 0L, null));
+        assertTrue(job.awaitCompletion(10, TimeUnit.SECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(200, job.getEventsDispatched());
+        assertTrue(elapsedMillis >= 180, "200 events at 1000/sec finished in " + elapsedMillis + "ms");
+    }
+
+    @Test
+    @DisplayName("Should count failed events and keep replaying")
+    void shouldCountFailedEventsAndKeepReplaying() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore(100, 1);
+        engine = new EventReplayEngine(store, (replayId, document) -> {
+            if (((Long) document.get(StoredEvent.EVENT_TIME_MILLIS)) % 10 == 0) {
+                throw new IllegalStateException("projection rejected event");
+            }
+        }, 30, 1, 0);
+
+        ReplayJob job = engine.start(ReplayCriteria.forCorrelationId("corr-0"));
+        assertTrue(job.awaitCompletion(10, TimeUnit.SECONDS));
+
+        assertEquals(ReplayStatus.COMPLETED, job.getStatus());
+        assertEquals(90, job.getEventsDispatched());
+        assertEquals(10, job.getEventsFailed());
+        assertTrue(((String) job.toProgress().get("lastError")).contains("projection rejected event"));
+    }
+
+    @Test
+    @DisplayName("Should stop reading when cancelled")
+    void shouldStopReadingWhenCancelled() throws Exception {
+        InMemoryEventStore store = new InMemoryEventStore(10_000, 1);
+        CountDownLatch firstDispatched = new CountDownLatch(1);
+        engine = new EventReplayEngine(store, (replayId, document) -> firstDispatched.countDown(), 10, 1, 500);
+
+        ReplayJob job = engine.start(ReplayCriteria.forCorrelationId("corr-0"));
+        assertTrue(firstDispatched.await(5, TimeUnit.SECONDS));
+        job.cancel();
+
+        assertTrue(job.awaitCompletion(5, TimeUnit.SECONDS));
+        assertEquals(ReplayStatus.CANCELLED, job.getStatus());
+        assertTrue(job.getEventsRead() < 10_000);
+        assertEquals(job.getEventsRead(), job.getEventsDispatched());
+    }
+
+    @Test
+    @DisplayName("Should restore routing headers from the stored document")
+    void shouldRestoreRoutingHeadersFromTheStoredDocument() {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 1, 1, 10, 0, 0);
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("eventId", "evt-1");
+        headers.put("correlationId", "corr-1");
+        headers.put("eventType", "ORDER_CREATED");
+        headers.put("sourceService", "order-management");
+        headers.put("eventTimestamp", timestamp);
+        headers.put("CamelHttpMethod", "POST");
+
+        Map<String, Object> document = StoredEvent.toDocument(headers, Map.of("orderId", "ORD-1"));
+        Map<String, Object> restored = StoredEvent.headersOf(document);
+
+        assertEquals("order-management", restored.get("sourceService"));
+        assertEquals(timestamp, restored.get("eventTimestamp"));
+        assertNull(restored.get("CamelHttpMethod"));
+        assertEquals(Map.of("orderId", "ORD-1"), StoredEvent.payloadOf(document));
+    }
+
+    @Test
+    @DisplayName("Should read replay bounds with positive, negative and no UTC offset")
+    void shouldReadReplayBoundsWithPositiveNegativeAndNoUtcOffset() {
+        long instant = 1_700_000_000_000L;
+        assertEquals(instant, StoredEvent.epochMillisOf("2023-11-14T22:13:20Z"));
+        assertEquals(instant, StoredEvent.epochMillisOf("2023-11-15T03:43:20+05:30"));
+        assertEquals(instant, StoredEvent.epochMillisOf("2023-11-14T17:13:20-05:00"));
+        assertEquals(instant, StoredEvent.epochMillisOf("2023-11-14T23:13:20+01:00[Europe/Paris]"));
+        assertEquals(instant, StoredEvent.epochMillisOf(instant));
+        LocalDateTime local = LocalDateTime.of(2023, 11, 14, 17, 13, 20);
+        assertEquals(StoredEvent.eventTimeMillisOf(local), StoredEvent.epochMillisOf("2023-11-14T17:13:20"));
+        assertNull(StoredEvent.epochMillisOf(null));
+        assertThrows(DateTimeParseException.class, () -> StoredEvent.epochMillisOf("yesterday"));
+    }
+
+    /**
+     * Sorted event list served with the same search_after contract as Elasticsearch
+     */
+    private static class InMemoryEventStore implements EventPageSource {
+        private final List<Map<String, Object>> events = new ArrayList<>();
+        private final AtomicInteger pagesServed = new AtomicInteger();
+
+        InMemoryEventStore(int count, int correlations) {
+            for (long i = 0; i < count; i++) {
+                Map<String, Object> event = new HashMap<>();
+                event.put(StoredEvent.EVENT_ID, String.format("evt-%06d", i));
+                event.put(StoredEvent.CORRELATION_ID, "corr-" + (i % correlations));
+                event.put(StoredEvent.EVENT_TIME_MILLIS, i);
+                events.add(event);
+            }
+        }
+
+        @Override
+        public EventPage fetch(ReplayCriteria criteria, List<Object> cursor, int pageSize) throws IOException {
+            pagesServed.incrementAndGet();
+            long after = cursor == null ? -1L : (Long) cursor.get(0);
+            List<Map<String, Object>> page = new ArrayList<>();
+            for (Map<String, Object> event : events) {
+                long time = (Long) event.get(StoredEvent.EVENT_TIME_MILLIS);
+                if (time <= after || !matches(criteria, event, time)) {
+                    continue;
+                }
+                page.add(event);
+                if (page.size() == pageSize) {
+                    break;
+                }
+            }
+            List<Object> next = page.isEmpty() ? null
+                : List.of(page.get(page.size() - 1).get(StoredEvent.EVENT_TIME_MILLIS));
+            return new EventPage(page, next);
+        }
+
+        private static boolean matches(ReplayCriteria criteria, Map<String, Object> event, long time) {
+            if (criteria.getCorrelationId() != null
+                    && !criteria.getCorrelationId().equals(event.get(StoredEvent.CORRELATION_ID))) {
+                return false;
+            }
+            if (criteria.getFromMillis() != null && time < criteria.getFromMillis()) {
+                return false;
+            }
+            return criteria.getToMillis() == null || time < criteria.getToMillis();
+        }
+    }
+}
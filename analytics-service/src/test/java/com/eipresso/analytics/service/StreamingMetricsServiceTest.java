@@ -0,0 +1,66 @@
+package com.eipresso.analytics.service;
+
+import com.eipresso.analytics.metrics.AnalyticsEventType;
+import com.eipresso.analytics.metrics.EventCategory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streaming metrics tests for event types without their own constant
+ */
+@DisplayName("Streaming Metrics Service Tests")
+class StreamingMetricsServiceTest {
+
+    private StreamingMetricsService metrics;
+
+    @BeforeEach
+    void setUp() {
+        metrics = new StreamingMetricsService();
+        metrics.init();
+    }
+
+    private void record(String eventType) {
+        metrics.record(AnalyticsEventType.resolve(eventType), eventType);
+    }
+
+    @Test
+    @DisplayName("Should count an unregistered event type under its own name")
+    void shouldCountAnUnregisteredEventTypeUnderItsOwnName() {
+        record("PAYMENT_REFUNDED");
+        record("PAYMENT_REFUNDED");
+        record("INVENTORY_LOW");
+        record("ORDER_CREATED");
+
+        assertEquals(2L, metrics.type(AnalyticsEventType.OTHER, "PAYMENT_REFUNDED").getTotal());
+        assertEquals(1L, metrics.type(AnalyticsEventType.OTHER, "INVENTORY_LOW").getTotal());
+        assertEquals("PAYMENT_REFUNDED", metrics.countedAs(AnalyticsEventType.OTHER, "PAYMENT_REFUNDED"));
+        assertEquals(1L, metrics.type(AnalyticsEventType.ORDER_CREATED, "ORDER_CREATED").getTotal());
+        assertEquals("ORDER_CREATED", metrics.countedAs(AnalyticsEventType.ORDER_CREATED, "ORDER_CREATED"));
+
+        // Totals and categories still see every event once
+        assertEquals(3L, metrics.type(AnalyticsEventType.OTHER).getTotal());
+        assertEquals(3L, metrics.category(EventCategory.SYSTEM).getTotal());
+        assertEquals(4L, metrics.total().getTotal());
+        assertEquals(3, metrics.getActiveEventTypes());
+    }
+
+    @Test
+    @DisplayName("Should count types past the registration limit in their fallback bucket")
+    void shouldCountTypesPastTheRegistrationLimitInTheirFallbackBucket() {
+        for (int i = 0; i < 64; i++) {
+            record("ORDER_STEP_" + i);
+        }
+        record("ORDER_STEP_64");
+        record("ORDER_STEP_64");
+
+        assertEquals("ORDER_STEP_63", metrics.countedAs(AnalyticsEventType.ORDER_OTHER, "ORDER_STEP_63"));
+        assertEquals(1L, metrics.type(AnalyticsEventType.ORDER_OTHER, "ORDER_STEP_63").getTotal());
+        assertEquals("ORDER_OTHER", metrics.countedAs(AnalyticsEventType.ORDER_OTHER, "ORDER_STEP_64"));
+        assertEquals(66L, metrics.type(AnalyticsEventType.ORDER_OTHER, "ORDER_STEP_64").getTotal());
+        // 64 registered names plus the bucket for the one that was not
+        assertEquals(65, metrics.getActiveEventTypes());
+    }
+}
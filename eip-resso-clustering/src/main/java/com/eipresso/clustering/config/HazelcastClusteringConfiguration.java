@@ -160,6 +160,19 @@ public class HazelcastClusteringConfiguration {
         analyticsBufferConfig.setTimeToLiveSeconds(600); // 10 minutes
         analyticsBufferConfig.setBackupCount(1);
         config.addMapConfig(analyticsBufferConfig);
+        
+        // Analytics aggregation windows (open + completed-awaiting-confirm maps)
+        MapConfig analyticsAggregationConfig = new MapConfig("analytics-aggregation-*");
+        analyticsAggregationConfig.setTimeToLiveSeconds(3600); // 1 hour safety net for abandoned windows
+        analyticsAggregationConfig.setBackupCount(1); // Synchronous backup so a node loss keeps open windows
+        analyticsAggregationConfig.setAsyncBackupCount(0);
+        config.addMapConfig(analyticsAggregationConfig);
+        
+        // Analytics projection snapshots (latest snapshot per aggregate, no expiry)
+        MapConfig projectionSnapshotConfig = new MapConfig("analytics-projection-snapshots");
+        projectionSnapshotConfig.setBackupCount(1);
+        projectionSnapshotConfig.setAsyncBackupCount(0);
+        config.addMapConfig(projectionSnapshotConfig);
     }
     
     /**
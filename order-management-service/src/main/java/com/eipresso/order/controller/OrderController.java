@@ -1,19 +1,32 @@
 package com.eipresso.order.controller;
 
 import com.eipresso.order.model.*;
+import com.eipresso.order.service.OrderCursor;
+import com.eipresso.order.service.OrderOutboxRelay;
+import com.eipresso.order.service.OrderPage;
+import com.eipresso.order.service.OrderQueryService;
 import com.eipresso.order.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.validation.annotation.Validated;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
 import java.math.BigDecimal;
 
 /**
@@ -26,11 +39,24 @@ import java.math.BigDecimal;
 @CrossOrigin(origins = "*")
 public class OrderController {
     
+    // Page size of order listings when no limit is given; order-management.query.max-page-size caps the limit
+    private static final String DEFAULT_PAGE_SIZE = "100";
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+    
     private final OrderService orderService;
+    private final OrderQueryService orderQueryService;
+    private final OrderOutboxRelay orderOutboxRelay;
+    private final ObjectMapper objectMapper;
     
     @Autowired
-    public OrderController(OrderService orderService) {
+    public OrderController(OrderService orderService, OrderQueryService orderQueryService,
+                           OrderOutboxRelay orderOutboxRelay, ObjectMapper objectMapper) {
         this.orderService = orderService;
+        this.orderQueryService = orderQueryService;
+        this.orderOutboxRelay = orderOutboxRelay;
+        this.objectMapper = objectMapper;
     }
     
     // ================================================================
@@ -68,27 +94,48 @@ public class OrderController {
     }
     
     /**
-     * Get orders by user ID
+     * Get orders by user ID, a page at a time; pass the X-Next-Cursor
+     * header of a response as {@code cursor} to fetch the next page
      */
     @GetMapping("/user/{userId}")
     public ResponseEntity<List<Order>> getOrdersByUserId(
             @PathVariable Long userId,
-            @RequestParam(defaultValue = "false") boolean activeOnly) {
+            @RequestParam(defaultValue = "false") boolean activeOnly,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
         
-        List<Order> orders = activeOnly 
-            ? orderService.getActiveOrdersByUserId(userId)
-            : orderService.getOrdersByUserId(userId);
+        return page(orderQueryService.getOrdersByUserId(userId, activeOnly, OrderCursor.decode(cursor), limit));
+    }
+    
+    /**
+     * Export all of a user's orders as NDJSON
+     */
+    @GetMapping(value = "/user/{userId}/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportOrdersByUserId(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "false") boolean activeOnly) {
         
-        return ResponseEntity.ok(orders);
+        return export(sink -> orderQueryService.streamOrdersByUserId(userId, activeOnly, sink));
     }
     
     /**
-     * Get orders by status
+     * Get orders by status, a page at a time
      */
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<Order>> getOrdersByStatus(@PathVariable OrderStatus status) {
-        List<Order> orders = orderService.getOrdersByStatus(status);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<Order>> getOrdersByStatus(
+            @PathVariable OrderStatus status,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        
+        return page(orderQueryService.getOrdersByStatus(status, OrderCursor.decode(cursor), limit));
+    }
+    
+    /**
+     * Export all orders in a status as NDJSON
+     */
+    @GetMapping(value = "/status/{status}/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportOrdersByStatus(@PathVariable OrderStatus status) {
+        return export(sink -> orderQueryService.streamOrdersByStatus(status, sink));
     }
     
     // ================================================================
@@ -118,6 +165,35 @@ public class OrderController {
         }
     }
     
+    /**
+     * Transition many orders to the same status in batched writes.
+     * Orders that do not exist or cannot make the transition are skipped.
+     */
+    @PutMapping("/status/bulk")
+    public ResponseEntity<Map<String, Object>> updateOrderStatuses(
+            @Valid @RequestBody BulkStatusUpdateRequest request) {
+        
+        List<Order> transitioned = orderService.transitionOrders(
+            request.getOrderIds(),
+            request.getNewStatus(),
+            request.getEventSource(),
+            request.getCorrelationId()
+        );
+        Set<Long> transitionedIds = transitioned.stream().map(Order::getId).collect(Collectors.toSet());
+        List<Long> skippedIds = request.getOrderIds().stream()
+            .filter(id -> !transitionedIds.contains(id))
+            .toList();
+        
+        Map<String, Object> response = Map.of(
+            "newStatus", request.getNewStatus(),
+            "requested", request.getOrderIds().size(),
+            "transitioned", transitionedIds.size(),
+            "transitionedOrderIds", transitionedIds,
+            "skippedOrderIds", skippedIds
+        );
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * Process payment for order
      */
@@ -222,6 +298,11 @@ public class OrderController {
     /**
      * Get revenue since date
      */
+    @GetMapping("/outbox/stats")
+    public ResponseEntity<Map<String, Object>> getOutboxStatistics() {
+        return ResponseEntity.ok(orderOutboxRelay.getStatistics());
+    }
+    
     @GetMapping("/revenue")
     public ResponseEntity<Map<String, Object>> getRevenue(
             @RequestParam(required = false) String since) {
@@ -241,24 +322,80 @@ public class OrderController {
     }
     
     /**
-     * Get orders ready for fulfillment
+     * Get orders ready for fulfillment, oldest first, a page at a time
      */
     @GetMapping("/fulfillment/ready")
-    public ResponseEntity<List<Order>> getOrdersReadyForFulfillment() {
-        List<Order> orders = orderService.getOrdersReadyForFulfillment();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<List<Order>> getOrdersReadyForFulfillment(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        
+        return page(orderQueryService.getOrdersReadyForFulfillment(OrderCursor.decode(cursor), limit));
     }
     
     /**
-     * Get stale pending orders
+     * Export all orders ready for fulfillment as NDJSON
+     */
+    @GetMapping(value = "/fulfillment/ready/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportOrdersReadyForFulfillment() {
+        return export(orderQueryService::streamOrdersReadyForFulfillment);
+    }
+    
+    /**
+     * Get stale pending orders, a page at a time
      */
     @GetMapping("/pending/stale")
     public ResponseEntity<List<Order>> getStalePendingOrders(
+            @RequestParam(defaultValue = "1") int hoursOld,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(hoursOld);
+        return page(orderQueryService.getPendingOrdersOlderThan(cutoff, OrderCursor.decode(cursor), limit));
+    }
+    
+    /**
+     * Export all stale pending orders as NDJSON
+     */
+    @GetMapping(value = "/pending/stale/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportStalePendingOrders(
             @RequestParam(defaultValue = "1") int hoursOld) {
         
         LocalDateTime cutoff = LocalDateTime.now().minusHours(hoursOld);
-        List<Order> staleOrders = orderService.getPendingOrdersOlderThan(cutoff);
-        return ResponseEntity.ok(staleOrders);
+        return export(sink -> orderQueryService.streamPendingOrdersOlderThan(cutoff, sink));
+    }
+    
+    private ResponseEntity<List<Order>> page(OrderPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.orders());
+    }
+    
+    /**
+     * Stream a listing as one JSON order per line. The query runs on the
+     * response-writing thread, in its own read-only transaction.
+     */
+    private ResponseEntity<StreamingResponseBody> export(ToLongFunction<Consumer<Order>> listing) {
+        StreamingResponseBody body = out -> {
+            long[] written = {0};
+            try {
+                listing.applyAsLong(order -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(order));
+                        out.write('\n');
+                        if (++written[0] % EXPORT_FLUSH_INTERVAL == 0) {
+                            out.flush();
+                        }
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
     }
     
     // ================================================================
@@ -371,6 +508,33 @@ public class OrderController {
         public void setCorrelationId(String correlationId) { this.correlationId = correlationId; }
     }
     
+    public static class BulkStatusUpdateRequest {
+        @NotEmpty(message = "Order IDs are required")
+        @Size(max = 10000, message = "Too many orders in one request")
+        private List<@NotNull Long> orderIds;
+        
+        @NotNull(message = "New status is required")
+        private OrderStatus newStatus;
+        
+        @NotBlank(message = "Event source is required")
+        private String eventSource;
+        
+        private String correlationId;
+        
+        // Getters and setters
+        public List<Long> getOrderIds() { return orderIds; }
+        public void setOrderIds(List<Long> orderIds) { this.orderIds = orderIds; }
+        
+        public OrderStatus getNewStatus() { return newStatus; }
+        public void setNewStatus(OrderStatus newStatus) { this.newStatus = newStatus; }
+        
+        public String getEventSource() { return eventSource; }
+        public void setEventSource(String eventSource) { this.eventSource = eventSource; }
+        
+        public String getCorrelationId() { return correlationId; }
+        public void setCorrelationId(String correlationId) { this.correlationId = correlationId; }
+    }
+    
     public static class PaymentRequest {
         @NotBlank(message = "Payment ID is required")
         private String paymentId;
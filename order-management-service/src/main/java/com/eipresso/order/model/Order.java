@@ -16,15 +16,18 @@ import java.util.ArrayList;
  */
 @Entity
 @Table(name = "orders", indexes = {
-    @Index(name = "idx_order_user_id", columnList = "userId"),
-    @Index(name = "idx_order_status", columnList = "status"),
+    // (filter, createdAt, id) serves the keyset pages of OrderRepository without a sort
+    @Index(name = "idx_order_user_created_at", columnList = "userId, createdAt, id"),
+    @Index(name = "idx_order_status_created_at", columnList = "status, createdAt, id"),
     @Index(name = "idx_order_created_at", columnList = "createdAt")
 })
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class Order {
     
+    // Pooled sequence ids are assigned without an insert, so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @SequenceGenerator(name = "order_seq", sequenceName = "order_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "user_id", nullable = false)
@@ -83,11 +86,16 @@ public class Order {
     @Version
     private Long version;
     
+    // Sequence number of this order's latest event; null for orders created before it was tracked here
+    @Column(name = "last_sequence_number")
+    private Long lastSequenceNumber;
+    
     // Constructors
     public Order() {
         this.createdAt = LocalDateTime.now();
         this.updatedAt = LocalDateTime.now();
         this.status = OrderStatus.PENDING;
+        this.lastSequenceNumber = 0L;
     }
     
     public Order(Long userId, BigDecimal totalAmount, String customerName, String customerEmail) {
@@ -129,6 +137,16 @@ public class Order {
         return status == OrderStatus.PREPARING || status == OrderStatus.SHIPPED;
     }
     
+    /**
+     * Allocate the sequence number of this order's next event.
+     * Saving the order bumps its @Version, so two transactions allocating
+     * the same number cannot both commit.
+     */
+    public long nextEventSequence() {
+        lastSequenceNumber = (lastSequenceNumber != null ? lastSequenceNumber : 0L) + 1;
+        return lastSequenceNumber;
+    }
+    
     @PreUpdate
     protected void onUpdate() {
         this.updatedAt = LocalDateTime.now();
@@ -177,6 +195,9 @@ public class Order {
     public Long getVersion() { return version; }
     public void setVersion(Long version) { this.version = version; }
     
+    public Long getLastSequenceNumber() { return lastSequenceNumber; }
+    public void setLastSequenceNumber(Long lastSequenceNumber) { this.lastSequenceNumber = lastSequenceNumber; }
+    
     @Override
     public String toString() {
         return String.format("Order{id=%d, userId=%d, status=%s, totalAmount=%s, customerName='%s'}", 
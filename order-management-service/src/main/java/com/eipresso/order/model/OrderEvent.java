@@ -14,7 +14,9 @@ import java.util.HashMap;
  * Captures all order state changes as immutable events for audit and replay
  */
 @Entity
-@Table(name = "order_events", indexes = {
+@Table(name = "order_events", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_order_event_sequence", columnNames = {"order_id", "sequence_number"})
+}, indexes = {
     @Index(name = "idx_order_event_order_id", columnList = "orderId"),
     @Index(name = "idx_order_event_type", columnList = "eventType"),
     @Index(name = "idx_order_event_timestamp", columnList = "timestamp"),
@@ -23,8 +25,10 @@ import java.util.HashMap;
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class OrderEvent {
     
+    // Pooled sequence ids are assigned without an insert, so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_event_seq")
+    @SequenceGenerator(name = "order_event_seq", sequenceName = "order_event_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "order_id", nullable = false)
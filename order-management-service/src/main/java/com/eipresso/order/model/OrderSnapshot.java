@@ -0,0 +1,118 @@
+package com.eipresso.order.model;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Order Snapshot Entity - Event Sourcing Snapshot
+ * Order state as replayed up to and including an event sequence number,
+ * so reconstruction only has to apply the events after it
+ */
+@Entity
+@Table(name = "order_snapshots", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_order_snapshot_sequence", columnNames = {"order_id", "snapshot_version", "sequence_number"})
+})
+public class OrderSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_snapshot_seq")
+    @SequenceGenerator(name = "order_snapshot_seq", sequenceName = "order_snapshot_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // Sequence number of the last event folded into this snapshot
+    @Column(name = "sequence_number", nullable = false)
+    private Long sequenceNumber;
+
+    // Version of the replay logic that produced the snapshot; snapshots of other versions are ignored
+    @Column(name = "snapshot_version", nullable = false)
+    private Integer snapshotVersion;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private OrderStatus status;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "order_created_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime orderCreatedAt;
+
+    @Column(name = "order_updated_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime orderUpdatedAt;
+
+    @Column(name = "taken_at", nullable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime takenAt;
+
+    // Constructors
+    public OrderSnapshot() {
+        this.takenAt = LocalDateTime.now();
+    }
+
+    public static OrderSnapshot of(Order replayed, Long sequenceNumber, int snapshotVersion) {
+        OrderSnapshot snapshot = new OrderSnapshot();
+        snapshot.orderId = replayed.getId();
+        snapshot.sequenceNumber = sequenceNumber;
+        snapshot.snapshotVersion = snapshotVersion;
+        snapshot.status = replayed.getStatus();
+        snapshot.userId = replayed.getUserId();
+        snapshot.orderCreatedAt = replayed.getCreatedAt();
+        snapshot.orderUpdatedAt = replayed.getUpdatedAt();
+        return snapshot;
+    }
+
+    /**
+     * @return a detached order in the snapshot's state, to apply later events to
+     */
+    public Order restore() {
+        Order order = new Order();
+        order.setId(orderId);
+        order.setStatus(status);
+        order.setUserId(userId);
+        order.setCreatedAt(orderCreatedAt);
+        order.setUpdatedAt(orderUpdatedAt);
+        order.setLastSequenceNumber(sequenceNumber);
+        return order;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public Long getSequenceNumber() { return sequenceNumber; }
+    public void setSequenceNumber(Long sequenceNumber) { this.sequenceNumber = sequenceNumber; }
+
+    public Integer getSnapshotVersion() { return snapshotVersion; }
+    public void setSnapshotVersion(Integer snapshotVersion) { this.snapshotVersion = snapshotVersion; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public LocalDateTime getOrderCreatedAt() { return orderCreatedAt; }
+    public void setOrderCreatedAt(LocalDateTime orderCreatedAt) { this.orderCreatedAt = orderCreatedAt; }
+
+    public LocalDateTime getOrderUpdatedAt() { return orderUpdatedAt; }
+    public void setOrderUpdatedAt(LocalDateTime orderUpdatedAt) { this.orderUpdatedAt = orderUpdatedAt; }
+
+    public LocalDateTime getTakenAt() { return takenAt; }
+    public void setTakenAt(LocalDateTime takenAt) { this.takenAt = takenAt; }
+
+    @Override
+    public String toString() {
+        return String.format("OrderSnapshot{orderId=%d, sequenceNumber=%d, version=%d, status=%s}",
+                           orderId, sequenceNumber, snapshotVersion, status);
+    }
+}
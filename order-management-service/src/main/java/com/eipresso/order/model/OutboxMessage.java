@@ -0,0 +1,171 @@
+package com.eipresso.order.model;
+
+import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Outbox Message Entity - Transactional Outbox Implementation
+ * A Camel route trigger recorded in the same transaction as the order change
+ * it announces, and published by the outbox relay once that change commits
+ */
+@Entity
+@Table(name = "order_outbox", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_order_outbox_dedup_key", columnNames = {"dedup_key"})
+}, indexes = {
+    @Index(name = "idx_order_outbox_status", columnList = "status, id"),
+    @Index(name = "idx_order_outbox_next_attempt", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_order_outbox_order_sequence", columnList = "order_id, sequence_number")
+})
+public class OutboxMessage {
+
+    public enum Status {
+        PENDING,
+        PUBLISHED,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "order_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    // Sequence number of the order event this message announces; messages of one order are published in this order
+    @Column(name = "sequence_number", nullable = false)
+    private Long sequenceNumber;
+
+    // Sent with the message so consumers can drop redeliveries
+    @Column(name = "dedup_key", nullable = false, length = 100)
+    private String dedupKey;
+
+    @Column(name = "endpoint", nullable = false, length = 200)
+    private String endpoint;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload; // Order JSON as of the change
+
+    @Column(name = "headers", columnDefinition = "TEXT")
+    private String headers; // JSON object of message headers
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Status status;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    // A failed message is not retried before this time
+    @Column(name = "next_attempt_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime publishedAt;
+
+    // Constructors
+    public OutboxMessage() {
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = createdAt;
+        this.status = Status.PENDING;
+    }
+
+    public OutboxMessage(Long orderId, Long sequenceNumber, String endpoint, String payload, String headers) {
+        this();
+        this.orderId = orderId;
+        this.sequenceNumber = sequenceNumber;
+        this.dedupKey = dedupKey(orderId, sequenceNumber);
+        this.endpoint = endpoint;
+        this.payload = payload;
+        this.headers = headers;
+    }
+
+    public static String dedupKey(Long orderId, Long sequenceNumber) {
+        return "order-" + orderId + "-" + sequenceNumber;
+    }
+
+    // Business Logic Methods
+    public void markPublished() {
+        this.status = Status.PUBLISHED;
+        this.publishedAt = LocalDateTime.now();
+        this.lastError = null;
+    }
+
+    /**
+     * Record a failed publish and hold the message back for an exponential
+     * backoff, doubling from {@code backoffMillis} up to {@code maxBackoffMillis};
+     * the message is given up on after {@code maxAttempts}
+     */
+    public void markFailedAttempt(String error, int maxAttempts, long backoffMillis, long maxBackoffMillis) {
+        this.attempts++;
+        this.lastError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        if (attempts >= maxAttempts) {
+            this.status = Status.FAILED;
+        } else {
+            long backoff = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempts - 1, 30));
+            this.nextAttemptAt = LocalDateTime.now().plus(backoff, ChronoUnit.MILLIS);
+        }
+    }
+
+    public boolean isDue(LocalDateTime now) {
+        return nextAttemptAt == null || !nextAttemptAt.isAfter(now);
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getOrderId() { return orderId; }
+    public void setOrderId(Long orderId) { this.orderId = orderId; }
+
+    public Long getSequenceNumber() { return sequenceNumber; }
+    public void setSequenceNumber(Long sequenceNumber) { this.sequenceNumber = sequenceNumber; }
+
+    public String getDedupKey() { return dedupKey; }
+    public void setDedupKey(String dedupKey) { this.dedupKey = dedupKey; }
+
+    public String getEndpoint() { return endpoint; }
+    public void setEndpoint(String endpoint) { this.endpoint = endpoint; }
+
+    public String getPayload() { return payload; }
+    public void setPayload(String payload) { this.payload = payload; }
+
+    public String getHeaders() { return headers; }
+    public void setHeaders(String headers) { this.headers = headers; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public int getAttempts() { return attempts; }
+    public void setAttempts(int attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getPublishedAt() { return publishedAt; }
+    public void setPublishedAt(LocalDateTime publishedAt) { this.publishedAt = publishedAt; }
+
+    @Override
+    public String toString() {
+        return String.format("OutboxMessage{id=%d, orderId=%d, sequenceNumber=%d, endpoint='%s', status=%s}",
+                           id, orderId, sequenceNumber, endpoint, status);
+    }
+}
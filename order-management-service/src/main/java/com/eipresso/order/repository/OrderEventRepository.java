@@ -3,14 +3,18 @@ package com.eipresso.order.repository;
 import com.eipresso.order.model.OrderEvent;
 import com.eipresso.order.model.OrderEventType;
 import com.eipresso.order.model.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Order Event Repository for Event Sourcing
@@ -84,8 +88,13 @@ public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
     List<OrderEvent> findRecentEventsBySource(@Param("source") String source, @Param("since") LocalDateTime since);
     
     // Event Replay Support
+    // Streamed through a cursor in fetch-size chunks; must be consumed inside a transaction and closed
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
     @Query("SELECT e FROM OrderEvent e WHERE e.timestamp >= :fromTime ORDER BY e.orderId, e.sequenceNumber ASC")
-    List<OrderEvent> findEventsForReplaySince(@Param("fromTime") LocalDateTime fromTime);
+    Stream<OrderEvent> findEventsForReplaySince(@Param("fromTime") LocalDateTime fromTime);
     
     @Query("SELECT e FROM OrderEvent e WHERE e.orderId IN :orderIds ORDER BY e.orderId, e.sequenceNumber ASC")
     List<OrderEvent> findEventsForOrders(@Param("orderIds") List<Long> orderIds);
@@ -2,14 +2,19 @@ package com.eipresso.order.repository;
 
 import com.eipresso.order.model.Order;
 import com.eipresso.order.model.OrderStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Order Repository with advanced queries for order management
@@ -45,6 +50,63 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.status = 'PAID' ORDER BY o.createdAt ASC")
     List<Order> findOrdersReadyForFulfillment();
     
+    // Keyset pages in (createdAt, id) order: each page starts after the last row of the previous one,
+    // so deep pages cost the same as the first. Pageable only carries the page size.
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId " +
+           "AND (o.createdAt > :afterCreatedAt OR (o.createdAt = :afterCreatedAt AND o.id > :afterId)) " +
+           "ORDER BY o.createdAt ASC, o.id ASC")
+    List<Order> findPageByUserId(@Param("userId") Long userId, @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                 @Param("afterId") Long afterId, Pageable limit);
+    
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId AND o.status NOT IN ('CANCELLED', 'DELIVERED') " +
+           "AND (o.createdAt > :afterCreatedAt OR (o.createdAt = :afterCreatedAt AND o.id > :afterId)) " +
+           "ORDER BY o.createdAt ASC, o.id ASC")
+    List<Order> findActivePageByUserId(@Param("userId") Long userId, @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                       @Param("afterId") Long afterId, Pageable limit);
+    
+    @Query("SELECT o FROM Order o WHERE o.status = :status " +
+           "AND (o.createdAt > :afterCreatedAt OR (o.createdAt = :afterCreatedAt AND o.id > :afterId)) " +
+           "ORDER BY o.createdAt ASC, o.id ASC")
+    List<Order> findPageByStatus(@Param("status") OrderStatus status, @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                 @Param("afterId") Long afterId, Pageable limit);
+    
+    @Query("SELECT o FROM Order o WHERE o.status = 'PENDING' AND o.createdAt < :cutoffTime " +
+           "AND (o.createdAt > :afterCreatedAt OR (o.createdAt = :afterCreatedAt AND o.id > :afterId)) " +
+           "ORDER BY o.createdAt ASC, o.id ASC")
+    List<Order> findPendingPageOlderThan(@Param("cutoffTime") LocalDateTime cutoffTime,
+                                         @Param("afterCreatedAt") LocalDateTime afterCreatedAt,
+                                         @Param("afterId") Long afterId, Pageable limit);
+    
+    // Whole result sets read through a database cursor, for streaming exports
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId ORDER BY o.createdAt ASC, o.id ASC")
+    Stream<Order> streamByUserId(@Param("userId") Long userId);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o WHERE o.userId = :userId AND o.status NOT IN ('CANCELLED', 'DELIVERED') " +
+           "ORDER BY o.createdAt ASC, o.id ASC")
+    Stream<Order> streamActiveByUserId(@Param("userId") Long userId);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o WHERE o.status = :status ORDER BY o.createdAt ASC, o.id ASC")
+    Stream<Order> streamByStatus(@Param("status") OrderStatus status);
+    
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT o FROM Order o WHERE o.status = 'PENDING' AND o.createdAt < :cutoffTime ORDER BY o.createdAt ASC, o.id ASC")
+    Stream<Order> streamPendingOlderThan(@Param("cutoffTime") LocalDateTime cutoffTime);
+    
     // Analytics Queries
     @Query("SELECT COUNT(o) FROM Order o WHERE o.status = :status")
     Long countByStatus(@Param("status") OrderStatus status);
@@ -0,0 +1,24 @@
+package com.eipresso.order.repository;
+
+import com.eipresso.order.model.OrderSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Order Snapshot Repository for Event Sourcing
+ * Latest snapshot lookup for reconstruction, and pruning of superseded snapshots
+ */
+@Repository
+public interface OrderSnapshotRepository extends JpaRepository<OrderSnapshot, Long> {
+
+    Optional<OrderSnapshot> findFirstByOrderIdAndSnapshotVersionOrderBySequenceNumberDesc(Long orderId, Integer snapshotVersion);
+
+    @Modifying
+    @Query("DELETE FROM OrderSnapshot s WHERE s.orderId = :orderId AND s.sequenceNumber < :sequenceNumber")
+    int deleteSupersededSnapshots(@Param("orderId") Long orderId, @Param("sequenceNumber") Long sequenceNumber);
+}
@@ -0,0 +1,50 @@
+package com.eipresso.order.repository;
+
+import com.eipresso.order.model.OutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Outbox Message Repository for the Transactional Outbox
+ * Feeds the outbox relay with the route triggers still to be published
+ */
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /**
+     * Messages whose backoff has elapsed, leaving out any that wait behind an
+     * earlier message of their order still backing off
+     */
+    @Query("SELECT m FROM OutboxMessage m WHERE m.status = :status"
+        + " AND (m.nextAttemptAt IS NULL OR m.nextAttemptAt <= :now)"
+        + " AND NOT EXISTS (SELECT e.id FROM OutboxMessage e WHERE e.orderId = m.orderId AND e.status = :status"
+        + " AND e.sequenceNumber < m.sequenceNumber AND e.nextAttemptAt > :now)"
+        + " ORDER BY m.id ASC")
+    List<OutboxMessage> findDueByStatusOrderByIdAsc(@Param("status") OutboxMessage.Status status,
+                                                    @Param("now") LocalDateTime now, Pageable pageable);
+
+    List<OutboxMessage> findByOrderIdInAndStatusOrderBySequenceNumberAsc(Collection<Long> orderIds, OutboxMessage.Status status);
+
+    Long countByStatus(OutboxMessage.Status status);
+
+    /**
+     * Lowest pending sequence number of each order: a message may only be
+     * published once every earlier message of its order has been
+     */
+    @Query("SELECT m.orderId, MIN(m.sequenceNumber) FROM OutboxMessage m WHERE m.status = :status AND m.orderId IN :orderIds GROUP BY m.orderId")
+    List<Object[]> findFirstSequenceNumbers(@Param("status") OutboxMessage.Status status, @Param("orderIds") Collection<Long> orderIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboxMessage m WHERE m.status = :status AND m.publishedAt < :cutoff")
+    int deleteByStatusPublishedBefore(@Param("status") OutboxMessage.Status status, @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,46 @@
+package com.eipresso.order.service;
+
+import com.eipresso.order.model.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in an order listing: the (createdAt, id) of the last order
+ * returned. Handed to clients as an opaque token, and sent back to fetch
+ * the orders after it.
+ */
+public record OrderCursor(LocalDateTime createdAt, Long id) {
+
+    // Sorts before every order
+    public static final OrderCursor START = new OrderCursor(LocalDateTime.of(1970, 1, 1, 0, 0), 0L);
+
+    public static OrderCursor after(Order order) {
+        return new OrderCursor(order.getCreatedAt(), order.getId());
+    }
+
+    /**
+     * @return the cursor in {@code token}, or {@link #START} if it is blank
+     * @throws IllegalArgumentException if the token was not produced by {@link #encode()}
+     */
+    public static OrderCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return START;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = decoded.lastIndexOf('|');
+            return new OrderCursor(LocalDateTime.parse(decoded.substring(0, separator)),
+                Long.valueOf(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((createdAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
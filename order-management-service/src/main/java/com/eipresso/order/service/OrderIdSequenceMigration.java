@@ -0,0 +1,72 @@
+package com.eipresso.order.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Order Id Sequence Migration
+ *
+ * Orders and order events used to take IDENTITY ids and now draw pooled
+ * blocks of 50 from {@code order_seq} and {@code order_event_seq}. Schema
+ * update creates a missing sequence starting at 1, which on a database that
+ * already holds orders would hand out ids that are taken. At startup, once
+ * the schema is updated, each sequence is created if missing, set to
+ * increment by 50 as the id allocation size expects, and moved past the
+ * highest id of its table. A sequence already ahead of its table is left
+ * alone, so restarts and other nodes are unaffected.
+ *
+ * Only PostgreSQL, the service's database, is migrated.
+ */
+@Component
+public class OrderIdSequenceMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderIdSequenceMigration.class);
+
+    static final int ALLOCATION_SIZE = 50;
+
+    // Sequence name -> table whose ids it allocates; must match the entities' @SequenceGenerator
+    static final Map<String, String> SEQUENCES = Map.of(
+        "order_seq", "orders",
+        "order_event_seq", "order_events");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // The entity manager factory is only a dependency so schema update has run first
+    @Autowired
+    public OrderIdSequenceMigration(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void migrate() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+            connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equalsIgnoreCase(database)) {
+            logger.debug("Skipping order id sequence migration on {}", database);
+            return;
+        }
+        SEQUENCES.forEach(this::migrate);
+    }
+
+    private void migrate(String sequence, String table) {
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequence + " START WITH 1 INCREMENT BY " + ALLOCATION_SIZE);
+        jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + ALLOCATION_SIZE);
+        // The pooled optimizer hands out the block ending at each value it draws, so a sequence
+        // set to max(id) continues at max(id) + 1
+        List<Long> moved = jdbcTemplate.queryForList(
+            "SELECT setval('" + sequence + "', t.max_id) FROM (SELECT MAX(id) AS max_id FROM " + table + ") t"
+                + " WHERE t.max_id >= (SELECT last_value FROM " + sequence + ")", Long.class);
+        if (!moved.isEmpty()) {
+            logger.info("🔢 Moved {} past the existing {} ids to {}", sequence, table, moved.get(0));
+        }
+    }
+}
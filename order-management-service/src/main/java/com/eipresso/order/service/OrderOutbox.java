@@ -0,0 +1,67 @@
+package com.eipresso.order.service;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.model.OutboxMessage;
+import com.eipresso.order.repository.OutboxMessageRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+/**
+ * Order Outbox - write side of the Transactional Outbox
+ *
+ * Records a Camel route trigger in the transaction of the order change it
+ * announces, instead of sending it while that transaction holds its
+ * connection. The trigger is published by {@link OrderOutboxRelay} only if
+ * the change commits; a rollback discards it with the change.
+ */
+@Service
+public class OrderOutbox {
+
+    /**
+     * Published for every enqueued message; the relay hears it after commit
+     */
+    public record Enqueued(Long orderId) { }
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public OrderOutbox(OutboxMessageRepository outboxMessageRepository,
+                       ObjectMapper objectMapper,
+                       ApplicationEventPublisher eventPublisher) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Record that {@code endpoint} is to be sent the order, as it is now,
+     * once the current transaction commits
+     *
+     * @param sequenceNumber sequence number of the order event the message announces
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxMessage enqueue(Order order, Long sequenceNumber, String endpoint, Map<String, String> headers) {
+        OutboxMessage message = new OutboxMessage(order.getId(), sequenceNumber, endpoint,
+            toJson(order), toJson(headers));
+        outboxMessageRepository.save(message);
+        eventPublisher.publishEvent(new Enqueued(order.getId()));
+        return message;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize outbox message: " + e.getMessage(), e);
+        }
+    }
+}
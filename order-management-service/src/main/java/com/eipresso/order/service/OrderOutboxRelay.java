@@ -0,0 +1,288 @@
+package com.eipresso.order.service;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.model.OutboxMessage;
+import com.eipresso.order.repository.OutboxMessageRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.cluster.Member;
+import com.hazelcast.core.HazelcastInstance;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.camel.ProducerTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Order Outbox Relay - read side of the Transactional Outbox
+ *
+ * Publishes committed {@link OutboxMessage}s to their Camel endpoints in
+ * batches, on its own thread and without holding a database connection
+ * while the routes run. It is woken as soon as a transaction that enqueued
+ * messages commits, and polls as a fallback.
+ *
+ * Messages of one order are published in event sequence order, and a
+ * failed publish holds back the rest of that order until it succeeds or
+ * is given up on. Failed messages are retried with an exponential backoff,
+ * so {@code max-attempts} spans minutes of downstream outage rather than
+ * one tight loop. Every message carries a {@code dedupKey} header, unique
+ * per order event, so consumers can drop the redelivery that follows a
+ * crash between publishing and marking the message published. In a cluster
+ * only the oldest Hazelcast member relays, in keeping with the service's
+ * active-passive clustering.
+ */
+@Service
+public class OrderOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderOutboxRelay.class);
+
+    public static final String DEDUP_KEY_HEADER = "dedupKey";
+    public static final String SEQUENCE_NUMBER_HEADER = "orderEventSequence";
+
+    private static final TypeReference<Map<String, String>> HEADERS_TYPE = new TypeReference<>() { };
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final ProducerTemplate producerTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectProvider<HazelcastInstance> hazelcastInstance;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final int maxAttempts;
+    private final long backoffMs;
+    private final long maxBackoffMs;
+    private final long retentionHours;
+
+    private ScheduledExecutorService scheduler;
+    private final AtomicBoolean wakeQueued = new AtomicBoolean();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder heldBack = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private volatile LocalDateTime lastRelayAt;
+
+    @Autowired
+    public OrderOutboxRelay(OutboxMessageRepository outboxMessageRepository,
+                            ProducerTemplate producerTemplate,
+                            ObjectMapper objectMapper,
+                            ObjectProvider<HazelcastInstance> hazelcastInstance,
+                            @Value("${order-management.outbox.batch-size:100}") int batchSize,
+                            @Value("${order-management.outbox.poll-interval-ms:1000}") long pollIntervalMs,
+                            @Value("${order-management.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${order-management.outbox.backoff-ms:1000}") long backoffMs,
+                            @Value("${order-management.outbox.max-backoff-ms:300000}") long maxBackoffMs,
+                            @Value("${order-management.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.producerTemplate = producerTemplate;
+        this.objectMapper = objectMapper;
+        this.hazelcastInstance = hazelcastInstance;
+        this.batchSize = Math.max(1, batchSize);
+        this.pollIntervalMs = pollIntervalMs;
+        this.maxAttempts = maxAttempts;
+        this.backoffMs = Math.max(1L, backoffMs);
+        this.maxBackoffMs = Math.max(this.backoffMs, maxBackoffMs);
+        this.retentionHours = retentionHours;
+    }
+
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::drain, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::purgePublished, 1, 1, TimeUnit.HOURS);
+        logger.info("📤 Order outbox relay started: batches of {}, polling every {}ms", batchSize, pollIntervalMs);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Relay as soon as a transaction that enqueued messages has committed
+     */
+    @TransactionalEventListener
+    public void onEnqueued(OrderOutbox.Enqueued enqueued) {
+        wake();
+    }
+
+    public void wake() {
+        if (wakeQueued.compareAndSet(false, true)) {
+            scheduler.execute(this::drain);
+        }
+    }
+
+    /**
+     * Publish one batch of pending messages whose backoff has elapsed
+     *
+     * @return how many messages were published or given up on; messages held
+     *         back behind an earlier one of their order do not count
+     */
+    public int relayBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OutboxMessage> batch = outboxMessageRepository.findDueByStatusOrderByIdAsc(
+            OutboxMessage.Status.PENDING, now, PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        batches.increment();
+
+        Map<Long, List<OutboxMessage>> byOrder = new LinkedHashMap<>();
+        for (OutboxMessage message : batch) {
+            byOrder.computeIfAbsent(message.getOrderId(), id -> new ArrayList<>()).add(message);
+        }
+        for (List<OutboxMessage> messages : byOrder.values()) {
+            messages.sort(Comparator.comparing(OutboxMessage::getSequenceNumber));
+        }
+
+        // Ids need not follow sequence numbers (id blocks are allocated per node), so an
+        // earlier message of an order can miss the batch; such orders are read in full
+        Set<Long> incomplete = new HashSet<>();
+        for (Object[] row : outboxMessageRepository.findFirstSequenceNumbers(OutboxMessage.Status.PENDING, byOrder.keySet())) {
+            if (!byOrder.get((Long) row[0]).get(0).getSequenceNumber().equals(row[1])) {
+                incomplete.add((Long) row[0]);
+            }
+        }
+        if (!incomplete.isEmpty()) {
+            incomplete.forEach(orderId -> byOrder.put(orderId, new ArrayList<>()));
+            for (OutboxMessage message : outboxMessageRepository.findByOrderIdInAndStatusOrderBySequenceNumberAsc(
+                    incomplete, OutboxMessage.Status.PENDING)) {
+                byOrder.get(message.getOrderId()).add(message);
+            }
+        }
+
+        List<OutboxMessage> changed = new ArrayList<>(batch.size());
+        int settled = 0;
+        for (List<OutboxMessage> messages : byOrder.values()) {
+            Iterator<OutboxMessage> pending = messages.iterator();
+            while (pending.hasNext()) {
+                OutboxMessage message = pending.next();
+                if (!message.isDue(now)) {
+                    // Still backing off (read with an incomplete order); the rest of the order waits for it
+                    heldBack.increment();
+                    pending.forEachRemaining(m -> heldBack.increment());
+                    break;
+                }
+                changed.add(message);
+                if (publish(message)) {
+                    settled++;
+                } else if (message.getStatus() == OutboxMessage.Status.PENDING) {
+                    // Will be retried; the rest of the order must wait for it
+                    pending.forEachRemaining(m -> heldBack.increment());
+                    break;
+                } else {
+                    settled++;
+                }
+            }
+        }
+        outboxMessageRepository.saveAll(changed);
+        lastRelayAt = LocalDateTime.now();
+        return settled;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("leader", isLeader());
+        stats.put("pending", outboxMessageRepository.countByStatus(OutboxMessage.Status.PENDING));
+        stats.put("failed", outboxMessageRepository.countByStatus(OutboxMessage.Status.FAILED));
+        stats.put("published", published.sum());
+        stats.put("failedAttempts", failedAttempts.sum());
+        stats.put("abandoned", abandoned.sum());
+        stats.put("heldBackForOrdering", heldBack.sum());
+        stats.put("batches", batches.sum());
+        stats.put("batchSize", batchSize);
+        stats.put("lastRelayAt", lastRelayAt);
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Transactional Outbox");
+        return stats;
+    }
+
+    private void drain() {
+        wakeQueued.set(false);
+        if (!isLeader()) {
+            return;
+        }
+        try {
+            while (relayBatch() >= batchSize) {
+                // A batch settled in full: there may be more waiting
+            }
+        } catch (RuntimeException e) {
+            logger.error("❌ Order outbox relay failed: {}", e.getMessage(), e);
+        }
+    }
+
+    private boolean publish(OutboxMessage message) {
+        try {
+            Order order = objectMapper.readValue(message.getPayload(), Order.class);
+            Map<String, Object> headers = new HashMap<>();
+            if (message.getHeaders() != null) {
+                headers.putAll(objectMapper.readValue(message.getHeaders(), HEADERS_TYPE));
+            }
+            headers.put(DEDUP_KEY_HEADER, message.getDedupKey());
+            headers.put(SEQUENCE_NUMBER_HEADER, message.getSequenceNumber());
+            producerTemplate.sendBodyAndHeaders(message.getEndpoint(), order, headers);
+            message.markPublished();
+            published.increment();
+            return true;
+        } catch (Exception e) {
+            failedAttempts.increment();
+            message.markFailedAttempt(e.getMessage(), maxAttempts, backoffMs, maxBackoffMs);
+            if (message.getStatus() == OutboxMessage.Status.FAILED) {
+                abandoned.increment();
+                logger.error("❌ Giving up on outbox message {} after {} attempts: {}",
+                    message, message.getAttempts(), e.getMessage());
+            } else {
+                logger.warn("⚠️ Outbox message {} failed (attempt {}), retrying at {}: {}",
+                    message, message.getAttempts(), message.getNextAttemptAt(), e.getMessage());
+            }
+            return false;
+        }
+    }
+
+    private void purgePublished() {
+        try {
+            int purged = outboxMessageRepository.deleteByStatusPublishedBefore(
+                OutboxMessage.Status.PUBLISHED, LocalDateTime.now().minusHours(retentionHours));
+            if (purged > 0) {
+                logger.info("🧹 Purged {} published outbox messages", purged);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("⚠️ Could not purge published outbox messages: {}", e.getMessage());
+        }
+    }
+
+    private boolean isLeader() {
+        HazelcastInstance hazelcast = hazelcastInstance.getIfAvailable();
+        if (hazelcast == null) {
+            return true;
+        }
+        Iterator<Member> members = hazelcast.getCluster().getMembers().iterator();
+        return !members.hasNext() || members.next().localMember();
+    }
+}
@@ -0,0 +1,13 @@
+package com.eipresso.order.service;
+
+import com.eipresso.order.model.Order;
+
+import java.util.List;
+
+/**
+ * One keyset page of an order listing
+ *
+ * @param nextCursor token for the page after this one, or null on the last page
+ */
+public record OrderPage(List<Order> orders, String nextCursor) {
+}
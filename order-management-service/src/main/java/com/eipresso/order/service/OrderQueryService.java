@@ -0,0 +1,108 @@
+package com.eipresso.order.service;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.model.OrderStatus;
+import com.eipresso.order.repository.OrderRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Order Query Service - bounded reads of order listings
+ *
+ * Listings are ordered by (createdAt, id) and read either a page at a time,
+ * continuing from an {@link OrderCursor} rather than an offset, or streamed
+ * from a database cursor with each order detached once handed on, so
+ * neither the database work per page nor the heap grows with the listing.
+ */
+@Service
+@Transactional(readOnly = true)
+public class OrderQueryService {
+
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final int maxPageSize;
+
+    @Autowired
+    public OrderQueryService(OrderRepository orderRepository,
+                             EntityManager entityManager,
+                             @Value("${order-management.query.max-page-size:1000}") int maxPageSize) {
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.maxPageSize = maxPageSize;
+    }
+
+    // Keyset Pages
+
+    public OrderPage getOrdersByUserId(Long userId, boolean activeOnly, OrderCursor after, int limit) {
+        return activeOnly
+            ? page(limit, pageable -> orderRepository.findActivePageByUserId(userId, after.createdAt(), after.id(), pageable))
+            : page(limit, pageable -> orderRepository.findPageByUserId(userId, after.createdAt(), after.id(), pageable));
+    }
+
+    public OrderPage getOrdersByStatus(OrderStatus status, OrderCursor after, int limit) {
+        return page(limit, pageable -> orderRepository.findPageByStatus(status, after.createdAt(), after.id(), pageable));
+    }
+
+    public OrderPage getOrdersReadyForFulfillment(OrderCursor after, int limit) {
+        return getOrdersByStatus(OrderStatus.PAID, after, limit);
+    }
+
+    public OrderPage getPendingOrdersOlderThan(LocalDateTime cutoffTime, OrderCursor after, int limit) {
+        return page(limit, pageable -> orderRepository.findPendingPageOlderThan(cutoffTime, after.createdAt(), after.id(), pageable));
+    }
+
+    // Streaming Reads - each returns the number of orders handed to the sink
+
+    public long streamOrdersByUserId(Long userId, boolean activeOnly, Consumer<Order> sink) {
+        return drain(activeOnly ? orderRepository.streamActiveByUserId(userId) : orderRepository.streamByUserId(userId), sink);
+    }
+
+    public long streamOrdersByStatus(OrderStatus status, Consumer<Order> sink) {
+        return drain(orderRepository.streamByStatus(status), sink);
+    }
+
+    public long streamOrdersReadyForFulfillment(Consumer<Order> sink) {
+        return streamOrdersByStatus(OrderStatus.PAID, sink);
+    }
+
+    public long streamPendingOrdersOlderThan(LocalDateTime cutoffTime, Consumer<Order> sink) {
+        return drain(orderRepository.streamPendingOlderThan(cutoffTime), sink);
+    }
+
+    private OrderPage page(int limit, Function<Pageable, List<Order>> query) {
+        int size = Math.max(1, Math.min(limit, maxPageSize));
+        // One row past the page tells whether there is a next one, without a count query
+        List<Order> orders = query.apply(PageRequest.of(0, size + 1));
+        if (orders.size() <= size) {
+            return new OrderPage(orders, null);
+        }
+        List<Order> page = orders.subList(0, size);
+        return new OrderPage(page, OrderCursor.after(page.get(size - 1)).encode());
+    }
+
+    private long drain(Stream<Order> orders, Consumer<Order> sink) {
+        long count = 0;
+        try (orders) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                Order order = iterator.next();
+                sink.accept(order);
+                entityManager.detach(order);
+                count++;
+            }
+        }
+        return count;
+    }
+}
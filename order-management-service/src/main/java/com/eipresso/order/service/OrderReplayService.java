@@ -0,0 +1,175 @@
+package com.eipresso.order.service;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.model.OrderEvent;
+import com.eipresso.order.model.OrderSnapshot;
+import com.eipresso.order.model.OrderStatus;
+import com.eipresso.order.repository.OrderEventRepository;
+import com.eipresso.order.repository.OrderSnapshotRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Order Replay Service - Event Sourcing replay with snapshots
+ *
+ * Reconstructs an order from its latest snapshot plus the events after it,
+ * rather than from its whole history. A snapshot is written whenever an
+ * order's event sequence reaches a multiple of
+ * {@code order-management.event-sourcing.snapshot-interval}, so no
+ * reconstruction applies more than that many events.
+ *
+ * Snapshots carry {@link #SNAPSHOT_VERSION}; bump it whenever
+ * {@link #applyEvent} changes, and snapshots taken with the old logic are
+ * ignored instead of being built upon.
+ */
+@Service
+@Transactional(readOnly = true)
+public class OrderReplayService {
+
+    static final int SNAPSHOT_VERSION = 1;
+
+    private final OrderSnapshotRepository orderSnapshotRepository;
+    private final OrderEventRepository orderEventRepository;
+    private final EntityManager entityManager;
+    private final int snapshotInterval;
+
+    @Autowired
+    public OrderReplayService(OrderSnapshotRepository orderSnapshotRepository,
+                              OrderEventRepository orderEventRepository,
+                              EntityManager entityManager,
+                              @Value("${order-management.event-sourcing.snapshot-interval:50}") int snapshotInterval) {
+        this.orderSnapshotRepository = orderSnapshotRepository;
+        this.orderEventRepository = orderEventRepository;
+        this.entityManager = entityManager;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Reconstruct order state from its latest snapshot and the events after it
+     */
+    public Order reconstruct(Long orderId) {
+        Optional<OrderSnapshot> snapshot = orderSnapshotRepository
+            .findFirstByOrderIdAndSnapshotVersionOrderBySequenceNumberDesc(orderId, SNAPSHOT_VERSION);
+        List<OrderEvent> events = snapshot.isPresent()
+            ? orderEventRepository.findEventsSinceSequence(orderId, snapshot.get().getSequenceNumber())
+            : orderEventRepository.findOrderEventHistory(orderId);
+        if (snapshot.isEmpty() && events.isEmpty()) {
+            throw new IllegalArgumentException("No events found for order: " + orderId);
+        }
+
+        Order reconstructedOrder = snapshot.map(OrderSnapshot::restore).orElseGet(() -> {
+            Order order = new Order();
+            order.setId(orderId);
+            return order;
+        });
+        for (OrderEvent event : events) {
+            applyEvent(reconstructedOrder, event);
+        }
+        return reconstructedOrder;
+    }
+
+    /**
+     * Take a snapshot if {@code sequenceNumber}, just appended to the order
+     * in the current transaction, is due one
+     */
+    @Transactional
+    public void snapshotIfDue(Long orderId, long sequenceNumber) {
+        if (snapshotInterval <= 0 || sequenceNumber % snapshotInterval != 0) {
+            return;
+        }
+        // Reading the tail flushes the event just appended, so the snapshot includes it
+        Order replayed = reconstruct(orderId);
+        orderSnapshotRepository.save(OrderSnapshot.of(replayed, sequenceNumber, SNAPSHOT_VERSION));
+        orderSnapshotRepository.deleteSupersededSnapshots(orderId, sequenceNumber);
+    }
+
+    /**
+     * Replay every order with events since {@code since} from its events,
+     * handing each rebuilt order to {@code sink}; for rebuilding projections
+     * after a bug. Events are streamed from a database cursor and detached
+     * once applied, so memory use does not grow with the event store. Pass
+     * a time before the first order to rebuild everything; orders whose
+     * history started before {@code since} are skipped, as their replay
+     * would be incomplete.
+     */
+    public Map<String, Object> replayOrders(LocalDateTime since, Consumer<Order> sink) {
+        long ordersRebuilt = 0;
+        long ordersSkipped = 0;
+        long eventsReplayed = 0;
+        try (Stream<OrderEvent> events = orderEventRepository.findEventsForReplaySince(since)) {
+            Iterator<OrderEvent> iterator = events.iterator();
+            Order current = null;
+            boolean complete = false;
+            while (iterator.hasNext()) {
+                OrderEvent event = iterator.next();
+                if (current == null || !current.getId().equals(event.getOrderId())) {
+                    if (current != null) {
+                        if (complete) {
+                            sink.accept(current);
+                            ordersRebuilt++;
+                        } else {
+                            ordersSkipped++;
+                        }
+                    }
+                    current = new Order();
+                    current.setId(event.getOrderId());
+                    complete = event.getSequenceNumber() == 1L;
+                }
+                if (complete) {
+                    applyEvent(current, event);
+                    eventsReplayed++;
+                }
+                entityManager.detach(event);
+            }
+            if (current != null) {
+                if (complete) {
+                    sink.accept(current);
+                    ordersRebuilt++;
+                } else {
+                    ordersSkipped++;
+                }
+            }
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("since", since);
+        stats.put("ordersRebuilt", ordersRebuilt);
+        stats.put("ordersSkipped", ordersSkipped);
+        stats.put("eventsReplayed", eventsReplayed);
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Event Sourcing");
+        return stats;
+    }
+
+    private void applyEvent(Order order, OrderEvent event) {
+        // Simplified event application - in a real system,
+        // this would be more comprehensive
+        switch (event.getEventType()) {
+            case CREATED:
+                order.setStatus(OrderStatus.PENDING);
+                order.setUserId(event.getUserId());
+                order.setCreatedAt(event.getTimestamp());
+                break;
+            case STATUS_CHANGED:
+                if (event.getNewStatus() != null) {
+                    order.setStatus(event.getNewStatus());
+                }
+                order.setUpdatedAt(event.getTimestamp());
+                break;
+            // Add more event types as needed
+        }
+        order.setLastSequenceNumber(event.getSequenceNumber());
+    }
+}
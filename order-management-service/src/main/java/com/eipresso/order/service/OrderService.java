@@ -4,20 +4,47 @@ import com.eipresso.order.model.*;
 import com.eipresso.order.repository.OrderRepository;
 import com.eipresso.order.repository.OrderEventRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-import org.apache.camel.ProducerTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.apache.camel.CamelContext;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.math.BigDecimal;
 
 /**
  * Order Service - System of Record for Order States
  * Implements Event Sourcing, EIP patterns, and comprehensive order lifecycle management
+ *
+ * Event sequence numbers are allocated on the Order aggregate itself: each
+ * event bumps the order's last sequence number and @Version in the same
+ * transaction, and (order_id, sequence_number) is unique. Concurrent changes
+ * to one order therefore conflict instead of duplicating a sequence number,
+ * and the losing change is retried against the fresh order.
+ *
+ * Orders and events take pooled sequence ids, so their inserts and updates
+ * go to the database as JDBC batches; bulk transitions write a whole batch
+ * of orders and their events in one transaction.
+ *
+ * Camel routes are not called from inside these transactions: the route
+ * trigger is written to the {@link OrderOutbox} with the change, and
+ * {@link OrderOutboxRelay} publishes it after commit.
  */
 @Service
 @Transactional
@@ -25,18 +52,38 @@ public class OrderService {
     
     private final OrderRepository orderRepository;
     private final OrderEventRepository orderEventRepository;
-    private final ProducerTemplate producerTemplate;
+    private final OrderOutbox orderOutbox;
+    private final OrderReplayService orderReplayService;
     private final CamelContext camelContext;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxSequenceAttempts;
+    private final int bulkBatchSize;
+    
+    /**
+     * An event appended to an order, with the order as saved alongside it
+     */
+    private record AppendedEvent(Order order, OrderEvent event) { }
+    
+    static final String ORDER_CREATED_ENDPOINT = "direct:order-created";
+    static final String STATUS_CHANGED_ENDPOINT = "direct:order-status-changed";
     
     @Autowired
     public OrderService(OrderRepository orderRepository, 
                        OrderEventRepository orderEventRepository,
-                       ProducerTemplate producerTemplate,
-                       CamelContext camelContext) {
+                       OrderOutbox orderOutbox,
+                       OrderReplayService orderReplayService,
+                       CamelContext camelContext,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${order-management.event-sourcing.max-sequence-attempts:10}") int maxSequenceAttempts,
+                       @Value("${order-management.event-sourcing.batch-size:100}") int bulkBatchSize) {
         this.orderRepository = orderRepository;
         this.orderEventRepository = orderEventRepository;
-        this.producerTemplate = producerTemplate;
+        this.orderOutbox = orderOutbox;
+        this.orderReplayService = orderReplayService;
         this.camelContext = camelContext;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxSequenceAttempts = maxSequenceAttempts;
+        this.bulkBatchSize = Math.max(1, bulkBatchSize);
     }
     
     // Core Order Operations
@@ -54,6 +101,7 @@ public class OrderService {
         Order order = new Order(userId, totalAmount, customerName, customerEmail);
         order.setDeliveryAddress(deliveryAddress);
         order.setSpecialInstructions(specialInstructions);
+        long creationSequence = order.nextEventSequence();
         
         // Save order
         Order savedOrder = orderRepository.save(order);
@@ -61,15 +109,12 @@ public class OrderService {
         // Create and save creation event
         OrderEvent creationEvent = OrderEvent.orderCreated(
             savedOrder.getId(), userId, correlationId);
-        creationEvent.setSequenceNumber(1L);
+        creationEvent.setSequenceNumber(creationSequence);
         orderEventRepository.save(creationEvent);
         
-        // Trigger Camel route for order processing
-        producerTemplate.sendBodyAndHeader(
-            "direct:order-created", 
-            savedOrder,
-            "correlationId", correlationId
-        );
+        // Trigger Camel route for order processing once the order is committed
+        orderOutbox.enqueue(savedOrder, creationSequence, ORDER_CREATED_ENDPOINT,
+            Map.of("correlationId", correlationId));
         
         return savedOrder;
     }
@@ -77,44 +122,61 @@ public class OrderService {
     /**
      * Transition order status with Event Sourcing
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Order transitionOrderStatus(Long orderId, OrderStatus newStatus, 
                                      String eventSource, String correlationId) {
         
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (orderOpt.isEmpty()) {
-            throw new IllegalArgumentException("Order not found: " + orderId);
-        }
-        
-        Order order = orderOpt.get();
-        OrderStatus previousStatus = order.getStatus();
+        AppendedEvent transition = appendEvent(orderId, order -> {
+            OrderStatus previousStatus = order.getStatus();
+            
+            // Validate state transition
+            if (!order.canTransitionTo(newStatus)) {
+                throw new IllegalStateException(
+                    String.format("Invalid transition from %s to %s for order %d", 
+                                 previousStatus, newStatus, orderId));
+            }
+            
+            // Update order status and create the status change event
+            order.transitionTo(newStatus);
+            return OrderEvent.statusChanged(orderId, previousStatus, newStatus, eventSource, correlationId);
+        });
         
-        // Validate state transition
-        if (!order.canTransitionTo(newStatus)) {
-            throw new IllegalStateException(
-                String.format("Invalid transition from %s to %s for order %d", 
-                             previousStatus, newStatus, orderId));
+        return transition.order();
+    }
+    
+    /**
+     * Transition many orders to the same status, e.g. every PAID order in a
+     * pickup slot to PREPARING. Orders are loaded, changed and written
+     * together with their events, one transaction per batch of
+     * {@code order-management.event-sourcing.batch-size} orders. Orders that
+     * do not exist or cannot make the transition are left as they are.
+     *
+     * @return the orders that were transitioned
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<Order> transitionOrders(Collection<Long> orderIds, OrderStatus newStatus,
+                                        String eventSource, String correlationId) {
+        String bulkCorrelationId = correlationId != null ? correlationId : UUID.randomUUID().toString();
+        List<Long> ids = new ArrayList<>(orderIds);
+        List<AppendedEvent> transitions = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += bulkBatchSize) {
+            List<Long> batch = ids.subList(from, Math.min(from + bulkBatchSize, ids.size()));
+            transitions.addAll(appendEvents(batch, order -> {
+                if (!order.canTransitionTo(newStatus)) {
+                    return null;
+                }
+                OrderStatus previousStatus = order.getStatus();
+                order.transitionTo(newStatus);
+                return OrderEvent.statusChanged(order.getId(), previousStatus, newStatus, eventSource, bulkCorrelationId);
+            }));
         }
-        
-        // Update order status
-        order.transitionTo(newStatus);
-        Order updatedOrder = orderRepository.save(order);
-        
-        // Create and save status change event
-        Long nextSequenceNumber = getNextSequenceNumber(orderId);
-        OrderEvent statusEvent = OrderEvent.statusChanged(
-            orderId, previousStatus, newStatus, eventSource, correlationId);
-        statusEvent.setSequenceNumber(nextSequenceNumber);
-        orderEventRepository.save(statusEvent);
-        
-        // Trigger appropriate Camel routes based on new status
-        triggerStatusChangeRoute(updatedOrder, previousStatus, newStatus, correlationId);
-        
-        return updatedOrder;
+        return transitions.stream().map(AppendedEvent::order).toList();
     }
     
     /**
      * Process payment confirmation
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Order processPayment(Long orderId, String paymentId, String correlationId) {
         return transitionOrderStatus(orderId, OrderStatus.PAID, "payment-service", correlationId);
     }
@@ -122,42 +184,38 @@ public class OrderService {
     /**
      * Cancel order with reason
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Order cancelOrder(Long orderId, String reason, String source, String correlationId) {
-        Optional<Order> orderOpt = orderRepository.findById(orderId);
-        if (orderOpt.isEmpty()) {
-            throw new IllegalArgumentException("Order not found: " + orderId);
-        }
-        
-        Order order = orderOpt.get();
-        if (!order.getStatus().isCancellable()) {
-            throw new IllegalStateException(
-                String.format("Order %d cannot be cancelled in status %s", 
-                             orderId, order.getStatus()));
-        }
-        
-        OrderStatus previousStatus = order.getStatus();
-        order.transitionTo(OrderStatus.CANCELLED);
-        Order cancelledOrder = orderRepository.save(order);
-        
-        // Create cancellation event with reason
-        Long nextSequenceNumber = getNextSequenceNumber(orderId);
-        OrderEvent cancellationEvent = OrderEvent.cancelled(
-            orderId, previousStatus, reason, source, correlationId);
-        cancellationEvent.setSequenceNumber(nextSequenceNumber);
-        orderEventRepository.save(cancellationEvent);
-        
-        // Trigger cancellation processing
-        producerTemplate.sendBodyAndHeaders(
-            "direct:order-cancelled",
-            cancelledOrder,
-            java.util.Map.of(
-                "correlationId", correlationId,
-                "previousStatus", previousStatus.name(),
-                "reason", reason
-            )
-        );
+        AppendedEvent cancellation = appendEvent(orderId, order -> {
+            if (!order.getStatus().isCancellable()) {
+                throw new IllegalStateException(
+                    String.format("Order %d cannot be cancelled in status %s", 
+                                 orderId, order.getStatus()));
+            }
+            
+            OrderStatus previousStatus = order.getStatus();
+            order.transitionTo(OrderStatus.CANCELLED);
+            
+            // Create cancellation event with reason
+            return OrderEvent.cancelled(orderId, previousStatus, reason, source, correlationId);
+        });
         
-        return cancelledOrder;
+        return cancellation.order();
+    }
+    
+    /**
+     * Record an event against an order without changing its status,
+     * e.g. NOTIFICATION_SENT or INVENTORY_RESERVED
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OrderEvent recordOrderEvent(Long orderId, OrderEventType eventType, String eventSource,
+                                       String correlationId, String eventData) {
+        return appendEvent(orderId, order -> {
+            OrderEvent event = new OrderEvent(orderId, eventType, eventSource);
+            event.setCorrelationId(correlationId);
+            event.setEventData(eventData);
+            return event;
+        }).event();
     }
     
     // Query Methods
@@ -193,24 +251,21 @@ public class OrderService {
     }
     
     /**
-     * Reconstruct order state from events (Event Sourcing replay)
+     * Reconstruct order state from events (Event Sourcing replay),
+     * starting from the order's latest snapshot
      */
+    @Transactional(readOnly = true)
     public Order reconstructOrderFromEvents(Long orderId) {
-        List<OrderEvent> events = getOrderEventHistory(orderId);
-        if (events.isEmpty()) {
-            throw new IllegalArgumentException("No events found for order: " + orderId);
-        }
-        
-        // This is a simplified reconstruction - in a real system,
-        // you'd have more sophisticated event replay logic
-        Order reconstructedOrder = new Order();
-        reconstructedOrder.setId(orderId);
-        
-        for (OrderEvent event : events) {
-            applyEventToOrder(reconstructedOrder, event);
-        }
-        
-        return reconstructedOrder;
+        return orderReplayService.reconstruct(orderId);
+    }
+    
+    /**
+     * Rebuild every order with events since {@code since} by streaming the
+     * event store, e.g. to repair a projection after a bug
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> replayOrders(LocalDateTime since, Consumer<Order> sink) {
+        return orderReplayService.replayOrders(since, sink);
     }
     
     // Analytics Methods
@@ -237,49 +292,110 @@ public class OrderService {
     
     // Private Helper Methods
     
-    private Long getNextSequenceNumber(Long orderId) {
-        Optional<Long> maxSequence = orderEventRepository.findMaxSequenceNumberForOrder(orderId);
-        return maxSequence.orElse(0L) + 1;
+    /**
+     * Apply a change to an order and append the event it returns, under the
+     * order's next sequence number, in one transaction; a status change is
+     * also written to the outbox for the status routes. When a concurrent
+     * change to the same order commits first, the version check or the
+     * unique sequence constraint rejects this one and it is retried against
+     * the fresh order.
+     */
+    private AppendedEvent appendEvent(Long orderId, Function<Order, OrderEvent> change) {
+        return withSequenceRetry(() -> transactionTemplate.execute(status -> {
+            Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Order not found: " + orderId));
+            OrderEvent event = change.apply(order);
+            event.setSequenceNumber(nextSequenceNumber(order));
+            Order savedOrder = orderRepository.save(order);
+            orderEventRepository.save(event);
+            enqueueStatusChange(savedOrder, event);
+            orderReplayService.snapshotIfDue(orderId, event.getSequenceNumber());
+            return new AppendedEvent(savedOrder, event);
+        }));
     }
     
-    private void triggerStatusChangeRoute(Order order, OrderStatus previousStatus, 
-                                        OrderStatus newStatus, String correlationId) {
-        String routeEndpoint = switch (newStatus) {
-            case PAID -> "direct:order-paid";
-            case PREPARING -> "direct:order-preparing";
-            case SHIPPED -> "direct:order-shipped";
-            case DELIVERED -> "direct:order-delivered";
-            case CANCELLED -> "direct:order-cancelled";
-            default -> "direct:order-status-changed";
-        };
-        
-        producerTemplate.sendBodyAndHeaders(
-            routeEndpoint,
-            order,
-            java.util.Map.of(
-                "correlationId", correlationId,
-                "previousStatus", previousStatus.name(),
-                "newStatus", newStatus.name()
-            )
-        );
+    /**
+     * {@link #appendEvent} for a batch of orders in one transaction: the
+     * order updates and event inserts are flushed as JDBC batches. Orders
+     * the change returns no event for, and orders that do not exist, are
+     * skipped. A conflict on any order retries the whole batch.
+     */
+    private List<AppendedEvent> appendEvents(Collection<Long> orderIds, Function<Order, OrderEvent> change) {
+        return withSequenceRetry(() -> transactionTemplate.execute(status -> {
+            List<AppendedEvent> appended = new ArrayList<>(orderIds.size());
+            List<OrderEvent> events = new ArrayList<>(orderIds.size());
+            for (Order order : orderRepository.findAllById(orderIds)) {
+                OrderEvent event = change.apply(order);
+                if (event == null) {
+                    continue;
+                }
+                event.setSequenceNumber(nextSequenceNumber(order));
+                appended.add(new AppendedEvent(order, event));
+                events.add(event);
+            }
+            // The loaded orders are managed, so their updates are flushed with the events at commit
+            orderEventRepository.saveAll(events);
+            for (AppendedEvent a : appended) {
+                enqueueStatusChange(a.order(), a.event());
+                orderReplayService.snapshotIfDue(a.order().getId(), a.event().getSequenceNumber());
+            }
+            return appended;
+        }));
     }
     
-    private void applyEventToOrder(Order order, OrderEvent event) {
-        // Simplified event application - in a real system,
-        // this would be more comprehensive
-        switch (event.getEventType()) {
-            case CREATED:
-                order.setStatus(OrderStatus.PENDING);
-                order.setUserId(event.getUserId());
-                order.setCreatedAt(event.getTimestamp());
-                break;
-            case STATUS_CHANGED:
-                if (event.getNewStatus() != null) {
-                    order.setStatus(event.getNewStatus());
+    private <T> T withSequenceRetry(Supplier<T> work) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return work.get();
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (attempt >= maxSequenceAttempts) {
+                    throw e;
                 }
-                order.setUpdatedAt(event.getTimestamp());
-                break;
-            // Add more event types as needed
+                backOff(attempt);
+            }
+        }
+    }
+    
+    private long nextSequenceNumber(Order order) {
+        if (order.getLastSequenceNumber() == null) {
+            // Order created before sequence numbers were kept on the order
+            order.setLastSequenceNumber(
+                orderEventRepository.findMaxSequenceNumberForOrder(order.getId()).orElse(0L));
+        }
+        return order.nextEventSequence();
+    }
+    
+    private void backOff(int attempt) {
+        try {
+            // Jittered, so changes that collided once do not collide again
+            Thread.sleep(ThreadLocalRandom.current().nextLong(1, 2L + attempt * 2L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while retrying order event sequencing", e);
+        }
+    }
+    
+    /**
+     * Write a status change event to the outbox. Every status goes to the
+     * status router, which picks the workflow from the newStatus header.
+     */
+    private void enqueueStatusChange(Order order, OrderEvent event) {
+        if (event.getNewStatus() == null) {
+            return;
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        if (event.getCorrelationId() != null) {
+            headers.put("correlationId", event.getCorrelationId());
+        }
+        if (event.getPreviousStatus() != null) {
+            headers.put("previousStatus", event.getPreviousStatus().name());
+        }
+        headers.put("newStatus", event.getNewStatus().name());
+        headers.put("eventType", event.getEventType().name());
+        headers.put("eventSource", event.getEventSource());
+        if (event.getEventData() != null) {
+            headers.put("eventData", event.getEventData());
         }
+        orderOutbox.enqueue(order, event.getSequenceNumber(), STATUS_CHANGED_ENDPOINT, headers);
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,69 @@
+package com.eipresso.order;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.service.OrderCursor;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order cursor token tests
+ */
+@DisplayName("Order Cursor Tests")
+class OrderCursorTest {
+
+    @Test
+    @DisplayName("Should decode the cursor it encoded")
+    void shouldDecodeTheCursorItEncoded() {
+        OrderCursor precise = new OrderCursor(LocalDateTime.of(2024, 3, 5, 10, 15, 30, 123_456_000), 42L);
+        OrderCursor onTheMinute = new OrderCursor(LocalDateTime.of(2024, 3, 5, 10, 15), Long.MAX_VALUE);
+
+        assertEquals(precise, OrderCursor.decode(precise.encode()));
+        assertEquals(onTheMinute, OrderCursor.decode(onTheMinute.encode()));
+        assertEquals(OrderCursor.START, OrderCursor.decode(OrderCursor.START.encode()));
+    }
+
+    @Test
+    @DisplayName("Should position a cursor after the given order")
+    void shouldPositionACursorAfterTheGivenOrder() {
+        Order order = new Order(1L, new BigDecimal("4.20"), "Cursor", "cursor@example.com");
+        order.setId(7L);
+
+        OrderCursor cursor = OrderCursor.decode(OrderCursor.after(order).encode());
+
+        assertEquals(order.getCreatedAt(), cursor.createdAt());
+        assertEquals(7L, cursor.id());
+    }
+
+    @Test
+    @DisplayName("Should start from the beginning when no cursor is given")
+    void shouldStartFromTheBeginningWhenNoCursorIsGiven() {
+        assertEquals(OrderCursor.START, OrderCursor.decode(null));
+        assertEquals(OrderCursor.START, OrderCursor.decode(""));
+        assertEquals(OrderCursor.START, OrderCursor.decode("  "));
+    }
+
+    @Test
+    @DisplayName("Should reject tokens it did not produce")
+    void shouldRejectTokensItDidNotProduce() {
+        String token = new OrderCursor(LocalDateTime.of(2024, 3, 5, 10, 15, 30), 42L).encode();
+
+        IllegalArgumentException invalid = assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode("not a cursor!"));
+        assertEquals("Invalid cursor: not a cursor!", invalid.getMessage());
+        // Cut before the id separator
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(token.substring(0, token.length() / 2)));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(encode("2024-03-05T10:15:30|forty-two")));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(encode("yesterday|42")));
+        assertThrows(IllegalArgumentException.class, () -> OrderCursor.decode(encode("2024-03-05T10:15:30|")));
+    }
+
+    private static String encode(String cursor) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+}
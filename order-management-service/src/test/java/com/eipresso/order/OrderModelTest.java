@@ -4,6 +4,7 @@ import com.eipresso.order.model.*;
 import org.junit.jupiter.api.Test;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -60,6 +61,20 @@ class OrderModelTest {
         });
     }
     
+    @Test
+    void testOrderEventSequence() {
+        Order order = new Order(1L, new BigDecimal("25.99"), "John Doe", "john@example.com");
+        
+        assertEquals(1L, order.nextEventSequence());
+        assertEquals(2L, order.nextEventSequence());
+        assertEquals(2L, order.getLastSequenceNumber());
+        
+        // Orders created before sequence numbers were kept on the order start from the stored value
+        Order legacy = new Order();
+        legacy.setLastSequenceNumber(null);
+        assertEquals(1L, legacy.nextEventSequence());
+    }
+    
     @Test
     void testOrderEventCreation() {
         OrderEvent event = OrderEvent.orderCreated(1L, 100L, "correlation-123");
@@ -103,4 +118,29 @@ class OrderModelTest {
         assertFalse(order.isDeliverable());
         assertFalse(order.isActive());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void testOutboxMessageRetryBackoff() {
+        OutboxMessage message = new OutboxMessage(1L, 1L, "direct:order-status-changed", "{}", null);
+        assertTrue(message.isDue(LocalDateTime.now()));
+
+        // Each failure doubles the delay before the next attempt, up to the cap
+        message.markFailedAttempt("Broker unavailable", 5, 1_000L, 3_000L);
+        assertEquals(OutboxMessage.Status.PENDING, message.getStatus());
+        assertFalse(message.isDue(LocalDateTime.now()));
+        assertTrue(message.isDue(LocalDateTime.now().plusSeconds(2)));
+
+        message.markFailedAttempt("Broker unavailable", 5, 1_000L, 3_000L);
+        assertFalse(message.isDue(LocalDateTime.now().plusSeconds(1)));
+        assertTrue(message.isDue(LocalDateTime.now().plusSeconds(3)));
+
+        message.markFailedAttempt("Broker unavailable", 5, 1_000L, 3_000L);
+        assertTrue(message.isDue(LocalDateTime.now().plusSeconds(4)));
+
+        // The last attempt gives up rather than waiting again
+        message.markFailedAttempt("Broker unavailable", 5, 1_000L, 3_000L);
+        message.markFailedAttempt("Broker unavailable", 5, 1_000L, 3_000L);
+        assertEquals(OutboxMessage.Status.FAILED, message.getStatus());
+        assertEquals(5, message.getAttempts());
+    }
+}
@@ -0,0 +1,114 @@
+package com.eipresso.order;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.model.OutboxMessage;
+import com.eipresso.order.repository.OutboxMessageRepository;
+import com.eipresso.order.service.OrderOutboxRelay;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.core.HazelcastInstance;
+import org.apache.camel.ProducerTemplate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Order outbox relay tests on an embedded H2 database
+ *
+ * Messages are written with their ids in the reverse of their sequence
+ * order, and one publish fails once, so the relay has to both reorder each
+ * order's messages and hold the rest of the failed order back until the
+ * failed message has gone out.
+ */
+@DisplayName("Order Outbox Relay Tests")
+@DataJpaTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "spring.cloud.consul.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderOutboxRelayTest {
+
+    private static final int ORDERS = 3;
+    private static final int MESSAGES_PER_ORDER = 5;
+    private static final long FAILING_ORDER = 2L;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private ObjectProvider<HazelcastInstance> noHazelcast;
+
+    @Test
+    @DisplayName("Should publish each order in sequence order and hold it back behind a failed publish")
+    void shouldPublishEachOrderInSequenceOrderAndHoldItBackBehindAFailedPublish() throws Exception {
+        outboxMessageRepository.deleteAll();
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        List<OutboxMessage> messages = new ArrayList<>();
+        for (long sequence = MESSAGES_PER_ORDER; sequence >= 1; sequence--) {
+            for (long orderId = 1; orderId <= ORDERS; orderId++) {
+                Order order = new Order(orderId, new BigDecimal("4.20"), "Relay " + orderId, "relay" + orderId + "@example.com");
+                order.setId(orderId);
+                messages.add(new OutboxMessage(orderId, sequence, "direct:order-status-changed",
+                    objectMapper.writeValueAsString(order), "{\"newStatus\":\"PAID\"}"));
+            }
+        }
+        outboxMessageRepository.saveAll(messages);
+
+        Map<Long, List<Long>> publishedSequences = new HashMap<>();
+        Set<String> dedupKeys = new HashSet<>();
+        AtomicBoolean failNext = new AtomicBoolean(true);
+        ProducerTemplate producerTemplate = mock(ProducerTemplate.class);
+        doAnswer(invocation -> {
+            Order order = invocation.getArgument(1);
+            Map<String, Object> headers = invocation.getArgument(2);
+            Long sequence = (Long) headers.get(OrderOutboxRelay.SEQUENCE_NUMBER_HEADER);
+            if (order.getId() == FAILING_ORDER && sequence == 2L && failNext.getAndSet(false)) {
+                throw new IllegalStateException("Broker unavailable");
+            }
+            publishedSequences.computeIfAbsent(order.getId(), id -> new ArrayList<>()).add(sequence);
+            assertTrue(dedupKeys.add((String) headers.get(OrderOutboxRelay.DEDUP_KEY_HEADER)), "Published twice");
+            return null;
+        }).when(producerTemplate).sendBodyAndHeaders(anyString(), any(), anyMap());
+
+        OrderOutboxRelay relay = new OrderOutboxRelay(outboxMessageRepository, producerTemplate, objectMapper,
+            noHazelcast, 100, 60_000, 3, 1, 1, 24);
+
+        relay.relayBatch();
+        assertEquals(List.of(1L), publishedSequences.get(FAILING_ORDER));
+        assertEquals((long) (MESSAGES_PER_ORDER - 2), relay.getStatistics().get("heldBackForOrdering"));
+        assertEquals(1L, relay.getStatistics().get("failedAttempts"));
+
+        // Let the one millisecond backoff elapse
+        Thread.sleep(20);
+        while (relay.relayBatch() > 0) {
+            // Drain
+        }
+
+        assertEquals(ORDERS * MESSAGES_PER_ORDER, dedupKeys.size());
+        assertEquals(ORDERS, publishedSequences.size());
+        for (List<Long> sequences : publishedSequences.values()) {
+            assertEquals(List.of(1L, 2L, 3L, 4L, 5L), sequences);
+        }
+        assertEquals(0L, (long) outboxMessageRepository.countByStatus(OutboxMessage.Status.PENDING));
+    }
+}
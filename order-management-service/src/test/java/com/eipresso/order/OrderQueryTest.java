@@ -0,0 +1,92 @@
+package com.eipresso.order;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.repository.OrderRepository;
+import com.eipresso.order.service.OrderCursor;
+import com.eipresso.order.service.OrderPage;
+import com.eipresso.order.service.OrderQueryService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order listing tests on an embedded H2 database
+ *
+ * Orders are saved newest second first, three to a second, so their ids
+ * neither follow the listing order nor tell apart orders created together.
+ */
+@DisplayName("Order Query Tests")
+@DataJpaTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "spring.cloud.consul.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderQueryTest {
+
+    private static final long USER_ID = 9100L;
+    private static final int ORDERS = 23;
+    private static final int PAGE_SIZE = 5;
+    private static final LocalDateTime FIRST_ORDER_AT = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should list every order once by keyset pages and by stream")
+    void shouldListEveryOrderOnceByKeysetPagesAndByStream() {
+        OrderQueryService orderQueryService = new OrderQueryService(orderRepository, entityManager, 1000);
+        List<Order> saved = new ArrayList<>();
+        for (int i = ORDERS - 1; i >= 0; i--) {
+            Order order = new Order(USER_ID, new BigDecimal("5.25"), "Listing " + i, "listing" + i + "@example.com");
+            order.setCreatedAt(FIRST_ORDER_AT.plusSeconds(i / 3));
+            saved.add(orderRepository.save(order));
+        }
+        orderRepository.save(new Order(USER_ID + 1, new BigDecimal("5.25"), "Other", "other@example.com"));
+        List<Long> expected = saved.stream()
+            .sorted(Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId))
+            .map(Order::getId)
+            .toList();
+
+        List<Long> paged = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            OrderPage page = orderQueryService.getOrdersByUserId(USER_ID, false, OrderCursor.decode(cursor), PAGE_SIZE);
+            page.orders().forEach(order -> paged.add(order.getId()));
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+
+        List<Long> streamed = new ArrayList<>();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Long count = readOnly.execute(status ->
+            orderQueryService.streamOrdersByUserId(USER_ID, false, order -> streamed.add(order.getId())));
+
+        assertEquals(expected, paged);
+        assertEquals((ORDERS + PAGE_SIZE - 1) / PAGE_SIZE, pages);
+        assertEquals(expected, streamed);
+        assertEquals((long) ORDERS, (long) count);
+    }
+}
@@ -0,0 +1,110 @@
+package com.eipresso.order;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.model.OrderEventType;
+import com.eipresso.order.model.OrderSnapshot;
+import com.eipresso.order.model.OrderStatus;
+import com.eipresso.order.repository.OrderEventRepository;
+import com.eipresso.order.repository.OrderRepository;
+import com.eipresso.order.repository.OrderSnapshotRepository;
+import com.eipresso.order.repository.OutboxMessageRepository;
+import com.eipresso.order.service.OrderOutbox;
+import com.eipresso.order.service.OrderReplayService;
+import com.eipresso.order.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order replay tests on an embedded H2 database
+ *
+ * An order rebuilt from its latest snapshot and the events after it must
+ * match the same order rebuilt from its full history.
+ */
+@DisplayName("Order Replay Tests")
+@DataJpaTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "spring.cloud.consul.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderReplayTest {
+
+    private static final int SNAPSHOT_INTERVAL = 50;
+    private static final int EVENTS = 120;
+    private static final int PREPARING_AT = 110;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private OrderSnapshotRepository orderSnapshotRepository;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should rebuild the same order from its snapshot and tail as from its full history")
+    void shouldRebuildTheSameOrderFromItsSnapshotAndTailAsFromItsFullHistory() {
+        OrderOutbox orderOutbox = new OrderOutbox(outboxMessageRepository, new ObjectMapper().findAndRegisterModules(),
+            event -> { });
+        OrderService orderService = new OrderService(orderRepository, orderEventRepository, orderOutbox,
+            new OrderReplayService(orderSnapshotRepository, orderEventRepository, entityManager, SNAPSHOT_INTERVAL),
+            null, transactionManager, 10, 100);
+
+        LocalDateTime since = LocalDateTime.now().minusMinutes(1);
+        Order order = orderService.createOrder(3100L, new BigDecimal("6.40"), "Replay", "replay@example.com", null, null);
+        orderService.transitionOrderStatus(order.getId(), OrderStatus.PAID, "replay-test", "replay");
+        for (int sequence = 3; sequence <= EVENTS; sequence++) {
+            if (sequence == PREPARING_AT) {
+                // A status change after the latest snapshot has to come from the tail
+                orderService.transitionOrderStatus(order.getId(), OrderStatus.PREPARING, "replay-test", "replay");
+            } else {
+                orderService.recordOrderEvent(order.getId(), OrderEventType.NOTIFICATION_SENT, "replay-test", "replay", null);
+            }
+        }
+
+        OrderSnapshot snapshot = orderSnapshotRepository
+            .findFirstByOrderIdAndSnapshotVersionOrderBySequenceNumberDesc(order.getId(), 1).orElseThrow();
+        assertEquals(100L, (long) snapshot.getSequenceNumber());
+        Order fromSnapshot = orderService.reconstructOrderFromEvents(order.getId());
+
+        Map<Long, Order> replayed = new HashMap<>();
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.execute(status -> orderService.replayOrders(since, rebuilt -> replayed.put(rebuilt.getId(), rebuilt)));
+        Order fromHistory = replayed.get(order.getId());
+
+        assertNotNull(fromHistory);
+        assertEquals(OrderStatus.PREPARING, fromSnapshot.getStatus());
+        assertEquals(fromHistory.getStatus(), fromSnapshot.getStatus());
+        assertEquals(fromHistory.getUserId(), fromSnapshot.getUserId());
+        assertEquals(fromHistory.getCreatedAt(), fromSnapshot.getCreatedAt());
+        assertEquals(fromHistory.getUpdatedAt(), fromSnapshot.getUpdatedAt());
+        assertEquals((long) EVENTS, (long) fromSnapshot.getLastSequenceNumber());
+        assertEquals(fromHistory.getLastSequenceNumber(), fromSnapshot.getLastSequenceNumber());
+    }
+}
@@ -0,0 +1,104 @@
+package com.eipresso.order;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.model.OrderEvent;
+import com.eipresso.order.model.OrderEventType;
+import com.eipresso.order.repository.OrderEventRepository;
+import com.eipresso.order.repository.OrderRepository;
+import com.eipresso.order.repository.OrderSnapshotRepository;
+import com.eipresso.order.service.OrderReplayService;
+import com.eipresso.order.service.OrderService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order event sequencing tests on an embedded H2 database
+ *
+ * Concurrent appends to one order collide on its version or on the unique
+ * sequence number; each loser must be retried against the fresh order, so
+ * every append succeeds and the sequence stays gap-free.
+ */
+@DisplayName("Order Sequencing Tests")
+@DataJpaTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "spring.cloud.consul.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderSequencingTest {
+
+    private static final int EVENTS = 40;
+    private static final int THREADS = 8;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private OrderSnapshotRepository orderSnapshotRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should retry conflicting appends until every event has its own sequence number")
+    void shouldRetryConflictingAppendsUntilEveryEventHasItsOwnSequenceNumber() throws Exception {
+        // Routes are not triggered by event appends, so no Camel context is needed
+        OrderService orderService = new OrderService(orderRepository, orderEventRepository,
+            null, new OrderReplayService(orderSnapshotRepository, orderEventRepository, entityManager, 50),
+            null, transactionManager, 100, 100);
+        Order order = new Order(2000L, new BigDecimal("7.80"), "Sequencing", "sequencing@example.com");
+        order.nextEventSequence();
+        Long orderId = orderRepository.save(order).getId();
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<OrderEvent>> appends = new ArrayList<>();
+        for (int i = 0; i < EVENTS; i++) {
+            appends.add(executor.submit(() -> {
+                start.await();
+                return orderService.recordOrderEvent(orderId, OrderEventType.NOTIFICATION_SENT,
+                    "sequencing-test", "sequencing-" + orderId, null);
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<OrderEvent> append : appends) {
+                // Throws if a conflict was surfaced instead of retried
+                assertNotNull(append.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<OrderEvent> events = orderEventRepository.findByOrderIdOrderBySequenceNumberAsc(orderId);
+        assertEquals(EVENTS, events.size());
+        for (int i = 0; i < events.size(); i++) {
+            // Sequence 1 is the creation event, which this test does not write
+            assertEquals((long) (i + 2), (long) events.get(i).getSequenceNumber());
+        }
+        assertEquals((long) (EVENTS + 1), (long) orderRepository.findById(orderId).orElseThrow().getLastSequenceNumber());
+    }
+}
@@ -0,0 +1,161 @@
+package com.eipresso.order.performance;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.model.OrderEvent;
+import com.eipresso.order.model.OrderStatus;
+import com.eipresso.order.model.OutboxMessage;
+import com.eipresso.order.repository.OrderEventRepository;
+import com.eipresso.order.repository.OrderRepository;
+import com.eipresso.order.repository.OrderSnapshotRepository;
+import com.eipresso.order.repository.OutboxMessageRepository;
+import com.eipresso.order.service.OrderOutbox;
+import com.eipresso.order.service.OrderReplayService;
+import com.eipresso.order.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order Batch Write Performance Test Suite
+ *
+ * Moves 500 PAID orders to PREPARING one call at a time and then another
+ * 500 with a single bulk transition, and reports throughput and the JDBC
+ * statements each needed. Runs on H2 in PostgreSQL mode by default; set
+ * ORDER_BENCHMARK_JDBC_URL (plus ORDER_BENCHMARK_JDBC_USER and
+ * ORDER_BENCHMARK_JDBC_PASSWORD) to run it against a local PostgreSQL.
+ * Run with RUN_PERFORMANCE_TESTS=true.
+ */
+@DisplayName("Order Batch Write Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+@DataJpaTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "spring.cloud.consul.enabled=false",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderBatchWritePerformanceTest {
+
+    private static final int ORDERS = 500;
+    private static final String DEFAULT_JDBC_URL =
+        "jdbc:h2:mem:order-benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private OrderSnapshotRepository orderSnapshotRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void benchmarkDatabase(DynamicPropertyRegistry registry) {
+        String url = System.getenv().getOrDefault("ORDER_BENCHMARK_JDBC_URL", DEFAULT_JDBC_URL);
+        boolean postgres = url.startsWith("jdbc:postgresql:");
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("ORDER_BENCHMARK_JDBC_USER", "sa"));
+        registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("ORDER_BENCHMARK_JDBC_PASSWORD", ""));
+        registry.add("spring.datasource.driver-class-name", () -> postgres ? "org.postgresql.Driver" : "org.h2.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect",
+            () -> postgres ? "org.hibernate.dialect.PostgreSQLDialect" : "org.hibernate.dialect.H2Dialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @Test
+    @DisplayName("Should transition 500 orders in far fewer statements with the bulk API")
+    void shouldTransition500OrdersInFarFewerStatementsWithTheBulkApi() {
+        OrderOutbox orderOutbox = new OrderOutbox(outboxMessageRepository, new ObjectMapper().findAndRegisterModules(),
+            event -> { });
+        OrderService orderService = new OrderService(orderRepository, orderEventRepository,
+            orderOutbox, new OrderReplayService(orderSnapshotRepository, orderEventRepository, entityManager, 50),
+            null, transactionManager, 10, 100);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        long begin = System.nanoTime();
+        List<Long> individually = createPaidOrders(0);
+        long insertNanos = System.nanoTime() - begin;
+        report("Batched order inserts", insertNanos, statistics.getPrepareStatementCount());
+        List<Long> inBulk = createPaidOrders(ORDERS);
+
+        statistics.clear();
+        begin = System.nanoTime();
+        for (Long orderId : individually) {
+            orderService.transitionOrderStatus(orderId, OrderStatus.PREPARING, "batch-benchmark", "individual");
+        }
+        long individualNanos = System.nanoTime() - begin;
+        long individualStatements = statistics.getPrepareStatementCount();
+        report("One transition per call", individualNanos, individualStatements);
+
+        statistics.clear();
+        begin = System.nanoTime();
+        List<Order> transitioned = orderService.transitionOrders(inBulk, OrderStatus.PREPARING, "batch-benchmark", "bulk");
+        long bulkNanos = System.nanoTime() - begin;
+        long bulkStatements = statistics.getPrepareStatementCount();
+        report("Bulk transition", bulkNanos, bulkStatements);
+        System.out.printf("📊 Bulk speedup: %.1fx%n", (double) individualNanos / bulkNanos);
+
+        assertEquals(ORDERS, transitioned.size());
+        for (Long orderId : inBulk) {
+            assertEquals(OrderStatus.PREPARING, orderRepository.findById(orderId).orElseThrow().getStatus());
+            List<OrderEvent> events = orderEventRepository.findByOrderIdOrderBySequenceNumberAsc(orderId);
+            assertEquals(1, events.size());
+            assertEquals(2L, (long) events.get(0).getSequenceNumber());
+        }
+        // Every transition wrote its route trigger to the outbox
+        assertEquals((long) (2 * ORDERS), (long) outboxMessageRepository.countByStatus(OutboxMessage.Status.PENDING));
+        assertTrue(bulkStatements * 10 < individualStatements,
+            "Bulk transition prepared " + bulkStatements + " statements against " + individualStatements);
+    }
+
+    private List<Long> createPaidOrders(int offset) {
+        List<Order> orders = new ArrayList<>(ORDERS);
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(2000L + offset + i, new BigDecimal("8.75"),
+                "Benchmark " + (offset + i), "batch" + (offset + i) + "@example.com");
+            order.transitionTo(OrderStatus.PAID);
+            order.nextEventSequence();
+            orders.add(order);
+        }
+        return orderRepository.saveAll(orders).stream().map(Order::getId).toList();
+    }
+
+    private static void report(String label, long elapsedNanos, long statements) {
+        System.out.printf("📊 %s: %d orders in %dms (%.0f orders/sec), %d JDBC statements prepared%n",
+            label, ORDERS, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+            ORDERS / (elapsedNanos / 1e9), statements);
+    }
+}
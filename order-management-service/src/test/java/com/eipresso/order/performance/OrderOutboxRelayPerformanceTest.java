@@ -0,0 +1,84 @@
+package com.eipresso.order.performance;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.model.OutboxMessage;
+import com.eipresso.order.repository.OutboxMessageRepository;
+import com.eipresso.order.service.OrderOutboxRelay;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hazelcast.core.HazelcastInstance;
+import org.apache.camel.ProducerTemplate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Order Outbox Relay Performance Test Suite
+ *
+ * Relays 10,000 outbox messages for 200 orders, written with their ids in
+ * the reverse of their sequence order, and reports the relay throughput;
+ * OrderOutboxRelayTest checks the publish order. Run with
+ * RUN_PERFORMANCE_TESTS=true.
+ */
+@DisplayName("Order Outbox Relay Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+@DataJpaTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "spring.cloud.consul.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderOutboxRelayPerformanceTest {
+
+    private static final int ORDERS = 200;
+    private static final int MESSAGES_PER_ORDER = 50;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private ObjectProvider<HazelcastInstance> noHazelcast;
+
+    @Test
+    @DisplayName("Should report the throughput of relaying 10,000 messages")
+    void shouldReportTheThroughputOfRelaying10000Messages() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        List<OutboxMessage> messages = new ArrayList<>(ORDERS * MESSAGES_PER_ORDER);
+        for (long sequence = MESSAGES_PER_ORDER; sequence >= 1; sequence--) {
+            for (long orderId = 1; orderId <= ORDERS; orderId++) {
+                Order order = new Order(orderId, new BigDecimal("4.20"), "Relay " + orderId, "relay" + orderId + "@example.com");
+                order.setId(orderId);
+                messages.add(new OutboxMessage(orderId, sequence, "direct:order-status-changed",
+                    objectMapper.writeValueAsString(order), "{\"newStatus\":\"PAID\"}"));
+            }
+        }
+        outboxMessageRepository.saveAll(messages);
+
+        ProducerTemplate producerTemplate = mock(ProducerTemplate.class);
+
+        OrderOutboxRelay relay = new OrderOutboxRelay(outboxMessageRepository, producerTemplate, objectMapper,
+            noHazelcast, 100, 60_000, 3, 1_000, 300_000, 24);
+        long relayed = 0;
+        long begin = System.nanoTime();
+        int settled;
+        while ((settled = relay.relayBatch()) > 0) {
+            relayed += settled;
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+
+        System.out.printf("📊 Outbox relay: %d messages in %dms (%.0f messages/sec)%n",
+            relayed, TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+            relayed / (elapsedNanos / 1e9));
+    }
+}
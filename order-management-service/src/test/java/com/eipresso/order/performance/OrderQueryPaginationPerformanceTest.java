@@ -0,0 +1,230 @@
+package com.eipresso.order.performance;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.model.OrderStatus;
+import com.eipresso.order.repository.OrderRepository;
+import com.eipresso.order.service.OrderCursor;
+import com.eipresso.order.service.OrderQueryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order Query Pagination Performance Test Suite
+ *
+ * Seeds 5,000,000 orders (ORDER_BENCHMARK_ORDERS overrides the count), then
+ * compares an offset page near the end of the DELIVERED listing with the
+ * keyset page at the same position, and streams the whole listing as NDJSON
+ * while sampling the retained heap. Runs on a file-backed H2 in PostgreSQL
+ * mode by default; set ORDER_BENCHMARK_JDBC_URL (plus
+ * ORDER_BENCHMARK_JDBC_USER and ORDER_BENCHMARK_JDBC_PASSWORD) to run it
+ * against a local PostgreSQL. OrderQueryTest and OrderCursorTest check the
+ * listings themselves. Run with RUN_PERFORMANCE_TESTS=true.
+ */
+@DisplayName("Order Query Pagination Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+@DataJpaTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "spring.cloud.consul.enabled=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderQueryPaginationPerformanceTest {
+
+    private static final int ORDERS = Integer.parseInt(System.getenv().getOrDefault("ORDER_BENCHMARK_ORDERS", "5000000"));
+    private static final int INSERT_BATCH = 10_000;
+    private static final int PAGE_SIZE = 100;
+    private static final int REPETITIONS = 5;
+    private static final int HEAP_SAMPLE_INTERVAL = 250_000;
+    private static final long MAX_RETAINED_HEAP_BYTES = 64L * 1024 * 1024;
+    private static final LocalDateTime FIRST_ORDER_AT = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final String DEFAULT_JDBC_URL =
+        "jdbc:h2:file:./target/order-query-benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE";
+
+    private static volatile boolean seeded;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderQueryService orderQueryService;
+
+    @DynamicPropertySource
+    static void benchmarkDatabase(DynamicPropertyRegistry registry) {
+        String url = System.getenv().getOrDefault("ORDER_BENCHMARK_JDBC_URL", DEFAULT_JDBC_URL);
+        boolean postgres = url.startsWith("jdbc:postgresql:");
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("ORDER_BENCHMARK_JDBC_USER", "sa"));
+        registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("ORDER_BENCHMARK_JDBC_PASSWORD", ""));
+        registry.add("spring.datasource.driver-class-name", () -> postgres ? "org.postgresql.Driver" : "org.h2.Driver");
+        registry.add("spring.jpa.properties.hibernate.dialect",
+            () -> postgres ? "org.hibernate.dialect.PostgreSQLDialect" : "org.hibernate.dialect.H2Dialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @BeforeEach
+    void setUp() {
+        orderQueryService = new OrderQueryService(orderRepository, entityManager, 1000);
+        if (!seeded) {
+            seedOrders();
+            seeded = true;
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve a deep page by keyset far faster than by offset")
+    void shouldServeADeepPageByKeysetFarFasterThanByOffset() {
+        long delivered = orderRepository.countByStatus(OrderStatus.DELIVERED);
+        int position = (int) (delivered * 9 / 10);
+        Order previous = offsetPage(position - 1, 1).get(0);
+        OrderCursor cursor = OrderCursor.after(previous);
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            offsetPage(position, PAGE_SIZE);
+        }
+        long offsetNanos = (System.nanoTime() - begin) / REPETITIONS;
+
+        begin = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            orderQueryService.getOrdersByStatus(OrderStatus.DELIVERED, cursor, PAGE_SIZE);
+        }
+        long keysetNanos = (System.nanoTime() - begin) / REPETITIONS;
+
+        System.out.printf("📊 Page of %d at position %d of %d DELIVERED orders: %.2fms by offset, %.2fms by keyset (%.1fx)%n",
+            PAGE_SIZE, position, delivered, offsetNanos / 1e6, keysetNanos / 1e6, (double) offsetNanos / keysetNanos);
+        assertTrue(keysetNanos < offsetNanos, "Keyset page was not faster than the offset page");
+    }
+
+    @Test
+    @DisplayName("Should export a whole listing as NDJSON without retaining it")
+    void shouldExportAWholeListingAsNdjsonWithoutRetainingIt() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        CountingOutputStream out = new CountingOutputStream();
+        AtomicLong peakRetained = new AtomicLong();
+        long baseline = retainedHeap();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        long begin = System.nanoTime();
+        Long exported = readOnly.execute(status -> orderQueryService.streamOrdersByStatus(OrderStatus.DELIVERED, order -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(order));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (out.lines % HEAP_SAMPLE_INTERVAL == 0) {
+                peakRetained.accumulateAndGet(retainedHeap() - baseline, Math::max);
+            }
+        }));
+        long elapsedNanos = System.nanoTime() - begin;
+
+        System.out.printf("📊 NDJSON export: %d orders, %d MB in %dms (%.0f orders/sec), peak retained heap growth %d MB%n",
+            exported, out.bytes / (1024 * 1024), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+            exported / (elapsedNanos / 1e9), peakRetained.get() / (1024 * 1024));
+        assertTrue(peakRetained.get() < MAX_RETAINED_HEAP_BYTES,
+            "Export retained " + peakRetained.get() / (1024 * 1024) + " MB of heap");
+    }
+
+    private List<Order> offsetPage(int offset, int size) {
+        return entityManager.createQuery(
+                "SELECT o FROM Order o WHERE o.status = :status ORDER BY o.createdAt ASC, o.id ASC", Order.class)
+            .setParameter("status", OrderStatus.DELIVERED)
+            .setFirstResult(offset)
+            .setMaxResults(size)
+            .getResultList();
+    }
+
+    /**
+     * Insert the orders with plain JDBC batches: 7 in 10 DELIVERED, 100 per
+     * user, and four to each creation second so the listing has ties on
+     * createdAt for the id to break.
+     */
+    private void seedOrders() {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        OrderStatus[] statuses = {
+            OrderStatus.DELIVERED, OrderStatus.DELIVERED, OrderStatus.DELIVERED, OrderStatus.DELIVERED,
+            OrderStatus.DELIVERED, OrderStatus.DELIVERED, OrderStatus.DELIVERED,
+            OrderStatus.PAID, OrderStatus.PENDING, OrderStatus.CANCELLED
+        };
+        String sql = "INSERT INTO orders (id, user_id, status, total_amount, currency, customer_name, customer_email, " +
+            "created_at, updated_at, version, last_sequence_number) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 1)";
+        BigDecimal amount = new BigDecimal("5.25");
+
+        long begin = System.nanoTime();
+        List<Object[]> batch = new ArrayList<>(INSERT_BATCH);
+        for (int i = 1; i <= ORDERS; i++) {
+            LocalDateTime createdAt = FIRST_ORDER_AT.plusSeconds(i / 4);
+            // Ids run against creation order within each second, so ties are broken by id rather than insertion order
+            long id = (long) (i / 4) * 4 + (3 - i % 4) + 1;
+            batch.add(new Object[] {
+                id, (long) (i % (ORDERS / 100 + 1)), statuses[i % statuses.length].name(), amount, "USD",
+                "Customer " + i, "customer" + i + "@example.com", createdAt, createdAt
+            });
+            if (batch.size() == INSERT_BATCH || i == ORDERS) {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+        System.out.printf("📊 Seeded %d orders in %ds%n", ORDERS, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - begin));
+    }
+
+    private static long retainedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        long bytes;
+        long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+}
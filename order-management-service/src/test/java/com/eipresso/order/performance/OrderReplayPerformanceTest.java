@@ -0,0 +1,130 @@
+package com.eipresso.order.performance;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.model.OrderEventType;
+import com.eipresso.order.model.OrderStatus;
+import com.eipresso.order.repository.OrderEventRepository;
+import com.eipresso.order.repository.OrderRepository;
+import com.eipresso.order.repository.OrderSnapshotRepository;
+import com.eipresso.order.repository.OutboxMessageRepository;
+import com.eipresso.order.service.OrderOutbox;
+import com.eipresso.order.service.OrderReplayService;
+import com.eipresso.order.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Order Replay Performance Test Suite
+ *
+ * Reconstructs an order with 1,000 events from its latest snapshot and from
+ * its full history, and streams a bulk replay of 500 orders, reporting the
+ * time each takes; OrderReplayTest checks the rebuilt state. Run with
+ * RUN_PERFORMANCE_TESTS=true.
+ */
+@DisplayName("Order Replay Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+@DataJpaTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "spring.cloud.consul.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderReplayPerformanceTest {
+
+    private static final int SNAPSHOT_INTERVAL = 50;
+    private static final int LONG_HISTORY_EVENTS = 1_000;
+    private static final int RECONSTRUCTIONS = 100;
+    private static final int REPLAYED_ORDERS = 500;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private OrderSnapshotRepository orderSnapshotRepository;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        OrderOutbox orderOutbox = new OrderOutbox(outboxMessageRepository, new ObjectMapper().findAndRegisterModules(),
+            event -> { });
+        orderService = new OrderService(orderRepository, orderEventRepository, orderOutbox,
+            new OrderReplayService(orderSnapshotRepository, orderEventRepository, entityManager, SNAPSHOT_INTERVAL),
+            null, transactionManager, 10, 100);
+    }
+
+    @Test
+    @DisplayName("Should reconstruct a long-lived order from its snapshot and tail")
+    void shouldReconstructALongLivedOrderFromItsSnapshotAndTail() {
+        Order order = orderService.createOrder(3000L, new BigDecimal("6.40"), "Replay", "replay@example.com", null, null);
+        orderService.transitionOrderStatus(order.getId(), OrderStatus.PAID, "replay-benchmark", "replay");
+        for (int i = 3; i <= LONG_HISTORY_EVENTS; i++) {
+            orderService.recordOrderEvent(order.getId(), OrderEventType.NOTIFICATION_SENT, "replay-benchmark", "replay", null);
+        }
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < RECONSTRUCTIONS; i++) {
+            orderService.reconstructOrderFromEvents(order.getId());
+        }
+        long snapshotNanos = System.nanoTime() - begin;
+
+        orderSnapshotRepository.deleteAll();
+        begin = System.nanoTime();
+        for (int i = 0; i < RECONSTRUCTIONS; i++) {
+            orderService.reconstructOrderFromEvents(order.getId());
+        }
+        long historyNanos = System.nanoTime() - begin;
+
+        System.out.printf("📊 Reconstruction of a %d-event order: %.2fms from snapshot, %.2fms from full history%n",
+            LONG_HISTORY_EVENTS, snapshotNanos / 1e6 / RECONSTRUCTIONS, historyNanos / 1e6 / RECONSTRUCTIONS);
+        assertTrue(snapshotNanos < historyNanos, "Snapshot reconstruction was not faster than full replay");
+    }
+
+    @Test
+    @DisplayName("Should stream a bulk replay of every order")
+    void shouldStreamABulkReplayOfEveryOrder() {
+        LocalDateTime since = LocalDateTime.now().minusMinutes(1);
+        for (int i = 0; i < REPLAYED_ORDERS; i++) {
+            Order order = orderService.createOrder(4000L + i, new BigDecimal("3.10"), "Bulk " + i, "bulk" + i + "@example.com", null, null);
+            orderService.transitionOrderStatus(order.getId(), OrderStatus.PAID, "replay-benchmark", "bulk");
+        }
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        long begin = System.nanoTime();
+        Map<String, Object> stats = readOnly.execute(status -> orderService.replayOrders(since, rebuilt -> { }));
+        long elapsedNanos = System.nanoTime() - begin;
+
+        System.out.printf("📊 Bulk replay: %s orders from %s events in %dms%n",
+            stats.get("ordersRebuilt"), stats.get("eventsReplayed"), TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+    }
+}
@@ -0,0 +1,112 @@
+package com.eipresso.order.performance;
+
+import com.eipresso.order.model.Order;
+import com.eipresso.order.model.OrderEventType;
+import com.eipresso.order.repository.OrderEventRepository;
+import com.eipresso.order.repository.OrderRepository;
+import com.eipresso.order.repository.OrderSnapshotRepository;
+import com.eipresso.order.service.OrderReplayService;
+import com.eipresso.order.service.OrderService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Order Sequencing Performance Test Suite
+ *
+ * Appends 50 concurrent events to each of a handful of orders through
+ * {@link OrderService} on an embedded H2 database and reports the append
+ * throughput and latency; OrderSequencingTest checks the sequences
+ * themselves. Run with RUN_PERFORMANCE_TESTS=true.
+ */
+@DisplayName("Order Sequencing Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+@DataJpaTest(properties = {
+    "spring.cloud.config.enabled=false",
+    "spring.cloud.consul.enabled=false",
+    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderSequencingPerformanceTest {
+
+    private static final int ORDERS = 10;
+    private static final int EVENTS_PER_ORDER = 50;
+    private static final int THREADS = 50;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderEventRepository orderEventRepository;
+
+    @Autowired
+    private OrderSnapshotRepository orderSnapshotRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Should report the throughput of 50 concurrent events per order")
+    void shouldReportTheThroughputOf50ConcurrentEventsPerOrder() throws Exception {
+        // Routes are not triggered by event appends, so no Camel context is needed
+        OrderService orderService = new OrderService(orderRepository, orderEventRepository,
+            null, new OrderReplayService(orderSnapshotRepository, orderEventRepository, entityManager, 50),
+            null, transactionManager, 100, 100);
+
+        List<Long> orderIds = new ArrayList<>();
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order(1000L + i, new BigDecimal("12.50"), "Benchmark " + i, "bench" + i + "@example.com");
+            order.nextEventSequence();
+            orderIds.add(orderRepository.save(order).getId());
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Long>> appends = new ArrayList<>();
+        for (int i = 0; i < EVENTS_PER_ORDER; i++) {
+            for (Long orderId : orderIds) {
+                appends.add(executor.submit(() -> {
+                    start.await();
+                    long begin = System.nanoTime();
+                    orderService.recordOrderEvent(orderId, OrderEventType.NOTIFICATION_SENT,
+                        "sequencing-benchmark", "bench-" + orderId, null);
+                    return System.nanoTime() - begin;
+                }));
+            }
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        List<Long> latencies = new ArrayList<>();
+        for (Future<Long> append : appends) {
+            latencies.add(append.get(60, TimeUnit.SECONDS));
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+
+        latencies.sort(Long::compare);
+        System.out.printf("📊 Order sequencing: %d events in %dms (%.0f events/sec), p50 %.1fms, p99 %.1fms%n",
+            latencies.size(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+            latencies.size() / (elapsedNanos / 1e9),
+            latencies.get(latencies.size() / 2) / 1e6,
+            latencies.get((int) (latencies.size() * 0.99)) / 1e6);
+    }
+}
@@ -0,0 +1,17 @@
+package com.eipresso.payment.audit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of audit record batches; called from the audit writer thread only
+ */
+public interface AuditBatchWriter {
+
+    void write(List<AuditRecord> batch) throws IOException;
+
+    String getName();
+
+    default void close() throws IOException {
+    }
+}
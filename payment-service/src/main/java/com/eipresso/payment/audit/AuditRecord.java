@@ -0,0 +1,197 @@
+package com.eipresso.payment.audit;
+
+import com.eipresso.payment.model.Money;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Map;
+
+/**
+ * Compact audit record of one payment event
+ *
+ * Holds only the fields the transaction, fraud, compliance, security and
+ * business audits read, copied out of the payment headers once, plus the
+ * fraud and security indicators as flags. Views such as jurisdiction or
+ * applicable regulations follow from these fields and are not stored.
+ *
+ * Encoded as: version byte, timestamp, amount in cents, flags, then each
+ * string as a length-prefixed UTF-8 run (-1 for null, at most
+ * {@link #MAX_STRING_BYTES} bytes).
+ */
+public final class AuditRecord {
+
+    public static final byte VERSION = 1;
+    public static final int MAX_STRING_BYTES = 512;
+
+    public static final int FLAG_HIGH_VALUE = 1;
+    public static final int FLAG_OFF_HOURS = 1 << 1;
+    public static final int FLAG_SUSPICIOUS = 1 << 2;
+
+    public static final long HIGH_VALUE_CENTS = 50_000;
+
+    private static final int FIXED_BYTES = 1 + 8 + 8 + 1;
+
+    private final long timestampMillis;
+    private final long amountCents;
+    private final int flags;
+    private final String auditId;
+    private final String paymentId;
+    private final String currency;
+    private final String gateway;
+    private final String method;
+    private final String status;
+    private final String userId;
+    private final String orderId;
+    private final String ipAddress;
+    private final String userAgent;
+    private final String sessionId;
+    private final String correlationId;
+    private final String customerCountry;
+
+    public AuditRecord(long timestampMillis, long amountCents, int flags, String auditId, String paymentId,
+                       String currency, String gateway, String method, String status, String userId, String orderId,
+                       String ipAddress, String userAgent, String sessionId, String correlationId,
+                       String customerCountry) {
+        this.timestampMillis = timestampMillis;
+        this.amountCents = amountCents;
+        this.flags = flags;
+        this.auditId = auditId;
+        this.paymentId = paymentId;
+        this.currency = currency;
+        this.gateway = gateway;
+        this.method = method;
+        this.status = status;
+        this.userId = userId;
+        this.orderId = orderId;
+        this.ipAddress = ipAddress;
+        this.userAgent = userAgent;
+        this.sessionId = sessionId;
+        this.correlationId = correlationId;
+        this.customerCountry = customerCountry;
+    }
+
+    /**
+     * Copy the audited fields out of a payment's headers
+     */
+    public static AuditRecord fromHeaders(Map<String, Object> headers, String auditId, long timestampMillis) {
+        long amountCents = Money.toCents(headers.get("amount"));
+        String ipAddress = text(headers.get("customerIp"));
+        String userAgent = text(headers.get("userAgent"));
+        int hour = Instant.ofEpochMilli(timestampMillis).atZone(ZoneId.systemDefault()).getHour();
+
+        int flags = 0;
+        if (amountCents > HIGH_VALUE_CENTS) {
+            flags |= FLAG_HIGH_VALUE;
+        }
+        if (hour < 6 || hour > 22) {
+            flags |= FLAG_OFF_HOURS;
+        }
+        if ((userAgent != null && userAgent.contains("bot")) || (ipAddress != null && ipAddress.startsWith("10.0."))) {
+            flags |= FLAG_SUSPICIOUS;
+        }
+
+        Object currency = headers.get("currency");
+        Object country = headers.get("customerCountry");
+        return new AuditRecord(timestampMillis, amountCents, flags, auditId, text(headers.get("paymentId")),
+            currency != null ? currency.toString() : "USD", text(headers.get("paymentGateway")),
+            text(headers.get("paymentMethod")), text(headers.get("paymentStatus")), text(headers.get("userId")),
+            text(headers.get("orderId")), ipAddress, userAgent, text(headers.get("sessionId")),
+            text(headers.get("correlationId")), country != null ? country.toString() : "US");
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private String[] strings() {
+        return new String[] {auditId, paymentId, currency, gateway, method, status, userId, orderId,
+            ipAddress, userAgent, sessionId, correlationId, customerCountry};
+    }
+
+    /**
+     * Encode into {@code buffer}, which must have {@link #maxEncodedSize()} bytes remaining
+     *
+     * @return the number of bytes written
+     */
+    public int writeTo(ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.put(VERSION);
+        buffer.putLong(timestampMillis);
+        buffer.putLong(amountCents);
+        buffer.put((byte) flags);
+        for (String value : strings()) {
+            putString(buffer, value);
+        }
+        return buffer.position() - start;
+    }
+
+    /**
+     * Upper bound of the encoded size, without encoding
+     */
+    public int maxEncodedSize() {
+        int size = FIXED_BYTES;
+        for (String value : strings()) {
+            // UTF-8 takes at most three bytes per UTF-16 char
+            size += 2 + (value == null ? 0 : Math.min(value.length() * 3, MAX_STRING_BYTES));
+        }
+        return size;
+    }
+
+    public static AuditRecord readFrom(ByteBuffer buffer) {
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalStateException("Unsupported audit record version " + version);
+        }
+        long timestampMillis = buffer.getLong();
+        long amountCents = buffer.getLong();
+        int flags = buffer.get();
+        return new AuditRecord(timestampMillis, amountCents, flags, getString(buffer), getString(buffer),
+            getString(buffer), getString(buffer), getString(buffer), getString(buffer), getString(buffer),
+            getString(buffer), getString(buffer), getString(buffer), getString(buffer), getString(buffer),
+            getString(buffer));
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        buffer.putShort((short) length);
+        buffer.put(bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    public long getTimestampMillis() { return timestampMillis; }
+    public long getAmountCents() { return amountCents; }
+    public int getFlags() { return flags; }
+    public String getAuditId() { return auditId; }
+    public String getPaymentId() { return paymentId; }
+    public String getCurrency() { return currency; }
+    public String getGateway() { return gateway; }
+    public String getMethod() { return method; }
+    public String getStatus() { return status; }
+    public String getUserId() { return userId; }
+    public String getOrderId() { return orderId; }
+    public String getIpAddress() { return ipAddress; }
+    public String getUserAgent() { return userAgent; }
+    public String getSessionId() { return sessionId; }
+    public String getCorrelationId() { return correlationId; }
+    public String getCustomerCountry() { return customerCountry; }
+}
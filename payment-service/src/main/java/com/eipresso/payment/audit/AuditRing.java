@@ -0,0 +1,94 @@
+package com.eipresso.payment.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free ring of audit records, many producers and one consumer
+ *
+ * Each slot carries a sequence number. A producer claims the tail with a
+ * CAS once the slot's sequence shows it free, stores the record, then
+ * publishes it by advancing the sequence; the consumer takes a slot only
+ * after that publish and frees it for the next lap by advancing the
+ * sequence again. A full ring refuses the offer instead of waiting.
+ */
+public class AuditRing {
+
+    private final int capacity;
+    private final int mask;
+    private final AuditRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    // Written by the consumer only; read by size()
+    private volatile long head;
+
+    /**
+     * @param capacity rounded up to a power of two, at least 2
+     */
+    public AuditRing(int capacity) {
+        this.capacity = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AuditRecord[this.capacity];
+        this.sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false when the ring is full
+     */
+    public boolean offer(AuditRecord record) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) (position & mask);
+            long lag = sequences.get(index) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    slots[index] = record;
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+            } else if (lag < 0) {
+                return false;
+            }
+            // lag > 0: another producer took this position, retry with the new tail
+        }
+    }
+
+    /**
+     * Move up to {@code max} published records into {@code target}; consumer thread only
+     *
+     * @return the number of records moved
+     */
+    public int drainTo(List<AuditRecord> target, int max) {
+        long position = head;
+        int drained = 0;
+        while (drained < max) {
+            int index = (int) (position & mask);
+            if (sequences.get(index) != position + 1) {
+                break;
+            }
+            target.add(slots[index]);
+            slots[index] = null;
+            sequences.set(index, position + capacity);
+            position++;
+            drained++;
+        }
+        head = position;
+        return drained;
+    }
+
+    public int size() {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head));
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
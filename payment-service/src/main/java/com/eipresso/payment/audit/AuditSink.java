@@ -0,0 +1,210 @@
+package com.eipresso.payment.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Audit Sink
+ *
+ * Payment threads {@link #offer} compact records onto an {@link AuditRing};
+ * one writer thread drains it in batches of up to {@code maxBatchSize} and
+ * hands each batch to every {@link AuditBatchWriter}. The payment thread's
+ * cost is the record copy and one CAS. When the ring is full the
+ * {@link OverflowPolicy} decides between dropping at once and waiting a
+ * bounded time for room; either way a record that cannot be queued is
+ * counted as dropped, never retried on the payment thread.
+ *
+ * A failing writer loses the batch for that writer only and is counted; the
+ * others still receive it.
+ *
+ * Once {@link #close} has begun, offers are rejected and counted. Offers
+ * already past that check are tracked, and the writer thread keeps draining
+ * until they have finished, so a record accepted during close is still
+ * written rather than left in the ring.
+ */
+public class AuditSink implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditSink.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(20);
+
+    private final AuditRing ring;
+    private final List<AuditBatchWriter> writers;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final int maxBatchSize;
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    // Offers between their running check and their ring offer; the writer
+    // drains until these have finished after close
+    private final AtomicInteger activeOffers = new AtomicInteger();
+
+    private final LongAdder offered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rejectedAfterClose = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder offerNanos = new LongAdder();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong writeErrors = new AtomicLong();
+    // Records of batches no writer accepted, so awaitDrained still terminates
+    private final AtomicLong lostRecords = new AtomicLong();
+    private final AtomicLong writeNanos = new AtomicLong();
+    private final AtomicLong maxWriteNanos = new AtomicLong();
+    private final AtomicLong maxBatch = new AtomicLong();
+
+    public AuditSink(int capacity, int maxBatchSize, OverflowPolicy overflowPolicy, long blockTimeoutMillis,
+                     List<AuditBatchWriter> writers) {
+        this.ring = new AuditRing(capacity);
+        this.maxBatchSize = maxBatchSize;
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+        this.writers = new ArrayList<>(writers);
+        this.writerThread = new Thread(this::drainLoop, "payment-audit-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queue a record for the writers
+     *
+     * @return false when the record was dropped
+     */
+    public boolean offer(AuditRecord record) {
+        long start = System.nanoTime();
+        offered.increment();
+        activeOffers.incrementAndGet();
+        try {
+            if (!running) {
+                rejectedAfterClose.increment();
+                dropped.increment();
+                return false;
+            }
+            boolean queued = ring.offer(record);
+            if (!queued && running && overflowPolicy == OverflowPolicy.BLOCK) {
+                blocked.increment();
+                long deadline = start + blockTimeoutNanos;
+                while (!queued && running && System.nanoTime() - deadline < 0) {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    queued = ring.offer(record);
+                }
+            }
+            if (!queued) {
+                dropped.increment();
+            }
+            return queued;
+        } finally {
+            activeOffers.decrementAndGet();
+            offerNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Wait until every record queued so far has been handed to the writers
+     *
+     * @return false if the timeout passed first
+     */
+    public boolean awaitDrained(long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (offered.sum() - dropped.sum() > written.get() + lostRecords.get()) {
+            if (System.nanoTime() - deadline > 0) {
+                return false;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writerThread);
+        writerThread.join(TimeUnit.SECONDS.toMillis(10));
+        for (AuditBatchWriter writer : writers) {
+            try {
+                writer.close();
+            } catch (Exception e) {
+                logger.warn("⚠️ Could not close audit writer {}: {}", writer.getName(), e.getMessage());
+            }
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        long offeredCount = offered.sum();
+        long batchCount = batches.get();
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("offered", offeredCount);
+        stats.put("dropped", dropped.sum());
+        stats.put("rejectedAfterClose", rejectedAfterClose.sum());
+        stats.put("blockedOffers", blocked.sum());
+        stats.put("written", written.get());
+        stats.put("batches", batchCount);
+        stats.put("writeErrors", writeErrors.get());
+        stats.put("lostRecords", lostRecords.get());
+        stats.put("ringDepth", ring.size());
+        stats.put("ringCapacity", ring.capacity());
+        stats.put("overflowPolicy", overflowPolicy.name());
+        stats.put("maxBatchSize", maxBatchSize);
+        stats.put("largestBatch", maxBatch.get());
+        stats.put("averageBatchSize", batchCount == 0 ? 0.0 : (double) written.get() / batchCount);
+        stats.put("averageOfferNanos", offeredCount == 0 ? 0L : offerNanos.sum() / offeredCount);
+        stats.put("averageBatchWriteMicros", batchCount == 0 ? 0L
+            : TimeUnit.NANOSECONDS.toMicros(writeNanos.get() / batchCount));
+        stats.put("maxBatchWriteMicros", TimeUnit.NANOSECONDS.toMicros(maxWriteNanos.get()));
+        List<String> writerNames = new ArrayList<>();
+        writers.forEach(writer -> writerNames.add(writer.getName()));
+        stats.put("writers", writerNames);
+        return stats;
+    }
+
+    private void drainLoop() {
+        List<AuditRecord> batch = new ArrayList<>(maxBatchSize);
+        // activeOffers is read before the ring: an offer starting after that read sees
+        // running false and queues nothing, and one that finished has already published
+        while (running || activeOffers.get() > 0 || !ring.isEmpty()) {
+            if (ring.drainTo(batch, maxBatchSize) == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    private void writeBatch(List<AuditRecord> batch) {
+        long start = System.nanoTime();
+        boolean anyWritten = writers.isEmpty();
+        for (AuditBatchWriter writer : writers) {
+            try {
+                writer.write(batch);
+                anyWritten = true;
+            } catch (Exception e) {
+                writeErrors.incrementAndGet();
+                logger.error("❌ Audit writer {} lost a batch of {} records: {}",
+                    writer.getName(), batch.size(), e.getMessage());
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        writeNanos.addAndGet(elapsed);
+        maxWriteNanos.accumulateAndGet(elapsed, Math::max);
+        maxBatch.accumulateAndGet(batch.size(), Math::max);
+        batches.incrementAndGet();
+        if (anyWritten) {
+            written.addAndGet(batch.size());
+        } else {
+            lostRecords.addAndGet(batch.size());
+        }
+    }
+}
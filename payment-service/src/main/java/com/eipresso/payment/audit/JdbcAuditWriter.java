@@ -0,0 +1,50 @@
+package com.eipresso.payment.audit;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes audit record batches to the {@code payment_audit} table with one JDBC batch per drain
+ */
+public class JdbcAuditWriter implements AuditBatchWriter {
+
+    private static final String CREATE_TABLE = "CREATE TABLE IF NOT EXISTS payment_audit ("
+        + "audit_id VARCHAR(64) PRIMARY KEY, payment_id VARCHAR(128), audited_at TIMESTAMP, amount_cents BIGINT, "
+        + "currency VARCHAR(8), gateway VARCHAR(32), payment_method VARCHAR(32), status VARCHAR(32), "
+        + "user_id VARCHAR(64), order_id VARCHAR(64), ip_address VARCHAR(64), user_agent VARCHAR(512), "
+        + "session_id VARCHAR(128), correlation_id VARCHAR(128), customer_country VARCHAR(8), flags INT)";
+
+    private static final String INSERT = "INSERT INTO payment_audit (audit_id, payment_id, audited_at, amount_cents, "
+        + "currency, gateway, payment_method, status, user_id, order_id, ip_address, user_agent, session_id, "
+        + "correlation_id, customer_country, flags) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcAuditWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        jdbcTemplate.execute(CREATE_TABLE);
+    }
+
+    @Override
+    public void write(List<AuditRecord> batch) {
+        List<Object[]> rows = new ArrayList<>(batch.size());
+        for (AuditRecord record : batch) {
+            rows.add(new Object[] {
+                record.getAuditId(), record.getPaymentId(), new Timestamp(record.getTimestampMillis()),
+                record.getAmountCents(), record.getCurrency(), record.getGateway(), record.getMethod(),
+                record.getStatus(), record.getUserId(), record.getOrderId(), record.getIpAddress(),
+                record.getUserAgent(), record.getSessionId(), record.getCorrelationId(),
+                record.getCustomerCountry(), record.getFlags()
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT, rows);
+    }
+
+    @Override
+    public String getName() {
+        return "jdbc";
+    }
+}
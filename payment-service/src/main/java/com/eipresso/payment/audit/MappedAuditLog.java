@@ -0,0 +1,202 @@
+package com.eipresso.payment.audit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Append-only audit log in memory-mapped segment files
+ *
+ * Records are appended as {@code int length} followed by the encoded
+ * {@link AuditRecord}. Segments are created at their full size, so the
+ * unwritten tail reads as zero; a zero length marks the end of a segment,
+ * which is how an existing segment is resumed after a restart. A record's
+ * length is written after its body, so a record cut short by a crash reads
+ * as the end of the segment. When a
+ * record no longer fits, the log moves on to a new segment.
+ *
+ * Written pages reach the file through the OS page cache; with
+ * {@code forceEachBatch} every batch is also forced to disk before the next.
+ *
+ * A log holds an exclusive lock on its directory until closed, so a second
+ * writer, in this or another process, fails to open rather than appending
+ * to the same segment.
+ */
+public class MappedAuditLog implements AuditBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedAuditLog.class);
+
+    private static final String SEGMENT_PREFIX = "audit-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String LOCK_FILE = "audit.lock";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final boolean forceEachBatch;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    private long segmentNumber;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private long bytesWritten;
+
+    public MappedAuditLog(Path directory, int segmentBytes, boolean forceEachBatch) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.segmentBytes = segmentBytes;
+        this.forceEachBatch = forceEachBatch;
+        this.lockChannel = FileChannel.open(this.directory.resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        this.lock = lock(lockChannel, this.directory);
+
+        try {
+            List<Path> segments = segments(directory);
+            if (segments.isEmpty()) {
+                open(1);
+            } else {
+                open(segmentNumberOf(segments.get(segments.size() - 1)));
+                buffer.position(endOf(buffer));
+                logger.info("📜 Resuming audit log segment {} at byte {}", segmentNumber, buffer.position());
+            }
+        } catch (IOException | RuntimeException e) {
+            lockChannel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void write(List<AuditRecord> batch) throws IOException {
+        for (AuditRecord record : batch) {
+            int required = Integer.BYTES + record.maxEncodedSize();
+            if (buffer.remaining() < required) {
+                if (required > segmentBytes) {
+                    throw new IOException("Audit record of up to " + required + " bytes exceeds the segment size");
+                }
+                roll();
+            }
+            int lengthPosition = buffer.position();
+            buffer.position(lengthPosition + Integer.BYTES);
+            int length = record.writeTo(buffer);
+            buffer.putInt(lengthPosition, length);
+            bytesWritten += Integer.BYTES + length;
+        }
+        if (forceEachBatch) {
+            buffer.force();
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "mapped-log";
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public long getSegmentNumber() {
+        return segmentNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            buffer.force();
+            channel.close();
+        } finally {
+            lock.release();
+            lockChannel.close();
+        }
+    }
+
+    /**
+     * Read every record in the directory's segments, oldest first
+     */
+    public static List<AuditRecord> readAll(Path directory) throws IOException {
+        List<AuditRecord> records = new ArrayList<>();
+        for (Path segment : segments(directory)) {
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                while (buffer.remaining() >= Integer.BYTES) {
+                    int length = buffer.getInt();
+                    if (length <= 0) {
+                        break;
+                    }
+                    ByteBuffer record = buffer.slice(buffer.position(), length);
+                    records.add(AuditRecord.readFrom(record));
+                    buffer.position(buffer.position() + length);
+                }
+            }
+        }
+        return records;
+    }
+
+    private static FileLock lock(FileChannel lockChannel, Path directory) throws IOException {
+        FileLock lock;
+        try {
+            lock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null; // Held by another log in this JVM
+        }
+        if (lock == null) {
+            lockChannel.close();
+            throw new IOException("Audit log directory " + directory + " is in use by another writer");
+        }
+        return lock;
+    }
+
+    private void roll() throws IOException {
+        buffer.force();
+        channel.close();
+        open(segmentNumber + 1);
+    }
+
+    private void open(long number) throws IOException {
+        segmentNumber = number;
+        Path segment = directory.resolve(String.format("%s%09d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    }
+
+    private static int endOf(ByteBuffer segment) {
+        int position = 0;
+        while (position + Integer.BYTES <= segment.limit()) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + Integer.BYTES + length > segment.limit()) {
+                break;
+            }
+            position += Integer.BYTES + length;
+        }
+        return position;
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                .filter(file -> file.getFileName().toString().startsWith(SEGMENT_PREFIX)
+                    && file.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static long segmentNumberOf(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
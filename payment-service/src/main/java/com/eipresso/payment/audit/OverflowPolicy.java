@@ -0,0 +1,16 @@
+package com.eipresso.payment.audit;
+
+/**
+ * What a payment thread does when the audit ring is full
+ */
+public enum OverflowPolicy {
+    /**
+     * Drop the record at once and count it; payment latency is never affected
+     */
+    DROP,
+
+    /**
+     * Wait up to the configured block timeout for the writer to make room, then drop
+     */
+    BLOCK
+}
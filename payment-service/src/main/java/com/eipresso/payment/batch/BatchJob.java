@@ -0,0 +1,163 @@
+package com.eipresso.payment.batch;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Progress of one streamed payment batch
+ *
+ * Only counters are kept here; the per-payment results go to the batch's
+ * results file, so a batch's footprint does not grow with its size.
+ */
+public class BatchJob {
+
+    private final String batchId;
+    private final Path resultsFile;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private volatile BatchState state = BatchState.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile long startNanos;
+    private volatile long finishNanos;
+    private volatile String failureReason;
+    private volatile boolean cancelRequested;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder malformed = new LongAdder();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    public BatchJob(String batchId, Path resultsFile) {
+        this.batchId = batchId;
+        this.resultsFile = resultsFile;
+    }
+
+    void started() {
+        startNanos = System.nanoTime();
+        startedAt = LocalDateTime.now();
+        state = BatchState.RUNNING;
+    }
+
+    void finished(BatchState finalState, String reason) {
+        finishNanos = System.nanoTime();
+        finishedAt = LocalDateTime.now();
+        failureReason = reason;
+        state = finalState;
+    }
+
+    /**
+     * Mark a batch that could not be read to the end as FAILED
+     */
+    public void fail(String reason) {
+        finished(BatchState.FAILED, reason);
+    }
+
+    /**
+     * @return the 1-based index of the newly submitted payment
+     */
+    long submit() {
+        inFlight.incrementAndGet();
+        return submitted.incrementAndGet();
+    }
+
+    void completed(boolean success) {
+        if (success) {
+            succeeded.increment();
+        } else {
+            failed.increment();
+        }
+        if (inFlight.decrementAndGet() == 0) {
+            synchronized (inFlight) {
+                inFlight.notifyAll();
+            }
+        }
+    }
+
+    void malformedLine() {
+        malformed.increment();
+    }
+
+    /**
+     * Wait until every submitted payment has completed
+     */
+    void awaitInFlight() throws InterruptedException {
+        synchronized (inFlight) {
+            while (inFlight.get() > 0) {
+                inFlight.wait(100);
+            }
+        }
+    }
+
+    public void cancel() {
+        cancelRequested = true;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public Path getResultsFile() {
+        return resultsFile;
+    }
+
+    public BatchState getState() {
+        return state;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getSucceeded() {
+        return succeeded.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getMalformed() {
+        return malformed.sum();
+    }
+
+    public Map<String, Object> getProgress() {
+        long completed = getSucceeded() + getFailed();
+        long elapsedNanos = startNanos == 0 ? 0
+            : (state.isFinished() ? finishNanos : System.nanoTime()) - startNanos;
+
+        Map<String, Object> progress = new HashMap<>();
+        progress.put("batchId", batchId);
+        progress.put("batchStatus", state.name());
+        progress.put("submittedPayments", getSubmitted());
+        progress.put("completedPayments", completed);
+        progress.put("successfulPayments", getSucceeded());
+        progress.put("failedPayments", getFailed());
+        progress.put("malformedLines", getMalformed());
+        progress.put("inFlightPayments", inFlight.get());
+        progress.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        progress.put("paymentsPerSecond", elapsedNanos == 0 ? 0.0
+            : completed * (double) TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+        progress.put("createdAt", createdAt);
+        progress.put("startedAt", startedAt);
+        progress.put("finishedAt", finishedAt);
+        if (failureReason != null) {
+            progress.put("failureReason", failureReason);
+        }
+        return progress;
+    }
+}
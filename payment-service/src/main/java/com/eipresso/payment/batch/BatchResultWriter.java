@@ -0,0 +1,44 @@
+package com.eipresso.payment.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Appends one NDJSON line per payment result to the batch's results file
+ */
+public class BatchResultWriter implements Closeable {
+
+    private final ObjectMapper objectMapper;
+    private final BufferedWriter writer;
+
+    public BatchResultWriter(ObjectMapper objectMapper, Path file) throws IOException {
+        this.objectMapper = objectMapper;
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    public void write(Object result) {
+        try {
+            String line = objectMapper.writeValueAsString(result);
+            synchronized (writer) {
+                writer.write(line);
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write batch result", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (writer) {
+            writer.close();
+        }
+    }
+}
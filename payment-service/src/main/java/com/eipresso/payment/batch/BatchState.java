@@ -0,0 +1,16 @@
+package com.eipresso.payment.batch;
+
+/**
+ * Lifecycle of a streamed payment batch
+ */
+public enum BatchState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    CANCELLED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == CANCELLED || this == FAILED;
+    }
+}
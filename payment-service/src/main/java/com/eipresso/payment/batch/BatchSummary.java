@@ -0,0 +1,122 @@
+package com.eipresso.payment.batch;
+
+import com.eipresso.payment.model.Money;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running summary of a batch's payment results
+ *
+ * Each result is folded into counters and amount sums as it arrives, so a
+ * summary takes the same few fields whether the batch has ten payments or a
+ * million. Amounts are summed in cents as longs; a payment's amount is
+ * rounded to cents once, on the way in, and the sums are exact from there.
+ */
+public class BatchSummary {
+
+    public static final String RESULT_SUCCESS = "SUCCESS";
+    public static final String RESULT_RETRY_SCHEDULED = "RETRY_SCHEDULED";
+
+    private final String batchId;
+    private final int expectedPayments;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+
+    private long successfulPayments;
+    private long failedPayments;
+    private long retryingPayments;
+    private long totalCents;
+    private long successfulCents;
+    private long retryingCents;
+    private LocalDateTime completedAt;
+    private String completedBy;
+
+    public BatchSummary(String batchId, int expectedPayments) {
+        this.batchId = batchId;
+        this.expectedPayments = expectedPayments;
+    }
+
+    /**
+     * Fold one payment's result into the summary
+     *
+     * @param result the payment's {@code result}: SUCCESS, RETRY_SCHEDULED for a
+     *               payment whose outcome is still open, or anything else for a failure
+     * @param amount the payment's amount as a Number or numeric String, null when missing
+     */
+    public synchronized void add(String result, Object amount) {
+        long cents = Money.toCents(amount);
+        totalCents = Math.addExact(totalCents, cents);
+        if (RESULT_SUCCESS.equals(result)) {
+            successfulPayments++;
+            successfulCents = Math.addExact(successfulCents, cents);
+        } else if (RESULT_RETRY_SCHEDULED.equals(result)) {
+            retryingPayments++;
+            retryingCents = Math.addExact(retryingCents, cents);
+        } else {
+            failedPayments++;
+        }
+    }
+
+    /**
+     * @param completedBy what completed the batch, e.g. size or timeout
+     */
+    public synchronized void complete(String completedBy) {
+        this.completedAt = LocalDateTime.now();
+        this.completedBy = completedBy;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public synchronized long getProcessedPayments() {
+        return successfulPayments + failedPayments + retryingPayments;
+    }
+
+    public synchronized boolean isComplete() {
+        return completedAt != null;
+    }
+
+    /**
+     * COMPLETED_SUCCESS, COMPLETED_FAILURE or COMPLETED_PARTIAL once complete,
+     * or COMPLETED_RETRYING while some payments wait on a retry; IN_PROGRESS before
+     */
+    public synchronized String getBatchStatus() {
+        if (completedAt == null) {
+            return "IN_PROGRESS";
+        }
+        if (retryingPayments > 0) {
+            return "COMPLETED_RETRYING";
+        }
+        long processed = successfulPayments + failedPayments;
+        if (successfulPayments == processed && processed == expectedPayments) {
+            return "COMPLETED_SUCCESS";
+        }
+        return successfulPayments == 0 ? "COMPLETED_FAILURE" : "COMPLETED_PARTIAL";
+    }
+
+    public synchronized Map<String, Object> toMap() {
+        long processed = successfulPayments + failedPayments + retryingPayments;
+
+        Map<String, Object> summary = new HashMap<>();
+        summary.put("batchId", batchId);
+        summary.put("totalPayments", expectedPayments);
+        summary.put("processedPayments", processed);
+        summary.put("successfulPayments", successfulPayments);
+        summary.put("failedPayments", failedPayments);
+        summary.put("retryingPayments", retryingPayments);
+        summary.put("successRate", processed == 0 ? 0.0 : (double) successfulPayments / processed * 100);
+        summary.put("totalAmount", Money.fromCents(totalCents));
+        summary.put("successfulAmount", Money.fromCents(successfulCents));
+        summary.put("retryingAmount", Money.fromCents(retryingCents));
+        summary.put("failedAmount", Money.fromCents(totalCents - successfulCents - retryingCents));
+        summary.put("batchStatus", getBatchStatus());
+        summary.put("batchStartTime", startedAt);
+        if (completedAt != null) {
+            summary.put("batchEndTime", completedAt);
+            summary.put("completedBy", completedBy);
+        }
+        return summary;
+    }
+}
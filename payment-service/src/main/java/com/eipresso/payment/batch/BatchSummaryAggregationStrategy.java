@@ -0,0 +1,86 @@
+package com.eipresso.payment.batch;
+
+import org.apache.camel.AggregationStrategy;
+import org.apache.camel.Exchange;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counting aggregation strategy for batch payment results
+ *
+ * Replaces grouping every child exchange of a batch until it completes: the
+ * first result of a batch becomes the aggregate with a {@link BatchSummary}
+ * as its body, and later results are folded into that summary and dropped.
+ * Summaries of running batches can be read at any time through
+ * {@link #getSummary(String)}; the last {@code retainedBatches} completed ones
+ * stay readable after completion.
+ */
+public class BatchSummaryAggregationStrategy implements AggregationStrategy {
+
+    private final Map<String, BatchSummary> running = new ConcurrentHashMap<>();
+    private final Map<String, BatchSummary> completed;
+
+    public BatchSummaryAggregationStrategy(int retainedBatches) {
+        this.completed = new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BatchSummary> eldest) {
+                return size() > retainedBatches;
+            }
+        };
+    }
+
+    @Override
+    public Exchange aggregate(Exchange oldExchange, Exchange newExchange) {
+        Map<?, ?> payment = newExchange.getIn().getBody(Map.class);
+        BatchSummary summary;
+        Exchange aggregate;
+        if (oldExchange == null) {
+            String batchId = newExchange.getIn().getHeader("batchId", String.class);
+            Integer totalPayments = newExchange.getIn().getHeader("totalPayments", Integer.class);
+            summary = new BatchSummary(batchId, totalPayments != null ? totalPayments : 0);
+            running.put(batchId, summary);
+            newExchange.getIn().setBody(summary);
+            aggregate = newExchange;
+        } else {
+            summary = oldExchange.getIn().getBody(BatchSummary.class);
+            aggregate = oldExchange;
+        }
+        if (payment != null) {
+            Object result = payment.get("result");
+            summary.add(result != null ? result.toString() : null, payment.get("amount"));
+        } else {
+            summary.add(null, null);
+        }
+        return aggregate;
+    }
+
+    /**
+     * Mark a batch complete and move its summary to the retained completed batches
+     */
+    public void complete(BatchSummary summary, String completedBy) {
+        summary.complete(completedBy);
+        synchronized (completed) {
+            completed.put(summary.getBatchId(), summary);
+        }
+        running.remove(summary.getBatchId());
+    }
+
+    /**
+     * @return the running or recently completed batch's summary, or null if unknown
+     */
+    public BatchSummary getSummary(String batchId) {
+        BatchSummary summary = running.get(batchId);
+        if (summary != null) {
+            return summary;
+        }
+        synchronized (completed) {
+            return completed.get(batchId);
+        }
+    }
+
+    public int getRunningBatches() {
+        return running.size();
+    }
+}
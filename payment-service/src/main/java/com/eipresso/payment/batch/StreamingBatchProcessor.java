@@ -0,0 +1,237 @@
+package com.eipresso.payment.batch;
+
+import com.eipresso.payment.model.PaymentGateway;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streaming Batch Processor
+ *
+ * Reads a batch as NDJSON, one payment per line, and hands each payment to
+ * the worker pool as soon as it is parsed. Every gateway has its own permit
+ * pool of {@code maxConcurrencyPerGateway}; the reader takes a permit before
+ * it submits a payment and the worker returns it when the payment is done.
+ * A slow gateway therefore stalls the reader instead of piling payments up,
+ * and at most one parsed line per permit is ever held in memory, whatever the
+ * batch size. Results are appended to the batch's results file as they
+ * complete, so their order follows completion, not the input.
+ *
+ * A permit is held until the handler returns, so the handler must not
+ * return before the payment's gateway work is done. Only the gateways of
+ * {@link PaymentGateway} have permits; a payment naming any other gateway
+ * is rejected without being processed.
+ */
+public class StreamingBatchProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingBatchProcessor.class);
+
+    public static final String DEFAULT_GATEWAY = "STRIPE";
+    public static final String DEFAULT_CURRENCY = "USD";
+
+    private static final TypeReference<Map<String, Object>> PAYMENT_TYPE = new TypeReference<>() {};
+
+    /**
+     * Processes one payment and returns its outcome
+     */
+    @FunctionalInterface
+    public interface PaymentHandler {
+        PaymentOutcome process(Map<String, Object> payment) throws Exception;
+    }
+
+    /**
+     * Outcome of one payment as reported by a {@link PaymentHandler}
+     */
+    public static class PaymentOutcome {
+        private final boolean success;
+        private final String status;
+        private final String message;
+
+        public PaymentOutcome(boolean success, String status, String message) {
+            this.success = success;
+            this.status = status;
+            this.message = message;
+        }
+
+        public boolean isSuccess() {
+            return success;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final PaymentHandler handler;
+    private final Executor workers;
+    private final int maxConcurrencyPerGateway;
+    // Filled once here and only read afterwards, so safe to share between threads
+    private final Map<PaymentGateway, Semaphore> gatewayPermits = new EnumMap<>(PaymentGateway.class);
+
+    public StreamingBatchProcessor(ObjectMapper objectMapper, PaymentHandler handler, Executor workers,
+                                   int maxConcurrencyPerGateway) {
+        this.objectMapper = objectMapper;
+        this.handler = handler;
+        this.workers = workers;
+        this.maxConcurrencyPerGateway = maxConcurrencyPerGateway;
+        for (PaymentGateway gateway : PaymentGateway.values()) {
+            gatewayPermits.put(gateway, new Semaphore(maxConcurrencyPerGateway));
+        }
+    }
+
+    /**
+     * Process the whole batch on the calling thread and wait for its last payment
+     *
+     * Permits are shared by every batch run through this processor, so
+     * concurrent batches together stay within each gateway's limit.
+     */
+    public void process(BatchJob job, Reader input, BatchResultWriter results) throws IOException, InterruptedException {
+        job.started();
+        long lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(input)) {
+            String line;
+            while ((line = reader.readLine()) != null && !job.isCancelRequested()) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+
+                Map<String, Object> payment;
+                try {
+                    payment = objectMapper.readValue(line, PAYMENT_TYPE);
+                } catch (JsonProcessingException e) {
+                    job.malformedLine();
+                    results.write(malformedResult(lineNumber, e));
+                    continue;
+                }
+
+                long index = job.submit();
+                prepare(payment, job.getBatchId(), index);
+                Semaphore permits = permitsFor((String) payment.get("paymentGateway"));
+                if (permits == null) {
+                    results.write(rejectedResult(payment, index));
+                    job.completed(false);
+                    continue;
+                }
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    job.completed(false);
+                    throw e;
+                }
+                try {
+                    workers.execute(() -> processPayment(job, payment, index, permits, results));
+                } catch (RuntimeException e) {
+                    permits.release();
+                    job.completed(false);
+                    throw e;
+                }
+            }
+        } finally {
+            job.awaitInFlight();
+        }
+        job.finished(job.isCancelRequested() ? BatchState.CANCELLED : BatchState.COMPLETED, null);
+        logger.info("📦 Batch {} {}: {} payments ({} succeeded, {} failed, {} malformed lines)",
+            job.getBatchId(), job.getState(), job.getSubmitted(), job.getSucceeded(), job.getFailed(),
+            job.getMalformed());
+    }
+
+    public int getMaxConcurrencyPerGateway() {
+        return maxConcurrencyPerGateway;
+    }
+
+    /**
+     * @return permits currently taken per gateway, across all running batches
+     */
+    public Map<String, Integer> getInFlightByGateway() {
+        Map<String, Integer> inFlight = new HashMap<>();
+        gatewayPermits.forEach((gateway, permits) ->
+            inFlight.put(gateway.name(), maxConcurrencyPerGateway - permits.availablePermits()));
+        return inFlight;
+    }
+
+    private void processPayment(BatchJob job, Map<String, Object> payment, long index, Semaphore permits,
+                                BatchResultWriter results) {
+        boolean success = false;
+        try {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("paymentIndex", index);
+            result.put("paymentId", payment.get("paymentId"));
+            result.put("paymentGateway", payment.get("paymentGateway"));
+            try {
+                PaymentOutcome outcome = handler.process(payment);
+                success = outcome.isSuccess();
+                result.put("status", outcome.getStatus());
+                if (outcome.getMessage() != null) {
+                    result.put("message", outcome.getMessage());
+                }
+            } catch (Exception e) {
+                result.put("status", "FAILED");
+                result.put("message", e.getMessage());
+            }
+            results.write(result);
+        } catch (RuntimeException e) {
+            success = false;
+            logger.error("❌ Could not record result of payment {} in batch {}: {}",
+                index, job.getBatchId(), e.getMessage());
+        } finally {
+            permits.release();
+            job.completed(success);
+        }
+    }
+
+    /**
+     * @return the gateway's permits, or null when it is not a known gateway
+     */
+    private Semaphore permitsFor(String gateway) {
+        try {
+            return gatewayPermits.get(PaymentGateway.valueOf(gateway));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void prepare(Map<String, Object> payment, String batchId, long index) {
+        payment.putIfAbsent("paymentId", batchId + "-" + index);
+        payment.putIfAbsent("currency", DEFAULT_CURRENCY);
+        Object gateway = payment.get("paymentGateway");
+        payment.put("paymentGateway", gateway != null ? gateway.toString().toUpperCase() : DEFAULT_GATEWAY);
+        payment.put("batchId", batchId);
+        payment.put("paymentIndex", index);
+    }
+
+    private static Map<String, Object> rejectedResult(Map<String, Object> payment, long index) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("paymentIndex", index);
+        result.put("paymentId", payment.get("paymentId"));
+        result.put("paymentGateway", payment.get("paymentGateway"));
+        result.put("status", "REJECTED");
+        result.put("message", "Unknown payment gateway");
+        return result;
+    }
+
+    private static Map<String, Object> malformedResult(long lineNumber, JsonProcessingException e) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("lineNumber", lineNumber);
+        result.put("status", "MALFORMED");
+        result.put("message", e.getOriginalMessage());
+        return result;
+    }
+}
@@ -0,0 +1,25 @@
+package com.eipresso.payment.config;
+
+import com.eipresso.payment.batch.BatchSummaryAggregationStrategy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Batch Aggregation Configuration
+ *
+ * Shares one counting aggregation strategy between the Split pattern routes,
+ * which fold results into it, and the controller, which reads running and
+ * recently completed batch summaries from it.
+ */
+@Configuration
+public class BatchAggregationConfiguration {
+
+    @Value("${payment.batch.retained-summaries:1000}")
+    private int retainedSummaries;
+
+    @Bean
+    public BatchSummaryAggregationStrategy batchSummaryAggregationStrategy() {
+        return new BatchSummaryAggregationStrategy(retainedSummaries);
+    }
+}
@@ -0,0 +1,80 @@
+package com.eipresso.payment.config;
+
+import com.eipresso.payment.gateway.GatewayCircuitBreakers;
+import com.eipresso.payment.gateway.PaymentDeclinedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gateway Circuit Breaker Configuration
+ *
+ * Registers the per-gateway breakers in the application's Resilience4j
+ * registry, so their state, failure rate and call counts are exported with
+ * the other resilience4j metrics. Each state transition is also timed as
+ * {@code payment.gateway.circuit.transition}, tagged with the gateway and
+ * both states and measuring how long the previous state lasted.
+ */
+@Configuration
+public class GatewayCircuitBreakerConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayCircuitBreakerConfiguration.class);
+
+    @Value("${payment.gateway.breaker.sliding-window-size:50}")
+    private int slidingWindowSize;
+
+    @Value("${payment.gateway.breaker.minimum-calls:20}")
+    private int minimumCalls;
+
+    @Value("${payment.gateway.breaker.failure-rate-threshold:50}")
+    private float failureRateThreshold;
+
+    @Value("${payment.gateway.breaker.slow-call-rate-threshold:80}")
+    private float slowCallRateThreshold;
+
+    @Value("${payment.gateway.breaker.slow-call-duration-ms:2000}")
+    private long slowCallDurationMs;
+
+    @Value("${payment.gateway.breaker.open-wait-ms:10000}")
+    private long openWaitMs;
+
+    @Value("${payment.gateway.breaker.half-open-calls:5}")
+    private int halfOpenCalls;
+
+    @Bean
+    public GatewayCircuitBreakers gatewayCircuitBreakers(CircuitBreakerRegistry circuitBreakerRegistry,
+                                                         MeterRegistry meterRegistry) {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+            .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+            .slidingWindowSize(slidingWindowSize)
+            .minimumNumberOfCalls(minimumCalls)
+            .failureRateThreshold(failureRateThreshold)
+            .slowCallRateThreshold(slowCallRateThreshold)
+            .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationMs))
+            .waitDurationInOpenState(Duration.ofMillis(openWaitMs))
+            .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+            // A decline is a healthy gateway's answer, neither a failure nor a success
+            .ignoreExceptions(PaymentDeclinedException.class)
+            .build();
+        logger.info("🔌 Gateway circuit breakers: window {} calls, open at {}% failures or {}% calls over {}ms, {}ms open",
+            slidingWindowSize, failureRateThreshold, slowCallRateThreshold, slowCallDurationMs, openWaitMs);
+
+        return new GatewayCircuitBreakers(circuitBreakerRegistry, config, (gateway, from, to, dwellNanos) ->
+            Timer.builder("payment.gateway.circuit.transition")
+                .description("Time spent in the previous circuit state, recorded at each transition")
+                .tag("gateway", gateway.getCode())
+                .tag("from", from.name())
+                .tag("to", to.name())
+                .register(meterRegistry)
+                .record(dwellNanos, TimeUnit.NANOSECONDS));
+    }
+}
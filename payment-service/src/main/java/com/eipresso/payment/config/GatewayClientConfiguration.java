@@ -0,0 +1,104 @@
+package com.eipresso.payment.config;
+
+import com.eipresso.payment.gateway.GatewayCallProcessor;
+import com.eipresso.payment.gateway.GatewayClient;
+import com.eipresso.payment.model.PaymentGateway;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gateway Client Configuration
+ *
+ * Builds the HTTP client used by the gateway call routes. Each gateway is
+ * reached at its {@link PaymentGateway#getApiUrl()} with its own timeout,
+ * unless {@code payment.gateway.client.<code>.base-url} or
+ * {@code .timeout-seconds} override them, e.g. to point at a stub gateway.
+ * With {@code payment.gateway.client.enabled} off, the routes keep using
+ * their mock endpoints.
+ */
+@Configuration
+public class GatewayClientConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayClientConfiguration.class);
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${payment.gateway.client.enabled:false}")
+    private boolean enabled;
+
+    @Value("${payment.gateway.client.threads:8}")
+    private int threads;
+
+    @Value("${payment.gateway.client.max-batch-size:50}")
+    private int maxBatchSize;
+
+    @Value("${payment.gateway.client.batch-linger-ms:5}")
+    private long batchLingerMs;
+
+    private ExecutorService executor;
+    private ScheduledExecutorService batchScheduler;
+
+    @Bean(destroyMethod = "close")
+    public GatewayClient gatewayClient(ObjectMapper objectMapper) {
+        Map<PaymentGateway, String> baseUrls = new EnumMap<>(PaymentGateway.class);
+        Map<PaymentGateway, Duration> timeouts = new EnumMap<>(PaymentGateway.class);
+        for (PaymentGateway gateway : PaymentGateway.values()) {
+            String prefix = "payment.gateway.client." + gateway.getCode() + ".";
+            String baseUrl = environment.getProperty(prefix + "base-url");
+            if (baseUrl != null) {
+                baseUrls.put(gateway, baseUrl);
+            }
+            Integer timeoutSeconds = environment.getProperty(prefix + "timeout-seconds", Integer.class);
+            if (timeoutSeconds != null) {
+                timeouts.put(gateway, Duration.ofSeconds(timeoutSeconds));
+            }
+        }
+
+        executor = Executors.newFixedThreadPool(threads, named("payment-gateway-client"));
+        batchScheduler = Executors.newSingleThreadScheduledExecutor(named("payment-gateway-batcher"));
+        logger.info("🏦 Gateway client {}: {} threads, batches of up to {} after {}ms, overrides {}",
+            enabled ? "enabled" : "disabled (mock endpoints)", threads, maxBatchSize, batchLingerMs, baseUrls.keySet());
+        return new GatewayClient(objectMapper, baseUrls, timeouts, executor, batchScheduler, maxBatchSize, batchLingerMs);
+    }
+
+    @Bean
+    public GatewayCallProcessor gatewayCallProcessor(GatewayClient gatewayClient) {
+        return new GatewayCallProcessor(gatewayClient, enabled);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (batchScheduler != null) {
+            batchScheduler.shutdown();
+        }
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -1,12 +1,33 @@
 package com.eipresso.payment.controller;
 
+import com.eipresso.payment.batch.BatchJob;
+import com.eipresso.payment.batch.BatchSummary;
+import com.eipresso.payment.batch.BatchSummaryAggregationStrategy;
+import com.eipresso.payment.gateway.GatewayCircuitBreakers;
+import com.eipresso.payment.gateway.GatewayClient;
+import com.eipresso.payment.idempotency.DuplicateRequestInProgressException;
+import com.eipresso.payment.idempotency.IdempotencyCache;
+import com.eipresso.payment.idempotency.IdempotencyKeyReusedException;
 import com.eipresso.payment.model.*;
+import com.eipresso.payment.routes.RetryRoute;
+import com.eipresso.payment.service.BatchPaymentService;
+import com.eipresso.payment.service.FraudScoringService;
+import com.eipresso.payment.service.PaymentAuditService;
+import com.eipresso.payment.service.PaymentIdempotencyService;
+import com.eipresso.payment.service.PaymentRetryService;
 import org.apache.camel.CamelContext;
 import org.apache.camel.ProducerTemplate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.math.BigDecimal;
@@ -28,12 +49,38 @@ import java.math.BigDecimal;
 @CrossOrigin(origins = "*")
 public class PaymentController {
 
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
     @Autowired
     private CamelContext camelContext;
 
     @Autowired
     private ProducerTemplate producerTemplate;
 
+    @Autowired
+    private PaymentRetryService paymentRetryService;
+
+    @Autowired
+    private GatewayCircuitBreakers gatewayCircuitBreakers;
+
+    @Autowired
+    private GatewayClient gatewayClient;
+
+    @Autowired
+    private BatchPaymentService batchPaymentService;
+
+    @Autowired
+    private BatchSummaryAggregationStrategy batchSummaryAggregationStrategy;
+
+    @Autowired
+    private PaymentAuditService paymentAuditService;
+
+    @Autowired
+    private FraudScoringService fraudScoringService;
+
+    @Autowired
+    private PaymentIdempotencyService paymentIdempotencyService;
+
     /**
      * Health check endpoint
      */
@@ -56,7 +103,50 @@ public class PaymentController {
      * Process single payment with Wire Tap pattern demonstration
      */
     @PostMapping("/process")
-    public ResponseEntity<Map<String, Object>> processPayment(@RequestBody Map<String, Object> paymentRequest) {
+    public ResponseEntity<Map<String, Object>> processPayment(
+            @RequestBody Map<String, Object> paymentRequest,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) throws InterruptedException {
+        
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return ResponseEntity.ok(initiatePayment(paymentRequest, null));
+        }
+
+        // Idempotency: a resubmit with the same key replays the first response; another request with it is refused
+        IdempotencyCache.Claim claim;
+        try {
+            claim = paymentIdempotencyService.begin(PaymentIdempotencyService.PROCESS_KEY_PREFIX + idempotencyKey,
+                paymentRequest);
+        } catch (DuplicateRequestInProgressException e) {
+            Map<String, Object> conflict = new HashMap<>();
+            conflict.put("message", e.getMessage());
+            conflict.put("idempotencyKey", idempotencyKey);
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(conflict);
+        } catch (IdempotencyKeyReusedException e) {
+            return keyReused(idempotencyKey, e);
+        }
+        if (claim.isReplay()) {
+            Map<String, Object> replayed = claim.getResult();
+            replayed.put("idempotentReplay", true);
+            return ResponseEntity.ok(replayed);
+        }
+        try {
+            Map<String, Object> response = initiatePayment(paymentRequest, idempotencyKey);
+            claim.complete(response);
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            claim.fail(e);
+            throw e;
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> keyReused(String idempotencyKey, IdempotencyKeyReusedException e) {
+        Map<String, Object> rejected = new HashMap<>();
+        rejected.put("message", e.getMessage());
+        rejected.put("idempotencyKey", idempotencyKey);
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(rejected);
+    }
+
+    private Map<String, Object> initiatePayment(Map<String, Object> paymentRequest, String idempotencyKey) {
         
         // Create payment headers for Wire Tap pattern
         Map<String, Object> headers = new HashMap<>();
@@ -69,11 +159,14 @@ public class PaymentController {
         headers.put("orderId", paymentRequest.get("orderId"));
         headers.put("customerEmail", paymentRequest.get("customerEmail"));
         headers.put("customerName", paymentRequest.get("customerName"));
+        headers.put("cardFingerprint", paymentRequest.get("cardFingerprint"));
+        headers.put("merchantId", paymentRequest.get("merchantId"));
         headers.put("customerIp", "192.168.1.100");
         headers.put("userAgent", "EIP-resso Mobile App 1.0");
         headers.put("correlationId", UUID.randomUUID().toString());
         headers.put("transactionType", "PURCHASE");
         headers.put("paymentStatus", "PENDING");
+        headers.put("idempotencyKey", idempotencyKey);
 
         // Wire Tap Pattern: Comprehensive audit trail
         Object result = producerTemplate.requestBodyAndHeaders(
@@ -89,15 +182,20 @@ public class PaymentController {
         response.put("timestamp", LocalDateTime.now());
         response.put("auditTrail", "Wire tap audit active - tracking transaction, fraud, compliance, security, and business metrics");
         response.put("patterns", "Wire Tap Pattern demonstrated");
+        if (idempotencyKey != null) {
+            response.put("idempotencyKey", idempotencyKey);
+        }
 
-        return ResponseEntity.ok(response);
+        return response;
     }
 
     /**
      * Process payment with retry pattern demonstration
      */
     @PostMapping("/process-with-retry")
-    public ResponseEntity<Map<String, Object>> processPaymentWithRetry(@RequestBody Map<String, Object> paymentRequest) {
+    public ResponseEntity<Map<String, Object>> processPaymentWithRetry(
+            @RequestBody Map<String, Object> paymentRequest,
+            @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
         
         Map<String, Object> headers = new HashMap<>();
         headers.put("paymentId", UUID.randomUUID().toString());
@@ -106,6 +204,7 @@ public class PaymentController {
         headers.put("paymentMethod", paymentRequest.get("paymentMethod"));
         headers.put("retryAttempt", 1);
         headers.put("maxRetries", 3);
+        headers.put("idempotencyKey", idempotencyKey);
 
         // Retry Pattern: Resilient payment gateway integration
         try {
@@ -115,16 +214,36 @@ public class PaymentController {
                 headers
             );
 
+            // The first attempt runs here; when it fails, later attempts run on the retry scheduler
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Payment processed with retry pattern");
             response.put("paymentId", headers.get("paymentId"));
-            response.put("status", "COMPLETED");
+            Object outcome = result instanceof Map<?, ?> record ? record.get("status") : null;
+            if (RetryRoute.RETRY_SCHEDULED_STATUS.equals(outcome)) {
+                Map<?, ?> scheduled = (Map<?, ?>) result;
+                response.put("status", "PROCESSING");
+                response.put("retryId", scheduled.get("retryId"));
+                response.put("nextRetryAt", scheduled.get("nextRetryAt"));
+            } else if (RetryRoute.RETRY_EXHAUSTED_STATUS.equals(outcome)) {
+                response.put("status", "FAILED");
+                response.put("retryExhausted", true);
+            } else if (RetryRoute.PAYMENT_DECLINED_STATUS.equals(outcome)) {
+                response.put("status", "FAILED");
+                response.put("declined", true);
+                response.put("reason", ((Map<?, ?>) result).get("lastFailureReason"));
+            } else {
+                response.put("status", "COMPLETED");
+            }
             response.put("timestamp", LocalDateTime.now());
             response.put("retryPattern", "Exponential backoff with circuit breaker integration");
             response.put("patterns", "Retry Pattern demonstrated");
 
             return ResponseEntity.ok(response);
         } catch (Exception e) {
+            IdempotencyKeyReusedException reused = IdempotencyKeyReusedException.find(e);
+            if (reused != null) {
+                return keyReused(idempotencyKey, reused);
+            }
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("message", "Payment failed after retry attempts");
             errorResponse.put("paymentId", headers.get("paymentId"));
@@ -179,6 +298,104 @@ public class PaymentController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Streamed batch payments, one JSON payment per line (NDJSON)
+     */
+    @PostMapping(value = "/batch/stream", consumes = "application/x-ndjson")
+    public ResponseEntity<Map<String, Object>> streamBatchPayments(InputStream body) throws IOException {
+        return batchAccepted(batchPaymentService.submit(body));
+    }
+
+    /**
+     * Streamed batch payments uploaded as an NDJSON file
+     */
+    @PostMapping(value = "/batch/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<Map<String, Object>> uploadBatchPayments(@RequestParam("file") MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            Map<String, Object> errorResponse = new HashMap<>();
+            errorResponse.put("error", "No payments provided in batch");
+            errorResponse.put("timestamp", LocalDateTime.now());
+            return ResponseEntity.badRequest().body(errorResponse);
+        }
+        try (InputStream body = file.getInputStream()) {
+            return batchAccepted(batchPaymentService.submit(body));
+        }
+    }
+
+    /**
+     * Streaming batch statistics
+     */
+    @GetMapping("/batch/stats")
+    public ResponseEntity<Map<String, Object>> getBatchStats() {
+        Map<String, Object> stats = new HashMap<>(batchPaymentService.getStatistics());
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Split Pattern - Streaming Batches");
+        
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Progress of a streamed batch, or the running summary of a split batch
+     */
+    @GetMapping("/batch/{batchId}")
+    public ResponseEntity<Map<String, Object>> getBatchProgress(@PathVariable String batchId) {
+        BatchJob job = batchPaymentService.getJob(batchId);
+        BatchSummary summary = job == null ? batchSummaryAggregationStrategy.getSummary(batchId) : null;
+        if (job == null && summary == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> progress = new HashMap<>(job != null ? job.getProgress() : summary.toMap());
+        progress.put("timestamp", LocalDateTime.now());
+        
+        return ResponseEntity.ok(progress);
+    }
+
+    /**
+     * Per-payment results of a finished streamed batch, as NDJSON
+     */
+    @GetMapping("/batch/{batchId}/results")
+    public ResponseEntity<Resource> getBatchResults(@PathVariable String batchId) {
+        BatchJob job = batchPaymentService.getJob(batchId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!job.getState().isFinished()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(new FileSystemResource(job.getResultsFile()));
+    }
+
+    /**
+     * Stop reading a streamed batch; payments already submitted still complete
+     */
+    @DeleteMapping("/batch/{batchId}")
+    public ResponseEntity<Map<String, Object>> cancelBatch(@PathVariable String batchId) {
+        if (!batchPaymentService.cancel(batchId)) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("batchId", batchId);
+        response.put("message", "Batch cancellation requested");
+        response.put("timestamp", LocalDateTime.now());
+        
+        return ResponseEntity.ok(response);
+    }
+
+    private ResponseEntity<Map<String, Object>> batchAccepted(BatchJob job) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Batch payment accepted for streaming");
+        response.put("batchId", job.getBatchId());
+        response.put("status", job.getState().name());
+        response.put("progressUrl", "/payments/batch/" + job.getBatchId());
+        response.put("resultsUrl", "/payments/batch/" + job.getBatchId() + "/results");
+        response.put("timestamp", LocalDateTime.now());
+        response.put("splitPattern", "Streaming split with per-gateway concurrency limits");
+        
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+
     /**
      * Fraud analysis with Filter pattern demonstration
      */
@@ -191,6 +408,9 @@ public class PaymentController {
         headers.put("customerCountry", fraudRequest.getOrDefault("customerCountry", "US"));
         headers.put("paymentMethod", fraudRequest.get("paymentMethod"));
         headers.put("customerIp", fraudRequest.getOrDefault("customerIp", "192.168.1.100"));
+        headers.put("userId", fraudRequest.get("userId"));
+        headers.put("cardFingerprint", fraudRequest.get("cardFingerprint"));
+        headers.put("merchantId", fraudRequest.get("merchantId"));
         headers.put("transactionTime", LocalDateTime.now().getHour());
 
         // Filter Pattern: Fraud detection and risk assessment
@@ -207,13 +427,15 @@ public class PaymentController {
         response.put("filterPattern", "Real-time fraud scoring with risk-based routing");
         response.put("patterns", "Filter Pattern for fraud detection demonstrated");
 
-        // Calculate fraud score for demonstration
-        Double amount = (Double) fraudRequest.get("amount");
-        boolean highValue = amount != null && amount > 500.0;
-        boolean offHours = LocalDateTime.now().getHour() < 6 || LocalDateTime.now().getHour() > 22;
-        int riskScore = (highValue ? 40 : 0) + (offHours ? 30 : 0);
+        // Stateful fraud score from the fraud monitoring route
+        Map<?, ?> assessment = result instanceof Map ? (Map<?, ?>) result : Map.of();
+        Object score = assessment.get("riskScore");
+        int riskScore = score instanceof Number ? ((Number) score).intValue() : 0;
         
         response.put("riskScore", riskScore);
+        if (assessment.containsKey("riskReasons")) {
+            response.put("riskReasons", assessment.get("riskReasons"));
+        }
         response.put("riskLevel", riskScore > 70 ? "HIGH" : riskScore > 40 ? "MEDIUM" : "LOW");
         response.put("recommendation", riskScore > 70 ? "BLOCK" : riskScore > 40 ? "REVIEW" : "APPROVE");
 
@@ -252,8 +474,9 @@ public class PaymentController {
         
         Map<String, Object> wireTap = new HashMap<>();
         wireTap.put("name", "Wire Tap Pattern");
-        wireTap.put("purpose", "Comprehensive audit trail for all financial transactions");
-        wireTap.put("routes", Arrays.asList("transaction-audit", "fraud-monitoring", "compliance-audit", "security-audit", "business-metrics"));
+        wireTap.put("purpose", "Audit trail for all financial transactions, with fraud and security alerts tapped off");
+        wireTap.put("routes", Arrays.asList("payment-wire-tap-entry", "fraud-monitoring-processor", "high-risk-fraud-alert",
+            "security-alert-processor", "wire-tap-dead-letter"));
         wireTap.put("endpoint", "POST /payments/process");
         
         Map<String, Object> retry = new HashMap<>();
@@ -322,6 +545,78 @@ public class PaymentController {
         return ResponseEntity.ok(metrics);
     }
 
+    /**
+     * Retry scheduler statistics
+     */
+    @GetMapping("/retries/stats")
+    public ResponseEntity<Map<String, Object>> getRetryStats() {
+        Map<String, Object> stats = new HashMap<>(paymentRetryService.getStatistics());
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Retry Pattern - Scheduled Backoff");
+        
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Per-gateway circuit breaker state
+     */
+    @GetMapping("/gateways/stats")
+    public ResponseEntity<Map<String, Object>> getGatewayStats() {
+        Map<String, Object> stats = new HashMap<>(gatewayCircuitBreakers.getStatistics());
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Circuit Breaker - Gateway Failover");
+        
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Gateway client statistics
+     */
+    @GetMapping("/gateways/client/stats")
+    public ResponseEntity<Map<String, Object>> getGatewayClientStats() {
+        Map<String, Object> stats = new HashMap<>(gatewayClient.getStatistics());
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Gateway Client - Pooled Async Calls");
+        
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Audit sink statistics
+     */
+    @GetMapping("/audit/stats")
+    public ResponseEntity<Map<String, Object>> getAuditStats() {
+        Map<String, Object> stats = new HashMap<>(paymentAuditService.getStatistics());
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Wire Tap Pattern - Batched Audit Sink");
+        
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Fraud scoring statistics
+     */
+    @GetMapping("/fraud/stats")
+    public ResponseEntity<Map<String, Object>> getFraudStats() {
+        Map<String, Object> stats = new HashMap<>(fraudScoringService.getStatistics());
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Wire Tap Pattern - Stateful Fraud Scoring");
+        
+        return ResponseEntity.ok(stats);
+    }
+
+    /**
+     * Idempotency key statistics
+     */
+    @GetMapping("/idempotency/stats")
+    public ResponseEntity<Map<String, Object>> getIdempotencyStats() {
+        Map<String, Object> stats = new HashMap<>(paymentIdempotencyService.getStatistics());
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Idempotent Receiver");
+        
+        return ResponseEntity.ok(stats);
+    }
+
     /**
      * Configuration refresh endpoint
      */
@@ -0,0 +1,63 @@
+package com.eipresso.payment.fraud;
+
+/**
+ * Approximate distinct count over the current and previous period in one long each
+ *
+ * Linear counting over a 64-bit bitmap: each value sets the bit its hash
+ * selects, and the count is estimated from the fraction of bits still
+ * clear. Accurate to a few percent up to about 40 distinct values, which is
+ * well past any threshold a fraud rule needs. Not thread-safe;
+ * {@link EntityFeatures} guards it.
+ */
+class DistinctEstimator {
+
+    private static final int BITS = Long.SIZE;
+
+    private final long periodMillis;
+    private long period;
+    private long current;
+    private long previous;
+
+    DistinctEstimator(long periodMillis) {
+        this.periodMillis = periodMillis;
+    }
+
+    void add(int hash, long nowMillis) {
+        roll(nowMillis);
+        current |= 1L << (mix(hash) & (BITS - 1));
+    }
+
+    /**
+     * @return the estimated distinct values seen in this and the previous period
+     */
+    int estimate(long nowMillis) {
+        roll(nowMillis);
+        int clear = BITS - Long.bitCount(current | previous);
+        if (clear == 0) {
+            // Saturated: report the bitmap size as a floor
+            return BITS;
+        }
+        return (int) Math.round(-BITS * Math.log((double) clear / BITS));
+    }
+
+    private void roll(long nowMillis) {
+        long now = nowMillis / periodMillis;
+        if (now <= period) {
+            // Late events count towards the current period
+            return;
+        }
+        previous = now == period + 1 ? current : 0L;
+        current = 0L;
+        period = now;
+    }
+
+    private static int mix(int hash) {
+        // Murmur3 finalizer, so similar merchant ids land on unrelated bits
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
@@ -0,0 +1,41 @@
+package com.eipresso.payment.fraud;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Behavioural features of one user, card or IP address
+ *
+ * Payments per minute (12 five-second buckets), payments per hour (12
+ * five-minute buckets), the last 16 amounts and distinct merchants over the
+ * current and previous hour: a few hundred bytes per entity, whatever its
+ * history.
+ */
+class EntityFeatures {
+
+    private static final int RECENT_AMOUNTS = 16;
+
+    private final SlidingWindowCounter perMinute = new SlidingWindowCounter(12, TimeUnit.SECONDS.toMillis(5));
+    private final SlidingWindowCounter perHour = new SlidingWindowCounter(12, TimeUnit.MINUTES.toMillis(5));
+    private final RecentAmounts amounts = new RecentAmounts(RECENT_AMOUNTS);
+    private final DistinctEstimator merchants = new DistinctEstimator(TimeUnit.HOURS.toMillis(1));
+    private volatile long lastSeenMillis;
+
+    synchronized void observe(long amountCents, String merchantId, long timestampMillis) {
+        perMinute.add(timestampMillis);
+        perHour.add(timestampMillis);
+        amounts.add(amountCents);
+        if (merchantId != null) {
+            merchants.add(merchantId.hashCode(), timestampMillis);
+        }
+        lastSeenMillis = Math.max(lastSeenMillis, timestampMillis);
+    }
+
+    synchronized FeatureSnapshot snapshot(long nowMillis) {
+        return new FeatureSnapshot(perMinute.count(nowMillis), perHour.count(nowMillis), amounts.size(),
+            amounts.percentile(50), amounts.percentile(95), merchants.estimate(nowMillis));
+    }
+
+    long getLastSeenMillis() {
+        return lastSeenMillis;
+    }
+}
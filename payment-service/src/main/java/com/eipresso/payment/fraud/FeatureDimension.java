@@ -0,0 +1,18 @@
+package com.eipresso.payment.fraud;
+
+/**
+ * Entities the fraud feature store keeps behaviour for
+ */
+public enum FeatureDimension {
+    USER,
+    CARD,
+    IP;
+
+    String keyOf(PaymentObservation observation) {
+        switch (this) {
+            case USER: return observation.getUserId();
+            case CARD: return observation.getCardFingerprint();
+            default: return observation.getIpAddress();
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.eipresso.payment.fraud;
+
+/**
+ * Shares observed payments with the other nodes' feature stores
+ */
+public interface FeatureReplicator {
+
+    void publish(PaymentObservation observation);
+
+    /**
+     * Replicator for a single node
+     */
+    FeatureReplicator LOCAL = observation -> { };
+}
@@ -0,0 +1,33 @@
+package com.eipresso.payment.fraud;
+
+/**
+ * Point-in-time features of one entity, before the payment being scored
+ */
+public class FeatureSnapshot {
+
+    public static final FeatureSnapshot EMPTY = new FeatureSnapshot(0, 0, 0, 0L, 0L, 0);
+
+    private final int paymentsLastMinute;
+    private final int paymentsLastHour;
+    private final int amountSamples;
+    private final long amountP50Cents;
+    private final long amountP95Cents;
+    private final int distinctMerchants;
+
+    public FeatureSnapshot(int paymentsLastMinute, int paymentsLastHour, int amountSamples,
+                           long amountP50Cents, long amountP95Cents, int distinctMerchants) {
+        this.paymentsLastMinute = paymentsLastMinute;
+        this.paymentsLastHour = paymentsLastHour;
+        this.amountSamples = amountSamples;
+        this.amountP50Cents = amountP50Cents;
+        this.amountP95Cents = amountP95Cents;
+        this.distinctMerchants = distinctMerchants;
+    }
+
+    public int getPaymentsLastMinute() { return paymentsLastMinute; }
+    public int getPaymentsLastHour() { return paymentsLastHour; }
+    public int getAmountSamples() { return amountSamples; }
+    public long getAmountP50Cents() { return amountP50Cents; }
+    public long getAmountP95Cents() { return amountP95Cents; }
+    public int getDistinctMerchants() { return distinctMerchants; }
+}
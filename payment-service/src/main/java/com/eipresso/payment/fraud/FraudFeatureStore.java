@@ -0,0 +1,101 @@
+package com.eipresso.payment.fraud;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fraud Feature Store
+ *
+ * In-process behavioural features per user, card fingerprint and IP
+ * address, updated by every observed payment (local or replicated) and read
+ * by the {@link FraudScoringEngine}. Entities idle for longer than
+ * {@code idleTtlMillis} are evicted by {@link #evict(long)}; a dimension
+ * that is still over {@code maxEntriesPerDimension} afterwards loses its
+ * least recently seen entities first.
+ */
+public class FraudFeatureStore {
+
+    private final int maxEntriesPerDimension;
+    private final long idleTtlMillis;
+    private final Map<FeatureDimension, ConcurrentHashMap<String, EntityFeatures>> entities =
+        new EnumMap<>(FeatureDimension.class);
+
+    private final LongAdder observations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public FraudFeatureStore(int maxEntriesPerDimension, long idleTtlMillis) {
+        this.maxEntriesPerDimension = maxEntriesPerDimension;
+        this.idleTtlMillis = idleTtlMillis;
+        for (FeatureDimension dimension : FeatureDimension.values()) {
+            entities.put(dimension, new ConcurrentHashMap<>());
+        }
+    }
+
+    public void observe(PaymentObservation observation) {
+        observations.increment();
+        for (FeatureDimension dimension : FeatureDimension.values()) {
+            String key = dimension.keyOf(observation);
+            if (key != null && !key.isEmpty()) {
+                entities.get(dimension)
+                    .computeIfAbsent(key, k -> new EntityFeatures())
+                    .observe(observation.getAmountCents(), observation.getMerchantId(), observation.getTimestampMillis());
+            }
+        }
+    }
+
+    /**
+     * @return the entity's features, or {@link FeatureSnapshot#EMPTY} if it has none
+     */
+    public FeatureSnapshot snapshot(FeatureDimension dimension, String key, long nowMillis) {
+        EntityFeatures features = key != null ? entities.get(dimension).get(key) : null;
+        return features != null ? features.snapshot(nowMillis) : FeatureSnapshot.EMPTY;
+    }
+
+    /**
+     * Drop idle entities, then the least recently seen ones of any dimension still over capacity
+     */
+    public void evict(long nowMillis) {
+        for (ConcurrentHashMap<String, EntityFeatures> dimension : entities.values()) {
+            long cutoff = nowMillis - idleTtlMillis;
+            removeSeenBefore(dimension, cutoff);
+            // Halve the idle window until the dimension fits
+            long window = idleTtlMillis;
+            while (dimension.size() > maxEntriesPerDimension && window > 1) {
+                window /= 2;
+                removeSeenBefore(dimension, nowMillis - window);
+            }
+        }
+    }
+
+    public boolean isOverCapacity() {
+        for (ConcurrentHashMap<String, EntityFeatures> dimension : entities.values()) {
+            if (dimension.size() > maxEntriesPerDimension) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        entities.forEach((dimension, map) -> stats.put(dimension.name().toLowerCase() + "Entities", map.size()));
+        stats.put("observations", observations.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("maxEntriesPerDimension", maxEntriesPerDimension);
+        stats.put("idleTtlMillis", idleTtlMillis);
+        return stats;
+    }
+
+    private void removeSeenBefore(ConcurrentHashMap<String, EntityFeatures> dimension, long cutoff) {
+        dimension.values().removeIf(features -> {
+            boolean idle = features.getLastSeenMillis() < cutoff;
+            if (idle) {
+                evictions.increment();
+            }
+            return idle;
+        });
+    }
+}
@@ -0,0 +1,27 @@
+package com.eipresso.payment.fraud;
+
+/**
+ * Rules that contributed to a fraud score, with the points each adds
+ */
+public enum FraudReason {
+    HIGH_VALUE(40),
+    OFF_HOURS(30),
+    USER_VELOCITY_MINUTE(20),
+    USER_VELOCITY_HOUR(10),
+    AMOUNT_ANOMALY(20),
+    USER_MANY_MERCHANTS(10),
+    CARD_VELOCITY_MINUTE(15),
+    CARD_MANY_MERCHANTS(10),
+    IP_VELOCITY_MINUTE(20),
+    IP_VELOCITY_HOUR(10);
+
+    private final int points;
+
+    FraudReason(int points) {
+        this.points = points;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+}
@@ -0,0 +1,36 @@
+package com.eipresso.payment.fraud;
+
+import java.util.Set;
+
+/**
+ * Outcome of scoring one payment
+ *
+ * {@code degraded} means the latency budget ran out before every feature
+ * group was evaluated; the score then covers only the groups that were.
+ */
+public class FraudScore {
+
+    private final int score;
+    private final Set<FraudReason> reasons;
+    private final long elapsedNanos;
+    private final boolean degraded;
+
+    public FraudScore(int score, Set<FraudReason> reasons, long elapsedNanos, boolean degraded) {
+        this.score = score;
+        this.reasons = reasons;
+        this.elapsedNanos = elapsedNanos;
+        this.degraded = degraded;
+    }
+
+    public int getScore() { return score; }
+    public Set<FraudReason> getReasons() { return reasons; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public boolean isDegraded() { return degraded; }
+
+    /**
+     * HIGH above 70, MEDIUM above 40, LOW otherwise
+     */
+    public String getRiskLevel() {
+        return score > 70 ? "HIGH" : score > 40 ? "MEDIUM" : "LOW";
+    }
+}
@@ -0,0 +1,116 @@
+package com.eipresso.payment.fraud;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fraud Scoring Engine
+ *
+ * Scores a payment from its own attributes and the stored behaviour of its
+ * user, card and IP address, before the payment itself is observed. Feature
+ * groups are evaluated in order of weight (payment, user, card, IP) and the
+ * latency budget is checked between groups: once it is spent the remaining
+ * groups are skipped and the score is marked degraded, so scoring never
+ * holds a payment for much longer than the budget.
+ */
+public class FraudScoringEngine {
+
+    static final long HIGH_VALUE_CENTS = 50_000;
+    static final int USER_PAYMENTS_PER_MINUTE = 5;
+    static final int USER_PAYMENTS_PER_HOUR = 20;
+    static final int AMOUNT_ANOMALY_MIN_SAMPLES = 5;
+    static final int AMOUNT_ANOMALY_FACTOR = 3;
+    static final int MANY_MERCHANTS = 5;
+    static final int CARD_PAYMENTS_PER_MINUTE = 3;
+    static final int IP_PAYMENTS_PER_MINUTE = 10;
+    static final int IP_PAYMENTS_PER_HOUR = 100;
+
+    private final FraudFeatureStore store;
+    private final long budgetNanos;
+    private final ZoneId zone;
+
+    public FraudScoringEngine(FraudFeatureStore store, long budgetNanos, ZoneId zone) {
+        this.store = store;
+        this.budgetNanos = budgetNanos;
+        this.zone = zone;
+    }
+
+    public FraudScore score(PaymentObservation payment) {
+        long start = System.nanoTime();
+        long now = payment.getTimestampMillis();
+        Set<FraudReason> reasons = EnumSet.noneOf(FraudReason.class);
+
+        if (payment.getAmountCents() > HIGH_VALUE_CENTS) {
+            reasons.add(FraudReason.HIGH_VALUE);
+        }
+        int hour = Instant.ofEpochMilli(now).atZone(zone).getHour();
+        if (hour < 6 || hour > 22) {
+            reasons.add(FraudReason.OFF_HOURS);
+        }
+
+        boolean degraded = false;
+        for (FeatureDimension dimension : FeatureDimension.values()) {
+            if (System.nanoTime() - start >= budgetNanos) {
+                degraded = true;
+                break;
+            }
+            String key = dimension.keyOf(payment);
+            if (key == null) {
+                continue;
+            }
+            FeatureSnapshot features = store.snapshot(dimension, key, now);
+            switch (dimension) {
+                case USER:
+                    scoreUser(features, payment.getAmountCents(), reasons);
+                    break;
+                case CARD:
+                    scoreCard(features, reasons);
+                    break;
+                default:
+                    scoreIp(features, reasons);
+            }
+        }
+
+        int score = 0;
+        for (FraudReason reason : reasons) {
+            score += reason.getPoints();
+        }
+        return new FraudScore(Math.min(score, 100), reasons, System.nanoTime() - start, degraded);
+    }
+
+    private static void scoreUser(FeatureSnapshot user, long amountCents, Set<FraudReason> reasons) {
+        if (user.getPaymentsLastMinute() >= USER_PAYMENTS_PER_MINUTE) {
+            reasons.add(FraudReason.USER_VELOCITY_MINUTE);
+        }
+        if (user.getPaymentsLastHour() >= USER_PAYMENTS_PER_HOUR) {
+            reasons.add(FraudReason.USER_VELOCITY_HOUR);
+        }
+        if (user.getAmountSamples() >= AMOUNT_ANOMALY_MIN_SAMPLES
+                && amountCents > AMOUNT_ANOMALY_FACTOR * Math.max(user.getAmountP95Cents(), 1L)) {
+            reasons.add(FraudReason.AMOUNT_ANOMALY);
+        }
+        if (user.getDistinctMerchants() >= MANY_MERCHANTS) {
+            reasons.add(FraudReason.USER_MANY_MERCHANTS);
+        }
+    }
+
+    private static void scoreCard(FeatureSnapshot card, Set<FraudReason> reasons) {
+        if (card.getPaymentsLastMinute() >= CARD_PAYMENTS_PER_MINUTE) {
+            reasons.add(FraudReason.CARD_VELOCITY_MINUTE);
+        }
+        if (card.getDistinctMerchants() >= MANY_MERCHANTS) {
+            reasons.add(FraudReason.CARD_MANY_MERCHANTS);
+        }
+    }
+
+    private static void scoreIp(FeatureSnapshot ip, Set<FraudReason> reasons) {
+        if (ip.getPaymentsLastMinute() >= IP_PAYMENTS_PER_MINUTE) {
+            reasons.add(FraudReason.IP_VELOCITY_MINUTE);
+        }
+        if (ip.getPaymentsLastHour() >= IP_PAYMENTS_PER_HOUR) {
+            reasons.add(FraudReason.IP_VELOCITY_HOUR);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.eipresso.payment.fraud;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Replicates observed payments through a Hazelcast topic
+ *
+ * Every node publishes the payments it observes and applies the ones the
+ * other nodes publish to its own {@link FraudFeatureStore}, so all stores
+ * see the same payments and score alike. Only the observation travels, not
+ * the features, which keeps a message to a few dozen bytes.
+ */
+public class HazelcastFeatureReplicator implements FeatureReplicator {
+
+    public static final String TOPIC_NAME = "payment-fraud-observations";
+
+    private final ITopic<PaymentObservation> topic;
+    private final UUID listenerId;
+    private final LongAdder published = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+
+    public HazelcastFeatureReplicator(HazelcastInstance hazelcast, FraudFeatureStore store, String localOrigin) {
+        this.topic = hazelcast.getTopic(TOPIC_NAME);
+        this.listenerId = topic.addMessageListener(message -> {
+            PaymentObservation observation = message.getMessageObject();
+            if (!localOrigin.equals(observation.getOrigin())) {
+                store.observe(observation);
+                applied.increment();
+            }
+        });
+    }
+
+    @Override
+    public void publish(PaymentObservation observation) {
+        topic.publish(observation);
+        published.increment();
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getApplied() {
+        return applied.sum();
+    }
+
+    public void close() {
+        topic.removeMessageListener(listenerId);
+    }
+}
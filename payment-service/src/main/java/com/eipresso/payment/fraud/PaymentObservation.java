@@ -0,0 +1,41 @@
+package com.eipresso.payment.fraud;
+
+import java.io.Serializable;
+
+/**
+ * One payment as the fraud feature store sees it
+ *
+ * Also the message replicated between nodes, so it stays small and
+ * serializable. {@code origin} identifies the node that observed it.
+ */
+public class PaymentObservation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String userId;
+    private final String cardFingerprint;
+    private final String ipAddress;
+    private final String merchantId;
+    private final long amountCents;
+    private final long timestampMillis;
+    private final String origin;
+
+    public PaymentObservation(String userId, String cardFingerprint, String ipAddress, String merchantId,
+                              long amountCents, long timestampMillis, String origin) {
+        this.userId = userId;
+        this.cardFingerprint = cardFingerprint;
+        this.ipAddress = ipAddress;
+        this.merchantId = merchantId;
+        this.amountCents = amountCents;
+        this.timestampMillis = timestampMillis;
+        this.origin = origin;
+    }
+
+    public String getUserId() { return userId; }
+    public String getCardFingerprint() { return cardFingerprint; }
+    public String getIpAddress() { return ipAddress; }
+    public String getMerchantId() { return merchantId; }
+    public long getAmountCents() { return amountCents; }
+    public long getTimestampMillis() { return timestampMillis; }
+    public String getOrigin() { return origin; }
+}
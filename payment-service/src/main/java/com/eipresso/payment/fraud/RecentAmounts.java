@@ -0,0 +1,45 @@
+package com.eipresso.payment.fraud;
+
+import java.util.Arrays;
+
+/**
+ * The last {@code capacity} payment amounts of an entity, in cents
+ *
+ * Percentiles are read from a sorted copy, which at this size costs less
+ * than maintaining a sketch. Not thread-safe; {@link EntityFeatures} guards it.
+ */
+class RecentAmounts {
+
+    private final long[] amounts;
+    private int size;
+    private int next;
+
+    RecentAmounts(int capacity) {
+        this.amounts = new long[capacity];
+    }
+
+    void add(long amountCents) {
+        amounts[next] = amountCents;
+        next = (next + 1) % amounts.length;
+        if (size < amounts.length) {
+            size++;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the nearest-rank percentile, or 0 with no amounts
+     */
+    long percentile(double percentile) {
+        if (size == 0) {
+            return 0L;
+        }
+        long[] sorted = Arrays.copyOf(amounts, size);
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * size);
+        return sorted[Math.max(0, Math.min(size - 1, rank - 1))];
+    }
+}
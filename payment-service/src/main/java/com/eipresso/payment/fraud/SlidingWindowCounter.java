@@ -0,0 +1,47 @@
+package com.eipresso.payment.fraud;
+
+/**
+ * Event count over a sliding window, kept as a ring of fixed-width buckets
+ *
+ * A window of {@code buckets} × {@code bucketMillis} is two int arrays;
+ * a bucket whose epoch has fallen out of the window is reused for the
+ * current one. Not thread-safe; {@link EntityFeatures} guards it.
+ */
+class SlidingWindowCounter {
+
+    private final long bucketMillis;
+    private final int[] epochs;
+    private final int[] counts;
+
+    SlidingWindowCounter(int buckets, long bucketMillis) {
+        this.bucketMillis = bucketMillis;
+        this.epochs = new int[buckets];
+        this.counts = new int[buckets];
+    }
+
+    void add(long nowMillis) {
+        int epoch = (int) (nowMillis / bucketMillis);
+        int index = epoch % epochs.length;
+        if (epochs[index] > epoch) {
+            // A late event whose bucket has already been reused
+            return;
+        }
+        if (epochs[index] != epoch) {
+            epochs[index] = epoch;
+            counts[index] = 0;
+        }
+        counts[index]++;
+    }
+
+    int count(long nowMillis) {
+        int newest = (int) (nowMillis / bucketMillis);
+        int oldest = newest - epochs.length + 1;
+        int total = 0;
+        for (int i = 0; i < epochs.length; i++) {
+            if (epochs[i] >= oldest && epochs[i] <= newest) {
+                total += counts[i];
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,16 @@
+package com.eipresso.payment.gateway;
+
+/**
+ * A gateway call that failed in transport or was answered with an error
+ * status, as opposed to a declined charge
+ */
+public class GatewayCallException extends RuntimeException {
+
+    public GatewayCallException(String message) {
+        super(message);
+    }
+
+    public GatewayCallException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,76 @@
+package com.eipresso.payment.gateway;
+
+import com.eipresso.payment.model.Money;
+import com.eipresso.payment.model.PaymentGateway;
+import org.apache.camel.AsyncCallback;
+import org.apache.camel.Exchange;
+import org.apache.camel.support.AsyncProcessorSupport;
+
+import java.util.concurrent.CompletionException;
+
+/**
+ * Gateway Call Processor
+ *
+ * Charges the exchange's payment through the {@link GatewayClient} without
+ * holding the route's thread: the exchange continues on the client's
+ * executor once the gateway answers. Transport failures and gateway errors
+ * are set on the exchange as exceptions, so the retry scheduler and the
+ * circuit breakers see them. A declined charge is set as a
+ * {@link PaymentDeclinedException}, which is neither retried, cached as a
+ * completed call, nor counted against the gateway's circuit.
+ *
+ * When the client is disabled the processor passes exchanges through, and
+ * the gateway routes' mock endpoints stand in for the gateways.
+ */
+public class GatewayCallProcessor extends AsyncProcessorSupport {
+
+    private final GatewayClient client;
+    private final boolean enabled;
+
+    public GatewayCallProcessor(GatewayClient client, boolean enabled) {
+        this.client = client;
+        this.enabled = enabled;
+    }
+
+    @Override
+    public boolean process(Exchange exchange, AsyncCallback callback) {
+        PaymentGateway gateway = gatewayOf(exchange.getIn().getHeader("paymentGateway", String.class));
+        if (!enabled || gateway == null) {
+            callback.done(true);
+            return true;
+        }
+
+        GatewayRequest request = new GatewayRequest(
+            exchange.getIn().getHeader("paymentId", String.class),
+            Money.toCents(exchange.getIn().getHeader("amount")),
+            exchange.getIn().getHeader("currency", "USD", String.class),
+            exchange.getIn().getHeader("paymentMethod", String.class),
+            exchange.getIn().getHeader("idempotencyKey", exchange.getIn().getHeader("paymentId"), String.class));
+
+        client.charge(gateway, request).whenComplete((response, failure) -> {
+            if (failure != null) {
+                exchange.setException(failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure);
+            } else {
+                exchange.getIn().setHeader("gatewayTransactionId", response.getTransactionId());
+                exchange.getIn().setHeader("gatewayStatus", response.getStatus());
+                exchange.getIn().setHeader("gatewayMessage", response.getMessage());
+                exchange.getIn().setHeader("paymentStatus", response.isApproved() ? "COMPLETED" : "FAILED");
+                if (!response.isApproved()) {
+                    exchange.setException(new PaymentDeclinedException(
+                        request.getPaymentId(), response.getStatus(), response.getMessage()));
+                }
+            }
+            callback.done(false);
+        });
+        return false;
+    }
+
+    private static PaymentGateway gatewayOf(String gateway) {
+        try {
+            return gateway != null ? PaymentGateway.valueOf(gateway) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
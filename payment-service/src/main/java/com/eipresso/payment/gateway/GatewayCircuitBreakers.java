@@ -0,0 +1,172 @@
+package com.eipresso.payment.gateway;
+
+import com.eipresso.payment.model.PaymentGateway;
+import com.eipresso.payment.model.PaymentMethod;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gateway Circuit Breakers
+ *
+ * One Resilience4j breaker per {@link PaymentGateway}, opened by the failure
+ * rate or the slow-call rate over a sliding window of real calls. While a
+ * gateway's breaker is open, {@link #select} passes its traffic to the next
+ * gateway in priority order that supports the payment method, so calls to
+ * a failed gateway fail over in microseconds instead of timing out. After
+ * the open wait, a few real calls are let through half-open, and their
+ * outcome decides whether the breaker closes again.
+ *
+ * Fallback stays within the requested gateway's environment: production
+ * traffic never falls back to the MOCK gateway, and the reverse. A payment
+ * whose method the requested gateway does not support is rerouted the same
+ * way, and counted and logged as such rather than as an open circuit.
+ */
+public class GatewayCircuitBreakers {
+
+    private static final Logger logger = LoggerFactory.getLogger(GatewayCircuitBreakers.class);
+
+    public static final String BREAKER_NAME_PREFIX = "payment-gateway-";
+
+    /**
+     * Receives every state change with the time spent in the previous state
+     */
+    public interface TransitionListener {
+        void onTransition(PaymentGateway gateway, CircuitBreaker.State from, CircuitBreaker.State to, long dwellNanos);
+    }
+
+    private final Map<PaymentGateway, CircuitBreaker> breakers = new EnumMap<>(PaymentGateway.class);
+    private final Map<PaymentGateway, AtomicLong> stateEnteredNanos = new EnumMap<>(PaymentGateway.class);
+    private final Map<PaymentGateway, LongAdder> reroutedFrom = new EnumMap<>(PaymentGateway.class);
+    private final Map<PaymentGateway, LongAdder> unsupportedMethod = new EnumMap<>(PaymentGateway.class);
+    private final LongAdder unavailable = new LongAdder();
+
+    public GatewayCircuitBreakers(CircuitBreakerRegistry registry, CircuitBreakerConfig config,
+                                  TransitionListener transitionListener) {
+        for (PaymentGateway gateway : PaymentGateway.values()) {
+            CircuitBreaker breaker = registry.circuitBreaker(BREAKER_NAME_PREFIX + gateway.getCode(), config);
+            AtomicLong entered = new AtomicLong(System.nanoTime());
+            breaker.getEventPublisher().onStateTransition(event -> {
+                long now = System.nanoTime();
+                long dwell = now - entered.getAndSet(now);
+                CircuitBreaker.State from = event.getStateTransition().getFromState();
+                CircuitBreaker.State to = event.getStateTransition().getToState();
+                logger.warn("🔌 Gateway {} circuit {} -> {} after {}ms", gateway, from, to,
+                    TimeUnit.NANOSECONDS.toMillis(dwell));
+                transitionListener.onTransition(gateway, from, to, dwell);
+            });
+            breakers.put(gateway, breaker);
+            stateEnteredNanos.put(gateway, entered);
+            reroutedFrom.put(gateway, new LongAdder());
+            unsupportedMethod.put(gateway, new LongAdder());
+        }
+    }
+
+    /**
+     * Gateways to try for a payment, in order: the requested one, then the
+     * others of the same environment by priority, all supporting the method;
+     * the requested gateway is left out when it does not support it
+     *
+     * @param method null when unknown, which any gateway accepts
+     */
+    public List<PaymentGateway> candidates(PaymentGateway requested, PaymentMethod method) {
+        List<PaymentGateway> candidates = new ArrayList<>();
+        if (supports(requested, method)) {
+            candidates.add(requested);
+        }
+        PaymentGateway[] gateways = PaymentGateway.values().clone();
+        Arrays.sort(gateways, Comparator.comparingInt(PaymentGateway::getPriority));
+        for (PaymentGateway gateway : gateways) {
+            if (gateway != requested && gateway.isProduction() == requested.isProduction()
+                    && supports(gateway, method)) {
+                candidates.add(gateway);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Pick the first candidate whose breaker admits a call
+     *
+     * The caller must report the call's outcome with {@link #onSuccess} or
+     * {@link #onError} for the returned gateway.
+     *
+     * @throws GatewayUnavailableException when every candidate's breaker rejects the call
+     */
+    public PaymentGateway select(PaymentGateway requested, PaymentMethod method) {
+        if (!supports(requested, method)) {
+            unsupportedMethod.get(requested).increment();
+            logger.warn("🔀 Gateway {} does not support {}, rerouting to a gateway that does", requested, method);
+        }
+        for (PaymentGateway gateway : candidates(requested, method)) {
+            if (breakers.get(gateway).tryAcquirePermission()) {
+                if (gateway != requested) {
+                    reroutedFrom.get(requested).increment();
+                }
+                return gateway;
+            }
+        }
+        unavailable.increment();
+        throw new GatewayUnavailableException("No gateway available for " + requested
+            + (method != null ? " / " + method : "") + ": circuits open");
+    }
+
+    /**
+     * Whether the gateway accepts the method; an unknown (null) method is accepted
+     */
+    public static boolean supports(PaymentGateway gateway, PaymentMethod method) {
+        return method == null || gateway.supports(method);
+    }
+
+    /**
+     * Give back a permission from {@link #select} that was never used for a call
+     */
+    public void release(PaymentGateway gateway) {
+        breakers.get(gateway).releasePermission();
+    }
+
+    public void onSuccess(PaymentGateway gateway, long durationNanos) {
+        breakers.get(gateway).onSuccess(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void onError(PaymentGateway gateway, long durationNanos, Throwable error) {
+        breakers.get(gateway).onError(durationNanos, TimeUnit.NANOSECONDS, error);
+    }
+
+    public CircuitBreaker.State getState(PaymentGateway gateway) {
+        return breakers.get(gateway).getState();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        for (Map.Entry<PaymentGateway, CircuitBreaker> entry : breakers.entrySet()) {
+            CircuitBreaker.Metrics metrics = entry.getValue().getMetrics();
+            Map<String, Object> gatewayStats = new HashMap<>();
+            gatewayStats.put("state", entry.getValue().getState().name());
+            gatewayStats.put("stateDurationMillis",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - stateEnteredNanos.get(entry.getKey()).get()));
+            gatewayStats.put("failureRate", metrics.getFailureRate());
+            gatewayStats.put("slowCallRate", metrics.getSlowCallRate());
+            gatewayStats.put("bufferedCalls", metrics.getNumberOfBufferedCalls());
+            gatewayStats.put("notPermittedCalls", metrics.getNumberOfNotPermittedCalls());
+            gatewayStats.put("reroutedCalls", reroutedFrom.get(entry.getKey()).sum());
+            gatewayStats.put("unsupportedMethodCalls", unsupportedMethod.get(entry.getKey()).sum());
+            stats.put(entry.getKey().name(), gatewayStats);
+        }
+        stats.put("unavailableCalls", unavailable.sum());
+        return stats;
+    }
+}
@@ -0,0 +1,251 @@
+package com.eipresso.payment.gateway;
+
+import com.eipresso.payment.model.PaymentGateway;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gateway Client
+ *
+ * Non-blocking HTTP client for the payment gateways. Every gateway has its
+ * own {@link HttpClient}, and with it its own connection pool: HTTP/2 where
+ * the gateway negotiates it, so concurrent charges share a few multiplexed
+ * connections, HTTP/1.1 keep-alive otherwise. Requests time out after the
+ * gateway's own timeout and complete on the client's executor, never on the
+ * caller's thread.
+ *
+ * Gateways that support batch processing get their charges batched: a
+ * charge waits at most {@code batchLingerMillis} for others to the same
+ * gateway, and up to {@code maxBatchSize} charges go out as one request to
+ * {@code /charges/batch}. Other gateways get one request per charge to
+ * {@code /charges}, carrying the charge's Idempotency-Key.
+ */
+public class GatewayClient implements AutoCloseable {
+
+    public static final String CHARGES_PATH = "/charges";
+    public static final String BATCH_PATH = "/charges/batch";
+
+    private static final class Pending {
+        private final GatewayRequest request;
+        private final CompletableFuture<GatewayResponse> response = new CompletableFuture<>();
+
+        private Pending(GatewayRequest request) {
+            this.request = request;
+        }
+    }
+
+    private final class Channel {
+        private final PaymentGateway gateway;
+        private final HttpClient http;
+        private final URI charges;
+        private final URI batch;
+        private final Duration timeout;
+        private final boolean batching;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder charged = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private List<Pending> queued = new ArrayList<>();
+        private boolean flushScheduled;
+
+        private Channel(PaymentGateway gateway, String baseUrl, Duration timeout, Executor executor) {
+            this.gateway = gateway;
+            this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(timeout)
+                .executor(executor)
+                .build();
+            String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+            this.charges = URI.create(base + CHARGES_PATH);
+            this.batch = URI.create(base + BATCH_PATH);
+            this.timeout = timeout;
+            this.batching = gateway.supportsBatchProcessing() && maxBatchSize > 1;
+        }
+
+        private CompletableFuture<GatewayResponse> charge(GatewayRequest request) {
+            if (!batching) {
+                return send(charges, request, request.getIdempotencyKey(), 1)
+                    .thenApply(body -> GatewayResponse.fromMap(readObject(body)));
+            }
+            Pending pending = new Pending(request);
+            List<Pending> full = null;
+            synchronized (this) {
+                queued.add(pending);
+                if (queued.size() >= maxBatchSize) {
+                    full = takeQueued();
+                } else if (!flushScheduled) {
+                    flushScheduled = true;
+                    scheduler.schedule(this::flush, batchLingerMillis, TimeUnit.MILLISECONDS);
+                }
+            }
+            if (full != null) {
+                sendBatch(full);
+            }
+            return pending.response;
+        }
+
+        private void flush() {
+            List<Pending> due;
+            synchronized (this) {
+                flushScheduled = false;
+                due = takeQueued();
+            }
+            if (!due.isEmpty()) {
+                sendBatch(due);
+            }
+        }
+
+        private List<Pending> takeQueued() {
+            List<Pending> taken = queued;
+            queued = new ArrayList<>(maxBatchSize);
+            return taken;
+        }
+
+        private void sendBatch(List<Pending> pending) {
+            List<GatewayRequest> body = new ArrayList<>(pending.size());
+            pending.forEach(p -> body.add(p.request));
+            send(batch, body, null, pending.size()).whenComplete((responseBody, failure) -> {
+                if (failure != null) {
+                    pending.forEach(p -> p.response.completeExceptionally(failure));
+                    return;
+                }
+                try {
+                    List<?> responses = objectMapper.readValue(responseBody, List.class);
+                    if (responses.size() != pending.size()) {
+                        throw new GatewayCallException(gateway + " answered " + responses.size()
+                            + " results to a batch of " + pending.size());
+                    }
+                    for (int i = 0; i < pending.size(); i++) {
+                        pending.get(i).response.complete(GatewayResponse.fromMap((Map<?, ?>) responses.get(i)));
+                    }
+                } catch (IOException | RuntimeException e) {
+                    GatewayCallException invalid = new GatewayCallException("Invalid batch response from " + gateway, e);
+                    pending.forEach(p -> p.response.completeExceptionally(invalid));
+                }
+            });
+        }
+
+        private CompletableFuture<byte[]> send(URI uri, Object body, String idempotencyKey, int chargeCount) {
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json");
+            if (idempotencyKey != null) {
+                request.header("Idempotency-Key", idempotencyKey);
+            }
+            try {
+                request.POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+            } catch (JsonProcessingException e) {
+                return CompletableFuture.failedFuture(new GatewayCallException("Could not encode charge for " + gateway, e));
+            }
+
+            requests.increment();
+            charged.add(chargeCount);
+            inFlight.incrementAndGet();
+            return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, failure) -> {
+                    inFlight.decrementAndGet();
+                    if (failure != null) {
+                        failures.increment();
+                        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure;
+                        throw new GatewayCallException(gateway + " call failed: " + cause, cause);
+                    }
+                    if (response.statusCode() / 100 != 2) {
+                        failures.increment();
+                        throw new GatewayCallException(gateway + " answered HTTP " + response.statusCode());
+                    }
+                    return response.body();
+                });
+        }
+
+        private Map<String, Object> getStatistics() {
+            long requestCount = requests.sum();
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("baseUrl", charges.toString().substring(0, charges.toString().length() - CHARGES_PATH.length()));
+            stats.put("timeoutSeconds", timeout.getSeconds());
+            stats.put("batching", batching);
+            stats.put("requests", requestCount);
+            stats.put("charges", charged.sum());
+            stats.put("averageChargesPerRequest", requestCount == 0 ? 0.0 : (double) charged.sum() / requestCount);
+            stats.put("failures", failures.sum());
+            stats.put("inFlightRequests", inFlight.get());
+            return stats;
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final ScheduledExecutorService scheduler;
+    private final int maxBatchSize;
+    private final long batchLingerMillis;
+    private final Map<PaymentGateway, Channel> channels = new EnumMap<>(PaymentGateway.class);
+
+    /**
+     * @param baseUrls  where each gateway is reached; gateways without one use {@link PaymentGateway#getApiUrl()}
+     * @param timeouts  per-gateway request timeout; gateways without one use {@link PaymentGateway#getTimeoutSeconds()}
+     * @param executor  runs response handling and completes the returned futures
+     * @param scheduler flushes lingering batches
+     */
+    public GatewayClient(ObjectMapper objectMapper, Map<PaymentGateway, String> baseUrls,
+                         Map<PaymentGateway, Duration> timeouts, Executor executor,
+                         ScheduledExecutorService scheduler, int maxBatchSize, long batchLingerMillis) {
+        this.objectMapper = objectMapper;
+        this.scheduler = scheduler;
+        this.maxBatchSize = maxBatchSize;
+        this.batchLingerMillis = batchLingerMillis;
+        for (PaymentGateway gateway : PaymentGateway.values()) {
+            String baseUrl = baseUrls.getOrDefault(gateway, gateway.getApiUrl());
+            Duration timeout = timeouts.getOrDefault(gateway, Duration.ofSeconds(gateway.getTimeoutSeconds()));
+            channels.put(gateway, new Channel(gateway, baseUrl, timeout, executor));
+        }
+    }
+
+    /**
+     * Charge a payment through the gateway, without blocking the caller
+     */
+    public CompletableFuture<GatewayResponse> charge(PaymentGateway gateway, GatewayRequest request) {
+        return channels.get(gateway).charge(request);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        channels.forEach((gateway, channel) -> stats.put(gateway.name(), channel.getStatistics()));
+        stats.put("maxBatchSize", maxBatchSize);
+        stats.put("batchLingerMillis", batchLingerMillis);
+        return stats;
+    }
+
+    /**
+     * Send whatever is still waiting for a batch
+     */
+    @Override
+    public void close() {
+        channels.values().forEach(Channel::flush);
+    }
+
+    private Map<?, ?> readObject(byte[] body) {
+        try {
+            return objectMapper.readValue(body, Map.class);
+        } catch (IOException e) {
+            throw new GatewayCallException("Invalid gateway response", e);
+        }
+    }
+}
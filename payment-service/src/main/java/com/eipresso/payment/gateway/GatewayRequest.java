@@ -0,0 +1,28 @@
+package com.eipresso.payment.gateway;
+
+/**
+ * A charge as sent to a payment gateway
+ */
+public class GatewayRequest {
+
+    private final String paymentId;
+    private final long amountCents;
+    private final String currency;
+    private final String paymentMethod;
+    private final String idempotencyKey;
+
+    public GatewayRequest(String paymentId, long amountCents, String currency, String paymentMethod,
+                          String idempotencyKey) {
+        this.paymentId = paymentId;
+        this.amountCents = amountCents;
+        this.currency = currency;
+        this.paymentMethod = paymentMethod;
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getPaymentId() { return paymentId; }
+    public long getAmountCents() { return amountCents; }
+    public String getCurrency() { return currency; }
+    public String getPaymentMethod() { return paymentMethod; }
+    public String getIdempotencyKey() { return idempotencyKey; }
+}
@@ -0,0 +1,44 @@
+package com.eipresso.payment.gateway;
+
+import java.util.Map;
+
+/**
+ * A gateway's answer to one charge
+ *
+ * A declined charge is a normal response; only transport failures and
+ * gateway errors complete a call exceptionally.
+ */
+public class GatewayResponse {
+
+    public static final String APPROVED = "APPROVED";
+
+    private final String paymentId;
+    private final String transactionId;
+    private final String status;
+    private final String message;
+
+    public GatewayResponse(String paymentId, String transactionId, String status, String message) {
+        this.paymentId = paymentId;
+        this.transactionId = transactionId;
+        this.status = status;
+        this.message = message;
+    }
+
+    static GatewayResponse fromMap(Map<?, ?> values) {
+        return new GatewayResponse(text(values.get("paymentId")), text(values.get("transactionId")),
+            text(values.get("status")), text(values.get("message")));
+    }
+
+    public boolean isApproved() {
+        return APPROVED.equals(status);
+    }
+
+    public String getPaymentId() { return paymentId; }
+    public String getTransactionId() { return transactionId; }
+    public String getStatus() { return status; }
+    public String getMessage() { return message; }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
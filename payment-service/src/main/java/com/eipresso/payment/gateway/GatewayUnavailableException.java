@@ -0,0 +1,11 @@
+package com.eipresso.payment.gateway;
+
+/**
+ * No gateway that supports the payment method is accepting calls
+ */
+public class GatewayUnavailableException extends RuntimeException {
+
+    public GatewayUnavailableException(String message) {
+        super(message);
+    }
+}
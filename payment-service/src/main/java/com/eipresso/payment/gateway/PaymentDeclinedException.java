@@ -0,0 +1,33 @@
+package com.eipresso.payment.gateway;
+
+/**
+ * The gateway answered and declined the charge
+ *
+ * Not retryable: the same charge would be declined again, and the gateway
+ * itself is healthy, so the circuit breakers ignore it.
+ */
+public class PaymentDeclinedException extends RuntimeException {
+
+    private final String gatewayStatus;
+
+    public PaymentDeclinedException(String paymentId, String gatewayStatus, String gatewayMessage) {
+        super("Payment " + paymentId + " declined: " + (gatewayMessage != null ? gatewayMessage : gatewayStatus));
+        this.gatewayStatus = gatewayStatus;
+    }
+
+    public String getGatewayStatus() {
+        return gatewayStatus;
+    }
+
+    /**
+     * @return whether the failure, or any of its causes, is a declined charge
+     */
+    public static boolean isDeclined(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof PaymentDeclinedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,12 @@
+package com.eipresso.payment.idempotency;
+
+/**
+ * A request with the same idempotency key is still being processed and did
+ * not finish within the wait allowed for duplicates
+ */
+public class DuplicateRequestInProgressException extends RuntimeException {
+
+    public DuplicateRequestInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,41 @@
+package com.eipresso.payment.idempotency;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency store backed by a Hazelcast map with per-entry TTL, shared by
+ * every node of the cluster
+ */
+public class HazelcastIdempotencyStore implements IdempotencyStore {
+
+    public static final String MAP_NAME = "payment-idempotency-keys";
+
+    private final IMap<String, IdempotencyRecord> records;
+
+    public HazelcastIdempotencyStore(HazelcastInstance hazelcastInstance) {
+        this.records = hazelcastInstance.getMap(MAP_NAME);
+    }
+
+    @Override
+    public IdempotencyRecord get(String key) {
+        return records.get(key);
+    }
+
+    @Override
+    public IdempotencyRecord putIfAbsent(IdempotencyRecord record, long ttlMillis) {
+        return records.putIfAbsent(record.getKey(), record, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void put(IdempotencyRecord record, long ttlMillis) {
+        records.set(record.getKey(), record, ttlMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void remove(IdempotencyRecord record) {
+        records.remove(record.getKey(), record);
+    }
+}
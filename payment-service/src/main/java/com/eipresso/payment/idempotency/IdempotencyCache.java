@@ -0,0 +1,427 @@
+package com.eipresso.payment.idempotency;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Idempotency Cache
+ *
+ * Makes sure each idempotency key is processed once and every duplicate gets
+ * the first result. A sharded in-memory front answers repeats of keys this
+ * node has seen without touching the shared {@link IdempotencyStore}; a
+ * duplicate that arrives while the first request is still running waits on
+ * its result instead of running again. The store carries claims and results
+ * between nodes, so a duplicate on another node waits for, or replays, the
+ * same result.
+ *
+ * Only results are cached: a failed request releases its key, so a later
+ * retry runs again, while duplicates already waiting receive the failure.
+ *
+ * A key may carry a {@link #fingerprint} of its request. A duplicate whose
+ * fingerprint differs from the first request's is a reuse of the key for
+ * another request and is refused rather than answered with the first result.
+ */
+public class IdempotencyCache {
+
+    /**
+     * How a key was resolved by {@link #begin(String)}
+     */
+    public enum Outcome {
+        /** First request for the key; the caller processes it */
+        MISS,
+        /** Replayed from this node's front */
+        HIT,
+        /** Replayed from the shared store */
+        STORE_HIT,
+        /** Waited for a request still running on this node */
+        COALESCED,
+        /** Waited for a request still running on another node */
+        STORE_COALESCED
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        private final String fingerprint;
+        private volatile long expiresAtMillis;
+        private volatile IdempotencyRecord claim;
+
+        private Entry(String fingerprint, long expiresAtMillis) {
+            this.fingerprint = fingerprint;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        private boolean isSettled() {
+            return result.isDone() && !result.isCompletedExceptionally();
+        }
+    }
+
+    private static final class Shard extends LinkedHashMap<String, Entry> {
+        private final int maxEntries;
+
+        private Shard(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            // Never drop a request that is still running; its duplicates wait on it
+            return size() > maxEntries && eldest.getValue().result.isDone();
+        }
+    }
+
+    /**
+     * One resolved key: either a replayed result, or the caller's obligation
+     * to process the request and then {@link #complete} or {@link #fail} it
+     */
+    public final class Claim {
+        private final String key;
+        private final Outcome outcome;
+        private final Entry entry;
+        private final Map<String, Object> replayed;
+        private boolean settled;
+
+        private Claim(String key, Outcome outcome, Entry entry, Map<String, Object> replayed) {
+            this.key = key;
+            this.outcome = outcome;
+            this.entry = entry;
+            this.replayed = replayed;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        public boolean isReplay() {
+            return outcome != Outcome.MISS;
+        }
+
+        /**
+         * @return a copy of the first request's result, for replays
+         */
+        public Map<String, Object> getResult() {
+            return replayed != null ? new HashMap<>(replayed) : null;
+        }
+
+        /**
+         * Record the result and hand it to every waiting duplicate
+         */
+        public synchronized void complete(Map<String, Object> result) {
+            if (isReplay() || settled) {
+                return;
+            }
+            settled = true;
+            IdempotencyRecord record = IdempotencyRecord.completed(key, nodeId, entry.fingerprint, result);
+            try {
+                store.put(record, resultTtlMillis);
+            } catch (RuntimeException e) {
+                storeErrors.increment();
+            }
+            entry.expiresAtMillis = clock.getAsLong() + resultTtlMillis;
+            entry.result.complete(record.getResult());
+        }
+
+        /**
+         * Release the key so a retry runs again; waiting duplicates receive the failure
+         */
+        public synchronized void fail(Throwable failure) {
+            if (isReplay() || settled) {
+                return;
+            }
+            settled = true;
+            failures.increment();
+            release(key, entry, failure);
+        }
+    }
+
+    private final IdempotencyStore store;
+    private final String nodeId;
+    private final Shard[] shards;
+    private final int shardMask;
+    private final long resultTtlMillis;
+    private final long inFlightTtlMillis;
+    private final long duplicateWaitMillis;
+    private final long storePollMillis;
+    private final LongSupplier clock;
+
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder storeHits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder storeCoalesced = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder duplicateTimeouts = new LongAdder();
+    private final LongAdder keyReuses = new LongAdder();
+    private final LongAdder storeErrors = new LongAdder();
+
+    public IdempotencyCache(IdempotencyStore store, String nodeId, int shardCount, int maxEntriesPerShard,
+                            long resultTtlMillis, long inFlightTtlMillis, long duplicateWaitMillis) {
+        this(store, nodeId, shardCount, maxEntriesPerShard, resultTtlMillis, inFlightTtlMillis, duplicateWaitMillis,
+            10, System::currentTimeMillis);
+    }
+
+    IdempotencyCache(IdempotencyStore store, String nodeId, int shardCount, int maxEntriesPerShard,
+                     long resultTtlMillis, long inFlightTtlMillis, long duplicateWaitMillis, long storePollMillis,
+                     LongSupplier clock) {
+        this.store = store;
+        this.nodeId = nodeId;
+        int shardsPowerOfTwo = Integer.highestOneBit(Math.max(1, shardCount - 1)) << 1;
+        this.shards = new Shard[shardCount <= 1 ? 1 : shardsPowerOfTwo];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard(maxEntriesPerShard);
+        }
+        this.shardMask = shards.length - 1;
+        this.resultTtlMillis = resultTtlMillis;
+        this.inFlightTtlMillis = inFlightTtlMillis;
+        this.duplicateWaitMillis = duplicateWaitMillis;
+        this.storePollMillis = storePollMillis;
+        this.clock = clock;
+    }
+
+    /**
+     * Resolve a key without checking which request it came with
+     *
+     * @see #begin(String, String)
+     */
+    public Claim begin(String key) throws InterruptedException {
+        return begin(key, null);
+    }
+
+    /**
+     * Resolve a key: replay its result, wait for the request already running
+     * with it, or claim it for the caller
+     *
+     * @param fingerprint the request's {@link #fingerprint}, or null to skip the check
+     * @throws IdempotencyKeyReusedException when the key was first used for a different request
+     * @throws DuplicateRequestInProgressException when the running request does not finish in time
+     */
+    public Claim begin(String key, String fingerprint) throws InterruptedException {
+        Shard shard = shardFor(key);
+        Entry entry;
+        boolean owner = false;
+        synchronized (shard) {
+            entry = shard.get(key);
+            if (entry != null && entry.expiresAtMillis <= clock.getAsLong()) {
+                shard.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                entry = new Entry(fingerprint, clock.getAsLong() + inFlightTtlMillis);
+                shard.put(key, entry);
+                owner = true;
+            }
+        }
+
+        if (!owner) {
+            checkSameRequest(key, entry.fingerprint, fingerprint);
+            if (entry.isSettled()) {
+                hits.increment();
+                return new Claim(key, Outcome.HIT, entry, entry.result.join());
+            }
+            coalesced.increment();
+            return new Claim(key, Outcome.COALESCED, entry, await(key, entry.result));
+        }
+        return claimInStore(key, entry);
+    }
+
+    /**
+     * Digest of a request, the same for requests with equal content whatever
+     * the iteration order of their maps
+     */
+    public static String fingerprint(Object request) {
+        StringBuilder canonical = new StringBuilder();
+        appendCanonical(canonical, request);
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Drop expired results from the front; the store expires its own
+     */
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                shard.values().removeIf(entry -> entry.isSettled() && entry.expiresAtMillis <= now);
+            }
+        }
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getHits() {
+        return hits.sum() + storeHits.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum() + storeCoalesced.sum();
+    }
+
+    public Map<String, Object> getStatistics() {
+        long hit = getHits();
+        long coalesce = getCoalesced();
+        long lookups = hit + coalesce + getMisses();
+        int frontEntries = 0;
+        for (Shard shard : shards) {
+            synchronized (shard) {
+                frontEntries += shard.size();
+            }
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("lookups", lookups);
+        stats.put("misses", getMisses());
+        stats.put("frontHits", hits.sum());
+        stats.put("storeHits", storeHits.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("storeCoalesced", storeCoalesced.sum());
+        stats.put("hitRate", lookups == 0 ? 0.0 : (double) hit / lookups);
+        stats.put("coalesceRate", lookups == 0 ? 0.0 : (double) coalesce / lookups);
+        stats.put("failures", failures.sum());
+        stats.put("duplicateTimeouts", duplicateTimeouts.sum());
+        stats.put("keyReuses", keyReuses.sum());
+        stats.put("storeErrors", storeErrors.sum());
+        stats.put("frontEntries", frontEntries);
+        stats.put("shards", shards.length);
+        return stats;
+    }
+
+    private Claim claimInStore(String key, Entry entry) throws InterruptedException {
+        IdempotencyRecord claim = IdempotencyRecord.inFlight(key, nodeId, entry.fingerprint);
+        long deadline = clock.getAsLong() + duplicateWaitMillis;
+        boolean waited = false;
+        while (true) {
+            IdempotencyRecord prior;
+            try {
+                prior = store.putIfAbsent(claim, inFlightTtlMillis);
+            } catch (RuntimeException e) {
+                // Store unavailable: dedup on this node only until it is back
+                storeErrors.increment();
+                prior = null;
+            }
+
+            if (prior == null) {
+                entry.claim = claim;
+                misses.increment();
+                return new Claim(key, Outcome.MISS, entry, null);
+            }
+            try {
+                checkSameRequest(key, prior.getFingerprint(), entry.fingerprint);
+            } catch (IdempotencyKeyReusedException e) {
+                release(key, entry, e);
+                throw e;
+            }
+            if (prior.isCompleted()) {
+                (waited ? storeCoalesced : storeHits).increment();
+                entry.expiresAtMillis = clock.getAsLong() + resultTtlMillis;
+                entry.result.complete(prior.getResult());
+                return new Claim(key, waited ? Outcome.STORE_COALESCED : Outcome.STORE_HIT, entry, prior.getResult());
+            }
+
+            // Still running on another node
+            if (clock.getAsLong() >= deadline) {
+                duplicateTimeouts.increment();
+                DuplicateRequestInProgressException timeout = new DuplicateRequestInProgressException(
+                    "Request " + key + " is still in progress on " + prior.getOwner());
+                release(key, entry, timeout);
+                throw timeout;
+            }
+            waited = true;
+            try {
+                Thread.sleep(storePollMillis);
+            } catch (InterruptedException e) {
+                release(key, entry, e);
+                throw e;
+            }
+        }
+    }
+
+    private Map<String, Object> await(String key, CompletableFuture<Map<String, Object>> result)
+            throws InterruptedException {
+        try {
+            return result.get(duplicateWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            duplicateTimeouts.increment();
+            throw new DuplicateRequestInProgressException("Request " + key + " is still in progress");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Request " + key + " failed: " + cause.getMessage(), cause);
+        }
+    }
+
+    private void checkSameRequest(String key, String firstFingerprint, String fingerprint) {
+        if (firstFingerprint != null && fingerprint != null && !firstFingerprint.equals(fingerprint)) {
+            keyReuses.increment();
+            throw new IdempotencyKeyReusedException("Idempotency key " + key + " was already used for a different request");
+        }
+    }
+
+    private static void appendCanonical(StringBuilder canonical, Object value) {
+        if (value instanceof Map<?, ?> map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            map.forEach((name, entry) -> sorted.put(String.valueOf(name), entry));
+            canonical.append('{');
+            sorted.forEach((name, entry) -> {
+                appendCanonical(canonical, name);
+                appendCanonical(canonical, entry);
+            });
+            canonical.append('}');
+        } else if (value instanceof Collection<?> values) {
+            canonical.append('[');
+            for (Object entry : values) {
+                appendCanonical(canonical, entry);
+            }
+            canonical.append(']');
+        } else {
+            // Length-prefixed, so no value can pass for a different structure
+            String text = String.valueOf(value);
+            canonical.append(text.length()).append(':').append(text);
+        }
+    }
+
+    private void release(String key, Entry entry, Throwable failure) {
+        Shard shard = shardFor(key);
+        synchronized (shard) {
+            shard.remove(key, entry);
+        }
+        IdempotencyRecord claim = entry.claim;
+        if (claim != null) {
+            try {
+                store.remove(claim);
+            } catch (RuntimeException e) {
+                storeErrors.increment();
+            }
+        }
+        entry.result.completeExceptionally(failure);
+    }
+
+    private Shard shardFor(String key) {
+        int hash = key.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & shardMask];
+    }
+}
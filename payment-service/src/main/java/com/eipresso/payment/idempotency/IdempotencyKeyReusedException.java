@@ -0,0 +1,24 @@
+package com.eipresso.payment.idempotency;
+
+/**
+ * An idempotency key was sent again with a different request than the one
+ * it was first used for, so the first result does not answer it
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+
+    /**
+     * @return the reused-key failure among the failure and its causes, or null
+     */
+    public static IdempotencyKeyReusedException find(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IdempotencyKeyReusedException reused) {
+                return reused;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,88 @@
+package com.eipresso.payment.idempotency;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * What the idempotency store knows about one key: either a claim by the
+ * node currently processing it, or the result it completed with, along
+ * with the fingerprint of the request that used the key first
+ *
+ * Immutable and serializable, so it can be kept in a Hazelcast map as is.
+ * Only serializable result values are kept.
+ */
+public class IdempotencyRecord implements Serializable {
+
+    private static final long serialVersionUID = 2L;
+
+    private final String key;
+    private final String owner;
+    private final String fingerprint;
+    private final boolean completed;
+    private final HashMap<String, Serializable> result;
+
+    private IdempotencyRecord(String key, String owner, String fingerprint, boolean completed,
+                              HashMap<String, Serializable> result) {
+        this.key = key;
+        this.owner = owner;
+        this.fingerprint = fingerprint;
+        this.completed = completed;
+        this.result = result;
+    }
+
+    public static IdempotencyRecord inFlight(String key, String owner, String fingerprint) {
+        return new IdempotencyRecord(key, owner, fingerprint, false, null);
+    }
+
+    public static IdempotencyRecord completed(String key, String owner, String fingerprint, Map<String, Object> result) {
+        HashMap<String, Serializable> values = new HashMap<>();
+        result.forEach((name, value) -> {
+            if (value instanceof Serializable serializable) {
+                values.put(name, serializable);
+            }
+        });
+        return new IdempotencyRecord(key, owner, fingerprint, true, values);
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    /**
+     * @return the first request's fingerprint, or null when it was not given
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public Map<String, Object> getResult() {
+        return result != null ? new HashMap<>(result) : null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof IdempotencyRecord record)) {
+            return false;
+        }
+        return completed == record.completed && key.equals(record.key) && owner.equals(record.owner)
+            && Objects.equals(fingerprint, record.fingerprint) && Objects.equals(result, record.result);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(key, owner, completed);
+    }
+}
@@ -0,0 +1,22 @@
+package com.eipresso.payment.idempotency;
+
+/**
+ * Shared record of idempotency keys, so a duplicate is recognised whichever
+ * node it reaches. Records expire after the TTL they were written with.
+ */
+public interface IdempotencyStore {
+
+    IdempotencyRecord get(String key);
+
+    /**
+     * @return the record already held for the key, or null if this one was stored
+     */
+    IdempotencyRecord putIfAbsent(IdempotencyRecord record, long ttlMillis);
+
+    void put(IdempotencyRecord record, long ttlMillis);
+
+    /**
+     * Remove the key only while it still maps to this record
+     */
+    void remove(IdempotencyRecord record);
+}
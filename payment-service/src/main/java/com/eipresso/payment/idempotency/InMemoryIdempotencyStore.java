@@ -0,0 +1,68 @@
+package com.eipresso.payment.idempotency;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Process-local idempotency store, used when no Hazelcast cluster is available
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+    private static class Expiring {
+        private final IdempotencyRecord record;
+        private final long expiresAtMillis;
+
+        private Expiring(IdempotencyRecord record, long expiresAtMillis) {
+            this.record = record;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+
+    private final Map<String, Expiring> records = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    public InMemoryIdempotencyStore() {
+        this(System::currentTimeMillis);
+    }
+
+    public InMemoryIdempotencyStore(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public IdempotencyRecord get(String key) {
+        Expiring entry = records.get(key);
+        return entry != null && entry.expiresAtMillis > clock.getAsLong() ? entry.record : null;
+    }
+
+    @Override
+    public IdempotencyRecord putIfAbsent(IdempotencyRecord record, long ttlMillis) {
+        long now = clock.getAsLong();
+        Expiring stored = records.compute(record.getKey(), (key, current) ->
+            current != null && current.expiresAtMillis > now ? current : new Expiring(record, now + ttlMillis));
+        return stored.record != record ? stored.record : null;
+    }
+
+    @Override
+    public void put(IdempotencyRecord record, long ttlMillis) {
+        records.put(record.getKey(), new Expiring(record, clock.getAsLong() + ttlMillis));
+    }
+
+    @Override
+    public void remove(IdempotencyRecord record) {
+        records.computeIfPresent(record.getKey(), (key, current) -> current.record.equals(record) ? null : current);
+    }
+
+    /**
+     * Drop expired keys
+     */
+    public void purgeExpired() {
+        long now = clock.getAsLong();
+        records.values().removeIf(entry -> entry.expiresAtMillis <= now);
+    }
+
+    public int size() {
+        return records.size();
+    }
+}
@@ -0,0 +1,48 @@
+package com.eipresso.payment.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money amounts as whole cents
+ *
+ * Payment maps and headers carry amounts as Numbers or numeric Strings;
+ * converting them once to cents lets counters and sums work on exact longs.
+ */
+public final class Money {
+
+    private Money() {
+    }
+
+    /**
+     * An amount in cents, rounded half-even; 0 when missing or not numeric
+     */
+    public static long toCents(Object amount) {
+        if (amount == null) {
+            return 0L;
+        }
+        BigDecimal value;
+        if (amount instanceof BigDecimal) {
+            value = (BigDecimal) amount;
+        } else if (amount instanceof Double || amount instanceof Float) {
+            // valueOf uses the shortest decimal form, so 25.1 stays 25.1
+            value = BigDecimal.valueOf(((Number) amount).doubleValue());
+        } else if (amount instanceof Number) {
+            value = BigDecimal.valueOf(((Number) amount).longValue());
+        } else {
+            try {
+                value = new BigDecimal(amount.toString().trim());
+            } catch (NumberFormatException e) {
+                return 0L;
+            }
+        }
+        return value.setScale(2, RoundingMode.HALF_EVEN).movePointRight(2).longValueExact();
+    }
+
+    /**
+     * An amount of cents in currency units, with two decimals
+     */
+    public static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,79 @@
+package com.eipresso.payment.retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Per-gateway backoff: base delay, multiplier, delay cap and call timeout
+ */
+public class GatewayRetryPolicy {
+
+    private static final GatewayRetryPolicy STRIPE = new GatewayRetryPolicy(1000L, 2.0, 30000L, 30);
+    private static final GatewayRetryPolicy PAYPAL = new GatewayRetryPolicy(2000L, 1.5, 60000L, 45);
+    private static final GatewayRetryPolicy SQUARE = new GatewayRetryPolicy(1500L, 2.0, 25000L, 25);
+    private static final GatewayRetryPolicy MOCK = new GatewayRetryPolicy(500L, 1.2, 5000L, 5);
+    private static final GatewayRetryPolicy DEFAULT = new GatewayRetryPolicy(1000L, 2.0, 30000L, 30);
+
+    /** Jitter adds up to this fraction of the delay, to spread retries of a failed burst */
+    private static final double JITTER_FRACTION = 0.1;
+
+    private final long baseDelayMillis;
+    private final double multiplier;
+    private final long maxDelayMillis;
+    private final int timeoutSeconds;
+
+    public GatewayRetryPolicy(long baseDelayMillis, double multiplier, long maxDelayMillis, int timeoutSeconds) {
+        this.baseDelayMillis = baseDelayMillis;
+        this.multiplier = multiplier;
+        this.maxDelayMillis = maxDelayMillis;
+        this.timeoutSeconds = timeoutSeconds;
+    }
+
+    public static GatewayRetryPolicy forGateway(String gateway) {
+        if (gateway == null) {
+            return DEFAULT;
+        }
+        switch (gateway) {
+            case "STRIPE": return STRIPE;
+            case "PAYPAL": return PAYPAL;
+            case "SQUARE": return SQUARE;
+            case "MOCK": return MOCK;
+            default: return DEFAULT;
+        }
+    }
+
+    /**
+     * Delay before the given attempt, without jitter
+     */
+    public long backoffMillis(int attempt) {
+        long calculated = (long) (baseDelayMillis * Math.pow(multiplier, attempt - 1));
+        return Math.min(calculated, maxDelayMillis);
+    }
+
+    public long jitterMillis(long backoffMillis) {
+        return (long) (backoffMillis * JITTER_FRACTION * ThreadLocalRandom.current().nextDouble());
+    }
+
+    /**
+     * Delay before the given attempt, with jitter
+     */
+    public long delayMillis(int attempt) {
+        long backoff = backoffMillis(attempt);
+        return backoff + jitterMillis(backoff);
+    }
+
+    public long getBaseDelayMillis() {
+        return baseDelayMillis;
+    }
+
+    public double getMultiplier() {
+        return multiplier;
+    }
+
+    public long getMaxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    public int getTimeoutSeconds() {
+        return timeoutSeconds;
+    }
+}
@@ -0,0 +1,74 @@
+package com.eipresso.payment.retry;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Retry store backed by a replicated Hazelcast map, so the node that takes
+ * over after a failover resumes the pending retries
+ *
+ * Each entry records the member that saved it. Only retries whose owner has
+ * left the cluster are claimed on recovery, one entry lock at a time, so a
+ * node that starts or recovers while others run leaves their retries alone.
+ */
+public class HazelcastRetryStore implements RetryStore {
+
+    public static final String MAP_NAME = "payment-pending-retries";
+
+    private final HazelcastInstance hazelcastInstance;
+    private final IMap<String, PendingRetry> retries;
+    private final String localMember;
+
+    public HazelcastRetryStore(HazelcastInstance hazelcastInstance) {
+        this.hazelcastInstance = hazelcastInstance;
+        this.retries = hazelcastInstance.getMap(MAP_NAME);
+        this.localMember = hazelcastInstance.getCluster().getLocalMember().getUuid().toString();
+    }
+
+    @Override
+    public void save(PendingRetry retry) {
+        retries.set(retry.getRetryId(), retry.withOwner(localMember));
+    }
+
+    @Override
+    public void remove(String retryId) {
+        retries.delete(retryId);
+    }
+
+    @Override
+    public Collection<PendingRetry> findAll() {
+        return new ArrayList<>(retries.values());
+    }
+
+    @Override
+    public Collection<PendingRetry> claimOrphaned() {
+        Set<String> liveMembers = hazelcastInstance.getCluster().getMembers().stream()
+            .map(member -> member.getUuid().toString())
+            .collect(Collectors.toSet());
+        List<PendingRetry> claimed = new ArrayList<>();
+        for (String retryId : retries.keySet()) {
+            // Held by another node claiming it right now
+            if (!retries.tryLock(retryId)) {
+                continue;
+            }
+            try {
+                PendingRetry retry = retries.get(retryId);
+                if (retry == null || (retry.getOwner() != null && liveMembers.contains(retry.getOwner()))) {
+                    continue;
+                }
+                PendingRetry owned = retry.withOwner(localMember);
+                retries.set(retryId, owned);
+                claimed.add(owned);
+            } finally {
+                retries.unlock(retryId);
+            }
+        }
+        return claimed;
+    }
+}
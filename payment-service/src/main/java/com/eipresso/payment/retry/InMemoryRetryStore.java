@@ -0,0 +1,38 @@
+package com.eipresso.payment.retry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-local retry store, used when no Hazelcast cluster is available
+ */
+public class InMemoryRetryStore implements RetryStore {
+
+    private final Map<String, PendingRetry> retries = new ConcurrentHashMap<>();
+
+    @Override
+    public void save(PendingRetry retry) {
+        retries.put(retry.getRetryId(), retry);
+    }
+
+    @Override
+    public void remove(String retryId) {
+        retries.remove(retryId);
+    }
+
+    @Override
+    public Collection<PendingRetry> findAll() {
+        return new ArrayList<>(retries.values());
+    }
+
+    /**
+     * Only this process can hold the store, so whatever is left in it was
+     * left by a scheduler that has stopped
+     */
+    @Override
+    public Collection<PendingRetry> claimOrphaned() {
+        return findAll();
+    }
+}
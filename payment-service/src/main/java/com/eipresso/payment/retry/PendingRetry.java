@@ -0,0 +1,125 @@
+package com.eipresso.payment.retry;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A payment waiting for its next gateway attempt
+ *
+ * Immutable and serializable, so the retry store can persist it as is.
+ * Only serializable header values are kept; the body is the payment the
+ * next attempt sends, so one that cannot be serialized is refused rather
+ * than dropped. The store records which cluster member owns the retry, so
+ * only that member dispatches it.
+ */
+public class PendingRetry implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String retryId;
+    private final String paymentId;
+    private final String gateway;
+    private final int attempt;
+    private final int maxRetries;
+    private final long dueAtMillis;
+    private final String lastFailureReason;
+    private final HashMap<String, Serializable> headers;
+    private final Serializable body;
+    private final String owner;
+
+    /**
+     * @throws IllegalArgumentException when the body is not serializable
+     */
+    public PendingRetry(String retryId, String paymentId, String gateway, int attempt, int maxRetries,
+                        long dueAtMillis, String lastFailureReason, Map<String, Object> headers, Object body) {
+        this(retryId, paymentId, gateway, attempt, maxRetries, dueAtMillis, lastFailureReason, headers, body, null);
+    }
+
+    private PendingRetry(String retryId, String paymentId, String gateway, int attempt, int maxRetries,
+                         long dueAtMillis, String lastFailureReason, Map<String, ?> headers, Object body,
+                         String owner) {
+        this.retryId = retryId;
+        this.paymentId = paymentId;
+        this.gateway = gateway;
+        this.attempt = attempt;
+        this.maxRetries = maxRetries;
+        this.dueAtMillis = dueAtMillis;
+        this.lastFailureReason = lastFailureReason;
+        this.headers = new HashMap<>();
+        headers.forEach((name, value) -> {
+            if (value instanceof Serializable serializable) {
+                this.headers.put(name, serializable);
+            }
+        });
+        if (body != null && !(body instanceof Serializable)) {
+            throw new IllegalArgumentException("Cannot store a retry of payment " + paymentId
+                + ": its body (" + body.getClass().getName() + ") is not serializable");
+        }
+        this.body = (Serializable) body;
+        this.owner = owner;
+    }
+
+    /**
+     * The attempt after this one failed, due at {@code dueAtMillis}
+     */
+    public PendingRetry next(long dueAtMillis, String failureReason) {
+        return new PendingRetry(retryId, paymentId, gateway, attempt + 1, maxRetries,
+            dueAtMillis, failureReason, headers, body, owner);
+    }
+
+    /**
+     * This retry, owned by the cluster member {@code owner}
+     */
+    public PendingRetry withOwner(String owner) {
+        return new PendingRetry(retryId, paymentId, gateway, attempt, maxRetries,
+            dueAtMillis, lastFailureReason, headers, body, owner);
+    }
+
+    public boolean hasAttemptsLeft() {
+        return attempt < maxRetries;
+    }
+
+    public String getRetryId() {
+        return retryId;
+    }
+
+    public String getPaymentId() {
+        return paymentId;
+    }
+
+    public String getGateway() {
+        return gateway;
+    }
+
+    public int getAttempt() {
+        return attempt;
+    }
+
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public long getDueAtMillis() {
+        return dueAtMillis;
+    }
+
+    public String getLastFailureReason() {
+        return lastFailureReason;
+    }
+
+    public Map<String, Object> getHeaders() {
+        return new HashMap<>(headers);
+    }
+
+    public Object getBody() {
+        return body;
+    }
+
+    /**
+     * @return the id of the cluster member that dispatches this retry, or null when not recorded
+     */
+    public String getOwner() {
+        return owner;
+    }
+}
@@ -0,0 +1,46 @@
+package com.eipresso.payment.retry;
+
+/**
+ * How a scheduled payment retry ended: succeeded on an attempt, or exhausted
+ */
+public class RetryOutcome {
+
+    private final String retryId;
+    private final boolean succeeded;
+    private final int attempts;
+    private final String failureReason;
+
+    private RetryOutcome(String retryId, boolean succeeded, int attempts, String failureReason) {
+        this.retryId = retryId;
+        this.succeeded = succeeded;
+        this.attempts = attempts;
+        this.failureReason = failureReason;
+    }
+
+    public static RetryOutcome succeeded(PendingRetry retry) {
+        return new RetryOutcome(retry.getRetryId(), true, retry.getAttempt(), null);
+    }
+
+    /**
+     * @param retry the retry as passed to {@link RetryScheduler.RetryHandler#exhausted}
+     */
+    public static RetryOutcome exhausted(PendingRetry retry) {
+        return new RetryOutcome(retry.getRetryId(), false, retry.getAttempt() - 1, retry.getLastFailureReason());
+    }
+
+    public String getRetryId() {
+        return retryId;
+    }
+
+    public boolean isSucceeded() {
+        return succeeded;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getFailureReason() {
+        return failureReason;
+    }
+}
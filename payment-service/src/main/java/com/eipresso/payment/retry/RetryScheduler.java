@@ -0,0 +1,286 @@
+package com.eipresso.payment.retry;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Retry Scheduler
+ *
+ * Runs payment retries from a delay queue instead of sleeping on the caller's
+ * thread. A waiting retry is only an entry in the queue and the store; the
+ * fixed dispatch pool picks it up once due, makes the attempt and, on
+ * failure, schedules the next one with the gateway's backoff. Thousands of
+ * payments can wait on a handful of threads. An attempt is asynchronous: the
+ * dispatch thread only starts it, and the attempt is settled when the
+ * handler's stage completes, so a slow gateway does not pin the pool.
+ *
+ * Every retry is saved before it is queued and removed once it succeeds, is
+ * exhausted or fails in a way the handler does not retry, so
+ * {@link #recover} can requeue what a stopped node left behind. A node that
+ * stops mid-attempt repeats that attempt after recovery. {@link #recoverLater} does the same off the caller's thread, e.g. from a
+ * cluster membership event.
+ */
+public class RetryScheduler implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetryScheduler.class);
+
+    /**
+     * Gateway call and exhaustion handling for the scheduled retries
+     */
+    public interface RetryHandler {
+
+        /**
+         * Start the attempt without waiting for the gateway
+         *
+         * @return completes once the attempt succeeded; any exception, thrown
+         *         here or completing the stage, counts as a failed attempt
+         */
+        CompletionStage<?> attempt(PendingRetry retry) throws Exception;
+
+        /**
+         * Called once the last attempt failed, with the failure reason and the attempt count past the limit
+         */
+        void exhausted(PendingRetry retry);
+
+        /**
+         * Whether a failed attempt is worth another; one that is not ends the retry at once
+         */
+        default boolean isRetryable(Exception failure) {
+            return true;
+        }
+
+        /**
+         * Called instead of {@link #exhausted} when an attempt failed with a non-retryable failure
+         */
+        default void rejected(PendingRetry retry, Exception failure) {
+            exhausted(retry);
+        }
+    }
+
+    private final RetryStore store;
+    private final RetryHandler handler;
+    private final int dispatchThreads;
+    private final ScheduledThreadPoolExecutor executor;
+
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicInteger peakPending = new AtomicInteger();
+    // Attempts started but not yet settled; close waits on its monitor
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final LongAdder scheduled = new LongAdder();
+    private final LongAdder attempts = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder dispatchLagMillis = new LongAdder();
+    private final AtomicLong maxDispatchLagMillis = new AtomicLong();
+
+    public RetryScheduler(RetryStore store, RetryHandler handler, int dispatchThreads) {
+        this.store = store;
+        this.handler = handler;
+        this.dispatchThreads = dispatchThreads;
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(dispatchThreads, runnable -> {
+            Thread thread = new Thread(runnable, "payment-retry-" + threadIds.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Retries still waiting at shutdown stay in the store for recovery
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Persist the retry and queue it for its due time
+     */
+    public void schedule(PendingRetry retry) {
+        store.save(retry);
+        scheduled.increment();
+        enqueue(retry);
+    }
+
+    /**
+     * Requeue the retries left in the store by schedulers that are no longer
+     * running, overdue ones at once
+     *
+     * @return the number of retries recovered
+     */
+    public int recover() {
+        Collection<PendingRetry> stored = store.claimOrphaned();
+        for (PendingRetry retry : stored) {
+            enqueue(retry);
+        }
+        recovered.add(stored.size());
+        if (!stored.isEmpty()) {
+            logger.info("🔄 Recovered {} pending payment retries", stored.size());
+        }
+        return stored.size();
+    }
+
+    /**
+     * {@link #recover} on a dispatch thread
+     */
+    public void recoverLater() {
+        try {
+            executor.execute(() -> {
+                try {
+                    recover();
+                } catch (RuntimeException e) {
+                    logger.error("❌ Payment retry recovery failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Shutting down: whatever is orphaned stays in the store for the next node
+        }
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Stop dispatching, waiting up to {@code timeoutMillis} for attempts in progress
+     */
+    public boolean close(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        executor.shutdown();
+        if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            return false;
+        }
+        synchronized (inFlight) {
+            long remaining;
+            while (inFlight.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(inFlight, remaining);
+            }
+            return inFlight.get() == 0;
+        }
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        close(10_000L);
+    }
+
+    public Map<String, Object> getStatistics() {
+        long attempted = attempts.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("pending", pending.get());
+        stats.put("peakPending", peakPending.get());
+        stats.put("inFlight", inFlight.get());
+        stats.put("peakInFlight", peakInFlight.get());
+        stats.put("scheduled", scheduled.sum());
+        stats.put("attempts", attempted);
+        stats.put("failedAttempts", failedAttempts.sum());
+        stats.put("succeeded", succeeded.sum());
+        stats.put("exhausted", exhausted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("recovered", recovered.sum());
+        stats.put("dispatchThreads", dispatchThreads);
+        stats.put("averageDispatchLagMillis", attempted == 0 ? 0L : dispatchLagMillis.sum() / attempted);
+        stats.put("maxDispatchLagMillis", maxDispatchLagMillis.get());
+        return stats;
+    }
+
+    private void enqueue(PendingRetry retry) {
+        peakPending.accumulateAndGet(pending.incrementAndGet(), Math::max);
+        long delay = Math.max(0L, retry.getDueAtMillis() - System.currentTimeMillis());
+        try {
+            executor.schedule(() -> dispatch(retry), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down: the retry stays in the store for recovery
+            pending.decrementAndGet();
+        }
+    }
+
+    private void dispatch(PendingRetry retry) {
+        pending.decrementAndGet();
+        long lag = Math.max(0L, System.currentTimeMillis() - retry.getDueAtMillis());
+        dispatchLagMillis.add(lag);
+        maxDispatchLagMillis.accumulateAndGet(lag, Math::max);
+        attempts.increment();
+        peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+
+        CompletionStage<?> attempt;
+        try {
+            attempt = handler.attempt(retry);
+        } catch (Exception e) {
+            attempt = CompletableFuture.failedFuture(e);
+        }
+        attempt.whenComplete((result, failure) -> {
+            try {
+                settle(retry, failure);
+            } catch (RuntimeException e) {
+                logger.error("❌ Settling the retry of payment {} failed: {}", retry.getPaymentId(), e.getMessage());
+            } finally {
+                synchronized (inFlight) {
+                    if (inFlight.decrementAndGet() == 0) {
+                        inFlight.notifyAll();
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Remove a succeeded retry, or schedule the next attempt, reject or exhaust a failed one
+     */
+    private void settle(PendingRetry retry, Throwable outcome) {
+        if (outcome == null) {
+            store.remove(retry.getRetryId());
+            succeeded.increment();
+            return;
+        }
+        Throwable cause = outcome instanceof CompletionException && outcome.getCause() != null
+            ? outcome.getCause() : outcome;
+        Exception failure = cause instanceof Exception exception ? exception : new RuntimeException(cause);
+
+        failedAttempts.increment();
+        String reason = failure.getMessage();
+        if (!handler.isRetryable(failure)) {
+            store.remove(retry.getRetryId());
+            rejected.increment();
+            try {
+                handler.rejected(retry.next(System.currentTimeMillis(), reason), failure);
+            } catch (RuntimeException e) {
+                logger.error("❌ Retry rejection handling failed for payment {}: {}", retry.getPaymentId(), e.getMessage());
+            }
+            return;
+        }
+        if (retry.hasAttemptsLeft()) {
+            long delay = GatewayRetryPolicy.forGateway(retry.getGateway()).delayMillis(retry.getAttempt() + 1);
+            PendingRetry next = retry.next(System.currentTimeMillis() + delay, reason);
+            logger.debug("Payment {} attempt {} failed, retrying in {}ms: {}",
+                retry.getPaymentId(), retry.getAttempt(), delay, reason);
+            schedule(next);
+            return;
+        }
+
+        store.remove(retry.getRetryId());
+        exhausted.increment();
+        try {
+            handler.exhausted(retry.next(System.currentTimeMillis(), reason));
+        } catch (RuntimeException e) {
+            logger.error("❌ Retry exhaustion handling failed for payment {}: {}", retry.getPaymentId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.eipresso.payment.retry;
+
+import java.util.Collection;
+
+/**
+ * Durable record of scheduled retries, so they survive a restart or failover
+ */
+public interface RetryStore {
+
+    void save(PendingRetry retry);
+
+    void remove(String retryId);
+
+    Collection<PendingRetry> findAll();
+
+    /**
+     * Take over the retries whose owner is no longer running, each claimed by
+     * at most one caller, so no two nodes dispatch the same retry
+     *
+     * @return the retries claimed, now owned by the caller
+     */
+    Collection<PendingRetry> claimOrphaned();
+}
@@ -1,12 +1,25 @@
 package com.eipresso.payment.routes;
 
+import com.eipresso.payment.gateway.GatewayCallProcessor;
+import com.eipresso.payment.gateway.GatewayCircuitBreakers;
+import com.eipresso.payment.gateway.PaymentDeclinedException;
+import com.eipresso.payment.idempotency.IdempotencyCache;
+import com.eipresso.payment.idempotency.IdempotencyKeyReusedException;
+import com.eipresso.payment.model.PaymentGateway;
+import com.eipresso.payment.model.PaymentMethod;
+import com.eipresso.payment.retry.GatewayRetryPolicy;
+import com.eipresso.payment.retry.PendingRetry;
+import com.eipresso.payment.service.PaymentIdempotencyService;
+import com.eipresso.payment.service.PaymentRetryService;
 import org.apache.camel.Exchange;
 import org.apache.camel.LoggingLevel;
 import org.apache.camel.builder.RouteBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -19,14 +32,63 @@ import java.util.UUID;
  * 
  * Routes:
  * 1. payment-retry-entry: Main retry entry point
- * 2. gateway-retry-processor: Gateway-specific retry logic
+ * 2. gateway-retry-processor: First attempt, scheduling the retry if it fails
+ *    gateway-retry-attempt: Scheduled attempt, run by the retry scheduler
  * 3. exponential-backoff-processor: Exponential backoff calculation
  * 4. retry-exhausted-processor: Handle retry exhaustion
+ *    payment-declined-processor: Handle a charge the gateway declined
  * 5. circuit-breaker-integration: Circuit breaker coordination
+ *
+ * Gateway calls go through per-gateway circuit breakers: a payment whose
+ * gateway's circuit is open is rerouted to the next healthy gateway that
+ * supports its payment method, or fails fast when there is none.
+ *
+ * A payment whose first attempt failed comes back with the header
+ * {@code retryScheduled=true} and a RETRY_SCHEDULED record as its body,
+ * carrying the {@code retryId} its later attempts run under. A declined
+ * charge is never retried: it comes back with {@code paymentStatus=FAILED}
+ * and a DECLINED record.
+ *
+ * Gateway calls are idempotent per {@code idempotencyKey} header, or per
+ * paymentId without one: a call whose key already succeeded replays the
+ * recorded outcome, and a concurrent duplicate waits for the first call.
  */
 @Component
 public class RetryRoute extends RouteBuilder {
 
+    public static final String RETRY_SCHEDULED_STATUS = "RETRY_SCHEDULED";
+    public static final String RETRY_EXHAUSTED_STATUS = "RETRY_EXHAUSTED";
+    public static final String PAYMENT_DECLINED_STATUS = "DECLINED";
+    public static final String GATEWAY_REROUTE_REASON_HEADER = "gatewayRerouteReason";
+    public static final String REROUTE_CIRCUIT_OPEN = "CIRCUIT_OPEN";
+    public static final String REROUTE_UNSUPPORTED_METHOD = "UNSUPPORTED_METHOD";
+
+    private static final String RETRY_BODY_PROPERTY = "retryBody";
+    private static final String SELECTED_GATEWAY_PROPERTY = "selectedGateway";
+    private static final String GATEWAY_CALL_START_PROPERTY = "gatewayCallStartNanos";
+    private static final String IDEMPOTENCY_CLAIM_PROPERTY = "idempotencyClaim";
+    private static final String IDEMPOTENT_REPLAY_HEADER = "idempotentReplay";
+    private static final String REPLAY_BODY = "body";
+    // What a gateway call charges; a key reused with different values is refused. The gateway
+    // is left out since failover may move the same charge to another one
+    private static final List<String> GATEWAY_REQUEST_HEADERS = List.of(
+        "amount", "currency", "paymentMethod", "orderId", "userId");
+    private static final List<String> GATEWAY_RESULT_HEADERS = List.of(
+        "paymentGateway", "requestedGateway", "gatewayRerouted", GATEWAY_REROUTE_REASON_HEADER,
+        "gatewayCallStart", "gatewayCallDuration");
+
+    @Autowired
+    private PaymentRetryService paymentRetryService;
+
+    @Autowired
+    private GatewayCircuitBreakers gatewayCircuitBreakers;
+
+    @Autowired
+    private PaymentIdempotencyService paymentIdempotencyService;
+
+    @Autowired
+    private GatewayCallProcessor gatewayCallProcessor;
+
     @Override
     public void configure() throws Exception {
         
@@ -71,52 +133,61 @@ public class RetryRoute extends RouteBuilder {
 
         /**
          * Route 2: Gateway Retry Processor
+         * Makes the current attempt on the caller's thread; a failed attempt is
+         * scheduled again after the gateway's backoff instead of waiting here
          */
         from("direct:gateway-retry-processor")
             .routeId("gateway-retry-processor")
             .description("Retry Pattern: Gateway-specific retry logic")
-            .log("🚀 Processing gateway retry attempt ${header.retryAttempt}: ${header.paymentId}")
+            .log("🚀 Processing gateway attempt ${header.retryAttempt}: ${header.paymentId}")
             
             .process(exchange -> {
                 String gateway = exchange.getIn().getHeader("paymentGateway", String.class);
-                Integer attempt = exchange.getIn().getHeader("retryAttempt", Integer.class);
-                
-                // Calculate retry delay based on gateway and attempt
-                long retryDelay = calculateRetryDelay(gateway, attempt);
-                exchange.getIn().setHeader("retryDelay", retryDelay);
                 
                 // Set gateway-specific timeout
-                int timeout = getGatewayTimeout(gateway);
+                int timeout = GatewayRetryPolicy.forGateway(gateway).getTimeoutSeconds();
                 exchange.getIn().setHeader("gatewayTimeout", timeout);
+                exchange.getIn().setHeader("retryScheduled", false);
                 
-                log.info("🚀 Gateway {} retry attempt {}, delay: {}ms, timeout: {}s", 
-                        gateway, attempt, retryDelay, timeout);
+                // The gateway routes replace the body; a scheduled retry needs the original
+                exchange.setProperty(RETRY_BODY_PROPERTY, exchange.getIn().getBody());
             })
             
-            .delay(simple("${header.retryDelay}"))
-            
             .doTry()
                 .to("direct:exponential-backoff-processor")
                 .to("direct:process-payment-gateway-call")
-                .log("✅ Payment gateway retry successful: ${header.paymentId}")
+                .log("✅ Payment gateway call successful: ${header.paymentId}")
                 
-            .doCatch(Exception.class)
-                .log(LoggingLevel.WARN, "❌ Payment gateway retry failed: ${exception.message}")
+            .doCatch(IdempotencyKeyReusedException.class)
+                // Not a gateway failure: the key belongs to another payment, so nothing is retried
                 .process(exchange -> {
-                    Integer attempt = exchange.getIn().getHeader("retryAttempt", Integer.class);
-                    exchange.getIn().setHeader("retryAttempt", attempt + 1);
-                    
-                    String reason = exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class).getMessage();
-                    exchange.getIn().setHeader("lastRetryFailureReason", reason);
+                    throw exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
                 })
+            .doCatch(Exception.class)
+                .log(LoggingLevel.WARN, "❌ Payment gateway attempt failed: ${exception.message}")
+                .process(this::scheduleNextAttempt)
                 .choice()
-                    .when(simple("${header.retryAttempt} <= ${header.maxRetries}"))
-                        .to("direct:payment-retry-entry")
-                    .otherwise()
+                    .when(header("paymentDeclined").isEqualTo(true))
+                        .to(PaymentRetryService.PAYMENT_DECLINED_URI)
+                    .when(header("retryScheduled").isEqualTo(false))
                         .to("direct:retry-exhausted-processor")
                 .end()
             .end();
 
+        /**
+         * Route 2b: Gateway Retry Attempt
+         * Runs on a retry dispatch thread; failures propagate to the retry scheduler,
+         * which schedules the next attempt or hands the payment to retry-exhausted-processor
+         */
+        from(PaymentRetryService.RETRY_ATTEMPT_URI)
+            .routeId("gateway-retry-attempt")
+            .description("Retry Pattern: Scheduled gateway retry attempt")
+            .errorHandler(noErrorHandler())
+            .log("🚀 Processing gateway retry attempt ${header.retryAttempt}: ${header.paymentId}")
+            .to("direct:exponential-backoff-processor")
+            .to("direct:process-payment-gateway-call")
+            .log("✅ Payment gateway retry successful: ${header.paymentId}");
+
         /**
          * Route 3: Exponential Backoff Processor
          */
@@ -130,15 +201,14 @@ public class RetryRoute extends RouteBuilder {
                 Integer attempt = exchange.getIn().getHeader("retryAttempt", Integer.class);
                 
                 // Exponential backoff calculation
-                long baseDelay = getGatewayBaseDelay(gateway);
-                double multiplier = getGatewayBackoffMultiplier(gateway);
-                long maxDelay = getGatewayMaxDelay(gateway);
-                
+                GatewayRetryPolicy policy = GatewayRetryPolicy.forGateway(gateway);
+                long baseDelay = policy.getBaseDelayMillis();
+                double multiplier = policy.getMultiplier();
                 long calculatedDelay = (long) (baseDelay * Math.pow(multiplier, attempt - 1));
-                long finalDelay = Math.min(calculatedDelay, maxDelay);
+                long finalDelay = policy.backoffMillis(attempt);
                 
                 // Add jitter to prevent thundering herd
-                long jitter = (long) (finalDelay * 0.1 * Math.random());
+                long jitter = policy.jitterMillis(finalDelay);
                 finalDelay += jitter;
                 
                 exchange.getIn().setHeader("exponentialBackoffDelay", finalDelay);
@@ -165,42 +235,78 @@ public class RetryRoute extends RouteBuilder {
 
         /**
          * Route 4: Process Payment Gateway Call
+         * At most one call per idempotency key; duplicates replay its outcome
          */
         from("direct:process-payment-gateway-call")
             .routeId("process-payment-gateway-call")
+            .description("Retry Pattern: Idempotent payment gateway call")
+            .errorHandler(noErrorHandler())
+            .process(this::beginIdempotentCall)
+            .choice()
+                .when(header(IDEMPOTENT_REPLAY_HEADER).isEqualTo(true))
+                    .log("♻️ Gateway call replayed for payment ${header.paymentId} (${header.idempotencyOutcome})")
+                .otherwise()
+                    .doTry()
+                        .to("direct:execute-payment-gateway-call")
+                        .process(this::completeIdempotentCall)
+                    .doCatch(Exception.class)
+                        .process(this::failIdempotentCall)
+                    .end()
+            .end();
+
+        /**
+         * Route 4b: Execute Payment Gateway Call
+         */
+        from("direct:execute-payment-gateway-call")
+            .routeId("execute-payment-gateway-call")
             .description("Retry Pattern: Actual payment gateway call")
+            .errorHandler(noErrorHandler())
             .log("🏦 Processing payment gateway call: ${header.paymentId}")
             
-            .process(exchange -> {
-                String gateway = exchange.getIn().getHeader("paymentGateway", String.class);
-                String paymentId = exchange.getIn().getHeader("paymentId", String.class);
-                Integer timeout = exchange.getIn().getHeader("gatewayTimeout", Integer.class);
+            // The circuit permit is taken inside the try, so a failure before the call still gives it back
+            .doTry()
+                // Circuit breakers: fail over to the next healthy gateway, or fail fast
+                .process(this::selectGateway)
                 
-                // Simulate gateway call with timeout
-                exchange.getIn().setHeader("gatewayCallStart", System.currentTimeMillis());
+                .process(exchange -> {
+                    String gateway = exchange.getIn().getHeader("paymentGateway", String.class);
+                    String paymentId = exchange.getIn().getHeader("paymentId", String.class);
+                    Integer timeout = exchange.getIn().getHeader("gatewayTimeout", Integer.class);
                 
-                Map<String, Object> gatewayRequest = new HashMap<>();
-                gatewayRequest.put("paymentId", paymentId);
-                gatewayRequest.put("gateway", gateway);
-                gatewayRequest.put("amount", exchange.getIn().getHeader("amount"));
-                gatewayRequest.put("currency", exchange.getIn().getHeader("currency"));
-                gatewayRequest.put("timeout", timeout);
-                gatewayRequest.put("requestTime", LocalDateTime.now());
+                    // Simulate gateway call with timeout
+                    exchange.getIn().setHeader("gatewayCallStart", System.currentTimeMillis());
                 
-                exchange.getIn().setBody(gatewayRequest);
+                    Map<String, Object> gatewayRequest = new HashMap<>();
+                    gatewayRequest.put("paymentId", paymentId);
+                    gatewayRequest.put("gateway", gateway);
+                    gatewayRequest.put("amount", exchange.getIn().getHeader("amount"));
+                    gatewayRequest.put("currency", exchange.getIn().getHeader("currency"));
+                    gatewayRequest.put("timeout", timeout);
+                    gatewayRequest.put("requestTime", LocalDateTime.now());
                 
-                log.info("🏦 Gateway call prepared for {}: payment {}", gateway, paymentId);
-            })
-            
-            .choice()
-                .when(simple("${header.paymentGateway} == 'STRIPE'"))
-                    .to("direct:stripe-gateway-call")
-                .when(simple("${header.paymentGateway} == 'PAYPAL'"))
-                    .to("direct:paypal-gateway-call")
-                .when(simple("${header.paymentGateway} == 'MOCK'"))
-                    .to("direct:mock-gateway-call")
-                .otherwise()
-                    .to("direct:default-gateway-call")
+                    exchange.getIn().setBody(gatewayRequest);
+                
+                    log.info("🏦 Gateway call prepared for {}: payment {}", gateway, paymentId);
+                    exchange.setProperty(GATEWAY_CALL_START_PROPERTY, System.nanoTime());
+                })
+                
+                .choice()
+                    .when(simple("${header.paymentGateway} == 'STRIPE'"))
+                        .to("direct:stripe-gateway-call")
+                    .when(simple("${header.paymentGateway} == 'PAYPAL'"))
+                        .to("direct:paypal-gateway-call")
+                    .when(simple("${header.paymentGateway} == 'MOCK'"))
+                        .to("direct:mock-gateway-call")
+                    .otherwise()
+                        .to("direct:default-gateway-call")
+                .end()
+                .process(exchange -> recordGatewayOutcome(exchange, null))
+            .doCatch(Exception.class)
+                .process(exchange -> {
+                    Exception failure = exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+                    recordGatewayOutcome(exchange, failure);
+                    throw failure;
+                })
             .end()
             
             .process(exchange -> {
@@ -231,7 +337,7 @@ public class RetryRoute extends RouteBuilder {
                 exhaustionRecord.put("finalAttempt", finalAttempt);
                 exhaustionRecord.put("exhaustionTime", LocalDateTime.now());
                 exhaustionRecord.put("lastFailureReason", lastFailure);
-                exhaustionRecord.put("status", "RETRY_EXHAUSTED");
+                exhaustionRecord.put("status", RETRY_EXHAUSTED_STATUS);
                 
                 exchange.getIn().setBody(exhaustionRecord);
                 exchange.getIn().setHeader("paymentStatus", "FAILED");
@@ -245,6 +351,34 @@ public class RetryRoute extends RouteBuilder {
             .to("direct:circuit-breaker-integration")
             .log("💀 Retry exhaustion processing completed");
 
+        /**
+         * Route 5b: Payment Declined Processor
+         * The gateway answered and declined; unlike exhaustion, says nothing about the gateway's health
+         */
+        from(PaymentRetryService.PAYMENT_DECLINED_URI)
+            .routeId("payment-declined-processor")
+            .description("Retry Pattern: Handle a declined charge without retrying it")
+            .log(LoggingLevel.WARN, "🚫 Payment declined: ${header.paymentId}")
+
+            .process(exchange -> {
+                String paymentId = exchange.getIn().getHeader("paymentId", String.class);
+                String reason = exchange.getIn().getHeader("lastRetryFailureReason", String.class);
+
+                Map<String, Object> declineRecord = new HashMap<>();
+                declineRecord.put("paymentId", paymentId);
+                declineRecord.put("attempt", exchange.getIn().getHeader("retryAttempt", 1, Integer.class) - 1);
+                declineRecord.put("declineTime", LocalDateTime.now());
+                declineRecord.put("lastFailureReason", reason);
+                declineRecord.put("status", PAYMENT_DECLINED_STATUS);
+
+                exchange.getIn().setBody(declineRecord);
+                exchange.getIn().setHeader("paymentStatus", "FAILED");
+                exchange.getIn().setHeader("failureReason", reason);
+            })
+
+            .to("mock:payment-declined")
+            .log("🚫 Payment decline processing completed");
+
         /**
          * Route 6: Circuit Breaker Integration
          */
@@ -264,6 +398,10 @@ public class RetryRoute extends RouteBuilder {
                 circuitBreakerEvent.put("eventType", "RETRY_EXHAUSTED");
                 circuitBreakerEvent.put("timestamp", LocalDateTime.now());
                 circuitBreakerEvent.put("failureCount", exchange.getIn().getHeader("retryAttempt"));
+                PaymentGateway paymentGateway = gatewayOf(gateway);
+                if (paymentGateway != null) {
+                    circuitBreakerEvent.put("circuitState", gatewayCircuitBreakers.getState(paymentGateway).name());
+                }
                 
                 exchange.getIn().setBody(circuitBreakerEvent);
                 
@@ -274,22 +412,29 @@ public class RetryRoute extends RouteBuilder {
             .log("✅ Circuit breaker integration completed");
 
         // Gateway-specific call routes
+        // No redelivery here: failed calls propagate to the retry scheduler.
+        // gatewayCallProcessor charges the gateway over HTTP when the gateway client is enabled
         from("direct:stripe-gateway-call")
             .routeId("stripe-gateway-call")
+            .errorHandler(noErrorHandler())
             .description("Stripe gateway call")
             .log("🔵 Processing Stripe gateway call")
+            .process(gatewayCallProcessor)
             .to("mock:stripe-gateway")
             .log("✅ Stripe gateway call completed");
 
         from("direct:paypal-gateway-call")
             .routeId("paypal-gateway-call")
+            .errorHandler(noErrorHandler())
             .description("PayPal gateway call")
             .log("🟡 Processing PayPal gateway call")
+            .process(gatewayCallProcessor)
             .to("mock:paypal-gateway")
             .log("✅ PayPal gateway call completed");
 
         from("direct:mock-gateway-call")
             .routeId("mock-gateway-call")
+            .errorHandler(noErrorHandler())
             .description("Mock gateway call")
             .log("⚫ Processing Mock gateway call")
             .process(exchange -> {
@@ -303,8 +448,10 @@ public class RetryRoute extends RouteBuilder {
 
         from("direct:default-gateway-call")
             .routeId("default-gateway-call")
+            .errorHandler(noErrorHandler())
             .description("Default gateway call")
             .log("⚪ Processing default gateway call")
+            .process(gatewayCallProcessor)
             .to("mock:default-gateway")
             .log("✅ Default gateway call completed");
 
@@ -324,48 +471,170 @@ public class RetryRoute extends RouteBuilder {
             .log("💾 Retry failure logged for analysis");
     }
 
-    // Helper methods
-    private long calculateRetryDelay(String gateway, int attempt) {
-        return getGatewayBaseDelay(gateway) * (long) Math.pow(2, attempt - 1);
+    /**
+     * Schedule the attempt after the one that just failed, or mark the
+     * payment exhausted when it was the last
+     */
+    private void scheduleNextAttempt(Exchange exchange) {
+        Exception failure = exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+        String paymentId = exchange.getIn().getHeader("paymentId", String.class);
+        int attempt = exchange.getIn().getHeader("retryAttempt", 1, Integer.class);
+        int maxRetries = exchange.getIn().getHeader("maxRetries", 3, Integer.class);
+        
+        exchange.getIn().setHeader("lastRetryFailureReason", failure.getMessage());
+        exchange.getIn().setHeader("retryAttempt", attempt + 1);
+        exchange.getIn().setBody(exchange.getProperty(RETRY_BODY_PROPERTY));
+        // A rerouted attempt goes back to the requested gateway; its circuit may have closed by then
+        String requested = exchange.getIn().getHeader("requestedGateway", String.class);
+        if (requested != null) {
+            exchange.getIn().setHeader("paymentGateway", requested);
+        }
+        if (PaymentDeclinedException.isDeclined(failure)) {
+            exchange.getIn().setHeader("paymentDeclined", true);
+            return;
+        }
+        if (attempt >= maxRetries) {
+            return;
+        }
+        
+        String gateway = exchange.getIn().getHeader("paymentGateway", String.class);
+        long retryDelay = paymentRetryService.delayFor(gateway, attempt + 1);
+        exchange.getIn().setHeader("retryDelay", retryDelay);
+        PendingRetry retry;
+        try {
+            retry = paymentRetryService.schedule(exchange, retryDelay);
+        } catch (IllegalArgumentException e) {
+            // Nothing could replay this payment later, so it is exhausted now
+            log.error("❌ Payment {} cannot be retried: {}", paymentId, e.getMessage());
+            exchange.getIn().setHeader("lastRetryFailureReason", e.getMessage());
+            return;
+        }
+        exchange.getIn().setHeader("retryScheduled", true);
+        exchange.getIn().setHeader("nextRetryAt", retry.getDueAtMillis());
+        
+        Map<String, Object> scheduled = new HashMap<>();
+        scheduled.put("paymentId", paymentId);
+        scheduled.put("retryId", retry.getRetryId());
+        scheduled.put("nextAttempt", retry.getAttempt());
+        scheduled.put("nextRetryAt", retry.getDueAtMillis());
+        scheduled.put("lastFailureReason", failure.getMessage());
+        scheduled.put("status", RETRY_SCHEDULED_STATUS);
+        exchange.getIn().setBody(scheduled);
+        
+        log.info("🚀 Gateway {} attempt {} for payment {} failed, retry scheduled in {}ms",
+                gateway, attempt, paymentId, retryDelay);
+    }
+
+    /**
+     * Replace the requested gateway with the first candidate whose circuit admits the call
+     */
+    private void selectGateway(Exchange exchange) {
+        PaymentGateway requested = gatewayOf(exchange.getIn().getHeader("paymentGateway", String.class));
+        if (requested == null) {
+            return;
+        }
+        PaymentMethod method = methodOf(exchange.getIn().getHeader("paymentMethod", String.class));
+        PaymentGateway selected = gatewayCircuitBreakers.select(requested, method);
+        exchange.setProperty(SELECTED_GATEWAY_PROPERTY, selected);
+        exchange.getIn().setHeader("requestedGateway", requested.name());
+        exchange.getIn().setHeader("paymentGateway", selected.name());
+        exchange.getIn().setHeader("gatewayRerouted", selected != requested);
+        if (selected != requested) {
+            String reason = GatewayCircuitBreakers.supports(requested, method)
+                ? REROUTE_CIRCUIT_OPEN : REROUTE_UNSUPPORTED_METHOD;
+            exchange.getIn().setHeader(GATEWAY_REROUTE_REASON_HEADER, reason);
+            log.warn("🔀 Gateway {} rerouted ({}), payment {} sent to {}",
+                    requested, reason, exchange.getIn().getHeader("paymentId"), selected);
+        }
     }
 
-    private long getGatewayBaseDelay(String gateway) {
-        switch (gateway) {
-            case "STRIPE": return 1000L; // 1 second
-            case "PAYPAL": return 2000L; // 2 seconds
-            case "SQUARE": return 1500L; // 1.5 seconds
-            case "MOCK": return 500L;    // 0.5 seconds
-            default: return 1000L;
+    /**
+     * Replay the outcome of the key's first call, or claim the key for this call
+     */
+    private void beginIdempotentCall(Exchange exchange) throws InterruptedException {
+        String key = exchange.getIn().getHeader("idempotencyKey", String.class);
+        if (key == null) {
+            key = exchange.getIn().getHeader("paymentId", String.class);
+        }
+        if (key == null) {
+            exchange.getIn().setHeader(IDEMPOTENT_REPLAY_HEADER, false);
+            return;
+        }
+
+        Map<String, Object> call = new HashMap<>();
+        for (String header : GATEWAY_REQUEST_HEADERS) {
+            call.put(header, exchange.getIn().getHeader(header));
+        }
+        IdempotencyCache.Claim claim = paymentIdempotencyService.begin(PaymentIdempotencyService.GATEWAY_KEY_PREFIX + key, call);
+        exchange.getIn().setHeader("idempotencyOutcome", claim.getOutcome().name());
+        exchange.getIn().setHeader(IDEMPOTENT_REPLAY_HEADER, claim.isReplay());
+        if (claim.isReplay()) {
+            Map<String, Object> result = claim.getResult();
+            exchange.getIn().setBody(result.remove(REPLAY_BODY));
+            exchange.getIn().getHeaders().putAll(result);
+        } else {
+            exchange.setProperty(IDEMPOTENCY_CLAIM_PROPERTY, claim);
         }
     }
 
-    private double getGatewayBackoffMultiplier(String gateway) {
-        switch (gateway) {
-            case "STRIPE": return 2.0;
-            case "PAYPAL": return 1.5;
-            case "SQUARE": return 2.0;
-            case "MOCK": return 1.2;
-            default: return 2.0;
+    private void completeIdempotentCall(Exchange exchange) {
+        IdempotencyCache.Claim claim = exchange.getProperty(IDEMPOTENCY_CLAIM_PROPERTY, IdempotencyCache.Claim.class);
+        if (claim == null) {
+            return;
+        }
+        Map<String, Object> result = new HashMap<>();
+        for (String header : GATEWAY_RESULT_HEADERS) {
+            Object value = exchange.getIn().getHeader(header);
+            if (value != null) {
+                result.put(header, value);
+            }
+        }
+        result.put(REPLAY_BODY, exchange.getIn().getBody());
+        claim.complete(result);
+    }
+
+    private void failIdempotentCall(Exchange exchange) throws Exception {
+        Exception failure = exchange.getProperty(Exchange.EXCEPTION_CAUGHT, Exception.class);
+        IdempotencyCache.Claim claim = exchange.getProperty(IDEMPOTENCY_CLAIM_PROPERTY, IdempotencyCache.Claim.class);
+        if (claim != null) {
+            claim.fail(failure);
+        }
+        throw failure;
+    }
+
+    private void recordGatewayOutcome(Exchange exchange, Exception failure) {
+        PaymentGateway selected = exchange.getProperty(SELECTED_GATEWAY_PROPERTY, PaymentGateway.class);
+        if (selected == null) {
+            return;
+        }
+        exchange.removeProperty(SELECTED_GATEWAY_PROPERTY);
+        Long callStart = exchange.removeProperty(GATEWAY_CALL_START_PROPERTY) instanceof Long start ? start : null;
+        if (callStart == null) {
+            // Failed before the gateway was called: not an outcome of the gateway
+            gatewayCircuitBreakers.release(selected);
+            return;
+        }
+        long duration = System.nanoTime() - callStart;
+        if (failure == null) {
+            gatewayCircuitBreakers.onSuccess(selected, duration);
+        } else {
+            gatewayCircuitBreakers.onError(selected, duration, failure);
         }
     }
 
-    private long getGatewayMaxDelay(String gateway) {
-        switch (gateway) {
-            case "STRIPE": return 30000L; // 30 seconds
-            case "PAYPAL": return 60000L; // 60 seconds
-            case "SQUARE": return 25000L; // 25 seconds
-            case "MOCK": return 5000L;    // 5 seconds
-            default: return 30000L;
+    private static PaymentGateway gatewayOf(String gateway) {
+        try {
+            return gateway != null ? PaymentGateway.valueOf(gateway) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
 
-    private int getGatewayTimeout(String gateway) {
-        switch (gateway) {
-            case "STRIPE": return 30;
-            case "PAYPAL": return 45;
-            case "SQUARE": return 25;
-            case "MOCK": return 5;
-            default: return 30;
+    private static PaymentMethod methodOf(String method) {
+        try {
+            return method != null ? PaymentMethod.valueOf(method) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -1,13 +1,14 @@
 package com.eipresso.payment.routes;
 
+import com.eipresso.payment.batch.BatchSummary;
+import com.eipresso.payment.batch.BatchSummaryAggregationStrategy;
 import org.apache.camel.Exchange;
 import org.apache.camel.LoggingLevel;
 import org.apache.camel.builder.RouteBuilder;
-import org.apache.camel.processor.aggregate.GroupedExchangeAggregationStrategy;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -25,10 +26,18 @@ import java.util.UUID;
  * 3. individual-payment-processor: Process individual payments
  * 4. aggregate-payment-results: Aggregate payment results
  * 5. bulk-refund-processor: Handle bulk refund operations
+ *
+ * Batches too large to hold as one List go through BatchPaymentService
+ * instead, which streams them as NDJSON into individual-payment-processor.
  */
 @Component
 public class SplitRoute extends RouteBuilder {
 
+    private static final String PAYMENT_PROPERTY = "splitPayment";
+
+    @Autowired
+    private BatchSummaryAggregationStrategy batchSummaryAggregationStrategy;
+
     @Override
     public void configure() throws Exception {
         
@@ -110,15 +119,14 @@ public class SplitRoute extends RouteBuilder {
                 log.info("🔀 Split batch {} into {} individual payments", batchId, payments.size());
             })
             
-            // Split the list into individual payments
+            // Split the list into individual payments; each result is aggregated as it completes
             .split(body())
                 .parallelProcessing()
                 .streaming()
                 .to("direct:individual-payment-processor")
+                .to("direct:aggregate-payment-results")
             .end()
             
-            // Aggregate results after all payments are processed
-            .to("direct:aggregate-payment-results")
             .log("✅ Batch payment splitting completed");
 
         /**
@@ -134,7 +142,7 @@ public class SplitRoute extends RouteBuilder {
                 Map<String, Object> payment = exchange.getIn().getBody(Map.class);
                 String paymentId = (String) payment.get("paymentId");
                 String batchId = (String) payment.get("batchId");
-                Integer paymentIndex = (Integer) payment.get("paymentIndex");
+                Object paymentIndex = payment.get("paymentIndex");
                 
                 // Set headers for downstream processing
                 exchange.getIn().setHeader("paymentId", paymentId);
@@ -161,25 +169,44 @@ public class SplitRoute extends RouteBuilder {
                 // Validate payment
                 .to("direct:validate-individual-payment")
                 
-                // Process payment with retry logic
+                // Process payment with retry logic; the gateway routes replace the body
+                .setProperty(PAYMENT_PROPERTY, body())
                 .to("direct:payment-retry-entry")
                 
                 .process(exchange -> {
                     @SuppressWarnings("unchecked")
-                    Map<String, Object> payment = exchange.getIn().getBody(Map.class);
-                    payment.put("status", "COMPLETED");
+                    Map<String, Object> payment = exchange.getProperty(PAYMENT_PROPERTY, Map.class);
+                    if (exchange.getIn().getHeader("retryScheduled", false, Boolean.class)) {
+                        // The first attempt failed and a retry is scheduled; its outcome is not known yet
+                        payment.put("status", "PROCESSING");
+                        payment.put("result", BatchSummary.RESULT_RETRY_SCHEDULED);
+                        payment.put("retryId", exchange.getIn().getHeader("retryId"));
+                        payment.put("nextRetryAt", exchange.getIn().getHeader("nextRetryAt"));
+                        log.info("⏰ Individual payment retry scheduled: {}", payment.get("paymentId"));
+                    } else if ("FAILED".equals(exchange.getIn().getHeader("paymentStatus"))) {
+                        payment.put("status", "FAILED");
+                        payment.put("result", "FAILURE");
+                        payment.put("errorMessage", exchange.getIn().getHeader("lastRetryFailureReason"));
+                        log.error("❌ Individual payment failed: {}", payment.get("paymentId"));
+                    } else {
+                        payment.put("status", "COMPLETED");
+                        payment.put("result", BatchSummary.RESULT_SUCCESS);
+                        log.info("✅ Individual payment completed: {}", payment.get("paymentId"));
+                    }
                     payment.put("processingEndTime", LocalDateTime.now());
-                    payment.put("result", "SUCCESS");
-                    
-                    log.info("✅ Individual payment completed: {}", payment.get("paymentId"));
+                    exchange.getIn().setBody(payment);
                 })
                 
             .endDoTry()
             .doCatch(Exception.class)
                 .log(LoggingLevel.ERROR, "❌ Individual payment failed: ${exception.message}")
                 .process(exchange -> {
+                    // Failed validation leaves no property, but neither has the body been replaced
                     @SuppressWarnings("unchecked")
-                    Map<String, Object> payment = exchange.getIn().getBody(Map.class);
+                    Map<String, Object> payment = exchange.getProperty(PAYMENT_PROPERTY) != null
+                        ? exchange.getProperty(PAYMENT_PROPERTY, Map.class)
+                        : exchange.getIn().getBody(Map.class);
+                    exchange.getIn().setBody(payment);
                     payment.put("status", "FAILED");
                     payment.put("processingEndTime", LocalDateTime.now());
                     payment.put("result", "FAILURE");
@@ -197,9 +224,10 @@ public class SplitRoute extends RouteBuilder {
         from("direct:aggregate-payment-results")
             .routeId("aggregate-payment-results")
             .description("Split Pattern: Aggregate payment results")
-            .log("📊 Aggregating payment results for batch: ${header.batchId}")
+            .log(LoggingLevel.DEBUG, "📊 Aggregating payment result for batch: ${header.batchId}")
             
-            .aggregate(header("batchId"), new GroupedExchangeAggregationStrategy())
+            // Counting aggregation: O(1) state per batch instead of holding every result exchange
+            .aggregate(header("batchId"), batchSummaryAggregationStrategy)
                 .completionTimeout(60000) // 60 seconds timeout
                 .completionSize(header("totalPayments"))
                 .to("direct:process-aggregated-results")
@@ -214,62 +242,18 @@ public class SplitRoute extends RouteBuilder {
             .log("📈 Processing aggregated batch results: ${header.batchId}")
             
             .process(exchange -> {
-                String batchId = exchange.getIn().getHeader("batchId", String.class);
-                @SuppressWarnings("unchecked")
-                List<Exchange> groupedExchanges = exchange.getIn().getBody(List.class);
-                
-                int totalPayments = groupedExchanges.size();
-                int successfulPayments = 0;
-                int failedPayments = 0;
-                double totalAmount = 0.0;
-                double successfulAmount = 0.0;
-                
-                Map<String, Object> batchSummary = new HashMap<>();
-                batchSummary.put("batchId", batchId);
-                batchSummary.put("totalPayments", totalPayments);
-                batchSummary.put("batchEndTime", LocalDateTime.now());
-                
-                // Analyze individual payment results
-                for (Exchange ex : groupedExchanges) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> payment = ex.getIn().getBody(Map.class);
-                    String result = (String) payment.get("result");
-                    Double amount = (Double) payment.get("amount");
-                    
-                    totalAmount += amount != null ? amount : 0.0;
-                    
-                    if ("SUCCESS".equals(result)) {
-                        successfulPayments++;
-                        successfulAmount += amount != null ? amount : 0.0;
-                    } else {
-                        failedPayments++;
-                    }
-                }
-                
-                batchSummary.put("successfulPayments", successfulPayments);
-                batchSummary.put("failedPayments", failedPayments);
-                batchSummary.put("successRate", (double) successfulPayments / totalPayments * 100);
-                batchSummary.put("totalAmount", totalAmount);
-                batchSummary.put("successfulAmount", successfulAmount);
-                batchSummary.put("failedAmount", totalAmount - successfulAmount);
-                
-                // Determine overall batch status
-                String batchStatus;
-                if (successfulPayments == totalPayments) {
-                    batchStatus = "COMPLETED_SUCCESS";
-                } else if (successfulPayments == 0) {
-                    batchStatus = "COMPLETED_FAILURE";
-                } else {
-                    batchStatus = "COMPLETED_PARTIAL";
-                }
-                batchSummary.put("batchStatus", batchStatus);
+                BatchSummary summary = exchange.getIn().getBody(BatchSummary.class);
+                batchSummaryAggregationStrategy.complete(summary,
+                    exchange.getProperty(Exchange.AGGREGATED_COMPLETED_BY, "unknown", String.class));
                 
+                Map<String, Object> batchSummary = summary.toMap();
+                String batchStatus = (String) batchSummary.get("batchStatus");
                 exchange.getIn().setBody(batchSummary);
                 exchange.getIn().setHeader("batchStatus", batchStatus);
                 
                 log.info("📈 Batch aggregation completed: {} - {}/{} successful ({}%)", 
-                        batchId, successfulPayments, totalPayments, 
-                        String.format("%.1f", (double) successfulPayments / totalPayments * 100));
+                        summary.getBatchId(), batchSummary.get("successfulPayments"), batchSummary.get("totalPayments"), 
+                        String.format("%.1f", (Double) batchSummary.get("successRate")));
             })
             
             .to("mock:batch-results")
@@ -286,7 +270,8 @@ public class SplitRoute extends RouteBuilder {
                 Map<String, Object> payment = exchange.getIn().getBody(Map.class);
                 
                 // Basic validation
-                if (payment.get("amount") == null || (Double) payment.get("amount") <= 0) {
+                Object amount = payment.get("amount");
+                if (!(amount instanceof Number) || ((Number) amount).doubleValue() <= 0) {
                     throw new IllegalArgumentException("Invalid payment amount");
                 }
                 
@@ -1,8 +1,12 @@
 package com.eipresso.payment.routes;
 
-import org.apache.camel.Exchange;
+import com.eipresso.payment.audit.AuditRecord;
+import com.eipresso.payment.fraud.FraudScore;
+import com.eipresso.payment.service.FraudScoringService;
+import com.eipresso.payment.service.PaymentAuditService;
 import org.apache.camel.LoggingLevel;
 import org.apache.camel.builder.RouteBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -19,15 +23,26 @@ import java.util.UUID;
  * 
  * Routes:
  * 1. payment-wire-tap-entry: Main wire tap entry point
- * 2. transaction-audit-processor: Process transaction audit records
- * 3. fraud-monitoring-processor: Real-time fraud monitoring
- * 4. compliance-audit-processor: Compliance and regulatory audit
- * 5. security-audit-processor: Security event audit
- * 6. business-metrics-processor: Business intelligence metrics
+ * 2. fraud-monitoring-processor: On-demand fraud assessment
+ * 3. high-risk-fraud-alert: High-risk fraud alerts
+ * 4. security-alert-processor: Security alerts
+ *
+ * The transaction, fraud, compliance, security and business audits share
+ * one compact record per payment, queued to PaymentAuditService and written
+ * in batches off the payment thread. Only payments that raise an alert are
+ * still wire tapped, to the alert routes. Risk scores come from
+ * FraudScoringService, which scores each payment against the recent
+ * behaviour of its user, card and IP address.
  */
 @Component
 public class WireTapRoute extends RouteBuilder {
 
+    @Autowired
+    private PaymentAuditService paymentAuditService;
+
+    @Autowired
+    private FraudScoringService fraudScoringService;
+
     @Override
     public void configure() throws Exception {
         
@@ -54,214 +69,68 @@ public class WireTapRoute extends RouteBuilder {
                 exchange.getIn().setHeader("auditTimestamp", LocalDateTime.now());
                 exchange.getIn().setHeader("wireTapEnabled", true);
                 
-                String paymentId = exchange.getIn().getHeader("paymentId", String.class);
-                String transactionType = exchange.getIn().getHeader("transactionType", String.class);
+                AuditRecord record = paymentAuditService.record(exchange, auditId);
+                FraudScore fraudScore = fraudScoringService.assess(exchange.getIn().getHeaders());
+                exchange.getIn().setHeader("auditRiskScore", fraudScore.getScore());
+                exchange.getIn().setHeader("auditRiskReasons", fraudScore.getReasons());
+                exchange.getIn().setHeader("suspiciousActivity", record.hasFlag(AuditRecord.FLAG_SUSPICIOUS));
                 
-                log.info("📡 Wire tap audit initiated: {} for payment {}", auditId, paymentId);
+                log.debug("📡 Wire tap audit queued: {} for payment {}", auditId, record.getPaymentId());
             })
             
-            // Wire tap to multiple audit processors simultaneously
-            .wireTap("direct:transaction-audit-processor")
-            .wireTap("direct:fraud-monitoring-processor")
-            .wireTap("direct:compliance-audit-processor")
-            .wireTap("direct:security-audit-processor")
-            .wireTap("direct:business-metrics-processor")
+            // Alerts only; the audit records themselves go through the audit sink
+            .choice()
+                .when(simple("${header.auditRiskScore} > 70"))
+                    .wireTap("direct:high-risk-fraud-alert")
+            .end()
+            .choice()
+                .when(simple("${header.suspiciousActivity} == true"))
+                    .wireTap("direct:security-alert-processor")
+            .end()
             
             .log("✅ Wire tap processing completed for payment ${header.paymentId}");
 
         /**
-         * Route 2: Transaction Audit Processor
-         */
-        from("direct:transaction-audit-processor")
-            .routeId("transaction-audit-processor")
-            .description("Wire Tap Pattern: Transaction audit processing")
-            .log("💰 Processing transaction audit: ${header.paymentId}")
-            
-            .process(exchange -> {
-                String paymentId = exchange.getIn().getHeader("paymentId", String.class);
-                String auditId = exchange.getIn().getHeader("auditId", String.class);
-                
-                Map<String, Object> transactionAudit = new HashMap<>();
-                transactionAudit.put("auditId", auditId);
-                transactionAudit.put("paymentId", paymentId);
-                transactionAudit.put("auditType", "TRANSACTION");
-                transactionAudit.put("timestamp", LocalDateTime.now());
-                transactionAudit.put("amount", exchange.getIn().getHeader("amount"));
-                transactionAudit.put("gateway", exchange.getIn().getHeader("paymentGateway"));
-                transactionAudit.put("method", exchange.getIn().getHeader("paymentMethod"));
-                transactionAudit.put("status", exchange.getIn().getHeader("paymentStatus"));
-                transactionAudit.put("userId", exchange.getIn().getHeader("userId"));
-                transactionAudit.put("orderId", exchange.getIn().getHeader("orderId"));
-                
-                // Add transaction context
-                transactionAudit.put("ipAddress", exchange.getIn().getHeader("customerIp"));
-                transactionAudit.put("userAgent", exchange.getIn().getHeader("userAgent"));
-                transactionAudit.put("correlationId", exchange.getIn().getHeader("correlationId"));
-                
-                exchange.getIn().setBody(transactionAudit);
-                
-                log.info("💰 Transaction audit record created: {} for payment {}", auditId, paymentId);
-            })
-            
-            .to("mock:transaction-audit")
-            .log("✅ Transaction audit processing completed");
-
-        /**
-         * Route 3: Fraud Monitoring Processor
+         * Route 2: Fraud Monitoring Processor
          */
         from("direct:fraud-monitoring-processor")
             .routeId("fraud-monitoring-processor")
-            .description("Wire Tap Pattern: Real-time fraud monitoring")
+            .description("Wire Tap Pattern: On-demand fraud assessment")
             .log("🚨 Processing fraud monitoring: ${header.paymentId}")
             
             .process(exchange -> {
-                String paymentId = exchange.getIn().getHeader("paymentId", String.class);
+                AuditRecord record = AuditRecord.fromHeaders(exchange.getIn().getHeaders(), null, System.currentTimeMillis());
+                boolean highValueTransaction = record.hasFlag(AuditRecord.FLAG_HIGH_VALUE);
+                boolean offHours = record.hasFlag(AuditRecord.FLAG_OFF_HOURS);
                 
                 Map<String, Object> fraudMonitoring = new HashMap<>();
-                fraudMonitoring.put("paymentId", paymentId);
+                fraudMonitoring.put("paymentId", record.getPaymentId());
                 fraudMonitoring.put("auditType", "FRAUD_MONITORING");
                 fraudMonitoring.put("timestamp", LocalDateTime.now());
-                
-                // Fraud detection parameters
                 fraudMonitoring.put("amount", exchange.getIn().getHeader("amount"));
-                fraudMonitoring.put("customerCountry", exchange.getIn().getHeader("customerCountry", "US"));
-                fraudMonitoring.put("transactionTime", LocalDateTime.now().getHour());
-                fraudMonitoring.put("paymentMethod", exchange.getIn().getHeader("paymentMethod"));
-                fraudMonitoring.put("ipAddress", exchange.getIn().getHeader("customerIp"));
-                
-                // Calculate basic fraud indicators
-                Double amount = exchange.getIn().getHeader("amount", Double.class);
-                boolean highValueTransaction = amount != null && amount > 500.0;
-                boolean offHours = LocalDateTime.now().getHour() < 6 || LocalDateTime.now().getHour() > 22;
-                
+                fraudMonitoring.put("customerCountry", record.getCustomerCountry());
+                fraudMonitoring.put("paymentMethod", record.getMethod());
+                fraudMonitoring.put("ipAddress", record.getIpAddress());
                 fraudMonitoring.put("highValueTransaction", highValueTransaction);
                 fraudMonitoring.put("offHoursTransaction", offHours);
-                fraudMonitoring.put("riskScore", calculateBasicRiskScore(highValueTransaction, offHours));
                 
-                exchange.getIn().setBody(fraudMonitoring);
+                // On demand, not a payment being made, so it must not count towards anyone's features
+                FraudScore fraudScore = fraudScoringService.score(exchange.getIn().getHeaders());
+                fraudMonitoring.put("riskScore", fraudScore.getScore());
+                fraudMonitoring.put("riskLevel", fraudScore.getRiskLevel());
+                fraudMonitoring.put("riskReasons", fraudScore.getReasons());
+                fraudMonitoring.put("scoringDegraded", fraudScore.isDegraded());
                 
-                log.info("🚨 Fraud monitoring record created for payment {}", paymentId);
+                exchange.getIn().setBody(fraudMonitoring);
             })
             
             .choice()
                 .when(simple("${body[riskScore]} > 70"))
                     .to("direct:high-risk-fraud-alert")
-                .otherwise()
-                    .to("direct:standard-fraud-processing")
             .end()
             
             .log("✅ Fraud monitoring processing completed");
 
-        /**
-         * Route 4: Compliance Audit Processor
-         */
-        from("direct:compliance-audit-processor")
-            .routeId("compliance-audit-processor")
-            .description("Wire Tap Pattern: Compliance and regulatory audit")
-            .log("📋 Processing compliance audit: ${header.paymentId}")
-            
-            .process(exchange -> {
-                String paymentId = exchange.getIn().getHeader("paymentId", String.class);
-                
-                Map<String, Object> complianceAudit = new HashMap<>();
-                complianceAudit.put("paymentId", paymentId);
-                complianceAudit.put("auditType", "COMPLIANCE");
-                complianceAudit.put("timestamp", LocalDateTime.now());
-                
-                // Compliance tracking
-                complianceAudit.put("jurisdiction", determineJurisdiction(exchange));
-                complianceAudit.put("regulations", getApplicableRegulations(exchange));
-                complianceAudit.put("dataRetentionRequired", true);
-                complianceAudit.put("pcidssRequired", isPCIDSSRequired(exchange));
-                complianceAudit.put("kycRequired", isKYCRequired(exchange));
-                complianceAudit.put("amlRequired", isAMLRequired(exchange));
-                
-                exchange.getIn().setBody(complianceAudit);
-                
-                log.info("📋 Compliance audit record created for payment {}", paymentId);
-            })
-            
-            .to("mock:compliance-audit")
-            .log("✅ Compliance audit processing completed");
-
-        /**
-         * Route 5: Security Audit Processor
-         */
-        from("direct:security-audit-processor")
-            .routeId("security-audit-processor")
-            .description("Wire Tap Pattern: Security event audit")
-            .log("🔐 Processing security audit: ${header.paymentId}")
-            
-            .process(exchange -> {
-                String paymentId = exchange.getIn().getHeader("paymentId", String.class);
-                
-                Map<String, Object> securityAudit = new HashMap<>();
-                securityAudit.put("paymentId", paymentId);
-                securityAudit.put("auditType", "SECURITY");
-                securityAudit.put("timestamp", LocalDateTime.now());
-                
-                // Security event details
-                securityAudit.put("encryptionUsed", true);
-                securityAudit.put("tlsVersion", "TLS 1.3");
-                securityAudit.put("authenticationMethod", "JWT");
-                securityAudit.put("ipAddress", exchange.getIn().getHeader("customerIp"));
-                securityAudit.put("userAgent", exchange.getIn().getHeader("userAgent"));
-                securityAudit.put("sessionId", exchange.getIn().getHeader("sessionId"));
-                securityAudit.put("requestId", exchange.getIn().getHeader("correlationId"));
-                
-                // Security risk assessment
-                boolean suspiciousActivity = detectSuspiciousActivity(exchange);
-                securityAudit.put("suspiciousActivity", suspiciousActivity);
-                securityAudit.put("securityLevel", suspiciousActivity ? "HIGH" : "NORMAL");
-                
-                exchange.getIn().setBody(securityAudit);
-                
-                log.info("🔐 Security audit record created for payment {}", paymentId);
-            })
-            
-            .choice()
-                .when(simple("${body[suspiciousActivity]} == true"))
-                    .to("direct:security-alert-processor")
-                .otherwise()
-                    .to("direct:standard-security-processing")
-            .end()
-            
-            .log("✅ Security audit processing completed");
-
-        /**
-         * Route 6: Business Metrics Processor
-         */
-        from("direct:business-metrics-processor")
-            .routeId("business-metrics-processor")
-            .description("Wire Tap Pattern: Business intelligence metrics")
-            .log("📊 Processing business metrics: ${header.paymentId}")
-            
-            .process(exchange -> {
-                String paymentId = exchange.getIn().getHeader("paymentId", String.class);
-                
-                Map<String, Object> businessMetrics = new HashMap<>();
-                businessMetrics.put("paymentId", paymentId);
-                businessMetrics.put("auditType", "BUSINESS_METRICS");
-                businessMetrics.put("timestamp", LocalDateTime.now());
-                
-                // Business intelligence data
-                businessMetrics.put("amount", exchange.getIn().getHeader("amount"));
-                businessMetrics.put("currency", exchange.getIn().getHeader("currency", "USD"));
-                businessMetrics.put("paymentMethod", exchange.getIn().getHeader("paymentMethod"));
-                businessMetrics.put("gateway", exchange.getIn().getHeader("paymentGateway"));
-                businessMetrics.put("customerCountry", exchange.getIn().getHeader("customerCountry", "US"));
-                businessMetrics.put("timeOfDay", LocalDateTime.now().getHour());
-                businessMetrics.put("dayOfWeek", LocalDateTime.now().getDayOfWeek());
-                businessMetrics.put("processingTimeMs", System.currentTimeMillis());
-                
-                exchange.getIn().setBody(businessMetrics);
-                
-                log.info("📊 Business metrics record created for payment {}", paymentId);
-            })
-            
-                                            .to("log:business-metrics?level=INFO&showBody=true")
-            .log("✅ Business metrics processing completed");
-
         // Specialized Processing Routes
         from("direct:high-risk-fraud-alert")
             .routeId("high-risk-fraud-alert")
@@ -270,13 +139,6 @@ public class WireTapRoute extends RouteBuilder {
             .to("mock:fraud-alerts")
             .log("✅ High-risk fraud alert sent");
 
-        from("direct:standard-fraud-processing")
-            .routeId("standard-fraud-processing")
-            .description("Wire Tap: Standard fraud processing")
-            .log("🔍 Standard fraud processing for payment ${header.paymentId}")
-            .to("mock:fraud-monitoring")
-            .log("✅ Standard fraud processing completed");
-
         from("direct:security-alert-processor")
             .routeId("security-alert-processor")
             .description("Wire Tap: Security alert processing")
@@ -284,13 +146,6 @@ public class WireTapRoute extends RouteBuilder {
                             .to("log:security-alerts?level=WARN&showBody=true")
             .log("✅ Security alert processed");
 
-        from("direct:standard-security-processing")
-            .routeId("standard-security-processing")
-            .description("Wire Tap: Standard security processing")
-            .log("🔒 Standard security processing for payment ${header.paymentId}")
-                            .to("log:security-audit?level=INFO&showBody=true")
-            .log("✅ Standard security processing completed");
-
         /**
          * Dead Letter Channel
          */
@@ -306,51 +161,4 @@ public class WireTapRoute extends RouteBuilder {
             })
             .log("💾 Wire tap failure logged for analysis");
     }
-
-    // Helper methods
-    private int calculateBasicRiskScore(boolean highValue, boolean offHours) {
-        int score = 0;
-        if (highValue) score += 40;
-        if (offHours) score += 30;
-        return Math.min(score, 100);
-    }
-
-    private String determineJurisdiction(Exchange exchange) {
-        String country = exchange.getIn().getHeader("customerCountry", String.class);
-        return country != null ? country : "US";
-    }
-
-    private String getApplicableRegulations(Exchange exchange) {
-        String country = exchange.getIn().getHeader("customerCountry", String.class);
-        if (country == null) country = "US";
-        switch (country) {
-            case "US": return "PCI-DSS,SOX,CCPA";
-            case "GB": return "PCI-DSS,FCA,GDPR";
-            case "DE": return "PCI-DSS,BaFin,GDPR";
-            default: return "PCI-DSS";
-        }
-    }
-
-    private boolean isPCIDSSRequired(Exchange exchange) {
-        return true; // Always required for payment processing
-    }
-
-    private boolean isKYCRequired(Exchange exchange) {
-        Double amount = exchange.getIn().getHeader("amount", Double.class);
-        return amount != null && amount > 1000.0;
-    }
-
-    private boolean isAMLRequired(Exchange exchange) {
-        Double amount = exchange.getIn().getHeader("amount", Double.class);
-        return amount != null && amount > 10000.0;
-    }
-
-    private boolean detectSuspiciousActivity(Exchange exchange) {
-        // Basic suspicious activity detection
-        String userAgent = exchange.getIn().getHeader("userAgent", String.class);
-        String ipAddress = exchange.getIn().getHeader("customerIp", String.class);
-        
-        return (userAgent != null && userAgent.contains("bot")) ||
-               (ipAddress != null && ipAddress.startsWith("10.0."));
-    }
-} 
\ No newline at end of file
+}
\ No newline at end of file
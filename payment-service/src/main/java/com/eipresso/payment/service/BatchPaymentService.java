@@ -0,0 +1,234 @@
+package com.eipresso.payment.service;
+
+import com.eipresso.payment.batch.BatchJob;
+import com.eipresso.payment.batch.BatchResultWriter;
+import com.eipresso.payment.batch.BatchSummary;
+import com.eipresso.payment.batch.StreamingBatchProcessor;
+import com.eipresso.payment.retry.RetryOutcome;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.camel.ProducerTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batch Payment Service
+ *
+ * Streaming mode of the Split pattern for batches too large to hold in
+ * memory. An upload is spooled to disk as it arrives and the request answers
+ * at once with a batchId; a batch reader thread then streams the spooled
+ * NDJSON through {@code direct:individual-payment-processor} with bounded
+ * per-gateway concurrency, and writes every payment's result to the batch's
+ * results file. Progress and results are looked up by batchId.
+ *
+ * A payment whose first gateway attempt fails keeps its gateway permit
+ * while its retries run, so the per-gateway limit also bounds the retries
+ * in flight and every result in the file is final. One still unsettled after
+ * {@code payment.batch.retry-wait-ms} is reported as PROCESSING.
+ */
+@Service
+public class BatchPaymentService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchPaymentService.class);
+
+    public static final String INDIVIDUAL_PAYMENT_URI = "direct:individual-payment-processor";
+
+    @Autowired
+    private ProducerTemplate producerTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PaymentRetryService paymentRetryService;
+
+    @Value("${payment.batch.work-dir:${java.io.tmpdir}/payment-batches}")
+    private String workDir;
+
+    @Value("${payment.batch.max-concurrency-per-gateway:8}")
+    private int maxConcurrencyPerGateway;
+
+    @Value("${payment.batch.worker-threads:16}")
+    private int workerThreads;
+
+    @Value("${payment.batch.max-concurrent-batches:2}")
+    private int maxConcurrentBatches;
+
+    @Value("${payment.batch.retry-wait-ms:120000}")
+    private long retryWaitMs;
+
+    @Value("${payment.batch.retention-minutes:60}")
+    private long retentionMinutes;
+
+    private Path workPath;
+    private ExecutorService workers;
+    private ExecutorService readers;
+    private ScheduledExecutorService cleanup;
+    private StreamingBatchProcessor processor;
+    private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() throws IOException {
+        workPath = Files.createDirectories(Paths.get(workDir));
+        workers = Executors.newFixedThreadPool(workerThreads, named("payment-batch-worker"));
+        readers = Executors.newFixedThreadPool(maxConcurrentBatches, named("payment-batch-reader"));
+        cleanup = Executors.newSingleThreadScheduledExecutor(named("payment-batch-cleanup"));
+        cleanup.scheduleWithFixedDelay(this::expireFinishedBatches, 1, 1, TimeUnit.MINUTES);
+        processor = new StreamingBatchProcessor(objectMapper, this::processPayment, workers, maxConcurrencyPerGateway);
+        logger.info("📦 Streaming batch payments: {} workers, {} per gateway, {} concurrent batches, spooling to {}",
+            workerThreads, maxConcurrencyPerGateway, maxConcurrentBatches, workPath);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(BatchJob::cancel);
+        readers.shutdownNow();
+        workers.shutdown();
+        cleanup.shutdownNow();
+    }
+
+    /**
+     * Spool an NDJSON batch to disk and queue it for processing
+     *
+     * @return the new batch, still QUEUED
+     */
+    public BatchJob submit(InputStream ndjson) throws IOException {
+        String batchId = UUID.randomUUID().toString();
+        Path input = workPath.resolve(batchId + ".ndjson");
+        Files.copy(ndjson, input, StandardCopyOption.REPLACE_EXISTING);
+
+        BatchJob job = new BatchJob(batchId, workPath.resolve(batchId + "-results.ndjson"));
+        jobs.put(batchId, job);
+        readers.execute(() -> run(job, input));
+        logger.info("📦 Batch {} spooled ({} bytes) and queued", batchId, Files.size(input));
+        return job;
+    }
+
+    public BatchJob getJob(String batchId) {
+        return jobs.get(batchId);
+    }
+
+    public boolean cancel(String batchId) {
+        BatchJob job = jobs.get(batchId);
+        if (job == null || job.getState().isFinished()) {
+            return false;
+        }
+        job.cancel();
+        return true;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Integer> byState = new HashMap<>();
+        jobs.values().forEach(job -> byState.merge(job.getState().name(), 1, Integer::sum));
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("batches", byState);
+        stats.put("inFlightByGateway", processor.getInFlightByGateway());
+        stats.put("maxConcurrencyPerGateway", maxConcurrencyPerGateway);
+        stats.put("workerThreads", workerThreads);
+        stats.put("maxConcurrentBatches", maxConcurrentBatches);
+        return stats;
+    }
+
+    private void run(BatchJob job, Path input) {
+        try (Reader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BatchResultWriter results = new BatchResultWriter(objectMapper, job.getResultsFile())) {
+            processor.process(job, reader, results);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("⚠️ Batch {} interrupted", job.getBatchId());
+            job.fail("Interrupted");
+        } catch (Exception e) {
+            logger.error("❌ Batch {} failed: {}", job.getBatchId(), e.getMessage());
+            job.fail(e.getMessage());
+        } finally {
+            deleteQuietly(input);
+        }
+    }
+
+    private StreamingBatchProcessor.PaymentOutcome processPayment(Map<String, Object> payment) {
+        Map<?, ?> processed = producerTemplate.requestBodyAndHeader(INDIVIDUAL_PAYMENT_URI, payment,
+            PaymentRetryService.AWAIT_OUTCOME_HEADER, true, Map.class);
+        Object result = processed != null ? processed.get("result") : null;
+        if (BatchSummary.RESULT_RETRY_SCHEDULED.equals(result)) {
+            return awaitRetry(String.valueOf(processed.get("retryId")));
+        }
+        boolean success = BatchSummary.RESULT_SUCCESS.equals(result);
+        Object status = processed != null ? processed.get("status") : null;
+        Object error = processed != null ? processed.get("errorMessage") : null;
+        return new StreamingBatchProcessor.PaymentOutcome(success,
+            status != null ? status.toString() : "FAILED", error != null ? error.toString() : null);
+    }
+
+    /**
+     * Hold the worker, and with it the gateway permit, until the payment's retries settle
+     */
+    private StreamingBatchProcessor.PaymentOutcome awaitRetry(String retryId) {
+        RetryOutcome outcome;
+        try {
+            outcome = paymentRetryService.awaitOutcome(retryId, retryWaitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = null;
+        }
+        if (outcome == null) {
+            return new StreamingBatchProcessor.PaymentOutcome(false, "PROCESSING",
+                "Retry " + retryId + " still pending");
+        }
+        return outcome.isSucceeded()
+            ? new StreamingBatchProcessor.PaymentOutcome(true, "COMPLETED", null)
+            : new StreamingBatchProcessor.PaymentOutcome(false, "FAILED", outcome.getFailureReason());
+    }
+
+    private void expireFinishedBatches() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> {
+            boolean expired = job.getState().isFinished() && job.getFinishedAt().isBefore(cutoff);
+            if (expired) {
+                deleteQuietly(job.getResultsFile());
+            }
+            return expired;
+        });
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("⚠️ Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,176 @@
+package com.eipresso.payment.service;
+
+import com.eipresso.payment.fraud.FeatureReplicator;
+import com.eipresso.payment.fraud.FraudFeatureStore;
+import com.eipresso.payment.fraud.FraudScore;
+import com.eipresso.payment.fraud.FraudScoringEngine;
+import com.eipresso.payment.fraud.HazelcastFeatureReplicator;
+import com.eipresso.payment.fraud.PaymentObservation;
+import com.eipresso.payment.model.Money;
+import com.hazelcast.core.HazelcastInstance;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fraud Scoring Service
+ *
+ * Stateful fraud scoring behind the Wire Tap pattern's fraud monitoring.
+ * Each payment is scored against the velocity, amount and merchant features
+ * of its user, card and IP address, then observed into the feature store and
+ * published to the other nodes, so a user spreading payments over the
+ * cluster is scored as if one node had seen them all. {@link #score} only
+ * reads the features, for what-if assessments of payments that are not
+ * being made.
+ */
+@Service
+public class FraudScoringService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FraudScoringService.class);
+
+    @Autowired
+    private ObjectProvider<HazelcastInstance> hazelcastInstance;
+
+    @Value("${payment.fraud.budget-micros:50}")
+    private long budgetMicros;
+
+    @Value("${payment.fraud.max-entries-per-dimension:50000}")
+    private int maxEntriesPerDimension;
+
+    @Value("${payment.fraud.idle-ttl-minutes:120}")
+    private long idleTtlMinutes;
+
+    @Value("${payment.fraud.evict-interval-seconds:30}")
+    private long evictIntervalSeconds;
+
+    private final String origin = UUID.randomUUID().toString();
+    private FraudFeatureStore store;
+    private FraudScoringEngine engine;
+    private FeatureReplicator replicator;
+    private ScheduledExecutorService eviction;
+
+    private final LongAdder assessments = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final LongAdder overBudget = new LongAdder();
+    private final LongAdder degraded = new LongAdder();
+    private final LongAdder replicationFailures = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        store = new FraudFeatureStore(maxEntriesPerDimension, TimeUnit.MINUTES.toMillis(idleTtlMinutes));
+        engine = new FraudScoringEngine(store, TimeUnit.MICROSECONDS.toNanos(budgetMicros), ZoneId.systemDefault());
+        HazelcastInstance hazelcast = hazelcastInstance.getIfAvailable();
+        replicator = hazelcast != null ? new HazelcastFeatureReplicator(hazelcast, store, origin) : FeatureReplicator.LOCAL;
+
+        eviction = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-fraud-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        eviction.scheduleWithFixedDelay(() -> store.evict(System.currentTimeMillis()),
+            evictIntervalSeconds, evictIntervalSeconds, TimeUnit.SECONDS);
+        logger.info("🕵️ Fraud scoring: {}µs budget, {} entries per dimension, {} replication",
+            budgetMicros, maxEntriesPerDimension, hazelcast != null ? "Hazelcast" : "no");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        eviction.shutdownNow();
+        if (replicator instanceof HazelcastFeatureReplicator) {
+            ((HazelcastFeatureReplicator) replicator).close();
+        }
+    }
+
+    /**
+     * Score a payment from its headers, then add it to the features of its user, card and IP
+     */
+    public FraudScore assess(Map<String, Object> headers) {
+        PaymentObservation observation = observationOf(headers);
+        FraudScore score = engine.score(observation);
+        observe(observation);
+        record(score);
+        return score;
+    }
+
+    /**
+     * Score a payment from its headers without adding it to any features
+     */
+    public FraudScore score(Map<String, Object> headers) {
+        FraudScore score = engine.score(observationOf(headers));
+        record(score);
+        return score;
+    }
+
+    private void observe(PaymentObservation observation) {
+        store.observe(observation);
+        try {
+            replicator.publish(observation);
+        } catch (RuntimeException e) {
+            replicationFailures.increment();
+            logger.warn("⚠️ Could not replicate fraud observation: {}", e.getMessage());
+        }
+    }
+
+    private PaymentObservation observationOf(Map<String, Object> headers) {
+        return new PaymentObservation(
+            text(headers.get("userId")),
+            text(headers.get("cardFingerprint")),
+            text(headers.get("customerIp")),
+            text(headers.get("merchantId")),
+            Money.toCents(headers.get("amount")),
+            System.currentTimeMillis(),
+            origin);
+    }
+
+    public Map<String, Object> getStatistics() {
+        long count = assessments.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("assessments", count);
+        stats.put("averageScoringMicros", count == 0 ? 0.0 : totalNanos.sum() / 1000.0 / count);
+        stats.put("maxScoringMicros", maxNanos.get() / 1000.0);
+        stats.put("budgetMicros", budgetMicros);
+        stats.put("overBudget", overBudget.sum());
+        stats.put("degradedScores", degraded.sum());
+        stats.put("replicationFailures", replicationFailures.sum());
+        if (replicator instanceof HazelcastFeatureReplicator) {
+            HazelcastFeatureReplicator hazelcast = (HazelcastFeatureReplicator) replicator;
+            stats.put("replicatedOut", hazelcast.getPublished());
+            stats.put("replicatedIn", hazelcast.getApplied());
+        }
+        stats.put("featureStore", store.getStatistics());
+        return stats;
+    }
+
+    private void record(FraudScore score) {
+        long nanos = score.getElapsedNanos();
+        assessments.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+        if (nanos > TimeUnit.MICROSECONDS.toNanos(budgetMicros)) {
+            overBudget.increment();
+        }
+        if (score.isDegraded()) {
+            degraded.increment();
+        }
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : null;
+    }
+}
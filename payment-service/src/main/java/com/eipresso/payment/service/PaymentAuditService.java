@@ -0,0 +1,102 @@
+package com.eipresso.payment.service;
+
+import com.eipresso.payment.audit.AuditBatchWriter;
+import com.eipresso.payment.audit.AuditRecord;
+import com.eipresso.payment.audit.AuditSink;
+import com.eipresso.payment.audit.JdbcAuditWriter;
+import com.eipresso.payment.audit.MappedAuditLog;
+import com.eipresso.payment.audit.OverflowPolicy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.camel.Exchange;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payment Audit Service
+ *
+ * Audit pipeline behind the Wire Tap pattern. The wire tap entry route
+ * copies each payment's audited fields into an {@link AuditRecord} and
+ * queues it here; a single writer thread appends them in batches to the
+ * memory-mapped audit log under {@code payment.audit.log-dir}, and to the
+ * {@code payment_audit} table when {@code payment.audit.jdbc.enabled} is set.
+ */
+@Service
+public class PaymentAuditService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentAuditService.class);
+
+    @Autowired
+    private ObjectProvider<JdbcTemplate> jdbcTemplate;
+
+    @Value("${payment.audit.log-dir:${java.io.tmpdir}/payment-audit-${server.port:8084}}")
+    private String logDir;
+
+    @Value("${payment.audit.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${payment.audit.force-each-batch:false}")
+    private boolean forceEachBatch;
+
+    @Value("${payment.audit.ring-capacity:65536}")
+    private int ringCapacity;
+
+    @Value("${payment.audit.max-batch-size:512}")
+    private int maxBatchSize;
+
+    @Value("${payment.audit.overflow-policy:DROP}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${payment.audit.block-timeout-ms:5}")
+    private long blockTimeoutMs;
+
+    @Value("${payment.audit.jdbc.enabled:false}")
+    private boolean jdbcEnabled;
+
+    private AuditSink sink;
+
+    @PostConstruct
+    public void init() throws IOException {
+        List<AuditBatchWriter> writers = new ArrayList<>();
+        writers.add(new MappedAuditLog(Paths.get(logDir), segmentBytes, forceEachBatch));
+        JdbcTemplate jdbc = jdbcEnabled ? jdbcTemplate.getIfAvailable() : null;
+        if (jdbc != null) {
+            writers.add(new JdbcAuditWriter(jdbc));
+        }
+        sink = new AuditSink(ringCapacity, maxBatchSize, overflowPolicy, blockTimeoutMs, writers);
+        logger.info("📜 Payment audit sink: ring of {}, batches of {}, {} on overflow, writing to {}{}",
+            ringCapacity, maxBatchSize, overflowPolicy, logDir, jdbc != null ? " and payment_audit" : "");
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        sink.close();
+    }
+
+    /**
+     * Queue the exchange's payment for audit
+     *
+     * @return the record, whether or not the sink had room for it
+     */
+    public AuditRecord record(Exchange exchange, String auditId) {
+        Map<String, Object> headers = exchange.getIn().getHeaders();
+        AuditRecord record = AuditRecord.fromHeaders(headers, auditId, System.currentTimeMillis());
+        sink.offer(record);
+        return record;
+    }
+
+    public Map<String, Object> getStatistics() {
+        return sink.getStatistics();
+    }
+}
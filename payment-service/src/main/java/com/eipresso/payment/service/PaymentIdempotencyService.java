@@ -0,0 +1,135 @@
+package com.eipresso.payment.service;
+
+import com.eipresso.payment.idempotency.HazelcastIdempotencyStore;
+import com.eipresso.payment.idempotency.IdempotencyCache;
+import com.eipresso.payment.idempotency.IdempotencyStore;
+import com.eipresso.payment.idempotency.InMemoryIdempotencyStore;
+import com.hazelcast.core.HazelcastInstance;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Payment Idempotency Service
+ *
+ * Deduplicates payment requests and gateway calls by idempotency key, so a
+ * client resubmit or a retry of a call that already went through replays
+ * the first result instead of charging again. A key sent again with a
+ * different request is refused instead. Keys are shared through Hazelcast
+ * when a cluster is available and kept on this node otherwise.
+ */
+@Service
+public class PaymentIdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentIdempotencyService.class);
+
+    public static final String PROCESS_KEY_PREFIX = "process:";
+    public static final String GATEWAY_KEY_PREFIX = "gateway:";
+
+    @Autowired
+    private ObjectProvider<HazelcastInstance> hazelcastInstance;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Value("${payment.idempotency.shards:16}")
+    private int shards;
+
+    @Value("${payment.idempotency.max-entries-per-shard:10000}")
+    private int maxEntriesPerShard;
+
+    @Value("${payment.idempotency.result-ttl-minutes:1440}")
+    private long resultTtlMinutes;
+
+    @Value("${payment.idempotency.in-flight-ttl-seconds:120}")
+    private long inFlightTtlSeconds;
+
+    @Value("${payment.idempotency.duplicate-wait-ms:30000}")
+    private long duplicateWaitMs;
+
+    private IdempotencyCache cache;
+    private InMemoryIdempotencyStore localStore;
+    private ScheduledExecutorService purge;
+
+    @PostConstruct
+    public void init() {
+        HazelcastInstance hazelcast = hazelcastInstance.getIfAvailable();
+        IdempotencyStore store;
+        if (hazelcast != null) {
+            store = new HazelcastIdempotencyStore(hazelcast);
+        } else {
+            localStore = new InMemoryIdempotencyStore();
+            store = localStore;
+        }
+        cache = new IdempotencyCache(store, UUID.randomUUID().toString(), shards, maxEntriesPerShard,
+            TimeUnit.MINUTES.toMillis(resultTtlMinutes), TimeUnit.SECONDS.toMillis(inFlightTtlSeconds), duplicateWaitMs);
+
+        purge = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-idempotency-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purge.scheduleWithFixedDelay(this::purgeExpired, 1, 1, TimeUnit.MINUTES);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry != null) {
+            registerCounter(registry, "miss", IdempotencyCache::getMisses);
+            registerCounter(registry, "hit", IdempotencyCache::getHits);
+            registerCounter(registry, "coalesced", IdempotencyCache::getCoalesced);
+        }
+        logger.info("🔑 Payment idempotency: {} shards, results kept {} minutes, {} store",
+            shards, resultTtlMinutes, hazelcast != null ? "Hazelcast" : "in-memory");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        purge.shutdownNow();
+    }
+
+    /**
+     * Resolve a key: replay its result, wait for the request already running with it, or claim it
+     *
+     * @param request what the key was sent with; a duplicate must carry an equal request
+     * @throws com.eipresso.payment.idempotency.IdempotencyKeyReusedException when it does not
+     */
+    public IdempotencyCache.Claim begin(String key, Object request) throws InterruptedException {
+        return cache.begin(key, IdempotencyCache.fingerprint(request));
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = cache.getStatistics();
+        stats.put("store", localStore != null ? "in-memory" : "Hazelcast");
+        if (localStore != null) {
+            stats.put("storeEntries", localStore.size());
+        }
+        return stats;
+    }
+
+    private void purgeExpired() {
+        cache.purgeExpired();
+        if (localStore != null) {
+            localStore.purgeExpired();
+        }
+    }
+
+    private void registerCounter(MeterRegistry registry, String outcome, ToDoubleFunction<IdempotencyCache> count) {
+        FunctionCounter.builder("payment.idempotency.requests", cache, count)
+            .description("Idempotency key lookups by outcome")
+            .tag("outcome", outcome)
+            .register(registry);
+    }
+}
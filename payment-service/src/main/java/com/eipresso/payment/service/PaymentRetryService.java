@@ -0,0 +1,243 @@
+package com.eipresso.payment.service;
+
+import com.eipresso.payment.gateway.PaymentDeclinedException;
+import com.eipresso.payment.idempotency.IdempotencyKeyReusedException;
+import com.eipresso.payment.retry.GatewayRetryPolicy;
+import com.eipresso.payment.retry.HazelcastRetryStore;
+import com.eipresso.payment.retry.InMemoryRetryStore;
+import com.eipresso.payment.retry.PendingRetry;
+import com.eipresso.payment.retry.RetryOutcome;
+import com.eipresso.payment.retry.RetryScheduler;
+import com.eipresso.payment.retry.RetryStore;
+import com.hazelcast.cluster.MembershipAdapter;
+import com.hazelcast.cluster.MembershipEvent;
+import com.hazelcast.core.HazelcastInstance;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.camel.Exchange;
+import org.apache.camel.ProducerTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Payment Retry Service
+ *
+ * Connects the Retry pattern routes to the {@link RetryScheduler}. The
+ * gateway retry route schedules an attempt and returns at once; when it is
+ * due, a dispatch thread sends the payment through
+ * {@code direct:gateway-retry-attempt}, and a payment whose last attempt
+ * failed goes to {@code direct:retry-exhausted-processor}. A declined charge
+ * is not retried and goes to {@code direct:payment-declined-processor}.
+ * All three are sent asynchronously and settled in their completion
+ * callbacks, so a dispatch thread is never held while a gateway responds.
+ *
+ * Pending retries are kept in Hazelcast when a cluster is available, so the
+ * node taking over after a failover resumes them. Each node runs only its
+ * own retries; those of a member that leaves the cluster are claimed by one
+ * of the others, and on start a node claims only what departed members left.
+ *
+ * A caller that must not move on until the payment is settled sends it with
+ * {@link #AWAIT_OUTCOME_HEADER} set and, when a retry was scheduled, waits on
+ * {@link #awaitOutcome}. Outcomes are only tracked on the node that
+ * scheduled the retry; a retry recovered elsewhere leaves its waiter to time out.
+ */
+@Service
+public class PaymentRetryService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentRetryService.class);
+
+    public static final String RETRY_ATTEMPT_URI = "direct:gateway-retry-attempt";
+    public static final String RETRY_EXHAUSTED_URI = "direct:retry-exhausted-processor";
+    public static final String PAYMENT_DECLINED_URI = "direct:payment-declined-processor";
+    public static final String AWAIT_OUTCOME_HEADER = "awaitRetryOutcome";
+
+    @Autowired
+    private ProducerTemplate producerTemplate;
+
+    @Autowired
+    private ObjectProvider<HazelcastInstance> hazelcastInstance;
+
+    @Value("${payment.retry.dispatch-threads:4}")
+    private int dispatchThreads;
+
+    @Value("${payment.retry.shutdown-timeout-ms:10000}")
+    private long shutdownTimeoutMs;
+
+    private RetryScheduler scheduler;
+    private HazelcastInstance hazelcast;
+    private final Map<String, CompletableFuture<RetryOutcome>> outcomes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        hazelcast = hazelcastInstance.getIfAvailable();
+        RetryStore store = hazelcast != null ? new HazelcastRetryStore(hazelcast) : new InMemoryRetryStore();
+        scheduler = new RetryScheduler(store, new RouteRetryHandler(), dispatchThreads);
+        logger.info("🔄 Payment retry scheduler: {} dispatch threads, {} store",
+            dispatchThreads, hazelcast != null ? "Hazelcast" : "in-memory");
+    }
+
+    /**
+     * Resume retries a previous run left pending, once the routes are up, and
+     * from then on the retries of every member that leaves the cluster
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverPendingRetries() {
+        if (hazelcast != null) {
+            hazelcast.getCluster().addMembershipListener(new MembershipAdapter() {
+                @Override
+                public void memberRemoved(MembershipEvent event) {
+                    logger.info("🔄 Member {} left, claiming its pending payment retries", event.getMember());
+                    scheduler.recoverLater();
+                }
+            });
+        }
+        scheduler.recover();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        scheduler.close(shutdownTimeoutMs);
+    }
+
+    /**
+     * Schedule the exchange's payment for its current attempt, after the gateway's backoff
+     *
+     * @return the scheduled retry
+     */
+    public PendingRetry schedule(Exchange exchange, long delayMillis) {
+        Map<String, Object> headers = exchange.getIn().getHeaders();
+        Integer attempt = exchange.getIn().getHeader("retryAttempt", Integer.class);
+        Integer maxRetries = exchange.getIn().getHeader("maxRetries", Integer.class);
+        PendingRetry retry = new PendingRetry(
+            exchange.getIn().getHeader("retryId", String.class),
+            exchange.getIn().getHeader("paymentId", String.class),
+            exchange.getIn().getHeader("paymentGateway", String.class),
+            attempt != null ? attempt : 1,
+            maxRetries != null ? maxRetries : 3,
+            System.currentTimeMillis() + delayMillis,
+            exchange.getIn().getHeader("lastRetryFailureReason", String.class),
+            headers,
+            exchange.getIn().getBody());
+        if (Boolean.TRUE.equals(exchange.getIn().getHeader(AWAIT_OUTCOME_HEADER, Boolean.class))) {
+            // Before scheduling, so an attempt that settles at once is not missed
+            outcomes.putIfAbsent(retry.getRetryId(), new CompletableFuture<>());
+        }
+        scheduler.schedule(retry);
+        return retry;
+    }
+
+    /**
+     * Wait for a retry scheduled with {@link #AWAIT_OUTCOME_HEADER} to succeed or be exhausted
+     *
+     * @return the outcome, or null if it did not settle in time or was not scheduled to be awaited
+     */
+    public RetryOutcome awaitOutcome(String retryId, long timeoutMillis) throws InterruptedException {
+        CompletableFuture<RetryOutcome> outcome = outcomes.get(retryId);
+        if (outcome == null) {
+            return null;
+        }
+        try {
+            return outcome.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } finally {
+            outcomes.remove(retryId);
+        }
+    }
+
+    public long delayFor(String gateway, int attempt) {
+        return GatewayRetryPolicy.forGateway(gateway).delayMillis(attempt);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = scheduler.getStatistics();
+        stats.put("awaitedOutcomes", outcomes.size());
+        return stats;
+    }
+
+    private void settle(RetryOutcome outcome) {
+        CompletableFuture<RetryOutcome> awaited = outcomes.get(outcome.getRetryId());
+        if (awaited != null) {
+            awaited.complete(outcome);
+        }
+    }
+
+    private class RouteRetryHandler implements RetryScheduler.RetryHandler {
+
+        @Override
+        public CompletionStage<?> attempt(PendingRetry retry) {
+            // Completes exceptionally on a failed attempt, leaving the outcome to the next one
+            return send(RETRY_ATTEMPT_URI, retry).thenAccept(exchange -> {
+                if (exchange.getException() != null) {
+                    throw new CompletionException(exchange.getException());
+                }
+                settle(RetryOutcome.succeeded(retry));
+            });
+        }
+
+        @Override
+        public void exhausted(PendingRetry retry) {
+            send(RETRY_EXHAUSTED_URI, retry).whenComplete((exchange, failure) -> {
+                logFailure(RETRY_EXHAUSTED_URI, retry, exchange, failure);
+                settle(RetryOutcome.exhausted(retry));
+            });
+        }
+
+        @Override
+        public boolean isRetryable(Exception failure) {
+            return !PaymentDeclinedException.isDeclined(failure) && IdempotencyKeyReusedException.find(failure) == null;
+        }
+
+        @Override
+        public void rejected(PendingRetry retry, Exception failure) {
+            send(PAYMENT_DECLINED_URI, retry).whenComplete((exchange, sendFailure) -> {
+                logFailure(PAYMENT_DECLINED_URI, retry, exchange, sendFailure);
+                settle(RetryOutcome.exhausted(retry));
+            });
+        }
+
+        private CompletableFuture<Exchange> send(String uri, PendingRetry retry) {
+            try {
+                return producerTemplate.asyncSend(uri, exchange -> {
+                    exchange.getIn().setBody(retry.getBody());
+                    exchange.getIn().setHeaders(headersOf(retry));
+                });
+            } catch (RuntimeException e) {
+                // Template stopped: settle through the same callbacks as a failed send
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        private void logFailure(String uri, PendingRetry retry, Exchange exchange, Throwable failure) {
+            Throwable cause = failure != null ? failure : exchange.getException();
+            if (cause != null) {
+                logger.error("❌ {} failed for payment {}: {}", uri, retry.getPaymentId(), cause.getMessage());
+            }
+        }
+
+        private Map<String, Object> headersOf(PendingRetry retry) {
+            Map<String, Object> headers = new HashMap<>(retry.getHeaders());
+            headers.put("retryAttempt", retry.getAttempt());
+            if (retry.getLastFailureReason() != null) {
+                headers.put("lastRetryFailureReason", retry.getLastFailureReason());
+            }
+            return headers;
+        }
+    }
+}
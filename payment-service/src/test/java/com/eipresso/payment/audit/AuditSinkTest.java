@@ -0,0 +1,248 @@
+package com.eipresso.payment.audit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Audit ring, mapped audit log and audit sink tests
+ */
+@DisplayName("Audit Sink Tests")
+class AuditSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static AuditRecord record(String paymentId) {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("paymentId", paymentId);
+        headers.put("amount", "1500.00");
+        headers.put("paymentGateway", "STRIPE");
+        headers.put("paymentMethod", "CREDIT_CARD");
+        headers.put("customerIp", "10.0.0.7");
+        headers.put("userAgent", "Test Client 1.0");
+        headers.put("correlationId", "CORR-" + paymentId);
+        return AuditRecord.fromHeaders(headers, "AUDIT-" + paymentId, 1_700_000_000_000L);
+    }
+
+    @Test
+    @DisplayName("Should copy audited fields and indicators from the headers")
+    void shouldCopyAuditedFieldsAndIndicatorsFromTheHeaders() {
+        AuditRecord record = record("PAY-1");
+
+        assertEquals(150_000L, record.getAmountCents());
+        assertEquals("USD", record.getCurrency());
+        assertEquals("US", record.getCustomerCountry());
+        assertNull(record.getSessionId());
+        assertTrue(record.hasFlag(AuditRecord.FLAG_HIGH_VALUE));
+        assertTrue(record.hasFlag(AuditRecord.FLAG_SUSPICIOUS));
+    }
+
+    @Test
+    @DisplayName("Should refuse offers when the ring is full and accept them once drained")
+    void shouldRefuseOffersWhenTheRingIsFullAndAcceptThemOnceDrained() {
+        AuditRing ring = new AuditRing(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(record("PAY-" + i)));
+        }
+        assertFalse(ring.offer(record("PAY-4")));
+
+        List<AuditRecord> drained = new ArrayList<>();
+        assertEquals(3, ring.drainTo(drained, 3));
+        assertEquals("PAY-0", drained.get(0).getPaymentId());
+        assertTrue(ring.offer(record("PAY-5")));
+        assertEquals(2, ring.drainTo(drained, 10));
+        assertEquals("PAY-5", drained.get(4).getPaymentId());
+        assertTrue(ring.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should round small capacities up to a power of two of at least two")
+    void shouldRoundSmallCapacitiesUpToAPowerOfTwoOfAtLeastTwo() {
+        assertEquals(2, new AuditRing(1).capacity());
+        assertEquals(2, new AuditRing(2).capacity());
+        assertEquals(4, new AuditRing(3).capacity());
+        assertEquals(4, new AuditRing(4).capacity());
+        assertEquals(8, new AuditRing(5).capacity());
+
+        AuditRing ring = new AuditRing(2);
+        assertTrue(ring.offer(record("PAY-0")));
+        assertTrue(ring.offer(record("PAY-1")));
+        assertFalse(ring.offer(record("PAY-2")));
+    }
+
+    @Test
+    @DisplayName("Should append across segments and resume the last segment after a restart")
+    void shouldAppendAcrossSegmentsAndResumeTheLastSegmentAfterARestart() throws IOException {
+        MappedAuditLog log = new MappedAuditLog(tempDir, 4096, false);
+        List<AuditRecord> batch = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            batch.add(record("PAY-" + i));
+        }
+        log.write(batch);
+        assertTrue(log.getSegmentNumber() > 1, "Expected the log to roll over");
+        log.close();
+
+        MappedAuditLog reopened = new MappedAuditLog(tempDir, 4096, false);
+        reopened.write(List.of(record("PAY-40")));
+        reopened.close();
+
+        List<AuditRecord> records = MappedAuditLog.readAll(tempDir);
+        assertEquals(41, records.size());
+        assertEquals("PAY-0", records.get(0).getPaymentId());
+        assertEquals("PAY-40", records.get(40).getPaymentId());
+        assertEquals("CORR-PAY-40", records.get(40).getCorrelationId());
+        assertEquals(150_000L, records.get(40).getAmountCents());
+    }
+
+    @Test
+    @DisplayName("Should refuse a second writer on a directory until the first is closed")
+    void shouldRefuseASecondWriterOnADirectoryUntilTheFirstIsClosed() throws IOException {
+        MappedAuditLog log = new MappedAuditLog(tempDir, 4096, false);
+
+        IOException refused = assertThrows(IOException.class, () -> new MappedAuditLog(tempDir, 4096, false));
+        assertTrue(refused.getMessage().contains("in use"));
+
+        log.close();
+        new MappedAuditLog(tempDir, 4096, false).close();
+    }
+
+    @Test
+    @DisplayName("Should write every record from concurrent producers in batches")
+    void shouldWriteEveryRecordFromConcurrentProducersInBatches() throws Exception {
+        List<AuditRecord> written = new ArrayList<>();
+        AuditBatchWriter collector = new AuditBatchWriter() {
+            @Override
+            public void write(List<AuditRecord> batch) {
+                written.addAll(batch);
+            }
+
+            @Override
+            public String getName() {
+                return "collector";
+            }
+        };
+
+        try (AuditSink sink = new AuditSink(1024, 64, OverflowPolicy.BLOCK, 1_000, List.of(collector))) {
+            Thread[] producers = new Thread[4];
+            for (int p = 0; p < producers.length; p++) {
+                int producer = p;
+                producers[p] = new Thread(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        sink.offer(record("PAY-" + producer + "-" + i));
+                    }
+                });
+                producers[p].start();
+            }
+            for (Thread producer : producers) {
+                producer.join();
+            }
+            assertTrue(sink.awaitDrained(5_000));
+
+            Map<String, Object> stats = sink.getStatistics();
+            assertEquals(20_000L, stats.get("written"));
+            assertEquals(0L, stats.get("dropped"));
+            assertTrue((Long) stats.get("largestBatch") <= 64);
+        }
+        assertEquals(20_000, written.size());
+    }
+
+    @Test
+    @DisplayName("Should drop and count records while the writer cannot keep up")
+    void shouldDropAndCountRecordsWhileTheWriterCannotKeepUp() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AuditBatchWriter stalled = new AuditBatchWriter() {
+            @Override
+            public void write(List<AuditRecord> batch) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Disk full");
+            }
+
+            @Override
+            public String getName() {
+                return "stalled";
+            }
+        };
+
+        try (AuditSink sink = new AuditSink(8, 8, OverflowPolicy.DROP, 0, List.of(stalled))) {
+            int accepted = 0;
+            for (int i = 0; i < 100; i++) {
+                if (sink.offer(record("PAY-" + i))) {
+                    accepted++;
+                }
+            }
+            release.countDown();
+            assertTrue(sink.awaitDrained(5_000));
+
+            Map<String, Object> stats = sink.getStatistics();
+            assertEquals(100L - accepted, stats.get("dropped"));
+            assertTrue(accepted <= 16, "Accepted " + accepted);
+            assertEquals((long) accepted, stats.get("lostRecords"));
+            assertTrue((Long) stats.get("writeErrors") >= 1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should write every accepted record and reject offers once closed")
+    void shouldWriteEveryAcceptedRecordAndRejectOffersOnceClosed() throws Exception {
+        List<AuditRecord> written = Collections.synchronizedList(new ArrayList<>());
+        AuditBatchWriter collector = new AuditBatchWriter() {
+            @Override
+            public void write(List<AuditRecord> batch) {
+                written.addAll(batch);
+            }
+
+            @Override
+            public String getName() {
+                return "collector";
+            }
+        };
+
+        for (int round = 0; round < 20; round++) {
+            written.clear();
+            AuditSink sink = new AuditSink(1024, 64, OverflowPolicy.BLOCK, 1_000, List.of(collector));
+            int[] accepted = new int[4];
+            Thread[] producers = new Thread[accepted.length];
+            for (int p = 0; p < producers.length; p++) {
+                int producer = p;
+                producers[p] = new Thread(() -> {
+                    for (int i = 0; i < 5_000; i++) {
+                        if (sink.offer(record("PAY-" + producer + "-" + i))) {
+                            accepted[producer]++;
+                        }
+                    }
+                });
+                producers[p].start();
+            }
+            sink.close();
+            for (Thread producer : producers) {
+                producer.join();
+            }
+
+            int acceptedTotal = 0;
+            for (int count : accepted) {
+                acceptedTotal += count;
+            }
+            assertEquals(acceptedTotal, written.size(), "Round " + round);
+            assertEquals(20_000L - acceptedTotal, sink.getStatistics().get("dropped"));
+            long rejectedAfterClose = (Long) sink.getStatistics().get("rejectedAfterClose");
+            assertFalse(sink.offer(record("PAY-late")));
+            assertEquals(rejectedAfterClose + 1, sink.getStatistics().get("rejectedAfterClose"));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.eipresso.payment.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Batch summary tests
+ */
+@DisplayName("Batch Summary Tests")
+class BatchSummaryTest {
+
+    @Test
+    @DisplayName("Should sum amounts exactly in cents")
+    void shouldSumAmountsExactlyInCents() {
+        BatchSummary summary = new BatchSummary("BATCH-1", 1_000);
+        for (int i = 0; i < 1_000; i++) {
+            summary.add(BatchSummary.RESULT_SUCCESS, 0.1);
+        }
+
+        // 1000 * 0.1 in doubles is 99.9999999999986
+        assertEquals(new BigDecimal("100.00"), summary.toMap().get("totalAmount"));
+        assertEquals(new BigDecimal("100.00"), summary.toMap().get("successfulAmount"));
+    }
+
+    @Test
+    @DisplayName("Should report a partial summary mid-batch")
+    void shouldReportAPartialSummaryMidBatch() {
+        BatchSummary summary = new BatchSummary("BATCH-2", 4);
+        summary.add(BatchSummary.RESULT_SUCCESS, 25.0);
+        summary.add("FAILURE", "10.50");
+
+        Map<String, Object> partial = summary.toMap();
+        assertEquals("IN_PROGRESS", partial.get("batchStatus"));
+        assertEquals(4, partial.get("totalPayments"));
+        assertEquals(2L, partial.get("processedPayments"));
+        assertEquals(50.0, partial.get("successRate"));
+        assertEquals(new BigDecimal("10.50"), partial.get("failedAmount"));
+        assertFalse(partial.containsKey("batchEndTime"));
+    }
+
+    @Test
+    @DisplayName("Should derive the batch status on completion")
+    void shouldDeriveTheBatchStatusOnCompletion() {
+        BatchSummary success = new BatchSummary("BATCH-3", 2);
+        success.add(BatchSummary.RESULT_SUCCESS, 1);
+        success.add(BatchSummary.RESULT_SUCCESS, 1);
+        success.complete("size");
+
+        BatchSummary failure = new BatchSummary("BATCH-4", 1);
+        failure.add("FAILURE", 1);
+        failure.complete("size");
+
+        BatchSummary timedOut = new BatchSummary("BATCH-5", 3);
+        timedOut.add(BatchSummary.RESULT_SUCCESS, 1);
+        timedOut.complete("timeout");
+
+        assertEquals("COMPLETED_SUCCESS", success.getBatchStatus());
+        assertEquals("COMPLETED_FAILURE", failure.getBatchStatus());
+        assertEquals("COMPLETED_PARTIAL", timedOut.getBatchStatus());
+        assertEquals("timeout", timedOut.toMap().get("completedBy"));
+    }
+
+    @Test
+    @DisplayName("Should count payments waiting on a retry apart from failures")
+    void shouldCountPaymentsWaitingOnARetryApartFromFailures() {
+        BatchSummary summary = new BatchSummary("BATCH-6", 3);
+        summary.add(BatchSummary.RESULT_SUCCESS, 5.0);
+        summary.add(BatchSummary.RESULT_RETRY_SCHEDULED, 7.5);
+        summary.add("FAILURE", 2.0);
+        summary.complete("size");
+
+        Map<String, Object> completed = summary.toMap();
+        assertEquals("COMPLETED_RETRYING", completed.get("batchStatus"));
+        assertEquals(3L, completed.get("processedPayments"));
+        assertEquals(1L, completed.get("retryingPayments"));
+        assertEquals(1L, completed.get("failedPayments"));
+        assertEquals(new BigDecimal("7.50"), completed.get("retryingAmount"));
+        assertEquals(new BigDecimal("2.00"), completed.get("failedAmount"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.eipresso.payment.batch;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streaming batch processor tests
+ */
+@DisplayName("Streaming Batch Processor Tests")
+class StreamingBatchProcessorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService workers = Executors.newFixedThreadPool(8);
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    private BatchJob run(StreamingBatchProcessor processor, String ndjson) throws Exception {
+        BatchJob job = new BatchJob("BATCH-1", tempDir.resolve("results.ndjson"));
+        try (BatchResultWriter results = new BatchResultWriter(objectMapper, job.getResultsFile())) {
+            processor.process(job, new StringReader(ndjson), results);
+        }
+        return job;
+    }
+
+    @Test
+    @DisplayName("Should process every line and write one result per payment")
+    void shouldProcessEveryLineAndWriteOneResultPerPayment() throws Exception {
+        StreamingBatchProcessor processor = new StreamingBatchProcessor(objectMapper, payment ->
+            ((Number) payment.get("amount")).doubleValue() > 0
+                ? new StreamingBatchProcessor.PaymentOutcome(true, "COMPLETED", null)
+                : new StreamingBatchProcessor.PaymentOutcome(false, "FAILED", "Invalid payment amount"),
+            workers, 2);
+
+        BatchJob job = run(processor, String.join("\n",
+            "{\"paymentId\":\"PAY-1\",\"amount\":25.50,\"paymentGateway\":\"paypal\"}",
+            "",
+            "{\"amount\":10}",
+            "{\"paymentId\":\"PAY-3\",\"amount\":-1}"));
+
+        assertEquals(BatchState.COMPLETED, job.getState());
+        assertEquals(3, job.getSubmitted());
+        assertEquals(2, job.getSucceeded());
+        assertEquals(1, job.getFailed());
+
+        List<String> lines = Files.readAllLines(job.getResultsFile());
+        assertEquals(3, lines.size());
+        Map<?, ?> defaulted = lines.stream()
+            .map(line -> readMap(line))
+            .filter(result -> ((Number) result.get("paymentIndex")).intValue() == 2)
+            .findFirst().orElseThrow();
+        assertEquals("BATCH-1-2", defaulted.get("paymentId"));
+        assertEquals(StreamingBatchProcessor.DEFAULT_GATEWAY, defaulted.get("paymentGateway"));
+        assertTrue(lines.stream().anyMatch(line -> line.contains("\"PAYPAL\"")));
+    }
+
+    @Test
+    @DisplayName("Should record malformed lines without stopping the batch")
+    void shouldRecordMalformedLinesWithoutStoppingTheBatch() throws Exception {
+        StreamingBatchProcessor processor = new StreamingBatchProcessor(objectMapper,
+            payment -> new StreamingBatchProcessor.PaymentOutcome(true, "COMPLETED", null), workers, 2);
+
+        BatchJob job = run(processor, "{\"amount\":1}\n{not json\n{\"amount\":2}\n");
+
+        assertEquals(2, job.getSucceeded());
+        assertEquals(1, job.getMalformed());
+        assertTrue(Files.readString(job.getResultsFile()).contains("\"lineNumber\":2"));
+    }
+
+    @Test
+    @DisplayName("Should count a handler exception as a failed payment")
+    void shouldCountAHandlerExceptionAsAFailedPayment() throws Exception {
+        StreamingBatchProcessor processor = new StreamingBatchProcessor(objectMapper, payment -> {
+            throw new IllegalStateException("Gateway timeout");
+        }, workers, 2);
+
+        BatchJob job = run(processor, "{\"amount\":1}\n");
+
+        assertEquals(1, job.getFailed());
+        assertTrue(Files.readString(job.getResultsFile()).contains("Gateway timeout"));
+        assertEquals(1L, job.getProgress().get("completedPayments"));
+    }
+
+    @Test
+    @DisplayName("Should never exceed the concurrency limit of any gateway")
+    void shouldNeverExceedTheConcurrencyLimitOfAnyGateway() throws Exception {
+        int limit = 3;
+        Map<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> peak = new ConcurrentHashMap<>();
+        StreamingBatchProcessor processor = new StreamingBatchProcessor(objectMapper, payment -> {
+            String gateway = (String) payment.get("paymentGateway");
+            int now = running.computeIfAbsent(gateway, g -> new AtomicInteger()).incrementAndGet();
+            peak.computeIfAbsent(gateway, g -> new AtomicInteger()).accumulateAndGet(now, Math::max);
+            Thread.sleep(2);
+            running.get(gateway).decrementAndGet();
+            return new StreamingBatchProcessor.PaymentOutcome(true, "COMPLETED", null);
+        }, workers, limit);
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            ndjson.append("{\"amount\":1,\"paymentGateway\":\"").append(i % 4 == 0 ? "PAYPAL" : "STRIPE").append("\"}\n");
+        }
+        BatchJob job = run(processor, ndjson.toString());
+
+        assertEquals(200, job.getSucceeded());
+        assertTrue(peak.get("STRIPE").get() <= limit, "STRIPE peak " + peak.get("STRIPE"));
+        assertTrue(peak.get("PAYPAL").get() <= limit, "PAYPAL peak " + peak.get("PAYPAL"));
+        assertEquals(0, (int) processor.getInFlightByGateway().get("STRIPE"));
+    }
+
+    @Test
+    @DisplayName("Should reject a payment for an unknown gateway without processing it")
+    void shouldRejectAPaymentForAnUnknownGatewayWithoutProcessingIt() throws Exception {
+        AtomicInteger processed = new AtomicInteger();
+        StreamingBatchProcessor processor = new StreamingBatchProcessor(objectMapper, payment -> {
+            processed.incrementAndGet();
+            return new StreamingBatchProcessor.PaymentOutcome(true, "COMPLETED", null);
+        }, workers, 2);
+
+        BatchJob job = run(processor, "{\"amount\":1,\"paymentGateway\":\"bank\"}\n{\"amount\":2,\"paymentGateway\":\"stripe\"}\n");
+
+        assertEquals(1, processed.get());
+        assertEquals(1, job.getSucceeded());
+        assertEquals(1, job.getFailed());
+        assertTrue(Files.readString(job.getResultsFile()).contains("\"REJECTED\""));
+        assertFalse(processor.getInFlightByGateway().containsKey("BANK"));
+    }
+
+    @Test
+    @DisplayName("Should stop reading once a batch is cancelled")
+    void shouldStopReadingOnceABatchIsCancelled() throws Exception {
+        BatchJob job = new BatchJob("BATCH-2", tempDir.resolve("cancelled.ndjson"));
+        StreamingBatchProcessor processor = new StreamingBatchProcessor(objectMapper, payment -> {
+            job.cancel();
+            return new StreamingBatchProcessor.PaymentOutcome(true, "COMPLETED", null);
+        }, Runnable::run, 1);
+
+        try (BatchResultWriter results = new BatchResultWriter(objectMapper, job.getResultsFile())) {
+            processor.process(job, new StringReader("{\"amount\":1}\n{\"amount\":2}\n{\"amount\":3}\n"), results);
+        }
+
+        assertEquals(BatchState.CANCELLED, job.getState());
+        assertEquals(1, job.getSubmitted());
+    }
+
+    private Map<?, ?> readMap(String line) {
+        try {
+            return objectMapper.readValue(line, Map.class);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
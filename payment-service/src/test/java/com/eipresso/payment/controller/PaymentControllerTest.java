@@ -249,6 +249,39 @@ class PaymentControllerTest {
                     })
             );
         }
+
+        @Test
+        @DisplayName("Should refuse an idempotency key reused with a different payment")
+        void shouldRefuseAnIdempotencyKeyReusedWithADifferentPayment() throws Exception {
+            when(producerTemplate.requestBodyAndHeaders(
+                    eq("direct:payment-wire-tap-entry"),
+                    any(),
+                    any(Map.class)
+            )).thenReturn("SUCCESS");
+            String idempotencyKey = "KEY-" + UUID.randomUUID();
+
+            mockMvc.perform(post("/payments/process")
+                    .header(PaymentController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(validPaymentRequest)))
+                    .andExpect(status().isOk());
+
+            validPaymentRequest.put("amount", "75.00");
+            mockMvc.perform(post("/payments/process")
+                    .header(PaymentController.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(validPaymentRequest)))
+                    .andExpect(status().isUnprocessableEntity())
+                    .andExpect(jsonPath("$.idempotencyKey").value(idempotencyKey))
+                    .andDo(print());
+
+            // The second payment was neither charged nor answered with the first one's result
+            verify(producerTemplate, times(1)).requestBodyAndHeaders(
+                    eq("direct:payment-wire-tap-entry"),
+                    any(),
+                    any(Map.class)
+            );
+        }
     }
 
     @Nested
@@ -282,6 +315,43 @@ class PaymentControllerTest {
             );
         }
 
+        @Test
+        @DisplayName("Should report a payment whose first attempt failed as processing")
+        void shouldReportAPaymentWhoseFirstAttemptFailedAsProcessing() throws Exception {
+            when(producerTemplate.requestBodyAndHeaders(
+                    eq("direct:payment-retry-entry"),
+                    any(),
+                    any(Map.class)
+            )).thenReturn(Map.of("status", "RETRY_SCHEDULED", "retryId", "RETRY-1"));
+
+            mockMvc.perform(post("/payments/process-with-retry")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(validPaymentRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("PROCESSING"))
+                    .andExpect(jsonPath("$.retryId").value("RETRY-1"))
+                    .andDo(print());
+        }
+
+        @Test
+        @DisplayName("Should report a declined payment as failed without retrying it")
+        void shouldReportADeclinedPaymentAsFailedWithoutRetryingIt() throws Exception {
+            when(producerTemplate.requestBodyAndHeaders(
+                    eq("direct:payment-retry-entry"),
+                    any(),
+                    any(Map.class)
+            )).thenReturn(Map.of("status", "DECLINED", "lastFailureReason", "Payment PAY-1 declined: Insufficient funds"));
+
+            mockMvc.perform(post("/payments/process-with-retry")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(validPaymentRequest)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.status").value("FAILED"))
+                    .andExpect(jsonPath("$.declined").value(true))
+                    .andExpect(jsonPath("$.retryId").doesNotExist())
+                    .andDo(print());
+        }
+
         @Test
         @DisplayName("Should handle retry failures and return error response")
         void shouldHandleRetryFailuresAndReturnErrorResponse() throws Exception {
@@ -0,0 +1,141 @@
+package com.eipresso.payment.fraud;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fraud scoring engine and feature store tests with explicit timestamps
+ */
+@DisplayName("Fraud Scoring Engine Tests")
+class FraudScoringEngineTest {
+
+    // 2024-01-15T12:00:00Z, well inside business hours in UTC
+    private static final long NOON = 1_705_320_000_000L;
+    private static final long NO_BUDGET_LIMIT = Long.MAX_VALUE;
+
+    private final FraudFeatureStore store = new FraudFeatureStore(1_000, 3_600_000);
+    private final FraudScoringEngine engine = new FraudScoringEngine(store, NO_BUDGET_LIMIT, ZoneOffset.UTC);
+
+    private static PaymentObservation payment(String user, String card, String ip, String merchant,
+                                              long amountCents, long timestampMillis) {
+        return new PaymentObservation(user, card, ip, merchant, amountCents, timestampMillis, "node-a");
+    }
+
+    private FraudScore scoreAndObserve(PaymentObservation payment) {
+        FraudScore score = engine.score(payment);
+        store.observe(payment);
+        return score;
+    }
+
+    @Test
+    @DisplayName("Should flag user velocity once the last minute holds enough payments, and forget them after")
+    void shouldFlagUserVelocityOnceTheLastMinuteHoldsEnoughPaymentsAndForgetThemAfter() {
+        for (int i = 0; i < 5; i++) {
+            FraudScore score = scoreAndObserve(payment("USR-1", null, null, "M-1", 2_000, NOON + i * 1_000));
+            assertFalse(score.getReasons().contains(FraudReason.USER_VELOCITY_MINUTE), "payment " + i);
+        }
+
+        FraudScore sixth = engine.score(payment("USR-1", null, null, "M-1", 2_000, NOON + 5_000));
+        assertEquals(EnumSet.of(FraudReason.USER_VELOCITY_MINUTE), sixth.getReasons());
+        assertEquals(20, sixth.getScore());
+
+        FraudScore later = engine.score(payment("USR-1", null, null, "M-1", 2_000, NOON + 120_000));
+        assertTrue(later.getReasons().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should flag amounts far above the user's usual spend and high-value payments")
+    void shouldFlagAmountsFarAboveTheUsersUsualSpendAndHighValuePayments() {
+        for (int i = 0; i < 5; i++) {
+            scoreAndObserve(payment("USR-2", null, null, "M-1", 2_000, NOON + i * 60_000));
+        }
+
+        assertTrue(engine.score(payment("USR-2", null, null, "M-1", 5_000, NOON + 600_000)).getReasons().isEmpty());
+        FraudScore anomaly = engine.score(payment("USR-2", null, null, "M-1", 60_000, NOON + 600_000));
+        assertEquals(EnumSet.of(FraudReason.AMOUNT_ANOMALY, FraudReason.HIGH_VALUE), anomaly.getReasons());
+        assertEquals(60, anomaly.getScore());
+        assertEquals("MEDIUM", anomaly.getRiskLevel());
+
+        // A new user has no history to compare against
+        FraudScore newUser = engine.score(payment("USR-NEW", null, null, "M-1", 60_000, NOON));
+        assertEquals(EnumSet.of(FraudReason.HIGH_VALUE), newUser.getReasons());
+    }
+
+    @Test
+    @DisplayName("Should combine card and IP features and cap the score at 100")
+    void shouldCombineCardAndIpFeaturesAndCapTheScoreAt100() {
+        for (int i = 0; i < 10; i++) {
+            scoreAndObserve(payment("USR-" + i, "CARD-1", "203.0.113.7", "M-" + i, 2_000, NOON + i * 1_000));
+        }
+
+        FraudScore score = engine.score(payment("USR-X", "CARD-1", "203.0.113.7", "M-X", 90_000, NOON + 20_000));
+        assertTrue(score.getReasons().containsAll(EnumSet.of(FraudReason.HIGH_VALUE,
+            FraudReason.CARD_VELOCITY_MINUTE, FraudReason.CARD_MANY_MERCHANTS, FraudReason.IP_VELOCITY_MINUTE)));
+        assertEquals(85, score.getScore());
+        assertEquals("HIGH", score.getRiskLevel());
+
+        FraudScore offHours = new FraudScoringEngine(store, NO_BUDGET_LIMIT, ZoneOffset.ofHours(-10))
+            .score(payment("USR-X", "CARD-1", "203.0.113.7", "M-X", 90_000, NOON + 20_000));
+        assertEquals(100, offHours.getScore());
+    }
+
+    @Test
+    @DisplayName("Should return a degraded score from the payment alone when the budget is spent")
+    void shouldReturnADegradedScoreFromThePaymentAloneWhenTheBudgetIsSpent() {
+        for (int i = 0; i < 6; i++) {
+            scoreAndObserve(payment("USR-3", null, null, "M-1", 2_000, NOON + i * 1_000));
+        }
+
+        FraudScore score = new FraudScoringEngine(store, 0, ZoneOffset.UTC)
+            .score(payment("USR-3", null, null, "M-1", 60_000, NOON + 7_000));
+
+        assertTrue(score.isDegraded());
+        assertEquals(EnumSet.of(FraudReason.HIGH_VALUE), score.getReasons());
+    }
+
+    @Test
+    @DisplayName("Should score alike on nodes that apply each other's observations")
+    void shouldScoreAlikeOnNodesThatApplyEachOthersObservations() {
+        FraudFeatureStore otherStore = new FraudFeatureStore(1_000, 3_600_000);
+        FraudScoringEngine otherEngine = new FraudScoringEngine(otherStore, NO_BUDGET_LIMIT, ZoneOffset.UTC);
+
+        // Alternate payments between the nodes; each also applies the other's
+        for (int i = 0; i < 6; i++) {
+            PaymentObservation observation = payment("USR-4", "CARD-4", null, "M-" + i, 2_000, NOON + i * 1_000);
+            store.observe(observation);
+            otherStore.observe(observation);
+        }
+
+        PaymentObservation next = payment("USR-4", "CARD-4", null, "M-9", 2_000, NOON + 8_000);
+        FraudScore local = engine.score(next);
+        FraudScore remote = otherEngine.score(next);
+        assertEquals(local.getReasons(), remote.getReasons());
+        assertEquals(EnumSet.of(FraudReason.USER_VELOCITY_MINUTE, FraudReason.USER_MANY_MERCHANTS,
+            FraudReason.CARD_VELOCITY_MINUTE, FraudReason.CARD_MANY_MERCHANTS), remote.getReasons());
+    }
+
+    @Test
+    @DisplayName("Should evict idle entities, then the least recently seen ones over capacity")
+    void shouldEvictIdleEntitiesThenTheLeastRecentlySeenOnesOverCapacity() {
+        FraudFeatureStore small = new FraudFeatureStore(3, 600_000);
+        for (int i = 0; i < 6; i++) {
+            small.observe(payment("USR-" + i, null, null, null, 2_000, NOON + i * 60_000));
+        }
+        small.observe(payment("USR-OLD", null, null, null, 2_000, NOON - 3_600_000));
+        assertTrue(small.isOverCapacity());
+
+        small.evict(NOON + 6 * 60_000);
+
+        assertFalse(small.isOverCapacity());
+        assertSame(FeatureSnapshot.EMPTY, small.snapshot(FeatureDimension.USER, "USR-OLD", NOON));
+        assertSame(FeatureSnapshot.EMPTY, small.snapshot(FeatureDimension.USER, "USR-0", NOON));
+        assertEquals(1, small.snapshot(FeatureDimension.USER, "USR-4", NOON + 6 * 60_000).getPaymentsLastHour());
+        assertEquals(1, small.snapshot(FeatureDimension.USER, "USR-5", NOON + 6 * 60_000).getPaymentsLastHour());
+        assertEquals(7L - (Integer) small.getStatistics().get("userEntities"), small.getStatistics().get("evictions"));
+    }
+}
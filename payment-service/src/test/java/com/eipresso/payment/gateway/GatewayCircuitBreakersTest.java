@@ -0,0 +1,173 @@
+package com.eipresso.payment.gateway;
+
+import com.eipresso.payment.model.PaymentGateway;
+import com.eipresso.payment.model.PaymentMethod;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gateway Circuit Breaker Test Suite
+ *
+ * Small windows and a short open wait, so the breakers trip and recover
+ * within a test.
+ */
+@DisplayName("Gateway Circuit Breaker Tests")
+class GatewayCircuitBreakersTest {
+
+    private static final long FAST_CALL_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    private static final long SLOW_CALL_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private final List<String> transitions = new CopyOnWriteArrayList<>();
+    private GatewayCircuitBreakers breakers;
+
+    @BeforeEach
+    void setUp() {
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+            .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+            .slidingWindowSize(10)
+            .minimumNumberOfCalls(10)
+            .failureRateThreshold(50)
+            .slowCallRateThreshold(80)
+            .slowCallDurationThreshold(Duration.ofMillis(100))
+            .waitDurationInOpenState(Duration.ofMillis(100))
+            .permittedNumberOfCallsInHalfOpenState(3)
+            .build();
+        breakers = new GatewayCircuitBreakers(CircuitBreakerRegistry.ofDefaults(), config,
+            (gateway, from, to, dwellNanos) -> transitions.add(gateway + ":" + from + "->" + to));
+    }
+
+    @Test
+    @DisplayName("Should order fallback gateways by priority among those supporting the method")
+    void shouldOrderFallbackGatewaysByPriorityAmongThoseSupportingTheMethod() {
+        assertEquals(List.of(PaymentGateway.STRIPE, PaymentGateway.ADYEN, PaymentGateway.SQUARE, PaymentGateway.PAYPAL),
+            breakers.candidates(PaymentGateway.STRIPE, PaymentMethod.CREDIT_CARD));
+        assertEquals(List.of(PaymentGateway.ADYEN, PaymentGateway.PAYPAL),
+            breakers.candidates(PaymentGateway.STRIPE, PaymentMethod.BANK_TRANSFER));
+        assertEquals(List.of(PaymentGateway.MOCK), breakers.candidates(PaymentGateway.MOCK, PaymentMethod.CREDIT_CARD));
+    }
+
+    @Test
+    @DisplayName("Should open on the failure rate and reroute to the next healthy gateway")
+    void shouldOpenOnTheFailureRateAndRerouteToTheNextHealthyGateway() {
+        for (int i = 0; i < 10; i++) {
+            PaymentGateway selected = breakers.select(PaymentGateway.STRIPE, PaymentMethod.CREDIT_CARD);
+            assertEquals(PaymentGateway.STRIPE, selected);
+            if (i % 2 == 0) {
+                breakers.onError(selected, FAST_CALL_NANOS, new RuntimeException("Stripe unavailable"));
+            } else {
+                breakers.onSuccess(selected, FAST_CALL_NANOS);
+            }
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getState(PaymentGateway.STRIPE));
+        assertEquals(List.of("STRIPE:CLOSED->OPEN"), transitions);
+        assertEquals(PaymentGateway.ADYEN, breakers.select(PaymentGateway.STRIPE, PaymentMethod.CREDIT_CARD));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stripe = (Map<String, Object>) breakers.getStatistics().get("STRIPE");
+        assertEquals("OPEN", stripe.get("state"));
+        assertEquals(1L, stripe.get("reroutedCalls"));
+    }
+
+    @Test
+    @DisplayName("Should open on the slow-call rate even when every call succeeds")
+    void shouldOpenOnTheSlowCallRateEvenWhenEveryCallSucceeds() {
+        for (int i = 0; i < 10; i++) {
+            PaymentGateway selected = breakers.select(PaymentGateway.PAYPAL, PaymentMethod.DIGITAL_WALLET);
+            breakers.onSuccess(selected, SLOW_CALL_NANOS);
+        }
+
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getState(PaymentGateway.PAYPAL));
+        assertEquals(PaymentGateway.STRIPE, breakers.select(PaymentGateway.PAYPAL, PaymentMethod.DIGITAL_WALLET));
+    }
+
+    @Test
+    @DisplayName("Should fail fast when every candidate's circuit is open")
+    void shouldFailFastWhenEveryCandidatesCircuitIsOpen() {
+        trip(PaymentGateway.MOCK);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            assertThrows(GatewayUnavailableException.class,
+                () -> breakers.select(PaymentGateway.MOCK, PaymentMethod.CREDIT_CARD));
+        }
+        long averageNanos = (System.nanoTime() - start) / 1_000;
+
+        assertTrue(averageNanos < TimeUnit.MILLISECONDS.toNanos(1), "Fast-fail took " + averageNanos + "ns");
+        assertEquals(1_000L, breakers.getStatistics().get("unavailableCalls"));
+    }
+
+    @Test
+    @DisplayName("Should probe half-open with real calls and close or reopen on their outcome")
+    void shouldProbeHalfOpenWithRealCallsAndCloseOrReopenOnTheirOutcome() throws InterruptedException {
+        trip(PaymentGateway.STRIPE);
+        trip(PaymentGateway.SQUARE);
+        Thread.sleep(150);
+
+        // Failed probes send the breaker back to open
+        for (int i = 0; i < 3; i++) {
+            assertEquals(PaymentGateway.STRIPE, breakers.select(PaymentGateway.STRIPE, PaymentMethod.DEBIT_CARD));
+            breakers.onError(PaymentGateway.STRIPE, FAST_CALL_NANOS, new RuntimeException("Still down"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getState(PaymentGateway.STRIPE));
+
+        // Successful probes close it
+        for (int i = 0; i < 3; i++) {
+            assertEquals(PaymentGateway.SQUARE, breakers.select(PaymentGateway.SQUARE, PaymentMethod.DEBIT_CARD));
+            breakers.onSuccess(PaymentGateway.SQUARE, FAST_CALL_NANOS);
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breakers.getState(PaymentGateway.SQUARE));
+        assertTrue(transitions.containsAll(List.of("STRIPE:OPEN->HALF_OPEN", "STRIPE:HALF_OPEN->OPEN",
+            "SQUARE:OPEN->HALF_OPEN", "SQUARE:HALF_OPEN->CLOSED")), transitions.toString());
+    }
+
+    @Test
+    @DisplayName("Should count a reroute for an unsupported method apart from open circuits")
+    void shouldCountARerouteForAnUnsupportedMethodApartFromOpenCircuits() {
+        assertEquals(PaymentGateway.ADYEN, breakers.select(PaymentGateway.STRIPE, PaymentMethod.BANK_TRANSFER));
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stripe = (Map<String, Object>) breakers.getStatistics().get("STRIPE");
+        assertEquals("CLOSED", stripe.get("state"));
+        assertEquals(1L, stripe.get("unsupportedMethodCalls"));
+        assertFalse(GatewayCircuitBreakers.supports(PaymentGateway.STRIPE, PaymentMethod.BANK_TRANSFER));
+    }
+
+    @Test
+    @DisplayName("Should hand a released half-open permit to the next call")
+    void shouldHandAReleasedHalfOpenPermitToTheNextCall() throws InterruptedException {
+        trip(PaymentGateway.STRIPE);
+        Thread.sleep(150);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(PaymentGateway.STRIPE, breakers.select(PaymentGateway.STRIPE, PaymentMethod.CREDIT_CARD));
+        }
+        assertEquals(PaymentGateway.ADYEN, breakers.select(PaymentGateway.STRIPE, PaymentMethod.CREDIT_CARD));
+
+        // A call that failed before reaching the gateway gives its permit back
+        breakers.release(PaymentGateway.STRIPE);
+        assertEquals(PaymentGateway.STRIPE, breakers.select(PaymentGateway.STRIPE, PaymentMethod.CREDIT_CARD));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breakers.getState(PaymentGateway.STRIPE));
+    }
+
+    private void trip(PaymentGateway gateway) {
+        for (int i = 0; i < 10; i++) {
+            PaymentGateway selected = breakers.select(gateway, null);
+            assertEquals(gateway, selected);
+            breakers.onError(selected, FAST_CALL_NANOS, new RuntimeException(gateway + " unavailable"));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breakers.getState(gateway));
+    }
+}
@@ -0,0 +1,135 @@
+package com.eipresso.payment.gateway;
+
+import com.eipresso.payment.model.PaymentGateway;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gateway client tests against the local stub gateway
+ */
+@DisplayName("Gateway Client Tests")
+class GatewayClientTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private StubGatewayServer stub;
+    private GatewayClient client;
+
+    private GatewayClient newClient(long stubLatencyMillis, Duration timeout, int maxBatchSize, long lingerMillis)
+            throws Exception {
+        stub = new StubGatewayServer(stubLatencyMillis, 8);
+        Map<PaymentGateway, String> baseUrls = new EnumMap<>(PaymentGateway.class);
+        Map<PaymentGateway, Duration> timeouts = new EnumMap<>(PaymentGateway.class);
+        for (PaymentGateway gateway : PaymentGateway.values()) {
+            baseUrls.put(gateway, stub.baseUrl(gateway.getCode()));
+            timeouts.put(gateway, timeout);
+        }
+        client = new GatewayClient(new ObjectMapper(), baseUrls, timeouts, executor, scheduler, maxBatchSize, lingerMillis);
+        return client;
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+        if (stub != null) {
+            stub.close();
+        }
+        executor.shutdownNow();
+        scheduler.shutdownNow();
+    }
+
+    private static GatewayRequest charge(String paymentId, long amountCents) {
+        return new GatewayRequest(paymentId, amountCents, "USD", "CREDIT_CARD", "key-" + paymentId);
+    }
+
+    @Test
+    @DisplayName("Should send one request per charge with its idempotency key to gateways without batching")
+    void shouldSendOneRequestPerChargeWithItsIdempotencyKeyToGatewaysWithoutBatching() throws Exception {
+        newClient(0, Duration.ofSeconds(5), 10, 50);
+
+        GatewayResponse response = client.charge(PaymentGateway.SQUARE, charge("PAY-1", 2_500)).get(5, TimeUnit.SECONDS);
+
+        assertTrue(response.isApproved());
+        assertEquals("PAY-1", response.getPaymentId());
+        assertNotNull(response.getTransactionId());
+        assertEquals("key-PAY-1", stub.getLastIdempotencyKey());
+        assertEquals(0, stub.getBatchRequests());
+    }
+
+    @Test
+    @DisplayName("Should batch charges to batch-capable gateways by size and by linger time")
+    void shouldBatchChargesToBatchCapableGatewaysBySizeAndByLingerTime() throws Exception {
+        newClient(0, Duration.ofSeconds(5), 10, 200);
+
+        List<CompletableFuture<GatewayResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            responses.add(client.charge(PaymentGateway.STRIPE, charge("PAY-" + i, 1_000 + i)));
+        }
+        for (int i = 0; i < responses.size(); i++) {
+            GatewayResponse response = responses.get(i).get(5, TimeUnit.SECONDS);
+            assertEquals("PAY-" + i, response.getPaymentId());
+            assertTrue(response.isApproved());
+        }
+
+        // Two full batches at once, the last three after the linger
+        assertEquals(3, stub.getBatchRequests());
+        assertEquals(23, stub.getCharges());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stripe = (Map<String, Object>) client.getStatistics().get("STRIPE");
+        assertEquals(3L, stripe.get("requests"));
+        assertEquals(23L, stripe.get("charges"));
+    }
+
+    @Test
+    @DisplayName("Should report declines as responses and gateway errors as failed calls")
+    void shouldReportDeclinesAsResponsesAndGatewayErrorsAsFailedCalls() throws Exception {
+        newClient(0, Duration.ofSeconds(5), 10, 10);
+
+        GatewayResponse declined = client.charge(PaymentGateway.PAYPAL,
+            charge("PAY-D", StubGatewayServer.DECLINED_AMOUNT_CENTS)).get(5, TimeUnit.SECONDS);
+        assertFalse(declined.isApproved());
+        assertEquals("DECLINED", declined.getStatus());
+
+        stub.setFailing(true);
+        ExecutionException single = assertThrows(ExecutionException.class,
+            () -> client.charge(PaymentGateway.SQUARE, charge("PAY-E", 100)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(GatewayCallException.class, single.getCause());
+        assertTrue(single.getCause().getMessage().contains("503"));
+        ExecutionException batched = assertThrows(ExecutionException.class,
+            () -> client.charge(PaymentGateway.ADYEN, charge("PAY-F", 100)).get(5, TimeUnit.SECONDS));
+        assertInstanceOf(GatewayCallException.class, batched.getCause());
+    }
+
+    @Test
+    @DisplayName("Should fail a call that exceeds the gateway timeout")
+    void shouldFailACallThatExceedsTheGatewayTimeout() throws Exception {
+        newClient(1_000, Duration.ofMillis(100), 10, 10);
+
+        long start = System.nanoTime();
+        ExecutionException timeout = assertThrows(ExecutionException.class,
+            () -> client.charge(PaymentGateway.SQUARE, charge("PAY-T", 100)).get(5, TimeUnit.SECONDS));
+
+        assertInstanceOf(GatewayCallException.class, timeout.getCause());
+        assertInstanceOf(HttpTimeoutException.class, timeout.getCause().getCause());
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(900));
+    }
+}
@@ -0,0 +1,130 @@
+package com.eipresso.payment.gateway;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the payment gateways
+ *
+ * Serves {@code /<code>/charges} and {@code /<code>/charges/batch} on a
+ * loopback port, approving every charge after {@code latencyMillis} (once
+ * per request, as a real gateway answers a batch in one round trip) and
+ * declining charges of 999999 cents. {@link #setFailing} makes it answer
+ * HTTP 503.
+ */
+public class StubGatewayServer implements AutoCloseable {
+
+    public static final long DECLINED_AMOUNT_CENTS = 999_999;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMillis;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong batchRequests = new AtomicLong();
+    private final AtomicLong charges = new AtomicLong();
+    private volatile boolean failing;
+    private volatile String lastIdempotencyKey;
+
+    public StubGatewayServer(long latencyMillis, int threads) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.executor = Executors.newFixedThreadPool(threads);
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    public String baseUrl(String gatewayCode) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/" + gatewayCode;
+    }
+
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getBatchRequests() {
+        return batchRequests.get();
+    }
+
+    public long getCharges() {
+        return charges.get();
+    }
+
+    public String getLastIdempotencyKey() {
+        return lastIdempotencyKey;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            requests.incrementAndGet();
+            lastIdempotencyKey = exchange.getRequestHeaders().getFirst("Idempotency-Key");
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = in.readAllBytes();
+            }
+            if (latencyMillis > 0) {
+                TimeUnit.MILLISECONDS.sleep(latencyMillis);
+            }
+            if (failing) {
+                exchange.sendResponseHeaders(503, -1);
+                return;
+            }
+
+            Object answer;
+            if (exchange.getRequestURI().getPath().endsWith(GatewayClient.BATCH_PATH)) {
+                batchRequests.incrementAndGet();
+                List<Map<String, Object>> results = new ArrayList<>();
+                for (Object charge : objectMapper.readValue(body, List.class)) {
+                    results.add(answer((Map<?, ?>) charge));
+                }
+                answer = results;
+            } else {
+                answer = answer(objectMapper.readValue(body, Map.class));
+            }
+
+            byte[] response = objectMapper.writeValueAsBytes(answer);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Object> answer(Map<?, ?> charge) {
+        long id = charges.incrementAndGet();
+        boolean declined = ((Number) charge.get("amountCents")).longValue() == DECLINED_AMOUNT_CENTS;
+        return Map.of(
+            "paymentId", String.valueOf(charge.get("paymentId")),
+            "transactionId", "txn_" + id,
+            "status", declined ? "DECLINED" : GatewayResponse.APPROVED,
+            "message", declined ? "Insufficient funds" : "Approved");
+    }
+}
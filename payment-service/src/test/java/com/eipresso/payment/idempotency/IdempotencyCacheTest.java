@@ -0,0 +1,194 @@
+package com.eipresso.payment.idempotency;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Idempotency cache tests against a shared in-memory store and a manual clock
+ */
+@DisplayName("Idempotency Cache Tests")
+class IdempotencyCacheTest {
+
+    private static final long RESULT_TTL = 60_000;
+    private static final long IN_FLIGHT_TTL = 10_000;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private final InMemoryIdempotencyStore store = new InMemoryIdempotencyStore(clock::get);
+
+    private IdempotencyCache newNode(String nodeId, long duplicateWaitMillis) {
+        return new IdempotencyCache(store, nodeId, 4, 100, RESULT_TTL, IN_FLIGHT_TTL, duplicateWaitMillis, 1, clock::get);
+    }
+
+    @Test
+    @DisplayName("Should replay a completed key from the front, and from the store on another node")
+    void shouldReplayACompletedKeyFromTheFrontAndFromTheStoreOnAnotherNode() throws Exception {
+        IdempotencyCache nodeA = newNode("node-a", 1_000);
+        IdempotencyCache nodeB = newNode("node-b", 1_000);
+
+        IdempotencyCache.Claim first = nodeA.begin("gateway:PAY-1");
+        assertEquals(IdempotencyCache.Outcome.MISS, first.getOutcome());
+        first.complete(Map.of("paymentGateway", "STRIPE", "body", "charged"));
+
+        IdempotencyCache.Claim again = nodeA.begin("gateway:PAY-1");
+        assertEquals(IdempotencyCache.Outcome.HIT, again.getOutcome());
+        assertEquals("charged", again.getResult().get("body"));
+        IdempotencyCache.Claim elsewhere = nodeB.begin("gateway:PAY-1");
+        assertEquals(IdempotencyCache.Outcome.STORE_HIT, elsewhere.getOutcome());
+        assertEquals("STRIPE", elsewhere.getResult().get("paymentGateway"));
+        assertEquals(IdempotencyCache.Outcome.HIT, nodeB.begin("gateway:PAY-1").getOutcome());
+
+        Map<String, Object> stats = nodeA.getStatistics();
+        assertEquals(2L, stats.get("lookups"));
+        assertEquals(0.5, stats.get("hitRate"));
+    }
+
+    @Test
+    @DisplayName("Should refuse a key reused for a different request, on this node and another")
+    void shouldRefuseAKeyReusedForADifferentRequestOnThisNodeAndAnother() throws Exception {
+        IdempotencyCache nodeA = newNode("node-a", 1_000);
+        IdempotencyCache nodeB = newNode("node-b", 1_000);
+        String charge = IdempotencyCache.fingerprint(Map.of("amount", "25.00", "paymentMethod", "CREDIT_CARD"));
+        String other = IdempotencyCache.fingerprint(Map.of("amount", "99.00", "paymentMethod", "CREDIT_CARD"));
+
+        nodeA.begin("process:KEY-1", charge).complete(Map.of("status", "PROCESSING"));
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> nodeA.begin("process:KEY-1", other));
+        assertThrows(IdempotencyKeyReusedException.class, () -> nodeB.begin("process:KEY-1", other));
+        assertEquals(IdempotencyCache.Outcome.HIT, nodeA.begin("process:KEY-1", charge).getOutcome());
+        // The refused request did not take the key over on node B
+        assertEquals(IdempotencyCache.Outcome.STORE_HIT, nodeB.begin("process:KEY-1", charge).getOutcome());
+        assertEquals(1L, nodeA.getStatistics().get("keyReuses"));
+    }
+
+    @Test
+    @DisplayName("Should fingerprint equal requests alike whatever their map order")
+    void shouldFingerprintEqualRequestsAlikeWhateverTheirMapOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("amount", "25.00");
+        first.put("items", List.of(Map.of("sku", "ESP-1")));
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("items", List.of(Map.of("sku", "ESP-1")));
+        second.put("amount", "25.00");
+
+        assertEquals(IdempotencyCache.fingerprint(first), IdempotencyCache.fingerprint(second));
+        assertNotEquals(IdempotencyCache.fingerprint(Map.of("a", "b;c")), IdempotencyCache.fingerprint(Map.of("a;b", "c")));
+    }
+
+    @Test
+    @DisplayName("Should make concurrent duplicates wait for the first request's result")
+    void shouldMakeConcurrentDuplicatesWaitForTheFirstRequestsResult() throws Exception {
+        IdempotencyCache cache = newNode("node-a", 5_000);
+        IdempotencyCache.Claim first = cache.begin("process:KEY-1");
+        int duplicates = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(duplicates);
+        try {
+            CountDownLatch started = new CountDownLatch(duplicates);
+            List<Future<IdempotencyCache.Claim>> waiting = new ArrayList<>();
+            for (int i = 0; i < duplicates; i++) {
+                waiting.add(executor.submit(() -> {
+                    started.countDown();
+                    return cache.begin("process:KEY-1");
+                }));
+            }
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Thread.sleep(50);
+
+            first.complete(Map.of("paymentId", "PAY-1"));
+            for (Future<IdempotencyCache.Claim> duplicate : waiting) {
+                IdempotencyCache.Claim claim = duplicate.get(5, TimeUnit.SECONDS);
+                assertTrue(claim.isReplay());
+                assertEquals("PAY-1", claim.getResult().get("paymentId"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1L, cache.getMisses());
+        assertEquals((long) duplicates, cache.getHits() + cache.getCoalesced());
+        assertTrue(cache.getCoalesced() > 0);
+    }
+
+    @Test
+    @DisplayName("Should pass a failure to waiting duplicates and let the next retry run again")
+    void shouldPassAFailureToWaitingDuplicatesAndLetTheNextRetryRunAgain() throws Exception {
+        IdempotencyCache cache = newNode("node-a", 5_000);
+        IdempotencyCache.Claim first = cache.begin("gateway:PAY-2");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IdempotencyCache.Claim> duplicate = executor.submit(() -> cache.begin("gateway:PAY-2"));
+            Thread.sleep(50);
+            first.fail(new IllegalStateException("Gateway timeout"));
+
+            Exception failure = assertThrows(Exception.class, () -> duplicate.get(5, TimeUnit.SECONDS));
+            assertEquals("Gateway timeout", failure.getCause().getMessage());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        IdempotencyCache.Claim retry = cache.begin("gateway:PAY-2");
+        assertEquals(IdempotencyCache.Outcome.MISS, retry.getOutcome());
+        assertNull(store.get("gateway:PAY-2").getResult());
+        assertEquals(1L, cache.getStatistics().get("failures"));
+    }
+
+    @Test
+    @DisplayName("Should wait for a request running on another node, then give up after the duplicate wait")
+    void shouldWaitForARequestRunningOnAnotherNodeThenGiveUpAfterTheDuplicateWait() throws Exception {
+        IdempotencyCache nodeA = newNode("node-a", 5_000);
+        IdempotencyCache nodeB = new IdempotencyCache(store, "node-b", 4, 100, RESULT_TTL, IN_FLIGHT_TTL, 5_000, 1,
+            System::currentTimeMillis);
+        IdempotencyCache.Claim running = nodeA.begin("gateway:PAY-3");
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<IdempotencyCache.Claim> duplicate = executor.submit(() -> nodeB.begin("gateway:PAY-3"));
+            Thread.sleep(50);
+            assertFalse(duplicate.isDone());
+            running.complete(Map.of("body", "charged"));
+            IdempotencyCache.Claim replayed = duplicate.get(5, TimeUnit.SECONDS);
+            assertEquals(IdempotencyCache.Outcome.STORE_COALESCED, replayed.getOutcome());
+            assertEquals("charged", replayed.getResult().get("body"));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        IdempotencyCache impatient = new IdempotencyCache(store, "node-c", 4, 100, RESULT_TTL, IN_FLIGHT_TTL, 20, 1,
+            System::currentTimeMillis);
+        nodeA.begin("gateway:PAY-4");
+        assertThrows(DuplicateRequestInProgressException.class, () -> impatient.begin("gateway:PAY-4"));
+        assertEquals(1L, impatient.getStatistics().get("duplicateTimeouts"));
+        assertFalse(store.get("gateway:PAY-4").isCompleted());
+    }
+
+    @Test
+    @DisplayName("Should forget results and abandoned claims after their TTL")
+    void shouldForgetResultsAndAbandonedClaimsAfterTheirTtl() throws Exception {
+        IdempotencyCache cache = newNode("node-a", 1_000);
+        cache.begin("process:KEY-2").complete(Map.of("paymentId", "PAY-5"));
+        // Claimed and never completed, as when a node dies mid-request
+        cache.begin("process:KEY-3");
+
+        clock.addAndGet(IN_FLIGHT_TTL);
+        assertEquals(IdempotencyCache.Outcome.HIT, cache.begin("process:KEY-2").getOutcome());
+        assertEquals(IdempotencyCache.Outcome.MISS, cache.begin("process:KEY-3").getOutcome());
+
+        clock.addAndGet(RESULT_TTL);
+        cache.purgeExpired();
+        store.purgeExpired();
+        assertEquals(0, store.size());
+        assertEquals(IdempotencyCache.Outcome.MISS, cache.begin("process:KEY-2").getOutcome());
+    }
+}
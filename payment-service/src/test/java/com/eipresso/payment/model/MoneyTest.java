@@ -0,0 +1,34 @@
+package com.eipresso.payment.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Money conversion tests
+ */
+@DisplayName("Money Tests")
+class MoneyTest {
+
+    @Test
+    @DisplayName("Should accept the amount types a payment map may carry")
+    void shouldAcceptTheAmountTypesAPaymentMapMayCarry() {
+        assertEquals(2550L, Money.toCents(25.5));
+        assertEquals(1000L, Money.toCents(10));
+        assertEquals(5000L, Money.toCents("50.00"));
+        // Rounded half-even, as for banking
+        assertEquals(1234L, Money.toCents(new BigDecimal("12.345")));
+        assertEquals(0L, Money.toCents(null));
+        assertEquals(0L, Money.toCents("not a number"));
+    }
+
+    @Test
+    @DisplayName("Should convert cents back to an amount with two decimals")
+    void shouldConvertCentsBackToAnAmountWithTwoDecimals() {
+        assertEquals(new BigDecimal("25.50"), Money.fromCents(2550L));
+        assertEquals(new BigDecimal("-0.05"), Money.fromCents(-5L));
+    }
+}
@@ -0,0 +1,82 @@
+package com.eipresso.payment.performance;
+
+import com.eipresso.payment.audit.AuditRecord;
+import com.eipresso.payment.audit.AuditSink;
+import com.eipresso.payment.audit.MappedAuditLog;
+import com.eipresso.payment.audit.OverflowPolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Audit Sink Load Test
+ *
+ * Eight payment threads audit 1,000,000 payments into the memory-mapped
+ * log and time each {@link AuditSink#offer}, the only audit cost left on the
+ * payment thread.
+ */
+@DisplayName("Audit Sink Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class AuditSinkPerformanceTest {
+
+    private static final int THREADS = 8;
+    private static final int PAYMENTS_PER_THREAD = 125_000;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should audit 1M payments with microsecond offers")
+    void shouldAudit1mPaymentsWithMicrosecondOffers() throws Exception {
+        MappedAuditLog log = new MappedAuditLog(tempDir, 64 * 1024 * 1024, false);
+        long[][] offerNanos = new long[THREADS][PAYMENTS_PER_THREAD];
+
+        long start = System.nanoTime();
+        try (AuditSink sink = new AuditSink(65_536, 512, OverflowPolicy.BLOCK, 50, List.of(log))) {
+            Thread[] threads = new Thread[THREADS];
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                threads[t] = new Thread(() -> {
+                    Map<String, Object> headers = new HashMap<>();
+                    headers.put("amount", "49.90");
+                    headers.put("paymentGateway", "STRIPE");
+                    headers.put("paymentMethod", "CREDIT_CARD");
+                    headers.put("customerIp", "192.168.1.100");
+                    headers.put("userAgent", "Mozilla/5.0 (X11; Linux x86_64)");
+                    for (int i = 0; i < PAYMENTS_PER_THREAD; i++) {
+                        headers.put("paymentId", "PAY-" + thread + "-" + i);
+                        long begin = System.nanoTime();
+                        sink.offer(AuditRecord.fromHeaders(headers, "AUDIT-" + thread + "-" + i, System.currentTimeMillis()));
+                        offerNanos[thread][i] = System.nanoTime() - begin;
+                    }
+                });
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertTrue(sink.awaitDrained(30_000));
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            long[] all = Arrays.stream(offerNanos).flatMapToLong(Arrays::stream).sorted().toArray();
+            Map<String, Object> stats = sink.getStatistics();
+            System.out.printf("Audited %,d payments in %,d ms: record+offer p50 %,d ns, p99 %,d ns, p99.9 %,d ns; "
+                    + "%,d batches averaging %.0f records, %,d dropped, %,d bytes logged%n",
+                all.length, elapsedMillis, all[all.length / 2], all[(int) (all.length * 0.99)],
+                all[(int) (all.length * 0.999)], stats.get("batches"), stats.get("averageBatchSize"),
+                stats.get("dropped"), log.getBytesWritten());
+
+            assertEquals((long) THREADS * PAYMENTS_PER_THREAD, (Long) stats.get("written") + (Long) stats.get("dropped"));
+            assertTrue(all[(int) (all.length * 0.99)] < 50_000, "p99 offer took " + all[(int) (all.length * 0.99)] + " ns");
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.eipresso.payment.performance;
+
+import com.eipresso.payment.batch.BatchSummary;
+import com.eipresso.payment.batch.BatchSummaryAggregationStrategy;
+import org.apache.camel.AggregationStrategy;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.processor.aggregate.GroupedExchangeAggregationStrategy;
+import org.apache.camel.support.DefaultExchange;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Batch Aggregation Memory Test
+ *
+ * Folds the results of a 100,000-payment batch through the grouped-exchange
+ * strategy the aggregate-payment-results route used to use and through the
+ * counting strategy, and compares the heap each one retains mid-batch.
+ */
+@DisplayName("Batch Aggregation Memory Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class BatchAggregationMemoryPerformanceTest {
+
+    private static final int PAYMENTS = 100_000;
+
+    private CamelContext camelContext;
+
+    @BeforeEach
+    void setUp() {
+        camelContext = new DefaultCamelContext();
+        camelContext.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        camelContext.stop();
+    }
+
+    @Test
+    @DisplayName("Should retain a fraction of the grouped strategy's memory for a 100k batch")
+    void shouldRetainAFractionOfTheGroupedStrategysMemoryFor100kBatch() {
+        long grouped = retainedBytes(new GroupedExchangeAggregationStrategy());
+        BatchSummaryAggregationStrategy counting = new BatchSummaryAggregationStrategy(10);
+        long summarized = retainedBytes(counting);
+
+        System.out.printf("Aggregating %,d payment results: grouped exchanges retain %,d KB, counting summary %,d KB%n",
+            PAYMENTS, grouped / 1024, summarized / 1024);
+
+        BatchSummary summary = counting.getSummary("BATCH-LOAD");
+        assertEquals((long) PAYMENTS, summary.getProcessedPayments());
+        // Amounts cycle through 1.25 .. 500.25, 200 times over
+        assertEquals(new BigDecimal("25075000.00"), summary.toMap().get("totalAmount"));
+        assertTrue(summarized * 100 < grouped, "Counting strategy retained " + summarized + " of " + grouped + " bytes");
+    }
+
+    private long retainedBytes(AggregationStrategy strategy) {
+        long before = usedHeapAfterGc();
+        Exchange aggregate = null;
+        for (int i = 0; i < PAYMENTS; i++) {
+            aggregate = strategy.aggregate(aggregate, paymentResult(i));
+        }
+        long retained = usedHeapAfterGc() - before;
+        // Keep the aggregate reachable until measured
+        assertNotNull(aggregate);
+        return Math.max(retained, 0);
+    }
+
+    private Exchange paymentResult(int index) {
+        Map<String, Object> payment = new HashMap<>();
+        payment.put("paymentId", "PAY-LOAD-" + index);
+        payment.put("batchId", "BATCH-LOAD");
+        payment.put("paymentIndex", index + 1);
+        payment.put("amount", (index % 500) + 1.25);
+        payment.put("currency", "USD");
+        payment.put("paymentMethod", "CREDIT_CARD");
+        payment.put("paymentGateway", "STRIPE");
+        payment.put("status", "COMPLETED");
+        payment.put("result", "SUCCESS");
+        payment.put("processingEndTime", LocalDateTime.now());
+
+        Exchange exchange = new DefaultExchange(camelContext);
+        exchange.getIn().setBody(payment);
+        exchange.getIn().setHeader("batchId", "BATCH-LOAD");
+        exchange.getIn().setHeader("totalPayments", PAYMENTS);
+        exchange.getIn().setHeader("paymentId", payment.get("paymentId"));
+        exchange.getIn().setHeader("paymentGateway", "STRIPE");
+        return exchange;
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,96 @@
+package com.eipresso.payment.performance;
+
+import com.eipresso.payment.fraud.FraudFeatureStore;
+import com.eipresso.payment.fraud.FraudScore;
+import com.eipresso.payment.fraud.FraudScoringEngine;
+import com.eipresso.payment.fraud.PaymentObservation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fraud Scoring Latency Test
+ *
+ * Four payment threads score and observe payments at a paced 5,000 per
+ * second for 20 seconds against a store warmed with 50,000 users, cards and
+ * IP addresses, and time each {@link FraudScoringEngine#score} call.
+ */
+@DisplayName("Fraud Scoring Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class FraudScoringPerformanceTest {
+
+    private static final int THREADS = 4;
+    private static final int PAYMENTS_PER_SECOND = 5_000;
+    private static final int SECONDS = 20;
+    private static final int ENTITIES = 50_000;
+    private static final long BUDGET_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    @Test
+    @DisplayName("Should score 5k payments per second within a 50µs p99")
+    void shouldScore5kPaymentsPerSecondWithinA50usP99() throws Exception {
+        FraudFeatureStore store = new FraudFeatureStore(ENTITIES * 2, TimeUnit.HOURS.toMillis(2));
+        FraudScoringEngine engine = new FraudScoringEngine(store, BUDGET_NANOS, ZoneId.systemDefault());
+        Random warmup = new Random(42);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ENTITIES * 4; i++) {
+            store.observe(randomPayment(warmup, now - warmup.nextInt(3_600_000)));
+        }
+        // Let the JIT compile the scoring path before anything is timed
+        for (int i = 0; i < 100_000; i++) {
+            engine.score(randomPayment(warmup, now));
+        }
+
+        int paymentsPerThread = PAYMENTS_PER_SECOND / THREADS * SECONDS;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) * THREADS / PAYMENTS_PER_SECOND;
+        long[][] scoreNanos = new long[THREADS][paymentsPerThread];
+        long[] degraded = new long[THREADS];
+
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                Random random = new Random(thread);
+                long next = System.nanoTime();
+                for (int i = 0; i < paymentsPerThread; i++) {
+                    LockSupport.parkNanos(next - System.nanoTime());
+                    next += intervalNanos;
+                    PaymentObservation payment = randomPayment(random, System.currentTimeMillis());
+                    FraudScore score = engine.score(payment);
+                    store.observe(payment);
+                    scoreNanos[thread][i] = score.getElapsedNanos();
+                    if (score.isDegraded()) {
+                        degraded[thread]++;
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long[] measured = Arrays.stream(scoreNanos).flatMapToLong(Arrays::stream).sorted().toArray();
+        long p99 = measured[(int) (measured.length * 0.99)];
+        System.out.printf("Scored %,d payments at %,d/s: p50 %,d ns, p99 %,d ns, p99.9 %,d ns, max %,d ns, "
+                + "%,d degraded; store %s%n",
+            measured.length, PAYMENTS_PER_SECOND, measured[measured.length / 2], p99,
+            measured[(int) (measured.length * 0.999)], measured[measured.length - 1],
+            Arrays.stream(degraded).sum(), store.getStatistics());
+
+        assertTrue(p99 < BUDGET_NANOS, "p99 scoring took " + p99 + " ns");
+    }
+
+    private static PaymentObservation randomPayment(Random random, long timestampMillis) {
+        int user = random.nextInt(ENTITIES);
+        return new PaymentObservation("USR-" + user, "CARD-" + (user ^ 1), "198.51." + (user % 200) + "." + (user % 250),
+            "M-" + random.nextInt(500), 500 + random.nextInt(20_000), timestampMillis, "perf");
+    }
+}
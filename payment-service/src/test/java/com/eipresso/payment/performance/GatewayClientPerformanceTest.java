@@ -0,0 +1,92 @@
+package com.eipresso.payment.performance;
+
+import com.eipresso.payment.gateway.GatewayClient;
+import com.eipresso.payment.gateway.GatewayRequest;
+import com.eipresso.payment.gateway.StubGatewayServer;
+import com.eipresso.payment.model.PaymentGateway;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Gateway Client Throughput Test
+ *
+ * Charges 20,000 payments each through a batching gateway (STRIPE) and a
+ * non-batching one (SQUARE) on the local stub gateway, which answers every
+ * request after 5ms, with at most 256 charges in flight per gateway.
+ */
+@DisplayName("Gateway Client Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class GatewayClientPerformanceTest {
+
+    private static final int CHARGES = 20_000;
+    private static final int MAX_IN_FLIGHT = 256;
+
+    @Test
+    @DisplayName("Should charge batching and non-batching gateways asynchronously")
+    void shouldChargeBatchingAndNonBatchingGatewaysAsynchronously() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try (StubGatewayServer stub = new StubGatewayServer(5, 128)) {
+            Map<PaymentGateway, String> baseUrls = new EnumMap<>(PaymentGateway.class);
+            for (PaymentGateway gateway : PaymentGateway.values()) {
+                baseUrls.put(gateway, stub.baseUrl(gateway.getCode()));
+            }
+            GatewayClient client = new GatewayClient(new ObjectMapper(), baseUrls, Map.of(), executor, scheduler, 50, 5);
+
+            for (PaymentGateway gateway : new PaymentGateway[] {PaymentGateway.STRIPE, PaymentGateway.SQUARE}) {
+                long requestsBefore = stub.getRequests();
+                long[] latencies = new long[CHARGES];
+                LongAdder failures = new LongAdder();
+                Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+
+                long start = System.nanoTime();
+                for (int i = 0; i < CHARGES; i++) {
+                    inFlight.acquire();
+                    int index = i;
+                    long begin = System.nanoTime();
+                    client.charge(gateway, new GatewayRequest("PAY-" + gateway + "-" + i, 4_990, "USD", "CREDIT_CARD", null))
+                        .whenComplete((response, failure) -> {
+                            latencies[index] = System.nanoTime() - begin;
+                            if (failure != null || !response.isApproved()) {
+                                failures.increment();
+                            }
+                            inFlight.release();
+                        });
+                }
+                inFlight.acquire(MAX_IN_FLIGHT);
+                inFlight.release(MAX_IN_FLIGHT);
+                long elapsedNanos = System.nanoTime() - start;
+
+                Arrays.sort(latencies);
+                double perSecond = CHARGES * 1e9 / elapsedNanos;
+                System.out.printf("%s: %,d charges in %,d ms (%,.0f/s) over %,d requests; latency p50 %.1f ms, "
+                        + "p99 %.1f ms, max %.1f ms; %,d failures%n",
+                    gateway, CHARGES, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), perSecond,
+                    stub.getRequests() - requestsBefore, latencies[CHARGES / 2] / 1e6,
+                    latencies[(int) (CHARGES * 0.99)] / 1e6, latencies[CHARGES - 1] / 1e6, failures.sum());
+
+                assertEquals(0, failures.sum());
+                assertTrue(perSecond > 500, gateway + " managed only " + perSecond + " charges/s");
+            }
+            System.out.println(client.getStatistics());
+        } finally {
+            executor.shutdownNow();
+            scheduler.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.eipresso.payment.performance;
+
+import com.eipresso.payment.retry.GatewayRetryPolicy;
+import com.eipresso.payment.retry.InMemoryRetryStore;
+import com.eipresso.payment.retry.PendingRetry;
+import com.eipresso.payment.retry.RetryScheduler;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Retry Scheduler Load Test
+ *
+ * Puts 10,000 payments into retry at once against the MOCK gateway's 30%
+ * failure mode and backoff policy, on a fixed pool of four dispatch threads.
+ * Every payment waits in the scheduler rather than on a thread of its own,
+ * and an attempt waiting on a slow gateway does not hold a dispatch thread.
+ */
+@DisplayName("Retry Scheduler Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class RetrySchedulerPerformanceTest {
+
+    private static final int PAYMENTS = 10_000;
+    private static final int DISPATCH_THREADS = 4;
+    private static final double MOCK_FAILURE_RATE = 0.3;
+    private static final int DELAYED_PAYMENTS = 2_000;
+    private static final long GATEWAY_DELAY_MILLIS = 500L;
+
+    @Test
+    @DisplayName("Should carry 10k concurrently retrying payments on four threads")
+    void shouldCarry10kConcurrentlyRetryingPaymentsOnFourThreads() throws Exception {
+        LongAdder exhausted = new LongAdder();
+        RetryScheduler scheduler = new RetryScheduler(new InMemoryRetryStore(), new RetryScheduler.RetryHandler() {
+            @Override
+            public CompletionStage<?> attempt(PendingRetry retry) {
+                if (ThreadLocalRandom.current().nextDouble() < MOCK_FAILURE_RATE) {
+                    throw new RuntimeException("Mock gateway failure for testing");
+                }
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public void exhausted(PendingRetry retry) {
+                exhausted.increment();
+            }
+        }, DISPATCH_THREADS);
+
+        long start = System.currentTimeMillis();
+        GatewayRetryPolicy mock = GatewayRetryPolicy.forGateway("MOCK");
+        for (int i = 0; i < PAYMENTS; i++) {
+            scheduler.schedule(new PendingRetry("RETRY-" + i, "PAY-LOAD-" + i, "MOCK", 1, 3,
+                start + mock.delayMillis(1), null, Map.of("paymentId", "PAY-LOAD-" + i), null));
+        }
+        int peakThreads = dispatchThreadCount();
+
+        Map<String, Object> stats = scheduler.getStatistics();
+        while ((Long) stats.get("succeeded") + (Long) stats.get("exhausted") < PAYMENTS) {
+            assertTrue(System.currentTimeMillis() - start < 30_000L, "Retries not resolved in time: " + stats);
+            peakThreads = Math.max(peakThreads, dispatchThreadCount());
+            Thread.sleep(20);
+            stats = scheduler.getStatistics();
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        scheduler.close(1_000L);
+
+        System.out.printf("Retry Scheduler Load Results:%n" +
+                         "- Payments: %d (peak pending %s)%n" +
+                         "- Attempts: %s, succeeded: %s, exhausted: %s%n" +
+                         "- Dispatch threads: %d (peak live %d)%n" +
+                         "- Dispatch lag avg/max: %s/%s ms%n" +
+                         "- Total time: %d ms%n",
+                         PAYMENTS, stats.get("peakPending"), stats.get("attempts"), stats.get("succeeded"),
+                         stats.get("exhausted"), DISPATCH_THREADS, peakThreads,
+                         stats.get("averageDispatchLagMillis"), stats.get("maxDispatchLagMillis"), elapsed);
+
+        assertTrue((Integer) stats.get("peakPending") >= PAYMENTS, "Every payment should have waited concurrently");
+        assertTrue(peakThreads <= DISPATCH_THREADS);
+        // 0.3^3: about 2.7% of the payments fail all three attempts
+        double exhaustedRate = (double) exhausted.sum() / PAYMENTS;
+        assertTrue(exhaustedRate > 0.015 && exhaustedRate < 0.045, "Exhausted rate " + exhaustedRate);
+        assertTrue((Long) stats.get("maxDispatchLagMillis") < 1_000L);
+    }
+
+    @Test
+    @DisplayName("Should keep dispatching while a slow gateway holds 2k attempts in flight")
+    void shouldKeepDispatchingWhileASlowGatewayHolds2kAttemptsInFlight() throws Exception {
+        // Answers every call after GATEWAY_DELAY_MILLIS on its own timer thread, like a gateway client's I/O
+        ScheduledExecutorService gateway = Executors.newSingleThreadScheduledExecutor();
+        RetryScheduler scheduler = new RetryScheduler(new InMemoryRetryStore(), new RetryScheduler.RetryHandler() {
+            @Override
+            public CompletionStage<?> attempt(PendingRetry retry) {
+                CompletableFuture<Void> response = new CompletableFuture<>();
+                gateway.schedule(() -> response.complete(null), GATEWAY_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+                return response;
+            }
+
+            @Override
+            public void exhausted(PendingRetry retry) {
+            }
+        }, DISPATCH_THREADS);
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < DELAYED_PAYMENTS; i++) {
+            scheduler.schedule(new PendingRetry("RETRY-SLOW-" + i, "PAY-SLOW-" + i, "MOCK", 1, 3,
+                start, null, Map.of("paymentId", "PAY-SLOW-" + i), null));
+        }
+
+        Map<String, Object> stats = scheduler.getStatistics();
+        while ((Long) stats.get("succeeded") < DELAYED_PAYMENTS) {
+            assertTrue(System.currentTimeMillis() - start < 30_000L, "Retries not resolved in time: " + stats);
+            Thread.sleep(20);
+            stats = scheduler.getStatistics();
+        }
+        long elapsed = System.currentTimeMillis() - start;
+        assertTrue(scheduler.close(1_000L));
+        gateway.shutdownNow();
+
+        long blockingMillis = DELAYED_PAYMENTS * GATEWAY_DELAY_MILLIS / DISPATCH_THREADS;
+        System.out.printf("Retry Scheduler Delayed Gateway Results:%n" +
+                         "- Payments: %d, gateway delay %d ms%n" +
+                         "- Dispatch threads: %d, peak in flight: %s%n" +
+                         "- Dispatch lag avg/max: %s/%s ms%n" +
+                         "- Total time: %d ms (blocking dispatch would need %d ms)%n",
+                         DELAYED_PAYMENTS, GATEWAY_DELAY_MILLIS, DISPATCH_THREADS, stats.get("peakInFlight"),
+                         stats.get("averageDispatchLagMillis"), stats.get("maxDispatchLagMillis"),
+                         elapsed, blockingMillis);
+
+        assertTrue((Integer) stats.get("peakInFlight") > DISPATCH_THREADS * 100,
+            "Attempts should wait on the gateway, not on dispatch threads");
+        assertTrue((Long) stats.get("maxDispatchLagMillis") < GATEWAY_DELAY_MILLIS);
+        assertTrue(elapsed < 10 * GATEWAY_DELAY_MILLIS, "Total time " + elapsed + " ms");
+    }
+
+    private static int dispatchThreadCount() {
+        return (int) Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> thread.getName().startsWith("payment-retry-"))
+            .count();
+    }
+}
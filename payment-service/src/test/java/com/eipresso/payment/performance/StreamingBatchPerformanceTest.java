@@ -0,0 +1,123 @@
+package com.eipresso.payment.performance;
+
+import com.eipresso.payment.batch.BatchJob;
+import com.eipresso.payment.batch.BatchResultWriter;
+import com.eipresso.payment.batch.BatchState;
+import com.eipresso.payment.batch.StreamingBatchProcessor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streaming Batch Memory Test
+ *
+ * Streams 1,000,000 generated payments across three gateways and samples the
+ * live heap as the batch runs. With the reader held back by the per-gateway
+ * permits, the heap after the first 100k payments should stay flat for the
+ * remaining 900k.
+ */
+@DisplayName("Streaming Batch Performance Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class StreamingBatchPerformanceTest {
+
+    private static final int PAYMENTS = 1_000_000;
+    private static final String[] GATEWAYS = {"STRIPE", "PAYPAL", "SQUARE"};
+    private static final long MAX_HEAP_GROWTH_BYTES = 32L * 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Should stream 1M payments in constant memory")
+    void shouldStream1mPaymentsInConstantMemory() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ExecutorService workers = Executors.newFixedThreadPool(16);
+        AtomicLong heapAt100k = new AtomicLong();
+        AtomicLong peakHeapAfter100k = new AtomicLong();
+
+        StreamingBatchProcessor processor = new StreamingBatchProcessor(objectMapper, payment -> {
+            long index = ((Number) payment.get("paymentIndex")).longValue();
+            if (index % 100_000 == 0) {
+                long used = usedHeapAfterGc();
+                if (index == 100_000) {
+                    heapAt100k.set(used);
+                } else {
+                    peakHeapAfter100k.accumulateAndGet(used, Math::max);
+                }
+            }
+            return new StreamingBatchProcessor.PaymentOutcome(true, "COMPLETED", null);
+        }, workers, 8);
+
+        BatchJob job = new BatchJob("BATCH-LOAD", tempDir.resolve("results.ndjson"));
+        long start = System.nanoTime();
+        try (BatchResultWriter results = new BatchResultWriter(objectMapper, job.getResultsFile())) {
+            processor.process(job, new GeneratedPayments(PAYMENTS), results);
+        } finally {
+            workers.shutdown();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        long growth = peakHeapAfter100k.get() - heapAt100k.get();
+        System.out.printf("Streamed %,d payments in %,d ms (%.0f/s), results %,d bytes, heap at 100k %,d KB, growth after %,d KB%n",
+            PAYMENTS, elapsedMillis, PAYMENTS * 1000.0 / elapsedMillis, Files.size(job.getResultsFile()),
+            heapAt100k.get() / 1024, growth / 1024);
+
+        assertEquals(BatchState.COMPLETED, job.getState());
+        assertEquals(PAYMENTS, job.getSucceeded());
+        assertTrue(growth < MAX_HEAP_GROWTH_BYTES, "Heap grew by " + growth + " bytes over the batch");
+    }
+
+    private static long usedHeapAfterGc() {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * NDJSON payments generated on demand, so the input itself takes no memory
+     */
+    private static class GeneratedPayments extends Reader {
+        private final int total;
+        private int next;
+        private String line = "";
+        private int position;
+
+        GeneratedPayments(int total) {
+            this.total = total;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == line.length()) {
+                if (next == total) {
+                    return -1;
+                }
+                next++;
+                line = "{\"userId\":\"USR-" + (next % 5_000) + "\",\"orderId\":\"ORD-" + next
+                    + "\",\"amount\":" + (next % 500 + 1) + ".25,\"paymentMethod\":\"CREDIT_CARD\",\"paymentGateway\":\""
+                    + GATEWAYS[next % GATEWAYS.length] + "\"}\n";
+                position = 0;
+            }
+            int count = Math.min(length, line.length() - position);
+            line.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
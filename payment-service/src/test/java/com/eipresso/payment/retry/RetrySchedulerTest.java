@@ -0,0 +1,261 @@
+package com.eipresso.payment.retry;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Retry Scheduler Test Suite
+ *
+ * Runs the scheduler against an in-memory store with the MOCK gateway's
+ * backoff policy.
+ */
+@DisplayName("Retry Scheduler Tests")
+class RetrySchedulerTest {
+
+    private final InMemoryRetryStore store = new InMemoryRetryStore();
+    private RetryScheduler scheduler;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (scheduler != null) {
+            scheduler.close(1_000L);
+        }
+    }
+
+    private static PendingRetry retry(String paymentId, long dueAtMillis) {
+        return new PendingRetry("RETRY-" + paymentId, paymentId, "MOCK", 1, 3, dueAtMillis, null,
+            Map.of("paymentId", paymentId, "amount", "25.00"), Map.of("paymentMethod", "CREDIT_CARD"));
+    }
+
+    @Test
+    @DisplayName("Should remove a retry from the store once its attempt succeeds")
+    void shouldRemoveARetryFromTheStoreOnceItsAttemptSucceeds() throws InterruptedException {
+        CountDownLatch attempted = new CountDownLatch(1);
+        scheduler = new RetryScheduler(store, handler(retry -> attempted.countDown(), retry -> { }), 2);
+
+        scheduler.schedule(retry("PAY-1", System.currentTimeMillis()));
+
+        assertTrue(attempted.await(5, TimeUnit.SECONDS));
+        awaitResolved(1);
+        assertTrue(store.findAll().isEmpty());
+        assertEquals(1L, scheduler.getStatistics().get("succeeded"));
+    }
+
+    @Test
+    @DisplayName("Should reschedule a failed attempt with the gateway backoff")
+    void shouldRescheduleAFailedAttemptWithTheGatewayBackoff() throws InterruptedException {
+        List<Long> attemptTimes = new CopyOnWriteArrayList<>();
+        CountDownLatch thirdAttempt = new CountDownLatch(3);
+        scheduler = new RetryScheduler(store, handler(retry -> {
+            attemptTimes.add(System.currentTimeMillis());
+            thirdAttempt.countDown();
+            if (retry.getAttempt() < 3) {
+                throw new IllegalStateException("Mock gateway failure for testing");
+            }
+        }, retry -> { }), 2);
+
+        scheduler.schedule(retry("PAY-2", System.currentTimeMillis()));
+
+        assertTrue(thirdAttempt.await(10, TimeUnit.SECONDS));
+        awaitResolved(1);
+        GatewayRetryPolicy mock = GatewayRetryPolicy.forGateway("MOCK");
+        assertTrue(attemptTimes.get(1) - attemptTimes.get(0) >= mock.backoffMillis(2));
+        assertTrue(attemptTimes.get(2) - attemptTimes.get(1) >= mock.backoffMillis(3));
+        assertEquals(2L, scheduler.getStatistics().get("failedAttempts"));
+        assertTrue(store.findAll().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should hand a payment to the exhaustion handler after its last attempt fails")
+    void shouldHandAPaymentToTheExhaustionHandlerAfterItsLastAttemptFails() throws InterruptedException {
+        List<PendingRetry> exhausted = new CopyOnWriteArrayList<>();
+        CountDownLatch exhaustedLatch = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+        scheduler = new RetryScheduler(store, handler(retry -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Gateway timeout");
+        }, retry -> {
+            exhausted.add(retry);
+            exhaustedLatch.countDown();
+        }), 2);
+
+        scheduler.schedule(retry("PAY-3", System.currentTimeMillis()));
+
+        assertTrue(exhaustedLatch.await(10, TimeUnit.SECONDS));
+        assertEquals(3, attempts.get());
+        assertEquals(1, exhausted.size());
+        assertEquals("PAY-3", exhausted.get(0).getPaymentId());
+        assertEquals("Gateway timeout", exhausted.get(0).getLastFailureReason());
+        assertEquals(4, exhausted.get(0).getAttempt());
+        assertTrue(store.findAll().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should end a retry at once when its failure is not retryable")
+    void shouldEndARetryAtOnceWhenItsFailureIsNotRetryable() throws InterruptedException {
+        AtomicInteger attempts = new AtomicInteger();
+        List<Exception> rejections = new CopyOnWriteArrayList<>();
+        CountDownLatch rejected = new CountDownLatch(1);
+        scheduler = new RetryScheduler(store, new RetryScheduler.RetryHandler() {
+            @Override
+            public CompletionStage<?> attempt(PendingRetry retry) {
+                attempts.incrementAndGet();
+                return CompletableFuture.failedFuture(new IllegalArgumentException("Card declined"));
+            }
+
+            @Override
+            public void exhausted(PendingRetry retry) {
+                fail("Should not exhaust a rejected retry");
+            }
+
+            @Override
+            public boolean isRetryable(Exception failure) {
+                return !(failure instanceof IllegalArgumentException);
+            }
+
+            @Override
+            public void rejected(PendingRetry retry, Exception failure) {
+                rejections.add(failure);
+                rejected.countDown();
+            }
+        }, 2);
+
+        scheduler.schedule(retry("PAY-6", System.currentTimeMillis()));
+
+        assertTrue(rejected.await(5, TimeUnit.SECONDS));
+        assertEquals(1, attempts.get());
+        assertEquals("Card declined", rejections.get(0).getMessage());
+        assertEquals(1L, scheduler.getStatistics().get("rejected"));
+        assertEquals(0L, scheduler.getStatistics().get("exhausted"));
+        assertTrue(store.findAll().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should start further attempts while earlier ones wait on the gateway")
+    void shouldStartFurtherAttemptsWhileEarlierOnesWaitOnTheGateway() throws InterruptedException {
+        List<CompletableFuture<Void>> gatewayCalls = new CopyOnWriteArrayList<>();
+        CountDownLatch started = new CountDownLatch(3);
+        scheduler = new RetryScheduler(store, new RetryScheduler.RetryHandler() {
+            @Override
+            public CompletionStage<?> attempt(PendingRetry retry) {
+                CompletableFuture<Void> call = new CompletableFuture<>();
+                gatewayCalls.add(call);
+                started.countDown();
+                return call;
+            }
+
+            @Override
+            public void exhausted(PendingRetry retry) {
+            }
+        }, 1);
+
+        long now = System.currentTimeMillis();
+        scheduler.schedule(retry("PAY-7", now));
+        scheduler.schedule(retry("PAY-8", now));
+        scheduler.schedule(retry("PAY-9", now));
+
+        // One dispatch thread starts all three while none has answered
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(3, scheduler.getInFlight());
+        assertEquals(3, store.findAll().size());
+
+        gatewayCalls.forEach(call -> call.complete(null));
+        awaitResolved(3);
+        assertEquals(0, scheduler.getInFlight());
+        assertTrue(store.findAll().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should refuse to store a retry whose body cannot be serialized")
+    void shouldRefuseToStoreARetryWhoseBodyCannotBeSerialized() {
+        Object body = new Object();
+
+        IllegalArgumentException refused = assertThrows(IllegalArgumentException.class, () -> new PendingRetry(
+            "RETRY-PAY-10", "PAY-10", "MOCK", 1, 3, System.currentTimeMillis(), null, Map.of(), body));
+        assertTrue(refused.getMessage().contains("PAY-10"));
+
+        Serializable serializable = "payment";
+        assertEquals(serializable, new PendingRetry("RETRY-PAY-11", "PAY-11", "MOCK", 1, 3,
+            System.currentTimeMillis(), null, Map.of(), serializable).getBody());
+    }
+
+    @Test
+    @DisplayName("Should keep waiting retries in the store on close and recover them on restart")
+    void shouldKeepWaitingRetriesInTheStoreOnCloseAndRecoverThemOnRestart() throws InterruptedException {
+        RetryScheduler stopped = new RetryScheduler(store, handler(retry -> fail("Should not attempt"), retry -> { }), 1);
+        stopped.schedule(retry("PAY-4", System.currentTimeMillis() + 60_000L));
+        stopped.schedule(retry("PAY-5", System.currentTimeMillis() + 60_000L));
+        assertTrue(stopped.close(1_000L));
+        assertEquals(2, store.findAll().size());
+
+        CountDownLatch recovered = new CountDownLatch(1);
+        scheduler = new RetryScheduler(store, handler(retry -> recovered.countDown(), retry -> { }), 1);
+        // An overdue retry is attempted at once; the other keeps its due time
+        store.save(retry("PAY-4", System.currentTimeMillis() - 1_000L));
+
+        assertEquals(2, scheduler.recover());
+        assertTrue(recovered.await(5, TimeUnit.SECONDS));
+        assertEquals(1, scheduler.getPending());
+    }
+
+    @Test
+    @DisplayName("Should cap the backoff per gateway and keep jitter within ten percent")
+    void shouldCapTheBackoffPerGatewayAndKeepJitterWithinTenPercent() {
+        GatewayRetryPolicy paypal = GatewayRetryPolicy.forGateway("PAYPAL");
+        assertEquals(2000L, paypal.backoffMillis(1));
+        assertEquals(3000L, paypal.backoffMillis(2));
+        assertEquals(60000L, paypal.backoffMillis(20));
+        assertEquals(GatewayRetryPolicy.forGateway("UNKNOWN").backoffMillis(1), GatewayRetryPolicy.forGateway(null).backoffMillis(1));
+
+        for (int i = 0; i < 1_000; i++) {
+            long delay = paypal.delayMillis(2);
+            assertTrue(delay >= 3000L && delay <= 3300L, "delay=" + delay);
+        }
+    }
+
+    private void awaitResolved(long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000L;
+        while (System.currentTimeMillis() < deadline) {
+            Map<String, Object> stats = scheduler.getStatistics();
+            if ((Long) stats.get("succeeded") + (Long) stats.get("exhausted") >= expected) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        fail("Retries not resolved in time: " + scheduler.getStatistics());
+    }
+
+    private static RetryScheduler.RetryHandler handler(Attempt attempt, Consumer<PendingRetry> exhausted) {
+        return new RetryScheduler.RetryHandler() {
+            @Override
+            public CompletionStage<?> attempt(PendingRetry retry) throws Exception {
+                attempt.run(retry);
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public void exhausted(PendingRetry retry) {
+                exhausted.accept(retry);
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface Attempt {
+        void run(PendingRetry retry) throws Exception;
+    }
+}
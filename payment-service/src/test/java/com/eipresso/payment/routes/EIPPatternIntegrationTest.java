@@ -1,5 +1,6 @@
 package com.eipresso.payment.routes;
 
+import com.eipresso.payment.service.PaymentAuditService;
 import org.apache.camel.CamelContext;
 import org.apache.camel.Exchange;
 import org.apache.camel.ProducerTemplate;
@@ -28,7 +29,7 @@ import static org.junit.jupiter.api.Assertions.*;
  * Comprehensive EIP Pattern Integration Test Suite
  * 
  * Tests all 5 implemented EIP patterns with real message flows:
- * 1. Wire Tap Pattern (6 Routes) - Comprehensive audit trail
+ * 1. Wire Tap Pattern (3 Routes) - Comprehensive audit trail
  * 2. Retry Pattern (8 Routes) - Resilient gateway integration
  * 3. Split Pattern (6 Routes) - Batch payment processing
  * 4. Filter Pattern (3 Routes) - Fraud detection
@@ -47,6 +48,9 @@ class EIPPatternIntegrationTest {
     @Autowired
     private ProducerTemplate producerTemplate;
 
+    @Autowired
+    private PaymentAuditService paymentAuditService;
+
     private Map<String, Object> basePaymentRequest;
     private Map<String, Object> baseHeaders;
 
@@ -75,97 +79,56 @@ class EIPPatternIntegrationTest {
     }
 
     @Nested
-    @DisplayName("Wire Tap Pattern Tests (6 Routes)")
+    @DisplayName("Wire Tap Pattern Tests (3 Routes)")
     class WireTapPatternTests {
 
         @Test
         @DisplayName("Should create comprehensive audit trail for all payment events")
         void shouldCreateComprehensiveAuditTrail() throws Exception {
-            // Setup mock endpoints for Wire Tap destinations
-            MockEndpoint transactionAudit = camelContext.getEndpoint("mock:direct:transaction-audit-processor", MockEndpoint.class);
-            MockEndpoint fraudAudit = camelContext.getEndpoint("mock:direct:fraud-audit-processor", MockEndpoint.class);
-            MockEndpoint complianceAudit = camelContext.getEndpoint("mock:direct:compliance-audit-processor", MockEndpoint.class);
-            MockEndpoint securityAudit = camelContext.getEndpoint("mock:direct:security-audit-processor", MockEndpoint.class);
-            MockEndpoint businessMetrics = camelContext.getEndpoint("mock:direct:business-metrics-processor", MockEndpoint.class);
-            MockEndpoint errorAudit = camelContext.getEndpoint("mock:direct:error-audit-processor", MockEndpoint.class);
-
-            // Expect messages at all audit endpoints
-            transactionAudit.expectedMinimumMessageCount(1);
-            fraudAudit.expectedMinimumMessageCount(1);
-            complianceAudit.expectedMinimumMessageCount(1);
-            securityAudit.expectedMinimumMessageCount(1);
-            businessMetrics.expectedMinimumMessageCount(1);
+            long offeredBefore = (Long) paymentAuditService.getStatistics().get("offered");
 
             // Send message through Wire Tap pattern
-            producerTemplate.sendBodyAndHeaders(
-                "direct:payment-wire-tap-entry",
-                basePaymentRequest,
-                baseHeaders
-            );
-
-            // Verify all wire tap destinations received messages
-            MockEndpoint.assertIsSatisfied(camelContext, 5, TimeUnit.SECONDS);
-
-            // Verify audit trail contains required information
-            Exchange transactionExchange = transactionAudit.getReceivedExchanges().get(0);
-            assertNotNull(transactionExchange.getIn().getHeader("paymentId"));
-            assertNotNull(transactionExchange.getIn().getHeader("correlationId"));
-            assertEquals("50.00", transactionExchange.getIn().getHeader("amount"));
+            Exchange exchange = producerTemplate.send("direct:payment-wire-tap-entry", e -> {
+                e.getIn().setBody(basePaymentRequest);
+                e.getIn().setHeaders(new HashMap<>(baseHeaders));
+            });
 
-            Exchange securityExchange = securityAudit.getReceivedExchanges().get(0);
-            assertEquals("192.168.1.100", securityExchange.getIn().getHeader("customerIp"));
-            assertEquals("Test Client 1.0", securityExchange.getIn().getHeader("userAgent"));
+            // One compact audit record per payment, queued to the audit sink
+            Map<String, Object> stats = paymentAuditService.getStatistics();
+            assertEquals(offeredBefore + 1, stats.get("offered"));
+            assertEquals(0L, stats.get("dropped"));
+            assertNotNull(exchange.getIn().getHeader("auditId"));
+            assertEquals(Boolean.FALSE, exchange.getIn().getHeader("suspiciousActivity"));
         }
 
         @Test
         @DisplayName("Should handle high-value transactions with enhanced audit")
         void shouldHandleHighValueTransactionsWithEnhancedAudit() throws Exception {
             // High-value transaction
-            basePaymentRequest.put("amount", "1500.00");
+            baseHeaders.put("amount", "1500.00");
             baseHeaders.put("highValueTransaction", true);
             baseHeaders.put("enhancedAuditRequired", true);
 
-            MockEndpoint complianceAudit = camelContext.getEndpoint("mock:direct:compliance-audit-processor", MockEndpoint.class);
-            MockEndpoint businessMetrics = camelContext.getEndpoint("mock:direct:business-metrics-processor", MockEndpoint.class);
-
-            complianceAudit.expectedMinimumMessageCount(1);
-            businessMetrics.expectedMinimumMessageCount(1);
-
-            producerTemplate.sendBodyAndHeaders(
-                "direct:payment-wire-tap-entry",
-                basePaymentRequest,
-                baseHeaders
-            );
-
-            MockEndpoint.assertIsSatisfied(camelContext, 5, TimeUnit.SECONDS);
+            Exchange exchange = producerTemplate.send("direct:payment-wire-tap-entry", e -> {
+                e.getIn().setBody(basePaymentRequest);
+                e.getIn().setHeaders(new HashMap<>(baseHeaders));
+            });
 
-            // Verify enhanced audit for high-value transactions
-            Exchange complianceExchange = complianceAudit.getReceivedExchanges().get(0);
-            assertEquals("1500.00", complianceExchange.getIn().getHeader("amount"));
-            assertTrue((Boolean) complianceExchange.getIn().getHeader("highValueTransaction"));
+            // High value alone scores 40, below the fraud alert threshold
+            assertTrue(exchange.getIn().getHeader("auditRiskScore", Integer.class) >= 40);
         }
 
         @Test
         @DisplayName("Should maintain message integrity during wire tap processing")
         void shouldMaintainMessageIntegrityDuringWireTap() throws Exception {
-            MockEndpoint mainFlow = camelContext.getEndpoint("mock:direct:payment-main-flow", MockEndpoint.class);
-            MockEndpoint transactionAudit = camelContext.getEndpoint("mock:direct:transaction-audit-processor", MockEndpoint.class);
-
-            mainFlow.expectedMessageCount(1);
-            transactionAudit.expectedMessageCount(1);
-
-            // Send message and verify both main flow and audit receive it
             Object result = producerTemplate.requestBodyAndHeaders(
                 "direct:payment-wire-tap-entry",
                 basePaymentRequest,
                 baseHeaders
             );
 
-            MockEndpoint.assertIsSatisfied(camelContext, 5, TimeUnit.SECONDS);
-
             // Verify original message is not modified
-            Exchange mainExchange = mainFlow.getReceivedExchanges().get(0);
-            Map<?, ?> receivedBody = (Map<?, ?>) mainExchange.getIn().getBody();
+            Map<?, ?> receivedBody = (Map<?, ?>) result;
             assertEquals("50.00", receivedBody.get("amount"));
             assertEquals("Test Customer", receivedBody.get("customerName"));
         }
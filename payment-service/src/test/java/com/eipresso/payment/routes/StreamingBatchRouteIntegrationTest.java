@@ -0,0 +1,124 @@
+package com.eipresso.payment.routes;
+
+import com.eipresso.payment.batch.BatchJob;
+import com.eipresso.payment.batch.BatchState;
+import com.eipresso.payment.service.BatchPaymentService;
+import com.eipresso.payment.service.PaymentRetryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Endpoint;
+import org.apache.camel.spi.CamelEvent;
+import org.apache.camel.support.EventNotifierSupport;
+import org.apache.camel.test.spring.junit5.CamelSpringBootTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streaming batch through the real Split and Retry routes
+ *
+ * Runs a batch on the MOCK gateway, which fails three calls in ten, so some
+ * payments go through scheduled retries before they settle.
+ */
+@SpringBootTest(properties = {
+    "payment.batch.max-concurrency-per-gateway=" + StreamingBatchRouteIntegrationTest.LIMIT,
+    "payment.batch.retry-wait-ms=60000"
+})
+@CamelSpringBootTest
+@ActiveProfiles("test")
+@DisplayName("Streaming Batch Route Integration Tests")
+class StreamingBatchRouteIntegrationTest {
+
+    static final int LIMIT = 2;
+    private static final int PAYMENTS = 40;
+
+    @Autowired
+    private CamelContext camelContext;
+
+    @Autowired
+    private BatchPaymentService batchPaymentService;
+
+    @Autowired
+    private PaymentRetryService paymentRetryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Should hold each gateway permit until the payment settles")
+    void shouldHoldEachGatewayPermitUntilThePaymentSettles() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        // Concurrent calls into the MOCK gateway route, first attempts and retries alike
+        EventNotifierSupport gatewayCalls = new EventNotifierSupport() {
+            @Override
+            public void notify(CamelEvent event) {
+                if (event instanceof CamelEvent.ExchangeSendingEvent sending && isGatewayCall(sending.getEndpoint())) {
+                    peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                } else if (event instanceof CamelEvent.ExchangeSentEvent sent && isGatewayCall(sent.getEndpoint())) {
+                    running.decrementAndGet();
+                }
+            }
+
+            @Override
+            public boolean isEnabled(CamelEvent event) {
+                return event instanceof CamelEvent.ExchangeSendingEvent || event instanceof CamelEvent.ExchangeSentEvent;
+            }
+
+            private boolean isGatewayCall(Endpoint endpoint) {
+                return endpoint.getEndpointUri().startsWith("direct://mock-gateway-call");
+            }
+        };
+        camelContext.getManagementStrategy().addEventNotifier(gatewayCalls);
+        gatewayCalls.start();
+
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < PAYMENTS; i++) {
+            ndjson.append("{\"paymentId\":\"PAY-BATCH-").append(i)
+                .append("\",\"amount\":10.00,\"currency\":\"USD\",\"paymentGateway\":\"MOCK\"}\n");
+        }
+        ndjson.append("{\"paymentId\":\"PAY-BATCH-UNKNOWN\",\"amount\":10.00,\"paymentGateway\":\"BANK\"}\n");
+
+        try {
+            BatchJob job = batchPaymentService.submit(
+                new ByteArrayInputStream(ndjson.toString().getBytes(StandardCharsets.UTF_8)));
+            long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(2);
+            while (!job.getState().isFinished() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(100);
+            }
+
+            assertEquals(BatchState.COMPLETED, job.getState());
+            assertEquals(PAYMENTS + 1, job.getSubmitted());
+
+            List<String> lines = Files.readAllLines(job.getResultsFile());
+            assertEquals(PAYMENTS + 1, lines.size());
+            for (String line : lines) {
+                Map<?, ?> result = objectMapper.readValue(line, Map.class);
+                Object status = result.get("status");
+                if ("PAY-BATCH-UNKNOWN".equals(result.get("paymentId"))) {
+                    assertEquals("REJECTED", status);
+                } else {
+                    assertTrue(Set.of("COMPLETED", "FAILED").contains(status), "Unsettled result " + line);
+                }
+            }
+            assertTrue(peak.get() <= LIMIT, "MOCK gateway peak " + peak.get());
+            assertEquals(0, paymentRetryService.getStatistics().get("pending"));
+            assertEquals(0, paymentRetryService.getStatistics().get("awaitedOutcomes"));
+        } finally {
+            camelContext.getManagementStrategy().removeEventNotifier(gatewayCalls);
+        }
+    }
+}
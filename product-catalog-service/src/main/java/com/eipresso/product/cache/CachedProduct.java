@@ -0,0 +1,46 @@
+package com.eipresso.product.cache;
+
+/**
+ * A cached product lookup: the product JSON, or a remembered miss
+ *
+ * Caching misses (negative caching) keeps repeated lookups of unknown
+ * product ids from reaching the database every time. The version is the
+ * product's invalidation version when the lookup was read from its source;
+ * an invalidation with a higher version makes it stale on every node.
+ */
+public final class CachedProduct {
+
+    private final String productJson;
+    private final long version;
+
+    private CachedProduct(String productJson, long version) {
+        this.productJson = productJson;
+        this.version = version;
+    }
+
+    /**
+     * @param productJson the product, or null for a product that does not exist
+     */
+    public static CachedProduct of(String productJson, long version) {
+        return new CachedProduct(productJson, version);
+    }
+
+    public static CachedProduct missing(long version) {
+        return new CachedProduct(null, version);
+    }
+
+    /**
+     * @return the product JSON, or null for a product that does not exist
+     */
+    public String getProductJson() {
+        return productJson;
+    }
+
+    public boolean isMissing() {
+        return productJson == null;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
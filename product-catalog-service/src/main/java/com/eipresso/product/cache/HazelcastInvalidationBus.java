@@ -0,0 +1,73 @@
+package com.eipresso.product.cache;
+
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.topic.ITopic;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Broadcasts product invalidations through a Hazelcast topic
+ *
+ * Every node publishes its {@link InvalidationBatch}es here and applies the
+ * other nodes' batches to its own {@link ProductCache}, evicting the stale
+ * L1 copies. Each received batch's propagation delay, from its oldest
+ * invalidation being queued to being applied here, goes to
+ * {@code propagationMicros}.
+ */
+public class HazelcastInvalidationBus implements Consumer<InvalidationBatch> {
+
+    public static final String TOPIC_NAME = "product-cache-invalidations";
+
+    private final ITopic<InvalidationBatch> topic;
+    private final UUID listenerId;
+    private final LongAdder received = new LongAdder();
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder totalPropagationMicros = new LongAdder();
+    private final LongAccumulator maxPropagationMicros = new LongAccumulator(Math::max, 0);
+
+    public HazelcastInvalidationBus(HazelcastInstance hazelcast, ProductCache cache, String localOrigin,
+                                    LongConsumer propagationMicros) {
+        this.topic = hazelcast.getTopic(TOPIC_NAME);
+        this.listenerId = topic.addMessageListener(message -> {
+            InvalidationBatch batch = message.getMessageObject();
+            if (localOrigin.equals(batch.getOrigin())) {
+                return;
+            }
+            batch.getVersions().forEach(cache::applyInvalidation);
+            long propagation = Math.max(0, InvalidationBatch.nowMicros() - batch.getFirstQueuedAtMicros());
+            received.increment();
+            applied.add(batch.getVersions().size());
+            totalPropagationMicros.add(propagation);
+            maxPropagationMicros.accumulate(propagation);
+            propagationMicros.accept(propagation);
+        });
+    }
+
+    /**
+     * Publish a batch to the other nodes
+     */
+    @Override
+    public void accept(InvalidationBatch batch) {
+        topic.publish(batch);
+    }
+
+    public Map<String, Object> getStatistics() {
+        long batches = received.sum();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("batchesReceived", batches);
+        stats.put("invalidationsApplied", applied.sum());
+        stats.put("averagePropagationMillis", batches == 0 ? 0.0 : totalPropagationMicros.sum() / 1_000.0 / batches);
+        stats.put("maxPropagationMillis", maxPropagationMicros.get() / 1_000.0);
+        return stats;
+    }
+
+    public void close() {
+        topic.removeMessageListener(listenerId);
+    }
+}
@@ -0,0 +1,56 @@
+package com.eipresso.product.cache;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product invalidations broadcast together by one node
+ *
+ * Holds each product's highest invalidation version once, however many
+ * times it changed while the batch was open. Timestamps are wall-clock
+ * microseconds, so receivers on other nodes can measure propagation.
+ */
+public class InvalidationBatch implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String origin;
+    private final HashMap<String, Long> versions;
+    private final long firstQueuedAtMicros;
+    private final long publishedAtMicros;
+
+    public InvalidationBatch(String origin, Map<String, Long> versions, long firstQueuedAtMicros,
+                             long publishedAtMicros) {
+        this.origin = origin;
+        this.versions = new HashMap<>(versions);
+        this.firstQueuedAtMicros = firstQueuedAtMicros;
+        this.publishedAtMicros = publishedAtMicros;
+    }
+
+    public static long nowMicros() {
+        Instant now = Instant.now();
+        return TimeUnit.SECONDS.toMicros(now.getEpochSecond()) + now.getNano() / 1_000;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public Map<String, Long> getVersions() {
+        return versions;
+    }
+
+    /**
+     * @return when the batch's oldest invalidation was queued on its origin
+     */
+    public long getFirstQueuedAtMicros() {
+        return firstQueuedAtMicros;
+    }
+
+    public long getPublishedAtMicros() {
+        return publishedAtMicros;
+    }
+}
@@ -0,0 +1,120 @@
+package com.eipresso.product.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces and batches product invalidations before they are broadcast
+ *
+ * An invalidation waits at most {@code lingerMillis} for others; a product
+ * invalidated again in the meantime is sent once, with its highest version,
+ * and a batch reaching {@code maxBatchSize} products goes out at once. A
+ * burst of supplier price updates thus costs a few messages rather than one
+ * per update.
+ */
+public class InvalidationBatcher implements InvalidationPublisher, AutoCloseable {
+
+    private final String origin;
+    private final Consumer<InvalidationBatch> transport;
+    private final ScheduledExecutorService scheduler;
+    private final long lingerMillis;
+    private final int maxBatchSize;
+
+    private Map<String, Long> pending = new HashMap<>();
+    private long firstQueuedAtMicros;
+    private boolean flushScheduled;
+
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder sendFailures = new LongAdder();
+
+    public InvalidationBatcher(String origin, Consumer<InvalidationBatch> transport, ScheduledExecutorService scheduler,
+                               long lingerMillis, int maxBatchSize) {
+        this.origin = origin;
+        this.transport = transport;
+        this.scheduler = scheduler;
+        this.lingerMillis = lingerMillis;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public void publish(String productId, long version) {
+        queued.increment();
+        InvalidationBatch full = null;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                firstQueuedAtMicros = InvalidationBatch.nowMicros();
+            }
+            Long previous = pending.get(productId);
+            if (previous == null) {
+                pending.put(productId, version);
+            } else {
+                coalesced.increment();
+                pending.put(productId, Math.max(previous, version));
+            }
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (!flushScheduled) {
+                flushScheduled = true;
+                scheduler.schedule(this::flush, lingerMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+    }
+
+    /**
+     * Broadcast whatever is waiting now
+     */
+    public void flush() {
+        InvalidationBatch due;
+        synchronized (this) {
+            flushScheduled = false;
+            due = pending.isEmpty() ? null : takePending();
+        }
+        if (due != null) {
+            send(due);
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queuedInvalidations", queued.sum());
+        stats.put("coalescedInvalidations", coalesced.sum());
+        stats.put("batchesSent", batches.sum());
+        stats.put("invalidationsSent", sent.sum());
+        stats.put("averageBatchSize", batches.sum() == 0 ? 0.0 : (double) sent.sum() / batches.sum());
+        stats.put("sendFailures", sendFailures.sum());
+        stats.put("lingerMillis", lingerMillis);
+        stats.put("maxBatchSize", maxBatchSize);
+        return stats;
+    }
+
+    private InvalidationBatch takePending() {
+        InvalidationBatch batch = new InvalidationBatch(origin, pending, firstQueuedAtMicros, InvalidationBatch.nowMicros());
+        pending = new HashMap<>();
+        return batch;
+    }
+
+    private void send(InvalidationBatch batch) {
+        try {
+            transport.accept(batch);
+            batches.increment();
+            sent.add(batch.getVersions().size());
+        } catch (RuntimeException e) {
+            sendFailures.increment();
+        }
+    }
+}
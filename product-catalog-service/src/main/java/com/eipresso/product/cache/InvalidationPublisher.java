@@ -0,0 +1,19 @@
+package com.eipresso.product.cache;
+
+/**
+ * Tells the other nodes that a product changed
+ */
+@FunctionalInterface
+public interface InvalidationPublisher {
+
+    /**
+     * For a single node: there is nobody else to tell
+     */
+    InvalidationPublisher LOCAL = (productId, version) -> { };
+
+    /**
+     * @param version the product's new invalidation version, 0 when the
+     *                store could not provide one
+     */
+    void publish(String productId, long version);
+}
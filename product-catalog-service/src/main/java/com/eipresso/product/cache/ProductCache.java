@@ -0,0 +1,407 @@
+package com.eipresso.product.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Two-tier product cache
+ *
+ * L1 is a size-bounded Caffeine cache (W-TinyLFU admission, so a scan of
+ * one-off lookups cannot flush the products read all the time) on this
+ * node's heap, each entry expiring after its own TTL; L2 is the shared
+ * {@link ProductCacheStore}. A lookup tries L1, then L2, then loads the
+ * product from its source and writes it through both tiers with the TTL from
+ * the {@link ProductTtlPolicy}. Products that do not exist are cached too.
+ *
+ * Concurrent misses for the same product are coalesced: the first caller
+ * goes to L2 and the source, the others wait for its result, so a hot
+ * product expiring causes one database load instead of one per request.
+ * Invalidating a product raises its version in L2, evicts it here and is
+ * published to the other nodes, which evict their L1 copies when the
+ * invalidation reaches them. Every cached copy carries the version it was
+ * read at, and each node remembers the highest invalidation version it has
+ * seen per product: a load that raced an invalidation, or an invalidation
+ * arriving after a newer one, can therefore never put the old product back.
+ * L1 entries live at most {@code maxLocalTtlMillis}, which bounds staleness
+ * should an invalidation be lost.
+ *
+ * When L2 is unavailable lookups carry on with L1 and the source only.
+ */
+public class ProductCache {
+
+    /**
+     * Where a lookup was answered from
+     */
+    public enum Tier {
+        L1, L2, SOURCE
+    }
+
+    /**
+     * Loads a product from its source of truth
+     */
+    @FunctionalInterface
+    public interface ProductLoader {
+        /**
+         * @return the product JSON, or null when there is no such product
+         */
+        String load(String productId) throws Exception;
+    }
+
+    public static final class Lookup {
+        private final CachedProduct product;
+        private final Tier tier;
+        private final boolean coalesced;
+
+        private Lookup(CachedProduct product, Tier tier, boolean coalesced) {
+            this.product = product;
+            this.tier = tier;
+            this.coalesced = coalesced;
+        }
+
+        /**
+         * @return the product JSON, or null when the product does not exist
+         */
+        public String getProductJson() {
+            return product.getProductJson();
+        }
+
+        public boolean isFound() {
+            return !product.isMissing();
+        }
+
+        public Tier getTier() {
+            return tier;
+        }
+
+        /**
+         * @return whether this lookup waited for another caller's load
+         */
+        public boolean isCoalesced() {
+            return coalesced;
+        }
+    }
+
+    private final Cache<String, LocalEntry> local;
+    private final long localMaximumSize;
+    private final ProductCacheStore shared;
+    private final ProductTtlPolicy ttlPolicy;
+    private final long maxLocalTtlMillis;
+    private final InvalidationPublisher publisher;
+    private final Map<String, CompletableFuture<Lookup>> loading = new ConcurrentHashMap<>();
+    private final Map<String, Fence> fences = new ConcurrentHashMap<>();
+
+    private final LongAdder l1Hits = new LongAdder();
+    private final LongAdder l2Hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder l2Errors = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder l1Evictions = new LongAdder();
+    private final LongAdder staleRejected = new LongAdder();
+    private final LongAdder localEvictions = new LongAdder();
+    private final LongAdder localExpirations = new LongAdder();
+
+    /**
+     * Highest invalidation version this node has seen for a product
+     */
+    private static final class Fence {
+        private final long version;
+        private final long seenAtMillis;
+
+        private Fence(long version, long seenAtMillis) {
+            this.version = version;
+            this.seenAtMillis = seenAtMillis;
+        }
+    }
+
+    /**
+     * An L1 copy and the moment it expires; the deadline is absolute so
+     * rewriting an entry unchanged does not extend its life
+     */
+    private static final class LocalEntry {
+        private final CachedProduct product;
+        private final long expiresAtNanos;
+
+        private LocalEntry(CachedProduct product, long ttlMillis) {
+            this.product = product;
+            this.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        }
+    }
+
+    private static final class LocalEntryExpiry implements Expiry<String, LocalEntry> {
+        @Override
+        public long expireAfterCreate(String key, LocalEntry entry, long currentTime) {
+            return entry.expiresAtNanos - currentTime;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, LocalEntry entry, long currentTime, long currentDuration) {
+            return entry.expiresAtNanos - currentTime;
+        }
+
+        @Override
+        public long expireAfterRead(String key, LocalEntry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    public ProductCache(long localMaximumSize, ProductCacheStore shared,
+                        ProductTtlPolicy ttlPolicy, long maxLocalTtlMillis) {
+        this(localMaximumSize, shared, ttlPolicy, maxLocalTtlMillis, InvalidationPublisher.LOCAL);
+    }
+
+    public ProductCache(long localMaximumSize, ProductCacheStore shared,
+                        ProductTtlPolicy ttlPolicy, long maxLocalTtlMillis, InvalidationPublisher publisher) {
+        this.local = Caffeine.newBuilder()
+            .maximumSize(localMaximumSize)
+            .expireAfter(new LocalEntryExpiry())
+            .evictionListener((String productId, LocalEntry entry, RemovalCause cause) -> {
+                if (cause == RemovalCause.EXPIRED) {
+                    localExpirations.increment();
+                } else if (cause == RemovalCause.SIZE) {
+                    localEvictions.increment();
+                }
+            })
+            .build();
+        this.localMaximumSize = localMaximumSize;
+        this.shared = shared;
+        this.ttlPolicy = ttlPolicy;
+        this.maxLocalTtlMillis = maxLocalTtlMillis;
+        this.publisher = publisher;
+    }
+
+    /**
+     * Look a product up, loading it through {@code loader} when neither tier has it
+     */
+    public Lookup get(String productId, ProductLoader loader) {
+        LocalEntry entry = local.getIfPresent(productId);
+        if (entry != null) {
+            CachedProduct cached = entry.product;
+            l1Hits.increment();
+            if (cached.isMissing()) {
+                negativeHits.increment();
+            }
+            return new Lookup(cached, Tier.L1, false);
+        }
+
+        CompletableFuture<Lookup> mine = new CompletableFuture<>();
+        CompletableFuture<Lookup> running = loading.putIfAbsent(productId, mine);
+        if (running != null) {
+            coalesced.increment();
+            Lookup shared = join(running);
+            return new Lookup(shared.product, shared.tier, true);
+        }
+        try {
+            Lookup lookup = fetch(productId, loader);
+            mine.complete(lookup);
+            return lookup;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(productId, mine);
+        }
+    }
+
+    /**
+     * Write a product through both tiers
+     *
+     * @return the TTL it was cached with, in seconds
+     */
+    public int put(String productId, String productJson) {
+        CachedProduct product = CachedProduct.of(productJson, currentVersion(productId));
+        int ttlSeconds = ttlPolicy.ttlSeconds(product);
+        storeShared(productId, product, ttlSeconds);
+        storeLocal(productId, product, ttlSeconds);
+        return ttlSeconds;
+    }
+
+    /**
+     * Invalidate a product on every node: raise its version and drop it from
+     * L2 and this node's L1, then publish the new version to the other nodes
+     */
+    public void invalidate(String productId) {
+        long version = 0;
+        try {
+            version = shared.invalidate(productId);
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+        }
+        applyInvalidation(productId, version);
+        publisher.publish(productId, version);
+    }
+
+    /**
+     * Apply an invalidation heard from any node: evict the L1 copy if it
+     * predates {@code version}, and refuse older copies from now on. Version
+     * 0, an invalidation the store could not version, evicts unconditionally.
+     */
+    public void applyInvalidation(String productId, long version) {
+        invalidations.increment();
+        if (version > 0) {
+            fences.merge(productId, new Fence(version, System.currentTimeMillis()),
+                (seen, heard) -> heard.version > seen.version ? heard : seen);
+        }
+        boolean[] evicted = new boolean[1];
+        local.asMap().computeIfPresent(productId, (id, entry) -> {
+            evicted[0] = version <= 0 || entry.product.getVersion() < version;
+            return evicted[0] ? null : entry;
+        });
+        if (evicted[0]) {
+            l1Evictions.increment();
+        }
+        // Lookups from now on must not wait for a load that may have read the old product
+        CompletableFuture<Lookup> running = loading.get(productId);
+        if (running != null) {
+            loading.remove(productId, running);
+        }
+    }
+
+    /**
+     * Drop expired L1 entries, and fences old enough that no L1 copy they guard against can still exist
+     */
+    public void purgeExpired() {
+        local.cleanUp();
+        long cutoff = System.currentTimeMillis() - maxLocalTtlMillis;
+        fences.values().removeIf(fence -> fence.seenAtMillis < cutoff);
+    }
+
+    public long getL1Hits() {
+        return l1Hits.sum();
+    }
+
+    public long getL2Hits() {
+        return l2Hits.sum();
+    }
+
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getLookups() {
+        return l1Hits.sum() + l2Hits.sum() + loads.sum() + coalesced.sum();
+    }
+
+    public Map<String, Object> getStatistics() {
+        long lookups = getLookups();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("lookups", lookups);
+        stats.put("l1Hits", l1Hits.sum());
+        stats.put("l2Hits", l2Hits.sum());
+        stats.put("sourceLoads", loads.sum());
+        stats.put("negativeHits", negativeHits.sum());
+        stats.put("coalescedLookups", coalesced.sum());
+        stats.put("l1HitRatio", lookups == 0 ? 0.0 : (double) l1Hits.sum() / lookups);
+        stats.put("l2HitRatio", lookups == 0 ? 0.0 : (double) l2Hits.sum() / lookups);
+        stats.put("loadFailures", loadFailures.sum());
+        stats.put("l2Errors", l2Errors.sum());
+        stats.put("invalidationsApplied", invalidations.sum());
+        stats.put("invalidationL1Evictions", l1Evictions.sum());
+        stats.put("staleCopiesRejected", staleRejected.sum());
+        stats.put("invalidationFences", fences.size());
+        stats.put("l1Entries", local.estimatedSize());
+        stats.put("l1MaximumSize", localMaximumSize);
+        stats.put("l1Evictions", localEvictions.sum());
+        stats.put("l1Expirations", localExpirations.sum());
+        return stats;
+    }
+
+    private Lookup fetch(String productId, ProductLoader loader) {
+        CachedProduct product = null;
+        try {
+            product = shared.get(productId);
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+        }
+        if (product != null && product.getVersion() >= fenceVersion(productId)) {
+            l2Hits.increment();
+            if (product.isMissing()) {
+                negativeHits.increment();
+            }
+            storeLocal(productId, product, ttlPolicy.ttlSeconds(product));
+            return new Lookup(product, Tier.L2, false);
+        }
+
+        // Read the version first: an invalidation during the load then makes this copy stale
+        long version = currentVersion(productId);
+        loads.increment();
+        try {
+            product = CachedProduct.of(loader.load(productId), version);
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            throw e;
+        } catch (Exception e) {
+            loadFailures.increment();
+            throw new IllegalStateException("Could not load product " + productId + ": " + e.getMessage(), e);
+        }
+        int ttlSeconds = ttlPolicy.ttlSeconds(product);
+        storeShared(productId, product, ttlSeconds);
+        storeLocal(productId, product, ttlSeconds);
+        return new Lookup(product, Tier.SOURCE, false);
+    }
+
+    /**
+     * Store the copy unless it predates this node's fence or the copy already
+     * cached; decided inside the entry's compute, so atomically with other writes
+     */
+    private void storeLocal(String productId, CachedProduct product, int ttlSeconds) {
+        boolean[] stored = new boolean[1];
+        local.asMap().compute(productId, (id, current) -> {
+            stored[0] = product.getVersion() >= fenceVersion(productId)
+                && (current == null || current.product.getVersion() <= product.getVersion());
+            return stored[0] ? new LocalEntry(product, localTtlMillis(ttlSeconds)) : current;
+        });
+        if (!stored[0]) {
+            staleRejected.increment();
+        }
+    }
+
+    private long fenceVersion(String productId) {
+        Fence fence = fences.get(productId);
+        return fence != null ? fence.version : 0;
+    }
+
+    private long currentVersion(String productId) {
+        try {
+            return shared.currentVersion(productId);
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+            return 0;
+        }
+    }
+
+    private void storeShared(String productId, CachedProduct product, int ttlSeconds) {
+        try {
+            shared.put(productId, product, ttlSeconds);
+        } catch (RuntimeException e) {
+            l2Errors.increment();
+        }
+    }
+
+    private long localTtlMillis(int ttlSeconds) {
+        return Math.min(TimeUnit.SECONDS.toMillis(ttlSeconds), maxLocalTtlMillis);
+    }
+
+    private static Lookup join(CompletableFuture<Lookup> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.eipresso.product.cache;
+
+/**
+ * Shared second-level product cache, seen by every node
+ *
+ * The store also keeps each product's invalidation version, a counter
+ * raised by every invalidation, so nodes agree on which cached copies an
+ * invalidation made stale whatever order they hear about it in.
+ */
+public interface ProductCacheStore {
+
+    /**
+     * @return the cached lookup, or null when the product is not cached or
+     *         its cached copy predates the latest invalidation
+     */
+    CachedProduct get(String productId);
+
+    /**
+     * @return the product's invalidation version, 0 when it was never invalidated
+     */
+    long currentVersion(String productId);
+
+    void put(String productId, CachedProduct product, int ttlSeconds);
+
+    /**
+     * Raise the product's invalidation version and drop its cached copy
+     *
+     * @return the new invalidation version
+     */
+    long invalidate(String productId);
+}
@@ -0,0 +1,43 @@
+package com.eipresso.product.cache;
+
+import java.util.regex.Pattern;
+
+/**
+ * How long a product stays cached
+ *
+ * Popular products live longest, then featured products, then everything
+ * else; a remembered miss lives shortest, so a product created after the
+ * miss appears soon.
+ */
+public class ProductTtlPolicy {
+
+    private static final Pattern POPULAR = Pattern.compile("\"popular\"\\s*:\\s*true");
+    private static final Pattern FEATURED = Pattern.compile("\"featured\"\\s*:\\s*true");
+
+    private final int defaultTtlSeconds;
+    private final int featuredTtlSeconds;
+    private final int popularTtlSeconds;
+    private final int negativeTtlSeconds;
+
+    public ProductTtlPolicy(int defaultTtlSeconds, int featuredTtlSeconds, int popularTtlSeconds,
+                            int negativeTtlSeconds) {
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.featuredTtlSeconds = featuredTtlSeconds;
+        this.popularTtlSeconds = popularTtlSeconds;
+        this.negativeTtlSeconds = negativeTtlSeconds;
+    }
+
+    public int ttlSeconds(CachedProduct product) {
+        if (product.isMissing()) {
+            return negativeTtlSeconds;
+        }
+        String json = product.getProductJson();
+        if (POPULAR.matcher(json).find()) {
+            return popularTtlSeconds;
+        }
+        if (FEATURED.matcher(json).find()) {
+            return featuredTtlSeconds;
+        }
+        return defaultTtlSeconds;
+    }
+}
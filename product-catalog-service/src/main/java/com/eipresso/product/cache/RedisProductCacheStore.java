@@ -0,0 +1,78 @@
+package com.eipresso.product.cache;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.Transaction;
+
+import java.util.List;
+
+/**
+ * Product cache store in Redis
+ *
+ * Each product is a string key expiring with its TTL, holding
+ * {@code <version>:<json>}; a remembered miss has no JSON after the colon.
+ * Invalidation versions are counters under {@code product-version:<id>},
+ * raised with INCR and kept without expiry so they never go backwards.
+ */
+public class RedisProductCacheStore implements ProductCacheStore {
+
+    public static final String KEY_PREFIX = "product:";
+    public static final String VERSION_KEY_PREFIX = "product-version:";
+
+    private final JedisPool jedisPool;
+
+    public RedisProductCacheStore(JedisPool jedisPool) {
+        this.jedisPool = jedisPool;
+    }
+
+    @Override
+    public CachedProduct get(String productId) {
+        List<String> values;
+        try (Jedis jedis = jedisPool.getResource()) {
+            values = jedis.mget(VERSION_KEY_PREFIX + productId, KEY_PREFIX + productId);
+        }
+        String value = values.get(1);
+        if (value == null) {
+            return null;
+        }
+        int separator = value.indexOf(':');
+        long version = Long.parseLong(value.substring(0, separator));
+        if (version < parseVersion(values.get(0))) {
+            // Written by a load that raced an invalidation
+            return null;
+        }
+        String json = value.substring(separator + 1);
+        return json.isEmpty() ? CachedProduct.missing(version) : CachedProduct.of(json, version);
+    }
+
+    @Override
+    public long currentVersion(String productId) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            return parseVersion(jedis.get(VERSION_KEY_PREFIX + productId));
+        }
+    }
+
+    @Override
+    public void put(String productId, CachedProduct product, int ttlSeconds) {
+        String json = product.isMissing() ? "" : product.getProductJson();
+        try (Jedis jedis = jedisPool.getResource()) {
+            jedis.setex(KEY_PREFIX + productId, ttlSeconds, product.getVersion() + ":" + json);
+        }
+    }
+
+    @Override
+    public long invalidate(String productId) {
+        try (Jedis jedis = jedisPool.getResource()) {
+            Transaction transaction = jedis.multi();
+            Response<Long> version = transaction.incr(VERSION_KEY_PREFIX + productId);
+            transaction.del(KEY_PREFIX + productId);
+            transaction.exec();
+            return version.get();
+        }
+    }
+
+    private static long parseVersion(String version) {
+        return version == null ? 0 : Long.parseLong(version);
+    }
+}
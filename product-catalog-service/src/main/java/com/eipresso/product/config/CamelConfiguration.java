@@ -117,9 +117,11 @@ public class CamelConfiguration {
         private int defaultTtl = 3600; // 1 hour
         private int featuredProductTtl = 7200; // 2 hours
         private int popularProductTtl = 10800; // 3 hours
+        private int missingProductTtl = 60; // 1 minute
         
         public int getDefaultTtl() { return defaultTtl; }
         public int getFeaturedProductTtl() { return featuredProductTtl; }
         public int getPopularProductTtl() { return popularProductTtl; }
+        public int getMissingProductTtl() { return missingProductTtl; }
     }
 } 
\ No newline at end of file
@@ -192,14 +192,14 @@ public class PriceChangeMulticastRoute extends RouteBuilder {
         
         /**
          * Route 6: Cache Update
-         * Purpose: Invalidate cache after price change
+         * Purpose: Invalidate cache after price change, on every node of the cluster
          */
         from("direct:update-cache")
             .routeId("update-cache-after-price-change")
             .description("Multicast Target: Cache invalidation")
             .log("🗑️ Invalidating cache after price change")
             
-            // Invalidate cache for this product
+            // Invalidate cache for this product; other nodes hear it over the invalidation bus
             .to("direct:product-cache-invalidate")
             
             .log("✅ Cache invalidated for product ${header.productId}");
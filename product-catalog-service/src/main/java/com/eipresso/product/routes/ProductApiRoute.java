@@ -1,9 +1,11 @@
 package com.eipresso.product.routes;
 
+import com.eipresso.product.service.ProductCacheService;
 import org.apache.camel.Exchange;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.model.rest.RestBindingMode;
 import org.apache.camel.model.rest.RestParamType;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -16,6 +18,9 @@ import org.springframework.stereotype.Component;
 @Component
 public class ProductApiRoute extends RouteBuilder {
     
+    @Autowired
+    private ProductCacheService productCacheService;
+    
     @Override
     public void configure() throws Exception {
         
@@ -52,7 +57,12 @@ public class ProductApiRoute extends RouteBuilder {
             .get("/{id}")
                 .description("Get product by ID")
                 .param().name("id").type(RestParamType.path).description("Product ID").endParam()
-                .to("direct:api-get-product-by-id");
+                .to("direct:api-get-product-by-id")
+            
+            // GET /products/cache/stats - Product cache statistics by tier
+            .get("/cache/stats")
+                .description("Product cache hit ratios, loads and L1 occupancy")
+                .to("direct:api-product-cache-stats");
         
         /**
          * Route 1: Get Products - Content-Based Router Pattern
@@ -117,6 +127,14 @@ public class ProductApiRoute extends RouteBuilder {
                     .log("❌ Product ${header.id} not found")
             .end();
         
+        /**
+         * Route 3: Product Cache Statistics
+         */
+        from("direct:api-product-cache-stats")
+            .routeId("api-product-cache-stats")
+            .description("Product cache statistics by tier")
+            .process(exchange -> exchange.getIn().setBody(productCacheService.getStatistics()));
+        
         /**
          * VIP Service Routes - Higher performance/priority
          */
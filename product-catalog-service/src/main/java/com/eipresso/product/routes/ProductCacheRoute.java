@@ -1,8 +1,11 @@
 package com.eipresso.product.routes;
 
+import com.eipresso.product.cache.ProductCache;
+import com.eipresso.product.service.ProductCacheService;
 import org.apache.camel.Exchange;
 import org.apache.camel.builder.RouteBuilder;
 import org.apache.camel.model.dataformat.JsonLibrary;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 /**
@@ -17,10 +20,16 @@ import org.springframework.stereotype.Component;
  * 2. product-cache-put: Store product in cache with intelligent TTL
  * 3. product-cache-invalidate: Remove specific products from cache
  * 4. product-cache-refresh: Periodic cache refresh for popular products
+ *
+ * The cache itself is ProductCacheService: a W-TinyLFU cache on each node
+ * in front of Redis, with negative caching and coalesced misses.
  */
 @Component
 public class ProductCacheRoute extends RouteBuilder {
     
+    @Autowired
+    private ProductCacheService productCacheService;
+    
     @Override
     public void configure() throws Exception {
         
@@ -35,35 +44,25 @@ public class ProductCacheRoute extends RouteBuilder {
          * Input: productId in header
          * Output: Product JSON or empty if not found
          * 
-         * Flow: Cache Check -> Database (if cache miss) -> Update Cache
+         * Flow: L1 (node heap) -> L2 (Redis) -> Database, writing misses back through both tiers
          */
         from("direct:product-cache-get")
             .routeId("product-cache-get")
             .description("Cache Pattern: Intelligent product retrieval with caching")
             .log("🔍 Cache GET: Looking for product ${header.productId}")
             
-            // Try cache first (using simple in-memory cache for demo)
             .setHeader("CacheKey").simple("product:${header.productId}")
-            .to("direct:check-cache")
-            
-            // Check if cache hit or miss
-            .choice()
-                .when(body().isNotNull())
-                    .log("✅ Cache HIT for product ${header.productId}")
-                    .setHeader("CacheHit").constant(true)
-                .endChoice()
-                .otherwise()
-                    .log("❌ Cache MISS for product ${header.productId} - Fetching from database")
-                    .setHeader("CacheHit").constant(false)
-                    
-                    // Fetch from database (mock for now)
-                    .to("direct:get-from-database")
-                    
-                    // Store in cache with TTL
-                    .to("direct:product-cache-put")
-                .end()
+            .process(exchange -> {
+                String productId = exchange.getIn().getHeader("productId", String.class);
+                ProductCache.Lookup lookup = productCacheService.get(productId);
+                
+                exchange.getIn().setBody(lookup.getProductJson());
+                exchange.getIn().setHeader("CacheHit", lookup.getTier() != ProductCache.Tier.SOURCE);
+                exchange.getIn().setHeader("CacheTier", lookup.getTier().name());
+                exchange.getIn().setHeader("ProductFound", lookup.isFound());
+            })
             
-            .log("📦 Returning product ${header.productId} (Cache: ${header.CacheHit})");
+            .log("📦 Returning product ${header.productId} (Cache: ${header.CacheHit}, tier ${header.CacheTier})");
         
         /**
          * Route 2: Product Cache PUT - Intelligent TTL Management
@@ -75,26 +74,17 @@ public class ProductCacheRoute extends RouteBuilder {
             .description("Cache Pattern: Store product with intelligent TTL")
             .log("💾 Cache PUT: Storing product ${header.productId}")
             
-            // Calculate TTL based on product characteristics
+            // Store in both tiers; the TTL follows CacheConfig (popular > featured > default)
             .process(exchange -> {
                 String productJson = exchange.getIn().getBody(String.class);
                 String productId = exchange.getIn().getHeader("productId", String.class);
                 
-                // Default TTL: 1 hour (3600 seconds)
-                int ttl = 3600;
+                int ttl = productCacheService.put(productId, productJson);
                 
-                // Check if product is featured/popular (longer TTL)
-                if (productJson != null && productJson.contains("\"featured\":true")) {
-                    ttl = 7200; // 2 hours for featured products
-                }
-                
-                // Set TTL in header for cache
                 exchange.getIn().setHeader("TTL", ttl);
                 exchange.getIn().setHeader("CacheKey", "product:" + productId);
             })
             
-            // Store in cache (using direct endpoint for demo)
-            .to("direct:store-in-cache")
             .log("✅ Cached product ${header.productId} with TTL ${header.TTL} seconds");
         
         /**
@@ -108,7 +98,7 @@ public class ProductCacheRoute extends RouteBuilder {
             .log("🗑️ Cache INVALIDATE: Removing product ${header.productId}")
             
             .setHeader("CacheKey").simple("product:${header.productId}")
-            .to("direct:remove-from-cache")
+            .process(exchange -> productCacheService.invalidate(exchange.getIn().getHeader("productId", String.class)))
             
             .log("✅ Invalidated cache for product ${header.productId}");
         
@@ -172,22 +162,7 @@ public class ProductCacheRoute extends RouteBuilder {
             // Continue processing without cache (degraded mode)
             .log("⚠️ Operating in degraded mode without cache for product ${header.productId}");
         
-        // Helper routes for cache operations (mock implementations)
-        from("direct:check-cache")
-            .routeId("check-cache")
-            .description("Helper: Check cache for product")
-            .process(exchange -> {
-                // Mock cache check - randomly return hit/miss
-                if (Math.random() > 0.5) {
-                    String productId = exchange.getIn().getHeader("productId", String.class);
-                    String mockProduct = String.format("{\"id\":\"%s\",\"name\":\"Cached Product %s\",\"price\":5.99}", 
-                                                      productId, productId);
-                    exchange.getIn().setBody(mockProduct);
-                } else {
-                    exchange.getIn().setBody(null);
-                }
-            });
-        
+        // Product source behind the cache (mock implementation)
         from("direct:get-from-database")
             .routeId("get-from-database")
             .description("Helper: Get product from database")
@@ -198,15 +173,5 @@ public class ProductCacheRoute extends RouteBuilder {
                     productId, productId);
                 exchange.getIn().setBody(mockProduct);
             });
-        
-        from("direct:store-in-cache")
-            .routeId("store-in-cache")
-            .description("Helper: Store product in cache")
-            .log("📦 Storing ${header.CacheKey} in cache with TTL ${header.TTL}");
-        
-        from("direct:remove-from-cache")
-            .routeId("remove-from-cache")
-            .description("Helper: Remove product from cache")
-            .log("🗑️ Removing ${header.CacheKey} from cache");
     }
 } 
\ No newline at end of file
@@ -0,0 +1,205 @@
+package com.eipresso.product.service;
+
+import com.eipresso.product.cache.HazelcastInvalidationBus;
+import com.eipresso.product.cache.InvalidationBatcher;
+import com.eipresso.product.cache.InvalidationPublisher;
+import com.eipresso.product.cache.ProductCache;
+import com.eipresso.product.cache.ProductTtlPolicy;
+import com.eipresso.product.cache.RedisProductCacheStore;
+import com.eipresso.product.config.CamelConfiguration.CacheConfig;
+import com.hazelcast.core.HazelcastInstance;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.camel.ProducerTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.JedisPool;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Product Cache Service
+ *
+ * Backs the Cache pattern routes with a two-tier cache: a Caffeine cache
+ * on each node's heap in front of Redis, loading misses from
+ * {@code direct:get-from-database}. Lookup latency is exported as the
+ * {@code product.cache.get} timer and hit ratios as the
+ * {@code product.cache.hit.ratio} gauge, both tagged by tier.
+ *
+ * Invalidations are broadcast in batches over a Hazelcast topic so every
+ * node evicts its L1 copy; their propagation delay is exported as the
+ * {@code product.cache.invalidation.propagation} timer.
+ */
+@Service
+public class ProductCacheService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductCacheService.class);
+
+    public static final String PRODUCT_SOURCE_URI = "direct:get-from-database";
+
+    @Autowired
+    private JedisPool jedisPool;
+
+    @Autowired
+    private CacheConfig cacheConfig;
+
+    @Autowired
+    private ProducerTemplate producerTemplate;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @Autowired
+    private ObjectProvider<HazelcastInstance> hazelcastInstance;
+
+    @Value("${product.cache.l1.maximum-size:10000}")
+    private long l1MaximumSize;
+
+    @Value("${product.cache.l1.max-ttl-seconds:60}")
+    private long l1MaxTtlSeconds;
+
+    @Value("${product.cache.invalidation.linger-ms:20}")
+    private long invalidationLingerMs;
+
+    @Value("${product.cache.invalidation.max-batch-size:500}")
+    private int invalidationMaxBatchSize;
+
+    private ProductCache cache;
+    private ScheduledExecutorService scheduler;
+    private InvalidationBatcher invalidationBatcher;
+    private HazelcastInvalidationBus invalidationBus;
+    private final Map<ProductCache.Tier, Timer> lookupTimers = new EnumMap<>(ProductCache.Tier.class);
+
+    @PostConstruct
+    public void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-cache-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        HazelcastInstance hazelcast = hazelcastInstance.getIfAvailable();
+        String nodeId = UUID.randomUUID().toString();
+
+        InvalidationPublisher publisher = InvalidationPublisher.LOCAL;
+        if (hazelcast != null) {
+            invalidationBatcher = new InvalidationBatcher(nodeId, batch -> invalidationBus.accept(batch), scheduler,
+                invalidationLingerMs, invalidationMaxBatchSize);
+            publisher = invalidationBatcher;
+        }
+        ProductTtlPolicy ttlPolicy = new ProductTtlPolicy(cacheConfig.getDefaultTtl(),
+            cacheConfig.getFeaturedProductTtl(), cacheConfig.getPopularProductTtl(), cacheConfig.getMissingProductTtl());
+        cache = new ProductCache(l1MaximumSize,
+            new RedisProductCacheStore(jedisPool), ttlPolicy, TimeUnit.SECONDS.toMillis(l1MaxTtlSeconds), publisher);
+        if (hazelcast != null) {
+            invalidationBus = new HazelcastInvalidationBus(hazelcast, cache, nodeId, propagationRecorder(registry));
+        }
+        scheduler.scheduleWithFixedDelay(cache::purgeExpired, 1, 1, TimeUnit.MINUTES);
+
+        if (registry != null) {
+            for (ProductCache.Tier tier : ProductCache.Tier.values()) {
+                lookupTimers.put(tier, Timer.builder("product.cache.get")
+                    .description("Product cache lookup latency by the tier that answered")
+                    .tag("tier", tier.name().toLowerCase())
+                    .publishPercentiles(0.5, 0.99)
+                    .register(registry));
+            }
+            registerHitRatio(registry, "l1", ProductCache::getL1Hits);
+            registerHitRatio(registry, "l2", ProductCache::getL2Hits);
+        }
+        logger.info("🗄️ Product cache: L1 Caffeine of {} entries (at most {}s), L2 Redis, invalidations {}",
+            l1MaximumSize, l1MaxTtlSeconds, hazelcast != null ? "broadcast over Hazelcast" : "local only");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (invalidationBatcher != null) {
+            invalidationBatcher.close();
+        }
+        if (invalidationBus != null) {
+            invalidationBus.close();
+        }
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Look a product up through L1, L2 and the product source
+     */
+    public ProductCache.Lookup get(String productId) {
+        long start = System.nanoTime();
+        ProductCache.Lookup lookup = cache.get(productId, this::loadFromSource);
+        Timer timer = lookupTimers.get(lookup.getTier());
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return lookup;
+    }
+
+    /**
+     * Write a product through both tiers
+     *
+     * @return the TTL it was cached with, in seconds
+     */
+    public int put(String productId, String productJson) {
+        return cache.put(productId, productJson);
+    }
+
+    /**
+     * Invalidate a product on every node
+     */
+    public void invalidate(String productId) {
+        cache.invalidate(productId);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = cache.getStatistics();
+        stats.put("l2Store", "Redis");
+        if (invalidationBus != null) {
+            Map<String, Object> invalidation = new HashMap<>(invalidationBatcher.getStatistics());
+            invalidation.putAll(invalidationBus.getStatistics());
+            stats.put("invalidationBus", invalidation);
+        }
+        stats.put("timestamp", LocalDateTime.now());
+        stats.put("pattern", "Cache Pattern");
+        return stats;
+    }
+
+    private String loadFromSource(String productId) {
+        return producerTemplate.requestBodyAndHeader(PRODUCT_SOURCE_URI, null, "productId", productId, String.class);
+    }
+
+    private LongConsumer propagationRecorder(MeterRegistry registry) {
+        if (registry == null) {
+            return micros -> { };
+        }
+        Timer propagation = Timer.builder("product.cache.invalidation.propagation")
+            .description("Delay from a product invalidation being queued to its eviction on another node")
+            .publishPercentiles(0.5, 0.99)
+            .register(registry);
+        return micros -> propagation.record(micros, TimeUnit.MICROSECONDS);
+    }
+
+    private void registerHitRatio(MeterRegistry registry, String tier, ToDoubleFunction<ProductCache> hits) {
+        Gauge.builder("product.cache.hit.ratio", cache,
+                c -> c.getLookups() == 0 ? 0.0 : hits.applyAsDouble(c) / c.getLookups())
+            .description("Share of product cache lookups answered by the tier")
+            .tag("tier", tier)
+            .register(registry);
+    }
+}
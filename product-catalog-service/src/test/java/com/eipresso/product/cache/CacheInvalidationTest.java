@@ -0,0 +1,144 @@
+package com.eipresso.product.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cluster-wide invalidation tests: three product cache nodes sharing an
+ * in-memory L2, with batches delivered between them in-process
+ */
+@DisplayName("Cache Invalidation Tests")
+class CacheInvalidationTest {
+
+    private static final ProductTtlPolicy TTL_POLICY = new ProductTtlPolicy(3600, 7200, 10800, 60);
+    private static final String OLD_PRICE = "{\"id\":\"1\",\"price\":4.99}";
+    private static final String NEW_PRICE = "{\"id\":\"1\",\"price\":5.49}";
+
+    private final InMemoryProductCacheStore l2 = new InMemoryProductCacheStore();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private final List<ProductCache> nodes = new ArrayList<>();
+    private final List<InvalidationBatch> delivered = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private InvalidationBatcher newNode(String origin, long lingerMillis, int maxBatchSize) {
+        InvalidationBatcher batcher = new InvalidationBatcher(origin, this::deliver, scheduler, lingerMillis, maxBatchSize);
+        nodes.add(new ProductCache(1_000, l2, TTL_POLICY, 60_000, batcher));
+        return batcher;
+    }
+
+    private synchronized void deliver(InvalidationBatch batch) {
+        delivered.add(batch);
+        for (int i = 0; i < nodes.size(); i++) {
+            if (!("node-" + i).equals(batch.getOrigin())) {
+                batch.getVersions().forEach(nodes.get(i)::applyInvalidation);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should evict a changed product from every node's L1")
+    void shouldEvictAChangedProductFromEveryNodesL1() {
+        InvalidationBatcher origin = newNode("node-0", 60_000, 100);
+        newNode("node-1", 60_000, 100);
+        newNode("node-2", 60_000, 100);
+        for (ProductCache node : nodes) {
+            node.get("1", id -> OLD_PRICE);
+            assertEquals(ProductCache.Tier.L1, node.get("1", id -> OLD_PRICE).getTier());
+        }
+
+        nodes.get(0).invalidate("1");
+        origin.flush();
+
+        for (ProductCache node : nodes) {
+            assertEquals(NEW_PRICE, node.get("1", id -> NEW_PRICE).getProductJson());
+        }
+        assertEquals(1, delivered.size());
+        assertEquals(1L, (long) delivered.get(0).getVersions().get("1"));
+    }
+
+    @Test
+    @DisplayName("Should coalesce a burst of invalidations into few batches with the highest versions")
+    void shouldCoalesceABurstOfInvalidationsIntoFewBatchesWithTheHighestVersions() {
+        InvalidationBatcher origin = newNode("node-0", 60_000, 3);
+
+        for (int i = 0; i < 10; i++) {
+            origin.publish("1", i);
+            origin.publish("2", 10 - i);
+        }
+        origin.flush();
+        origin.publish("3", 1);
+        origin.publish("4", 1);
+        origin.publish("5", 1);
+
+        assertEquals(2, delivered.size());
+        assertEquals(Map.of("1", 9L, "2", 10L), delivered.get(0).getVersions());
+        assertEquals(3, delivered.get(1).getVersions().size());
+        Map<String, Object> stats = origin.getStatistics();
+        assertEquals(23L, stats.get("queuedInvalidations"));
+        assertEquals(18L, stats.get("coalescedInvalidations"));
+    }
+
+    @Test
+    @DisplayName("Should not let a load that raced an invalidation put the old price back")
+    void shouldNotLetALoadThatRacedAnInvalidationPutTheOldPriceBack() throws Exception {
+        InvalidationBatcher origin = newNode("node-0", 60_000, 100);
+        newNode("node-1", 60_000, 100);
+        ProductCache reader = nodes.get(1);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch invalidated = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<ProductCache.Lookup> racing = executor.submit(() -> reader.get("1", id -> {
+                loading.countDown();
+                invalidated.await(5, TimeUnit.SECONDS);
+                return OLD_PRICE;
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            nodes.get(0).invalidate("1");
+            origin.flush();
+            invalidated.countDown();
+            assertEquals(OLD_PRICE, racing.get(5, TimeUnit.SECONDS).getProductJson());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ProductCache.Lookup next = reader.get("1", id -> NEW_PRICE);
+        assertEquals(ProductCache.Tier.SOURCE, next.getTier());
+        assertEquals(NEW_PRICE, next.getProductJson());
+        assertEquals(1L, reader.getStatistics().get("staleCopiesRejected"));
+    }
+
+    @Test
+    @DisplayName("Should keep a newer copy when an older invalidation arrives late")
+    void shouldKeepANewerCopyWhenAnOlderInvalidationArrivesLate() {
+        newNode("node-0", 60_000, 100);
+        ProductCache node = nodes.get(0);
+        l2.invalidate("1");
+        l2.invalidate("1");
+        node.get("1", id -> NEW_PRICE);
+
+        node.applyInvalidation("1", 1);
+
+        assertEquals(ProductCache.Tier.L1, node.get("1", id -> OLD_PRICE).getTier());
+        node.applyInvalidation("1", 3);
+        assertEquals(OLD_PRICE, node.get("1", id -> OLD_PRICE).getProductJson());
+    }
+}
@@ -0,0 +1,57 @@
+package com.eipresso.product.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Product cache store on the heap, standing in for Redis in tests
+ */
+public class InMemoryProductCacheStore implements ProductCacheStore {
+
+    private final Map<String, CachedProduct> products = new ConcurrentHashMap<>();
+    private final Map<String, Integer> ttls = new ConcurrentHashMap<>();
+    private final Map<String, Long> versions = new ConcurrentHashMap<>();
+    private volatile boolean failing;
+
+    @Override
+    public CachedProduct get(String productId) {
+        checkAvailable();
+        CachedProduct product = products.get(productId);
+        return product != null && product.getVersion() >= currentVersion(productId) ? product : null;
+    }
+
+    @Override
+    public long currentVersion(String productId) {
+        checkAvailable();
+        return versions.getOrDefault(productId, 0L);
+    }
+
+    @Override
+    public void put(String productId, CachedProduct product, int ttlSeconds) {
+        checkAvailable();
+        products.put(productId, product);
+        ttls.put(productId, ttlSeconds);
+    }
+
+    @Override
+    public synchronized long invalidate(String productId) {
+        checkAvailable();
+        long version = versions.merge(productId, 1L, Long::sum);
+        products.remove(productId);
+        return version;
+    }
+
+    public Integer getTtlSeconds(String productId) {
+        return ttls.get(productId);
+    }
+
+    public void setFailing(boolean failing) {
+        this.failing = failing;
+    }
+
+    private void checkAvailable() {
+        if (failing) {
+            throw new IllegalStateException("L2 unavailable");
+        }
+    }
+}
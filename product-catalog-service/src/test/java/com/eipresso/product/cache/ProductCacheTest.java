@@ -0,0 +1,128 @@
+package com.eipresso.product.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Two-tier product cache tests against an in-memory L2
+ */
+@DisplayName("Product Cache Tests")
+class ProductCacheTest {
+
+    private static final ProductTtlPolicy TTL_POLICY = new ProductTtlPolicy(3600, 7200, 10800, 60);
+
+    private final InMemoryProductCacheStore l2 = new InMemoryProductCacheStore();
+
+    private ProductCache newNode() {
+        return new ProductCache(1_000, l2, TTL_POLICY, 60_000);
+    }
+
+    @Test
+    @DisplayName("Should answer from L1, then L2 on another node, loading from the source once")
+    void shouldAnswerFromL1ThenL2OnAnotherNodeLoadingFromTheSourceOnce() {
+        ProductCache nodeA = newNode();
+        ProductCache nodeB = newNode();
+        AtomicInteger loads = new AtomicInteger();
+        ProductCache.ProductLoader loader = id -> {
+            loads.incrementAndGet();
+            return "{\"id\":\"" + id + "\",\"featured\":true}";
+        };
+
+        assertEquals(ProductCache.Tier.SOURCE, nodeA.get("1", loader).getTier());
+        assertEquals(ProductCache.Tier.L1, nodeA.get("1", loader).getTier());
+        ProductCache.Lookup fromL2 = nodeB.get("1", loader);
+        assertEquals(ProductCache.Tier.L2, fromL2.getTier());
+        assertEquals("{\"id\":\"1\",\"featured\":true}", fromL2.getProductJson());
+        assertEquals(ProductCache.Tier.L1, nodeB.get("1", loader).getTier());
+
+        assertEquals(1, loads.get());
+        assertEquals(7200, (int) l2.getTtlSeconds("1"));
+        Map<String, Object> stats = nodeA.getStatistics();
+        assertEquals(2L, stats.get("lookups"));
+        assertEquals(0.5, stats.get("l1HitRatio"));
+    }
+
+    @Test
+    @DisplayName("Should cache missing products with the short negative TTL")
+    void shouldCacheMissingProductsWithTheShortNegativeTtl() {
+        ProductCache cache = newNode();
+        AtomicInteger loads = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            ProductCache.Lookup lookup = cache.get("unknown", id -> {
+                loads.incrementAndGet();
+                return null;
+            });
+            assertFalse(lookup.isFound());
+            assertNull(lookup.getProductJson());
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals(60, (int) l2.getTtlSeconds("unknown"));
+        assertEquals(2L, cache.getStatistics().get("negativeHits"));
+    }
+
+    @Test
+    @DisplayName("Should coalesce concurrent misses for a hot product into one load")
+    void shouldCoalesceConcurrentMissesForAHotProductIntoOneLoad() throws Exception {
+        ProductCache cache = newNode();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ProductCache.ProductLoader slowLoader = id -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "{\"id\":\"" + id + "\"}";
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<ProductCache.Lookup>> lookups = new ArrayList<>();
+            lookups.add(executor.submit(() -> cache.get("hot", slowLoader)));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 7; i++) {
+                lookups.add(executor.submit(() -> cache.get("hot", slowLoader)));
+            }
+            Thread.sleep(100);
+            release.countDown();
+
+            for (Future<ProductCache.Lookup> lookup : lookups) {
+                assertEquals("{\"id\":\"hot\"}", lookup.get(5, TimeUnit.SECONDS).getProductJson());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should invalidate both tiers and keep serving when L2 fails")
+    void shouldInvalidateBothTiersAndKeepServingWhenL2Fails() {
+        ProductCache cache = newNode();
+        cache.put("1", "{\"id\":\"1\",\"price\":4.99}");
+        assertEquals(ProductCache.Tier.L1, cache.get("1", id -> "unused").getTier());
+
+        cache.invalidate("1");
+        assertNull(l2.get("1"));
+        assertEquals("{\"id\":\"1\",\"price\":5.49}", cache.get("1", id -> "{\"id\":\"1\",\"price\":5.49}").getProductJson());
+
+        l2.setFailing(true);
+        ProductCache.Lookup lookup = cache.get("2", id -> "{\"id\":\"2\"}");
+        assertEquals(ProductCache.Tier.SOURCE, lookup.getTier());
+        assertEquals(ProductCache.Tier.L1, cache.get("2", id -> "unused").getTier());
+        assertEquals(3L, cache.getStatistics().get("l2Errors"));
+    }
+}
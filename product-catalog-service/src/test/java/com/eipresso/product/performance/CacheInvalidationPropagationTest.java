@@ -0,0 +1,131 @@
+package com.eipresso.product.performance;
+
+import com.eipresso.product.cache.HazelcastInvalidationBus;
+import com.eipresso.product.cache.InMemoryProductCacheStore;
+import com.eipresso.product.cache.InvalidationBatcher;
+import com.eipresso.product.cache.ProductCache;
+import com.eipresso.product.cache.ProductTtlPolicy;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cache Invalidation Propagation Test
+ *
+ * Three Hazelcast members on this host each run a product cache over a
+ * shared L2. Invalidations are issued from all three nodes at a paced 500
+ * per second for 10 seconds, and every node times how long each batch took
+ * from its oldest invalidation being queued to its eviction there.
+ */
+@DisplayName("Cache Invalidation Propagation Tests")
+@EnabledIfEnvironmentVariable(named = "RUN_PERFORMANCE_TESTS", matches = "true")
+class CacheInvalidationPropagationTest {
+
+    private static final int NODES = 3;
+    private static final int PRODUCTS = 1_000;
+    private static final int INVALIDATIONS_PER_SECOND = 500;
+    private static final int SECONDS = 10;
+    private static final long LINGER_MILLIS = 5;
+
+    private final List<HazelcastInstance> members = new ArrayList<>();
+    private final List<InvalidationBatcher> batchers = new ArrayList<>();
+    private final List<HazelcastInvalidationBus> buses = new ArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+    @AfterEach
+    void tearDown() {
+        buses.forEach(HazelcastInvalidationBus::close);
+        scheduler.shutdownNow();
+        members.forEach(HazelcastInstance::shutdown);
+    }
+
+    @Test
+    @DisplayName("Should evict invalidated products on the other two nodes within a 100ms p99")
+    void shouldEvictInvalidatedProductsOnTheOtherTwoNodesWithinA100msP99() throws Exception {
+        InMemoryProductCacheStore l2 = new InMemoryProductCacheStore();
+        ProductTtlPolicy ttlPolicy = new ProductTtlPolicy(3600, 7200, 10800, 60);
+        ConcurrentLinkedQueue<Long> propagationMicros = new ConcurrentLinkedQueue<>();
+        List<ProductCache> caches = new ArrayList<>();
+
+        for (int i = 0; i < NODES; i++) {
+            HazelcastInstance member = Hazelcast.newHazelcastInstance(memberConfig());
+            members.add(member);
+            String origin = "node-" + i;
+            HazelcastInvalidationBus[] bus = new HazelcastInvalidationBus[1];
+            InvalidationBatcher batcher = new InvalidationBatcher(origin, batch -> bus[0].accept(batch), scheduler,
+                LINGER_MILLIS, 500);
+            ProductCache cache = new ProductCache(PRODUCTS * 2, l2, ttlPolicy,
+                TimeUnit.MINUTES.toMillis(10), batcher);
+            bus[0] = new HazelcastInvalidationBus(member, cache, origin, propagationMicros::add);
+            batchers.add(batcher);
+            buses.add(bus[0]);
+            caches.add(cache);
+        }
+        assertEquals(NODES, members.get(0).getCluster().getMembers().size());
+
+        for (ProductCache cache : caches) {
+            for (int p = 0; p < PRODUCTS; p++) {
+                cache.get("product-" + p, id -> "{\"id\":\"" + id + "\",\"price\":4.99}");
+            }
+        }
+
+        int invalidations = INVALIDATIONS_PER_SECOND * SECONDS;
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / INVALIDATIONS_PER_SECOND;
+        long next = System.nanoTime();
+        for (int i = 0; i < invalidations; i++) {
+            LockSupport.parkNanos(next - System.nanoTime());
+            next += intervalNanos;
+            caches.get(i % NODES).invalidate("product-" + (i % PRODUCTS));
+        }
+        batchers.forEach(InvalidationBatcher::flush);
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (appliedInvalidations() < (long) invalidations * (NODES - 1) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        long sentBatches = batchers.stream().mapToLong(b -> (Long) b.getStatistics().get("batchesSent")).sum();
+
+        long[] measured = propagationMicros.stream().mapToLong(Long::longValue).sorted().toArray();
+        double p50 = measured[measured.length / 2] / 1_000.0;
+        double p99 = measured[(int) (measured.length * 0.99)] / 1_000.0;
+        double max = measured[measured.length - 1] / 1_000.0;
+        System.out.printf("📡 Invalidation propagation over %d nodes: %d invalidations in %d batches, "
+                + "p50 %.2fms, p99 %.2fms, max %.2fms%n", NODES, invalidations, sentBatches, p50, p99, max);
+
+        assertEquals((long) invalidations * (NODES - 1), appliedInvalidations());
+        for (ProductCache cache : caches) {
+            assertEquals(ProductCache.Tier.SOURCE, cache.get("product-0", id -> "{\"price\":5.49}").getTier());
+        }
+        assertTrue(sentBatches < invalidations, "invalidations should be batched");
+        assertTrue(p99 < 100.0, "p99 propagation " + p99 + "ms");
+    }
+
+    private long appliedInvalidations() {
+        return buses.stream().mapToLong(bus -> (Long) bus.getStatistics().get("invalidationsApplied")).sum();
+    }
+
+    private static Config memberConfig() {
+        Config config = new Config();
+        config.setClusterName("product-cache-propagation-test");
+        config.getNetworkConfig().setPort(5801).setPortAutoIncrement(true);
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getMulticastConfig().setEnabled(false);
+        join.getTcpIpConfig().setEnabled(true).addMember("127.0.0.1:5801-5803");
+        return config;
+    }
+}